@@ -1,20 +1,55 @@
 package badnieces;
 
+import badnieces.entities.cache.ResultCache;
 import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.compositor.document.MergeBudget;
+import badnieces.entities.compositor.document.OnlineDocumentCompositor;
+import badnieces.entities.compositor.document.Utf8DocumentCompositor;
+import badnieces.entities.journal.CheckpointJournal;
+import badnieces.entities.logging.AsyncLogHandler;
+import badnieces.entities.metrics.LatencyHistogram;
+import badnieces.entities.metrics.MeasuredMergeStrategy;
+import badnieces.entities.metrics.MeasuredSearchStrategy;
+import badnieces.entities.metrics.MetricsExporter;
+import badnieces.entities.metrics.MetricsRegistry;
+import badnieces.entities.pipeline.ConcurrentLinePipeline;
 import badnieces.entities.reader.encoding.EncodingReadable;
+import badnieces.entities.reader.tokenizer.FragmentTokenizer;
+import badnieces.entities.reader.tokenizer.LineFormatException;
+import badnieces.entities.server.ReassemblyServer;
+import badnieces.entities.strategies.filter.ContainedFragmentsFilter;
 import badnieces.entities.strategies.merge.MergeOverlapPair;
-import badnieces.entities.strategies.search.NextMaximallyOverlappingPair;
+import badnieces.entities.strategies.order.ShortestSuperstringOrder;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.Utf8MaximallyOverlappingPair;
+import badnieces.entities.writer.DocumentWriter;
 import badnieces.interfaces.read.Readable;
+import badnieces.interfaces.strategy.filter.StringsListFilterStrategy;
 import badnieces.interfaces.strategy.merge.StringMergeStrategy;
 import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.logging.FileHandler;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The BadNiecesIO class is responsible providing an interface to the application.
@@ -22,27 +57,99 @@ import java.util.logging.SimpleFormatter;
  * Where a project requirement is no other output is printed to the console, all logs are written to an error file (never run in production without logs).
  */
 public final class BadNiecesIO {
-    // Logs Configuration.
-    // TODO Future work will include creating a config file. Also foreseeable log files won't update.
-    // TODO Future work includes having logger update target file: it's no good having log files for one day log in the same file as log files for the previous day.
+    // Logs Configuration (-Dbadnieces.log.buffer=8192 -Dbadnieces.log.overflow=block). Logs are written by a background thread to a file per day.
+    // TODO Future work will include creating a config file.
     private final static Logger LOGGER = Logger.getLogger("BadNiecesLogs");
-    private final static String LOGS_DIR = System.getProperty("user.dir") + "\\";
-    private final static String LOG_FILENAME = "BadNieces-" + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE) + ".log";
-    private final static SimpleFormatter LOGS_FORMAT = new SimpleFormatter();
+    private final static Path LOGS_DIR = Paths.get(System.getProperty("user.dir"));
+    private final static String LOG_FILENAME_PREFIX = "BadNieces-";
+    private final static String LOG_FILENAME_SUFFIX = ".log";
+    private final static int LOG_BUFFER = Integer.getInteger("badnieces.log.buffer", 8192);
+    private final static String LOG_OVERFLOW = System.getProperty("badnieces.log.overflow", "block");
+    // Concurrency Configuration (-Dbadnieces.workers=16 -Dbadnieces.threads=platform). A single worker processes lines on the main thread.
+    private final static int WORKERS = Integer.getInteger("badnieces.workers", 1);
+    private final static String WORKER_THREADS = System.getProperty("badnieces.threads", "platform");
+    private final static int REORDER_WINDOW_PER_WORKER = 4;
+    // Input Configuration (-Dbadnieces.reader=UTF8_MMAP reads the input through a memory mapping).
+    private final static String READER_TYPE = System.getProperty("badnieces.reader", "UTF8");
+    private final static char FRAGMENT_SEPARATOR = ';';
+    // Fragment Configuration (-Dbadnieces.bytes=true reassembles each line from the UTF-8 bytes of its fragments, decoding only the document reassembled).
+    private final static boolean BYTE_FRAGMENTS = Boolean.getBoolean("badnieces.bytes");
+    // Filter Configuration (duplicate and contained fragments whose removal leaves the document unchanged are removed before each line is reassembled, unless -Dbadnieces.filter.contained=false).
+    private final static boolean FILTER_CONTAINED = Boolean.parseBoolean(System.getProperty("badnieces.filter.contained", String.valueOf(!BYTE_FRAGMENTS)));
+    private final static AtomicLong REMOVED_FRAGMENTS = new AtomicLong();
+    // Exact Configuration (-Dbadnieces.exact=16 lays out lines of at most 16 fragments as their shortest superstring, rather than merging greedily).
+    // Lines of at most -Dbadnieces.exact.bounded fragments are searched by branch and bound for -Dbadnieces.exact.budget milliseconds each, and longer lines are merged greedily.
+    private final static int EXACT_FRAGMENTS = Integer.getInteger("badnieces.exact", 0);
+    private final static int EXACT_BOUNDED_FRAGMENTS = Integer.getInteger("badnieces.exact.bounded", EXACT_FRAGMENTS);
+    private final static long EXACT_BUDGET_MILLIS = Long.getLong("badnieces.exact.budget", 100);
+    // The order is shared by every worker, and searches each line on the common ForkJoinPool (an invalid configuration is reported by validate, so no order is made for it).
+    private final static ShortestSuperstringOrder EXACT_ORDER = EXACT_BOUNDED_FRAGMENTS < 1 || EXACT_FRAGMENTS < 0 || EXACT_FRAGMENTS > ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS || EXACT_BUDGET_MILLIS < 0
+            ? null : new ShortestSuperstringOrder(EXACT_FRAGMENTS, EXACT_BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+    private final static AtomicLong ORDERED_LINES = new AtomicLong();
+    // Budget Configuration (-Dbadnieces.line.time=1000 -Dbadnieces.line.searches=100000 -Dbadnieces.line.allocated=1073741824 limit the merge of each line, 0 for no limit).
+    // The allocation limit is on the bytes the thread merging a line allocates in total (garbage included), which bounds the heap the merge holds from above.
+    // A line over budget is finished from its remaining fragments by -Dbadnieces.line.degrade (ONLINE joins them by their suffix-prefix overlaps in one pass, PARTIAL emits them as they are).
+    // With -Dbadnieces.line.status=true each document is written after its status (OK, DEGRADED or PARTIAL) and a tab.
+    private final static long LINE_MILLIS = Long.getLong("badnieces.line.time", 0);
+    private final static long LINE_SEARCHES = Long.getLong("badnieces.line.searches", 0);
+    private final static long LINE_ALLOCATED_BYTES = Long.getLong("badnieces.line.allocated", 0);
+    private final static String LINE_DEGRADATION = System.getProperty("badnieces.line.degrade", "ONLINE").toUpperCase(Locale.ROOT);
+    private final static boolean LINE_STATUS = Boolean.getBoolean("badnieces.line.status");
+    private final static MergeBudget LINE_BUDGET = lineBudget();
+    private final static Map<MergeBudget.Limit, AtomicLong> DEGRADED_LINES = degradedLines();
+    // Journal Configuration (-Dbadnieces.journal=batch.journal records completed lines so a restarted run resumes at the first unfinished line).
+    private final static String JOURNAL_PATH = System.getProperty("badnieces.journal");
+    private final static int JOURNAL_LINES_PER_SYNC = Integer.getInteger("badnieces.journal.sync", 64);
+    private final static int JOURNAL_MERGES_PER_CHECKPOINT = Integer.getInteger("badnieces.journal.merges", 0);
+    // Cache Configuration (-Dbadnieces.cache=67108864 holds the results of that many characters of lines in memory, -Dbadnieces.cache.dir=cache also holds results on disk across runs).
+    private final static long CACHE_CHARACTERS = Long.getLong("badnieces.cache", 0);
+    private final static String CACHE_DIR = System.getProperty("badnieces.cache.dir");
+    private final static int CACHE_DISK_ENTRIES = Integer.getInteger("badnieces.cache.entries", 1 << 20);
+    // Results are only shared between lines reassembled the same way (the filter leaves the document unchanged, so it is not part of the variant).
+    private final static String CACHE_VARIANT = "IncrementalMaximallyOverlappingPair;MergeOverlapPair"
+            + (EXACT_BOUNDED_FRAGMENTS > 0 ? ";ShortestSuperstringOrder:" + EXACT_FRAGMENTS + ":" + EXACT_BOUNDED_FRAGMENTS + ":" + EXACT_BUDGET_MILLIS : "");
+    private final static String BYTES_CACHE_VARIANT = "Utf8MaximallyOverlappingPair;MergeOverlapPair";
+    // A journal is only resumed by a run writing lines the same way (reassembled the same way, with or without their status, within the same budget).
+    private final static String JOURNAL_VARIANT = (BYTE_FRAGMENTS ? BYTES_CACHE_VARIANT : CACHE_VARIANT) + ";status:" + LINE_STATUS
+            + ";budget:" + LINE_MILLIS + ":" + LINE_SEARCHES + ":" + LINE_ALLOCATED_BYTES + ":" + LINE_DEGRADATION;
+    // Output Configuration (-Dbadnieces.output=documents.txt writes documents to a file rather than standard output, through a buffer of -Dbadnieces.output.buffer bytes).
+    private final static String OUTPUT_PATH = System.getProperty("badnieces.output");
+    private final static int OUTPUT_BUFFER = Integer.getInteger("badnieces.output.buffer", 1 << 20);
+    private final static int OUTPUT_DOCUMENTS_PER_FLUSH = Integer.getInteger("badnieces.output.flush", 0);
+    // Metrics Configuration (-Dbadnieces.metrics=metrics.json writes the latency of each stage and strategy when the run ends, -Dbadnieces.metrics.period=10 also every 10 seconds).
+    // Without a metrics path nothing is measured, so the stage histograms are null.
+    private final static String METRICS_PATH = System.getProperty("badnieces.metrics");
+    private final static long METRICS_PERIOD = Long.getLong("badnieces.metrics.period", 0);
+    private final static MetricsRegistry METRICS = METRICS_PATH == null ? null : new MetricsRegistry();
+    private final static LatencyHistogram READ_NANOS = stageHistogram("read");
+    private final static LatencyHistogram VALIDATE_NANOS = stageHistogram("validate");
+    private final static LatencyHistogram CACHE_NANOS = stageHistogram("cache");
+    private final static LatencyHistogram FILTER_NANOS = stageHistogram("filter");
+    private final static LatencyHistogram REASSEMBLE_NANOS = stageHistogram("reassemble");
+    private final static LatencyHistogram JOURNAL_NANOS = stageHistogram("journal");
+    private final static LatencyHistogram OUTPUT_NANOS = stageHistogram("output");
+    private final static LatencyHistogram LINE_NANOS = METRICS == null ? null : METRICS.histogram("line_nanos");
+    // Server Configuration (-Dbadnieces.server.port=7070 serves reassembly jobs on a loopback port until stopped, rather than reassembling the file argument).
+    // Each connection has at most -Dbadnieces.server.window jobs in flight, and jobs of every connection are run on the badnieces.workers workers.
+    private final static Integer SERVER_PORT = Integer.getInteger("badnieces.server.port");
+    private final static int SERVER_WINDOW = Integer.getInteger("badnieces.server.window", 64);
 
     /**
      * The main method of the application performs the following...
      * Initialises the logger. Exits on status 2 if failure.
      * Validates arguments for type errors. Exists on status 1 if failure.
-     * Passes the arguments to run-time.
+     * Passes the arguments to run-time (or serves reassembly jobs until stopped, if a server port is configured).
      *
      * @param args Arguments passed to the main method.
      */
     public static void main(String[] args) {
-        System.out.println(System.getProperty("user.dir"));
         // Validate pre-runtime conditions of the application. Run the application if validation passes.
         validate(args);
-        run(args);
+        if (SERVER_PORT != null) {
+            serve();
+        } else {
+            run(args);
+        }
         // Terminate the application with a status code of 0 once all methods have finished.
         System.exit(0);
     }
@@ -57,31 +164,107 @@ public final class BadNiecesIO {
         // Initialise a standard logger implementation. If this fails exit with a status of 1.
         try {
             initialiseLogger(false);
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
+            System.exit(1);
+        }
+        if (SERVER_PORT != null) {
+            // A server reads the files of its jobs, so it takes no file argument.
+            if (args.length != 0) {
+                LOGGER.severe("No arguments may be passed to a server");
+                System.exit(1);
+            }
+            if (SERVER_PORT < 0 || SERVER_PORT > 65535 || SERVER_WINDOW < 1) {
+                LOGGER.severe("The server port must be from 0 to 65535, and the server window must hold at least one job.");
+                System.exit(1);
+            }
+            if (JOURNAL_PATH != null) {
+                LOGGER.severe("A journal records the lines of one input file, so it cannot be configured with a server.");
+                System.exit(1);
+            }
+        } else {
+            if (args.length != 1) {
+                LOGGER.severe("Arguments passed must be of length 1");
+                System.exit(1);
+            }
+            File f = new File(args[0]);
+            if (!f.exists() || !f.canRead()) {
+                LOGGER.severe("The argument supplied could not be detected as pointing to a readable file.");
+                System.exit(1);
+            }
+        }
+        try {
+            EncodingReadable.getInstance(READER_TYPE);
+        } catch (IllegalArgumentException e) {
+            LOGGER.severe(String.valueOf(e));
+            System.exit(1);
+        }
+        if (BYTE_FRAGMENTS && FILTER_CONTAINED) {
+            LOGGER.severe("The contained fragments filter only filters fragments read as Strings, so it cannot be configured with UTF-8 fragments.");
+            System.exit(1);
+        }
+        if (EXACT_FRAGMENTS < 0 || EXACT_FRAGMENTS > ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS || EXACT_BOUNDED_FRAGMENTS < EXACT_FRAGMENTS || EXACT_BUDGET_MILLIS < 0) {
+            LOGGER.severe("Lines of from 0 to " + ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS + " fragments can be laid out exactly, lines searched by branch and bound must include those lines, and the budget of the search cannot be negative.");
+            System.exit(1);
+        }
+        if (BYTE_FRAGMENTS && EXACT_BOUNDED_FRAGMENTS > 0) {
+            LOGGER.severe("Shortest superstrings are only laid out from fragments read as Strings, so they cannot be configured with UTF-8 fragments.");
+            System.exit(1);
+        }
+        try {
+            new MergeBudget(TimeUnit.MILLISECONDS.toNanos(LINE_MILLIS), LINE_SEARCHES, LINE_ALLOCATED_BYTES);
+        } catch (IllegalArgumentException e) {
+            LOGGER.severe(String.valueOf(e));
+            System.exit(1);
+        }
+        if (!LINE_DEGRADATION.equals("ONLINE") && !LINE_DEGRADATION.equals("PARTIAL")) {
+            LOGGER.severe("A line over budget must be degraded to ONLINE or PARTIAL.");
             System.exit(1);
         }
-        if (args.length != 1) {
-            LOGGER.severe("Arguments passed must be of length 1");
+        if (BYTE_FRAGMENTS && LINE_BUDGET != null) {
+            LOGGER.severe("Only fragments read as Strings are merged within a budget, so a line budget cannot be configured with UTF-8 fragments.");
             System.exit(1);
         }
-        File f = new File(args[0]);
-        if (!f.exists() || !f.canRead()) {
-            LOGGER.severe("The argument supplied could not be detected as pointing to a readable file.");
+        if (WORKERS < 1) {
+            LOGGER.severe("The number of workers configured must be at least 1.");
             System.exit(1);
         }
+        if (JOURNAL_LINES_PER_SYNC < 1 || JOURNAL_MERGES_PER_CHECKPOINT < 0) {
+            LOGGER.severe("The journal must be synced at least every line, and checkpoint lines part way every positive number of merges (or 0 for never).");
+            System.exit(1);
+        }
+        if (CACHE_CHARACTERS < 0 || (CACHE_DIR != null && (CACHE_DISK_ENTRIES < 2 || Integer.bitCount(CACHE_DISK_ENTRIES) != 1))) {
+            LOGGER.severe("The cache must hold a positive number of characters (or 0 for none), and a power of 2 of entries on disk.");
+            System.exit(1);
+        }
+        if (OUTPUT_BUFFER < 16 || OUTPUT_DOCUMENTS_PER_FLUSH < 0) {
+            LOGGER.severe("The output buffer must be at least 16 bytes, and flushed every positive number of documents (or 0 for when full).");
+            System.exit(1);
+        }
+        if (METRICS_PERIOD < 0) {
+            LOGGER.severe("Metrics must be exported every positive number of seconds (or 0 for when the run ends only).");
+            System.exit(1);
+        }
+        if (WORKERS > 1) {
+            try {
+                ConcurrentLinePipeline.getWorkerPool(WORKER_THREADS, 1).shutdown();
+            } catch (IllegalArgumentException e) {
+                LOGGER.severe(String.valueOf(e));
+                System.exit(1);
+            }
+        }
 
     }
 
     /**
-     * Initialises a logger to the default configuration. If a file at the filepath at the configuration does not exist, the program will create one.
+     * Initialises a logger to the default configuration. Records are written asynchronously to the log file of the day in LOGS_DIR (created if it does not exist).
      *
      * @param console Specifies whether log output is to be printed to the console.
-     * @throws IOException Thrown by the security manager to indicate a security violation.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the log directory does not exist, or the log buffer or overflow policy configured is not valid.
      */
-    private static void initialiseLogger(boolean console) throws IOException {
-        FileHandler fileHandler = new FileHandler(LOGS_DIR + LOG_FILENAME);
-        LOGGER.addHandler(fileHandler);
-        fileHandler.setFormatter(LOGS_FORMAT);
+    private static void initialiseLogger(boolean console) throws IllegalArgumentException {
+        AsyncLogHandler.OverflowPolicy overflowPolicy = AsyncLogHandler.OverflowPolicy.valueOf(LOG_OVERFLOW.toUpperCase(Locale.ROOT));
+        AsyncLogHandler logHandler = new AsyncLogHandler(LOGS_DIR, LOG_FILENAME_PREFIX, LOG_FILENAME_SUFFIX, LOG_BUFFER, overflowPolicy);
+        LOGGER.addHandler(logHandler);
         LOGGER.setUseParentHandlers(console);
     }
 
@@ -100,45 +283,625 @@ public final class BadNiecesIO {
             Repeat until there is only one fragment remaining in the collection.
             This is the de-fragmented line / reassembled document.
          */
-        try {
-            Readable reader = EncodingReadable.getInstance("UTF8");
-            String[] fragmentedDocument = reader.readToStrings(inputPath);
-            for (String line : fragmentedDocument) {
-                // Search fragmented document for double semi-colon pairs.
-                if (line.matches("(.*;{2,}.*|;{2,})")) {
-                    throw new IllegalArgumentException("Could not process string. Expected no double semi-colons from input string: " + args[0]);
+        // Lines are streamed from the file, so each line is validated and reassembled as it arrives (only lines in flight are held in memory).
+        // Lines before an invalid line have therefore already been printed when the invalid line is rejected.
+        // Each line arrives already split into its fragments by the reader.
+        Readable reader = EncodingReadable.getInstance(READER_TYPE);
+        // With a journal the outputs of lines completed by an earlier run of the same input are printed again, and the run resumes at the first unfinished line.
+        // The metrics exporter is closed last (whether the run completes or fails), so the final snapshot is written once every other stage has finished.
+        // Documents are written through a buffer, which is flushed when the run ends (including when an invalid line ends it).
+        MetricsExporter metricsExporter = METRICS == null ? null : new MetricsExporter(METRICS, Paths.get(METRICS_PATH), METRICS_PERIOD);
+        boolean failed = false;
+        try (DocumentWriter documentWriter = OUTPUT_PATH == null ? DocumentWriter.toStandardOutput(OUTPUT_BUFFER, OUTPUT_DOCUMENTS_PER_FLUSH) : DocumentWriter.toFile(Paths.get(OUTPUT_PATH), OUTPUT_BUFFER, OUTPUT_DOCUMENTS_PER_FLUSH);
+             CheckpointJournal journal = JOURNAL_PATH == null ? null : CheckpointJournal.open(Paths.get(JOURNAL_PATH), Paths.get(inputPath), JOURNAL_VARIANT, FRAGMENT_SEPARATOR, JOURNAL_LINES_PER_SYNC);
+             ResultCache cache = openCache()) {
+            long firstLine = 0;
+            if (journal != null) {
+                journal.replay(documentWriter);
+                firstLine = journal.completedLines();
+                if (firstLine > 0) {
+                    LOGGER.info("Resumed from the journal " + JOURNAL_PATH + " at line " + (firstLine + 1) + ".");
                 }
-                // Search document for no semi-colon pairs.
-                if (!line.matches("(.+;.+)")) {
-                    throw new IllegalArgumentException("Could not process string. Expected at least two fragments from input string: " + args[0]);
+            }
+            AtomicLong completedLines = new AtomicLong(firstLine);
+            // Each completed line is recorded in the journal (in line order) before it is printed.
+            Consumer<String> output = document -> {
+                if (journal != null) {
+                    long start = startTimer();
+                    try {
+                        journal.recordLine(completedLines.getAndIncrement(), document);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    stopTimer(JOURNAL_NANOS, start);
                 }
+                long start = startTimer();
+                documentWriter.accept(document);
+                stopTimer(OUTPUT_NANOS, start);
+            };
+            reassembleFile(reader, inputPath, firstLine, journal, cache, WORKERS, output);
+            if (FILTER_CONTAINED) {
+                LOGGER.info("Removed " + REMOVED_FRAGMENTS.get() + " duplicate or contained fragments before reassembly.");
             }
-            // For each line in the document.
-            for (String line : fragmentedDocument) {
-                // Create a new document (which is just represented by our desired list of Strings).
-                String[] stringsArr = line.split(";");
-                // Create a new DocumentCompositor and pass the search strategy (denoting each element we will merge) and merge strategy (denoting how we will perform each merge).
-                // The search strategy will be "Search for the next maximally overlapping pair in the document".
-                // The merge strategy will be "Merge the overlap of s1 to s2 (assuming there is overlap)".
-                // Combining these two strategies in recursion can produce the desired result, so lets do that.
-                StringsListSearchStrategy stringsListSearchStrategy = new NextMaximallyOverlappingPair();
-                StringMergeStrategy mergeStrategy = new MergeOverlapPair();
-                DocumentCompositor documentCompositor = new DocumentCompositor(stringsListSearchStrategy, mergeStrategy, stringsArr);
-                // Critical section, we should backup the document.
-                documentCompositor.writeBackup();
-                // We could handle the merge operation in different ways. If the merge operation fails by illegal state (something went very wrong) we can always choose to restore the backup.
-                // In this case we don't want to print additional system output so we cleanly let the application fail and write a log.
-                documentCompositor.recursiveMerge();
-                String reassembledDocument = documentCompositor.getToString();
-                System.out.println(reassembledDocument);
+            if (EXACT_ORDER != null) {
+                LOGGER.info("Laid out " + ORDERED_LINES.get() + " lines as their shortest superstring (" + EXACT_ORDER.getExhaustedBudgets() + " ran out of budget, and are the shortest found).");
+            }
+            if (LINE_BUDGET != null) {
+                logDegradedLines();
+            }
+            if (cache != null) {
+                LOGGER.info("Result cache: " + cache.memoryHits() + " memory hits, " + cache.diskHits() + " disk hits, " + cache.misses() + " misses.");
+            }
+            if (journal != null) {
+                LOGGER.info("Journalled " + (completedLines.get() - firstLine) + " lines with " + journal.syncs() + " syncs in " + journal.writeNanos() / 1_000_000 + "ms.");
             }
         }
         // Since we are using a Logger we can helpfully collapse the catch blocks to different use cases.
         catch (IllegalArgumentException e) {
             LOGGER.warning(String.valueOf(e));
-        } catch (IllegalStateException | IOException e) {
+        } catch (IllegalStateException | IOException | UncheckedIOException e) {
+            LOGGER.severe(String.valueOf(e));
+            failed = true;
+        } finally {
+            if (!closeMetrics(metricsExporter)) {
+                failed = true;
+            }
+        }
+        if (failed) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Closes the metrics exporter (writing the final snapshot), logging a snapshot which cannot be written.
+     *
+     * @param metricsExporter The metrics exporter, or null if metrics are not configured.
+     * @return True if the exporter was closed cleanly (or there was none).
+     */
+    private static boolean closeMetrics(MetricsExporter metricsExporter) {
+        if (metricsExporter == null) {
+            return true;
+        }
+        try {
+            metricsExporter.close();
+            return true;
+        } catch (IOException e) {
+            LOGGER.severe(String.valueOf(e));
+            return false;
+        }
+    }
+
+    /**
+     * The serve method is responsible for serving reassembly jobs (see ReassemblyServer) on the server port until the process is stopped.
+     * A LINE job is a line of fragments, reassembled as a line of a file is. A FILE job is the path of a file, every line of which is reassembled (on the worker running the job).
+     * Jobs share the result cache and metrics of the server, and each job is logged only if it fails.
+     */
+    private static void serve() {
+        Readable reader = EncodingReadable.getInstance(READER_TYPE);
+        FragmentTokenizer tokenizer = new FragmentTokenizer(FRAGMENT_SEPARATOR);
+        // Jobs of every connection share the workers, so a single worker still serves connections concurrently with their readers and writers.
+        ExecutorService workerPool = ConcurrentLinePipeline.getWorkerPool(WORKER_THREADS, WORKERS);
+        CountDownLatch stopped = new CountDownLatch(1);
+        // The metrics exporter is closed last, once the workers are stopped, so the final snapshot counts every job.
+        MetricsExporter metricsExporter = METRICS == null ? null : new MetricsExporter(METRICS, Paths.get(METRICS_PATH), METRICS_PERIOD);
+        boolean failed = false;
+        try (ResultCache cache = openCache()) {
+            Function<String, String> lineJob = line -> {
+                long start = startTimer();
+                String[] fragments;
+                try {
+                    fragments = FragmentTokenizer.validate(tokenizer.split(line));
+                } catch (LineFormatException e) {
+                    throw new IllegalArgumentException("Could not process the line requested. " + e.getMessage(), e);
+                }
+                stopTimer(VALIDATE_NANOS, start);
+                String document = reassemble(0, fragments, null, cache);
+                stopTimer(LINE_NANOS, start);
+                return document;
+            };
+            Function<String, String> fileJob = inputPath -> {
+                File f = new File(inputPath);
+                if (!f.exists() || !f.canRead()) {
+                    throw new IllegalArgumentException("The file requested could not be detected as a readable file: " + inputPath);
+                }
+                StringBuilder documents = new StringBuilder();
+                try {
+                    reassembleFile(reader, inputPath, 0, null, cache, 1, document -> {
+                        if (documents.length() > 0) {
+                            documents.append('\n');
+                        }
+                        documents.append(document);
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return documents.toString();
+            };
+            ReassemblyServer server = new ReassemblyServer(SERVER_PORT, workerPool, SERVER_WINDOW, logFailures(lineJob), logFailures(fileJob));
+            // The server is closed only by the shutdown hook: stopping the process closes it (ending serve), and a server which fails exits the process, which closes it too.
+            // Either way the hook then waits for the cache and metrics to be closed as serve returns.
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                    stopped.await();
+                } catch (IOException | InterruptedException e) {
+                    LOGGER.warning(String.valueOf(e));
+                }
+            }, "BadNieces-server-shutdown"));
+            LOGGER.info("Serving reassembly jobs on port " + server.getPort() + ".");
+            server.serve();
+            LOGGER.info("Served " + server.getJobs() + " reassembly jobs.");
+            if (LINE_BUDGET != null) {
+                logDegradedLines();
+            }
+            if (cache != null) {
+                LOGGER.info("Result cache: " + cache.memoryHits() + " memory hits, " + cache.diskHits() + " disk hits, " + cache.misses() + " misses.");
+            }
+        } catch (IOException | UncheckedIOException e) {
             LOGGER.severe(String.valueOf(e));
+            failed = true;
+        } finally {
+            workerPool.shutdownNow();
+            if (!closeMetrics(metricsExporter)) {
+                failed = true;
+            }
+            stopped.countDown();
+        }
+        if (failed) {
             System.exit(2);
         }
     }
+
+    /**
+     * Logs the jobs of a server which fail (an invalid line is logged as a warning, as run logs it), passing the failure on to be answered.
+     *
+     * @param job The job.
+     * @return The job, logging its failures.
+     */
+    private static Function<String, String> logFailures(Function<String, String> job) {
+        return payload -> {
+            try {
+                return job.apply(payload);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning(String.valueOf(e));
+                throw e;
+            } catch (RuntimeException e) {
+                LOGGER.severe(String.valueOf(e));
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Validates then reassembles each line of a file from its first unfinished line, passing the documents to the output in line order.
+     * Fragments are read either as Strings or as UTF-8 bytes (see BYTE_FRAGMENTS), and each line is reassembled from the fragments as read.
+     *
+     * @param reader    The reader of the file.
+     * @param inputPath The path of the file.
+     * @param firstLine The line number of the first line to reassemble (from 0).
+     * @param journal   The journal of the run, or null.
+     * @param cache     The result cache of the run, or null.
+     * @param workers   The number of lines reassembled concurrently.
+     * @param output    The consumer of the documents.
+     * @throws IOException              Throws an IO exception if the file cannot be opened.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if a line is not valid (the documents of the lines before it have been output).
+     */
+    private static void reassembleFile(Readable reader, String inputPath, long firstLine, CheckpointJournal journal, ResultCache cache, int workers, Consumer<String> output) throws IOException, IllegalArgumentException {
+        if (BYTE_FRAGMENTS) {
+            try (Stream<byte[][]> fragmentedDocument = measureReads(reader.readToByteFragments(inputPath, FRAGMENT_SEPARATOR))) {
+                reassembleLines(fragmentedDocument.skip(firstLine), firstLine, workers, line -> processBytes(line, inputPath, journal, cache), output);
+            }
+        } else {
+            try (Stream<String[]> fragmentedDocument = measureReads(reader.readToFragments(inputPath, FRAGMENT_SEPARATOR))) {
+                reassembleLines(fragmentedDocument.skip(firstLine), firstLine, workers, line -> process(line, inputPath, journal, cache), output);
+            }
+        }
+    }
+
+    /**
+     * Reassembles each line of a stream of lines, passing the documents to the output in line order.
+     *
+     * @param fragmentedDocument The lines to reassemble (as fragments).
+     * @param firstLine          The line number of the first line (from 0).
+     * @param workers            The number of lines reassembled concurrently.
+     * @param process            Validates then reassembles a line.
+     * @param output             The consumer of the documents.
+     * @param <F>                The type of the fragments of a line.
+     */
+    private static <F> void reassembleLines(Stream<F> fragmentedDocument, long firstLine, int workers, Function<NumberedLine<F>, String> process, Consumer<String> output) {
+        AtomicLong lineNumbers = new AtomicLong(firstLine);
+        Stream<NumberedLine<F>> lines = fragmentedDocument.map(line -> new NumberedLine<>(lineNumbers.getAndIncrement(), line));
+        // For each line in the document.
+        if (workers <= 1) {
+            lines.forEachOrdered(line -> output.accept(process.apply(line)));
+        } else {
+            // Each line is an independent document, so lines are reassembled concurrently and printed in their original order.
+            ExecutorService workerPool = ConcurrentLinePipeline.getWorkerPool(WORKER_THREADS, workers);
+            // Lines are validated on the workers too, so an invalid line is only reported once every line before it has been printed.
+            try (ConcurrentLinePipeline<NumberedLine<F>> pipeline = new ConcurrentLinePipeline<>(workerPool, workers * REORDER_WINDOW_PER_WORKER, process, output)) {
+                lines.forEachOrdered(pipeline::submit);
+                pipeline.finish();
+            }
+        }
+    }
+
+    /**
+     * Opens the result cache configured, if any.
+     *
+     * @return The result cache, or null if no cache is configured.
+     * @throws IOException Throws an IO exception if the disk tier cannot be opened.
+     */
+    private static ResultCache openCache() throws IOException {
+        if (CACHE_DIR != null) {
+            return new ResultCache(CACHE_CHARACTERS, Paths.get(CACHE_DIR), CACHE_DISK_ENTRIES);
+        }
+        return CACHE_CHARACTERS > 0 ? new ResultCache(CACHE_CHARACTERS) : null;
+    }
+
+    /**
+     * Validates then reassembles a single line of fragments, recording the latency of the line if metrics are configured.
+     *
+     * @param line      The fragments of a line and its line number.
+     * @param inputPath The path of the file the line was read from.
+     * @param journal   The journal of the run, or null.
+     * @param cache     The result cache of the run, or null.
+     * @return The reassembled document.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the line is not valid (see validateLine).
+     */
+    private static String process(NumberedLine<String[]> line, String inputPath, CheckpointJournal journal, ResultCache cache) throws IllegalArgumentException {
+        long start = startTimer();
+        String[] fragments = validateLine(line.number, line.fragments, inputPath);
+        stopTimer(VALIDATE_NANOS, start);
+        String document = reassemble(line.number, fragments, journal, cache);
+        stopTimer(LINE_NANOS, start);
+        return document;
+    }
+
+    /**
+     * Validates then reassembles a single line of UTF-8 fragments, as process does for fragments read as Strings.
+     *
+     * @param line      The UTF-8 fragments of a line and its line number.
+     * @param inputPath The path of the file the line was read from.
+     * @param journal   The journal of the run, or null.
+     * @param cache     The result cache of the run, or null.
+     * @return The reassembled document.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the line is not valid (see validateLine).
+     */
+    private static String processBytes(NumberedLine<byte[][]> line, String inputPath, CheckpointJournal journal, ResultCache cache) throws IllegalArgumentException {
+        long start = startTimer();
+        try {
+            FragmentTokenizer.validate(line.fragments);
+        } catch (LineFormatException e) {
+            throw new IllegalArgumentException("Could not process line " + (line.number + 1) + " of input string: " + inputPath + ". " + e.getMessage(), e);
+        }
+        stopTimer(VALIDATE_NANOS, start);
+        String document = reassembleBytes(line.number, line.fragments, journal, cache);
+        stopTimer(LINE_NANOS, start);
+        return document;
+    }
+
+    /**
+     * Validates a single line of fragments before it is reassembled (the fragments of the line including empty fragments).
+     * A line is valid if it contains no double semi-colons, and contains a semi-colon with a character before and after it.
+     *
+     * @param lineNumber The line number (from 0).
+     * @param line       The fragments of a line.
+     * @param inputPath  The path of the file the line was read from.
+     * @return The fragments of the line (if valid).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the line contains double semi-colons or fewer than two fragments, giving the position of the fault.
+     */
+    private static String[] validateLine(long lineNumber, String[] line, String inputPath) throws IllegalArgumentException {
+        try {
+            return FragmentTokenizer.validate(line);
+        } catch (LineFormatException e) {
+            throw new IllegalArgumentException("Could not process line " + (lineNumber + 1) + " of input string: " + inputPath + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reassembles a single (validated) line of fragments to a document.
+     * Each call composes its own DocumentCompositor and strategies so that lines can be reassembled on different threads.
+     * If the journal recorded the line part way, reassembly continues from the fragments recorded rather than the fragments of the line.
+     * If the line has been reassembled before (and its result is cached), the cached result is returned.
+     * If exact layouts are configured, a line of few enough fragments is laid out as its shortest superstring (or the shortest found within the budget) rather than merged greedily.
+     * If a line budget is configured, a line whose merge exceeds it is finished from its remaining fragments by the degradation configured (and is not cached).
+     *
+     * @param lineNumber The line number (from 0).
+     * @param line       The fragments of a line (trailing empty fragments are ignored).
+     * @param journal    The journal of the run, or null.
+     * @param cache      The result cache of the run, or null.
+     * @return The reassembled document.
+     */
+    private static String reassemble(long lineNumber, String[] line, CheckpointJournal journal, ResultCache cache) {
+        // The budget of the line is spent from its start, on the thread reassembling it.
+        MergeBudget.Meter meter = LINE_BUDGET == null ? null : LINE_BUDGET.start();
+        String[] stringsArr = journal == null ? null : journal.getPartWayLine(lineNumber);
+        ResultCache.Key cacheKey = null;
+        // A line recorded part way was merged greedily, so it continues greedily.
+        boolean resumed = stringsArr != null;
+        if (stringsArr == null) {
+            // Create a new document (which is just represented by our desired list of Strings).
+            int fragments = line.length;
+            while (fragments > 0 && line[fragments - 1].isEmpty()) {
+                fragments--;
+            }
+            stringsArr = Arrays.copyOf(line, fragments);
+            if (cache != null) {
+                long start = startTimer();
+                cacheKey = ResultCache.key(CACHE_VARIANT, stringsArr);
+                String cached = getCached(cache, cacheKey);
+                stopTimer(CACHE_NANOS, start);
+                if (cached != null) {
+                    return withStatus("OK", cached);
+                }
+            }
+            // Drop the fragments which add nothing to the document in one pass, rather than absorbing them one merge at a time.
+            if (FILTER_CONTAINED) {
+                long start = startTimer();
+                StringsListFilterStrategy filterStrategy = new ContainedFragmentsFilter(true);
+                // The filter counts against the budget of the line, and a filter abandoned over budget leaves the fragments as they were (the merge then finds the budget exceeded).
+                String[] filtered = meter == null ? filterStrategy.filter(stringsArr) : filterStrategy.filter(stringsArr, () -> meter.poll() != null);
+                if (filtered != null) {
+                    REMOVED_FRAGMENTS.addAndGet(stringsArr.length - filtered.length);
+                    stringsArr = filtered;
+                }
+                stopTimer(FILTER_NANOS, start);
+            }
+        }
+        // Create a new DocumentCompositor and pass the search strategy (denoting each element we will merge) and merge strategy (denoting how we will perform each merge).
+        // The search strategy will be "Search for the next maximally overlapping pair in the document" (indexed once, then updated per merge).
+        // The merge strategy will be "Merge the overlap of s1 to s2 (assuming there is overlap)".
+        // Combining these two strategies in recursion can produce the desired result, so lets do that.
+        StringsListSearchStrategy stringsListSearchStrategy = new IncrementalMaximallyOverlappingPair();
+        StringMergeStrategy mergeStrategy = new MergeOverlapPair();
+        // With metrics configured each strategy is decorated to record its search passes and merges (the results are unchanged).
+        if (METRICS != null) {
+            stringsListSearchStrategy = new MeasuredSearchStrategy(stringsListSearchStrategy, METRICS);
+            mergeStrategy = MeasuredMergeStrategy.of(mergeStrategy, METRICS);
+        }
+        long start = startTimer();
+        DocumentCompositor documentCompositor = new DocumentCompositor(stringsListSearchStrategy, mergeStrategy, stringsArr);
+        // Critical section, we should backup the document.
+        documentCompositor.writeBackup();
+        // We could handle the merge operation in different ways. If the merge operation fails by illegal state (something went very wrong) we can always choose to restore the backup.
+        // In this case we don't want to print additional system output so we cleanly let the application fail and write a log.
+        MergeBudget.Limit exceeded;
+        if (EXACT_ORDER != null && !resumed && stringsArr.length <= EXACT_BOUNDED_FRAGMENTS) {
+            // Few enough fragments are laid out as a whole (exactly, or by a bounded search) rather than merged pair by pair.
+            // The order is refused by the line budget before it is decided if it would allocate more than the budget allows.
+            long exhaustedBudgets = EXACT_ORDER.getExhaustedBudgets();
+            exceeded = documentCompositor.orderedMerge(EXACT_ORDER, meter);
+            if (exceeded == null) {
+                ORDERED_LINES.incrementAndGet();
+            }
+            // An order whose budget ran out depends on the time it was given, so it is not cached (a line of another thread running out meanwhile leaves this line uncached too).
+            if (EXACT_ORDER.getExhaustedBudgets() != exhaustedBudgets) {
+                cacheKey = null;
+            }
+        } else {
+            // Very large lines are recorded part way, so a restarted run does not repeat their merges.
+            boolean partWay = journal != null && JOURNAL_MERGES_PER_CHECKPOINT > 0;
+            exceeded = documentCompositor.incrementalMerge(partWay ? JOURNAL_MERGES_PER_CHECKPOINT : 0, !partWay ? null : remaining -> {
+                try {
+                    journal.recordPartWayLine(lineNumber, remaining);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, meter);
+        }
+        if (exceeded != null) {
+            String document = degrade(lineNumber, documentCompositor.get(), stringsArr, meter);
+            stopTimer(REASSEMBLE_NANOS, start);
+            return withStatus(LINE_DEGRADATION.equals("ONLINE") ? "DEGRADED" : "PARTIAL", document);
+        }
+        String document = documentCompositor.getToString();
+        stopTimer(REASSEMBLE_NANOS, start);
+        if (cacheKey != null) {
+            try {
+                cache.put(cacheKey, document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return withStatus("OK", document);
+    }
+
+    /**
+     * Finishes a line whose merge exceeded its budget from the fragments remaining, by the degradation configured, and counts the limit exceeded.
+     * ONLINE joins the fragments remaining by an OnlineDocumentCompositor in one pass (each after the fragment whose tail is its longest head, as they arrive in order), and PARTIAL emits them as they are.
+     *
+     * @param lineNumber The line number (from 0).
+     * @param remaining  The fragments remaining when the merge stopped.
+     * @param fragments  The fragments the merge started from (the longest of which bounds the overlaps joined online).
+     * @param meter      The meter of the line.
+     * @return The document degraded to.
+     */
+    private static String degrade(long lineNumber, List<String> remaining, String[] fragments, MergeBudget.Meter meter) {
+        MergeBudget.Limit limit = meter.getExceeded();
+        long exceededNanos = meter.getElapsedNanos();
+        DEGRADED_LINES.get(limit).incrementAndGet();
+        if (METRICS != null) {
+            METRICS.counter("degraded_lines_total", "limit", limit.name().toLowerCase(Locale.ROOT), "degradation", LINE_DEGRADATION.toLowerCase(Locale.ROOT)).increment();
+        }
+        String document;
+        String outcome;
+        if (LINE_DEGRADATION.equals("ONLINE")) {
+            int longest = 1;
+            for (String fragment : fragments) {
+                longest = Math.max(longest, fragment.length());
+            }
+            OnlineDocumentCompositor onlineCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 1, longest);
+            for (String fragment : remaining) {
+                onlineCompositor.addFragment(fragment);
+            }
+            String[] contigs = onlineCompositor.getContigs();
+            document = String.join("", contigs);
+            outcome = "joined online into " + contigs.length + " contigs";
+        } else {
+            document = String.join("", remaining);
+            outcome = "emitted as they were";
+        }
+        LOGGER.warning("Line " + (lineNumber + 1) + " exceeded its " + limit + " budget after " + meter.getPasses() + " search passes in " + exceededNanos / 1_000_000 + "ms, so its " + remaining.size() + " remaining fragments were " + outcome
+                + " (in a further " + (meter.getElapsedNanos() - exceededNanos) / 1_000_000 + "ms).");
+        return document;
+    }
+
+    // The document written for a line, after its status if statuses are configured.
+    private static String withStatus(String status, String document) {
+        return LINE_STATUS ? status + "\t" + document : document;
+    }
+
+    private static void logDegradedLines() {
+        long degraded = 0;
+        for (AtomicLong lines : DEGRADED_LINES.values()) {
+            degraded += lines.get();
+        }
+        LOGGER.info("Degraded " + degraded + " lines over budget to " + LINE_DEGRADATION + " (" + DEGRADED_LINES.get(MergeBudget.Limit.TIME).get() + " over time, "
+                + DEGRADED_LINES.get(MergeBudget.Limit.SEARCHES).get() + " over search passes, " + DEGRADED_LINES.get(MergeBudget.Limit.ALLOCATION).get() + " over bytes allocated).");
+    }
+
+    // The number of lines degraded over each limit.
+    private static Map<MergeBudget.Limit, AtomicLong> degradedLines() {
+        Map<MergeBudget.Limit, AtomicLong> degradedLines = new EnumMap<>(MergeBudget.Limit.class);
+        for (MergeBudget.Limit limit : MergeBudget.Limit.values()) {
+            degradedLines.put(limit, new AtomicLong());
+        }
+        return degradedLines;
+    }
+
+    // The budget of each line, or null if no limits are configured (or the limits are not valid, which validate reports).
+    private static MergeBudget lineBudget() {
+        try {
+            MergeBudget budget = new MergeBudget(TimeUnit.MILLISECONDS.toNanos(LINE_MILLIS), LINE_SEARCHES, LINE_ALLOCATED_BYTES);
+            return budget.isUnlimited() ? null : budget;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reassembles a single (validated) line of UTF-8 fragments to a document, as reassemble does for fragments read as Strings.
+     * The fragments are searched and merged without being decoded, and only the document reassembled is decoded.
+     * Fragments recorded part way by the journal are Strings, so they are encoded to resume the line.
+     *
+     * @param lineNumber The line number (from 0).
+     * @param line       The UTF-8 fragments of a line (trailing empty fragments are ignored).
+     * @param journal    The journal of the run, or null.
+     * @param cache      The result cache of the run, or null.
+     * @return The reassembled document.
+     */
+    private static String reassembleBytes(long lineNumber, byte[][] line, CheckpointJournal journal, ResultCache cache) {
+        String[] partWayLine = journal == null ? null : journal.getPartWayLine(lineNumber);
+        byte[][] bytesArr;
+        ResultCache.Key cacheKey = null;
+        if (partWayLine != null) {
+            bytesArr = new byte[partWayLine.length][];
+            for (int i = 0; i < partWayLine.length; i++) {
+                bytesArr[i] = partWayLine[i].getBytes(StandardCharsets.UTF_8);
+            }
+        } else {
+            int fragments = line.length;
+            while (fragments > 0 && line[fragments - 1].length == 0) {
+                fragments--;
+            }
+            bytesArr = Arrays.copyOf(line, fragments);
+            if (cache != null) {
+                long start = startTimer();
+                cacheKey = ResultCache.key(BYTES_CACHE_VARIANT, bytesArr);
+                String cached = getCached(cache, cacheKey);
+                stopTimer(CACHE_NANOS, start);
+                if (cached != null) {
+                    return withStatus("OK", cached);
+                }
+            }
+        }
+        // The measured strategies decorate String strategies, so only the stages of the line are measured.
+        long start = startTimer();
+        Utf8DocumentCompositor documentCompositor = new Utf8DocumentCompositor(new Utf8MaximallyOverlappingPair(), new MergeOverlapPair(), bytesArr);
+        if (journal != null && JOURNAL_MERGES_PER_CHECKPOINT > 0) {
+            documentCompositor.incrementalMerge(JOURNAL_MERGES_PER_CHECKPOINT, remaining -> {
+                try {
+                    journal.recordPartWayLine(lineNumber, remaining);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } else {
+            documentCompositor.incrementalMerge();
+        }
+        String document = documentCompositor.getToString();
+        stopTimer(REASSEMBLE_NANOS, start);
+        if (cacheKey != null) {
+            try {
+                cache.put(cacheKey, document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        // UTF-8 lines are merged without a budget (see validate), so every line is OK.
+        return withStatus("OK", document);
+    }
+
+    /**
+     * Records each line read from a stream of lines in the read stage histogram, if metrics are configured.
+     * Lines are read as the stream is consumed, so the time of each read is the time taken to produce the next line.
+     *
+     * @param lines The lines read.
+     * @param <F>   The type of the fragments of a line.
+     * @return The lines read, measured.
+     */
+    private static <F> Stream<F> measureReads(Stream<F> lines) {
+        if (METRICS == null) {
+            return lines;
+        }
+        Spliterator<F> source = lines.spliterator();
+        Spliterator<F> measured = new Spliterators.AbstractSpliterator<F>(source.estimateSize(), source.characteristics() & Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super F> action) {
+                long start = System.nanoTime();
+                return source.tryAdvance(line -> {
+                    READ_NANOS.recordSince(start);
+                    action.accept(line);
+                });
+            }
+        };
+        return StreamSupport.stream(measured, false).onClose(lines::close);
+    }
+
+    private static LatencyHistogram stageHistogram(String stage) {
+        return METRICS == null ? null : METRICS.histogram("stage_nanos", "stage", stage);
+    }
+
+    private static long startTimer() {
+        return METRICS == null ? 0 : System.nanoTime();
+    }
+
+    private static void stopTimer(LatencyHistogram histogram, long start) {
+        if (histogram != null) {
+            histogram.recordSince(start);
+        }
+    }
+
+    private static String getCached(ResultCache cache, ResultCache.Key cacheKey) {
+        try {
+            return cache.get(cacheKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A line of fragments and its line number (from 0).
+     *
+     * @param <F> The type of the fragments of the line.
+     */
+    private static final class NumberedLine<F> {
+        private final long number;
+        private final F fragments;
+
+        private NumberedLine(long number, F fragments) {
+            this.number = number;
+            this.fragments = fragments;
+        }
+    }
 }
\ No newline at end of file
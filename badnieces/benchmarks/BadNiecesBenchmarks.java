@@ -0,0 +1,29 @@
+package badnieces.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BadNiecesBenchmarks class runs the benchmarks with the GC profiler attached, so every result reports its allocation rate next to its throughput and average time.
+ * Any JMH command line option may be passed (i.e. a benchmark name pattern, or -p fragmentCount=1000 to override a parameter).
+ */
+public final class BadNiecesBenchmarks {
+
+    private BadNiecesBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            options.include(BadNiecesBenchmarks.class.getPackage().getName() + ".*");
+        }
+        Options withProfiler = options.parent(commandLineOptions).addProfiler(GCProfiler.class).build();
+        new Runner(withProfiler).run();
+    }
+}
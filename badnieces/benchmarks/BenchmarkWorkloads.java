@@ -0,0 +1,50 @@
+package badnieces.benchmarks;
+
+import java.util.Random;
+
+/**
+ * BenchmarkWorkloads provides the fragmented documents measured by the benchmarks.
+ * A workload is a random text over an alphabet, torn into fragments of one length where each fragment overlaps the next by the overlap length.
+ * Workloads are seeded so every run of a benchmark measures the same fragments.
+ */
+final class BenchmarkWorkloads {
+    // Only letters, so no fragment has a meaning to a regular expression (the regular expression comparator is measured too).
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final long SEED = 20180101L;
+
+    private BenchmarkWorkloads() {
+    }
+
+    /**
+     * Tears a random text into shuffled, overlapping fragments.
+     *
+     * @param fragmentCount  The number of fragments.
+     * @param fragmentLength The length of each fragment.
+     * @param overlapLength  The overlap of each fragment with the next (less than the fragment length).
+     * @param alphabetSize   The number of distinct letters in the text.
+     * @return The fragments.
+     */
+    static String[] fragments(int fragmentCount, int fragmentLength, int overlapLength, int alphabetSize) {
+        if (overlapLength >= fragmentLength || alphabetSize < 1 || alphabetSize > LETTERS.length()) {
+            throw new IllegalArgumentException("Fragments must be longer than their overlap and the alphabet must be between 1 and " + LETTERS.length() + " letters");
+        }
+        Random random = new Random(SEED);
+        int stride = fragmentLength - overlapLength;
+        char[] text = new char[fragmentLength + (fragmentCount - 1) * stride];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = LETTERS.charAt(random.nextInt(alphabetSize));
+        }
+        String[] fragments = new String[fragmentCount];
+        for (int i = 0; i < fragmentCount; i++) {
+            fragments[i] = new String(text, i * stride, fragmentLength);
+        }
+        // Shuffle so the order of the fragments says nothing of their position in the text.
+        for (int i = fragments.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String fragment = fragments[i];
+            fragments[i] = fragments[j];
+            fragments[j] = fragment;
+        }
+        return fragments;
+    }
+}
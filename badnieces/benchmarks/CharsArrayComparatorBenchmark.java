@@ -0,0 +1,80 @@
+package badnieces.benchmarks;
+
+import oddschecker.utils.comparator.CharsArrayComparator;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the head overlap comparators over every ordered pair of a fragmented document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CharsArrayComparatorBenchmark {
+    @Param({"20"})
+    public int fragmentCount;
+    @Param({"16", "64"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"4", "26"})
+    public int alphabetSize;
+
+    private char[][] fragments;
+    private int[][] failures;
+
+    @Setup
+    public void setUp() {
+        String[] strings = BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize);
+        fragments = new char[strings.length][];
+        failures = new int[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            fragments[i] = strings[i].toCharArray();
+            failures[i] = LinearCharsArrayComparator.getFailureFunction(fragments[i]);
+        }
+    }
+
+    @Benchmark
+    public void regularExpression(Blackhole blackhole) {
+        for (char[] charSet : fragments) {
+            for (char[] charSuperSet : fragments) {
+                blackhole.consume(CharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet));
+            }
+        }
+    }
+
+    @Benchmark
+    public void linear(Blackhole blackhole) {
+        for (char[] charSet : fragments) {
+            for (char[] charSuperSet : fragments) {
+                blackhole.consume(LinearCharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet));
+            }
+        }
+    }
+
+    @Benchmark
+    public void linearPacked(Blackhole blackhole) {
+        // The failure functions are computed once in setUp, as the search strategies do once per search, so the pass allocates nothing.
+        for (int i = 0; i < fragments.length; i++) {
+            for (char[] charSuperSet : fragments) {
+                blackhole.consume(LinearCharsArrayComparator.getHeadOverlap(fragments[i], failures[i], charSuperSet));
+            }
+        }
+    }
+}
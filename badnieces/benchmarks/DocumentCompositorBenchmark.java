@@ -0,0 +1,93 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.compositor.document.OnlineDocumentCompositor;
+import badnieces.entities.compositor.document.Utf8DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.Utf8MaximallyOverlappingPair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the end-to-end reassembly of a fragmented document (one line) by each compositor mode and search strategy.
+ * The utf8Merge mode reassembles the UTF-8 bytes of the fragments with the Utf8DocumentCompositor (decoding the document once).
+ * The onlineMerge mode adds the fragments one at a time (in a shuffled order of arrival) to the OnlineDocumentCompositor, then reads the document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DocumentCompositorBenchmark {
+    @Param({"recursiveMerge:NextMaximallyOverlappingPair", "recursiveMerge:ParallelNextMaximallyOverlappingPair", "recursiveMerge:IndexedMaximallyOverlappingPair", "incrementalMerge:IncrementalMaximallyOverlappingPair", "utf8Merge:Utf8MaximallyOverlappingPair", "onlineMerge:IncrementalMaximallyOverlappingPair"})
+    public String compositor;
+    @Param({"50", "200"})
+    public int fragmentCount;
+    @Param({"32"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"26"})
+    public int alphabetSize;
+
+    private String mode;
+    private String strategy;
+    private String[] fragments;
+    private byte[][] bytes;
+    private String[] arrivals;
+
+    @Setup
+    public void setUp() {
+        fragments = BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize);
+        mode = compositor.substring(0, compositor.indexOf(':'));
+        strategy = compositor.substring(compositor.indexOf(':') + 1);
+        bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        List<String> shuffled = Arrays.asList(fragments.clone());
+        Collections.shuffle(shuffled, new Random(fragmentCount));
+        arrivals = shuffled.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public String reassemble() {
+        if (mode.equals("onlineMerge")) {
+            OnlineDocumentCompositor documentCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), overlapLength, fragmentLength);
+            for (String fragment : arrivals) {
+                documentCompositor.addFragment(fragment);
+            }
+            return documentCompositor.getToString();
+        }
+        if (mode.equals("utf8Merge")) {
+            Utf8DocumentCompositor documentCompositor = new Utf8DocumentCompositor(new Utf8MaximallyOverlappingPair(), new MergeOverlapPair(), bytes);
+            documentCompositor.incrementalMerge();
+            return documentCompositor.getToString();
+        }
+        DocumentCompositor documentCompositor = new DocumentCompositor(SearchStrategyBenchmark.searchStrategy(strategy), new MergeOverlapPair(), fragments);
+        if (mode.equals("incrementalMerge")) {
+            documentCompositor.incrementalMerge();
+        } else {
+            documentCompositor.recursiveMerge();
+        }
+        return documentCompositor.getToString();
+    }
+}
@@ -0,0 +1,73 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.writer.DocumentWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a batch of small documents to /dev/null: by a PrintStream configured as System.out is (auto-flushing println), and by the DocumentWriter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentWriterBenchmark {
+    @Param({"10000"})
+    public int documentCount;
+    @Param({"64"})
+    public int documentLength;
+
+    private String[] documents;
+    private PrintStream printStream;
+    private DocumentWriter documentWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        documents = BenchmarkWorkloads.fragments(documentCount, documentLength, 8, 26);
+        printStream = new PrintStream(new FileOutputStream("/dev/null"), true, StandardCharsets.UTF_8.name());
+        documentWriter = new DocumentWriter(FileChannel.open(Paths.get("/dev/null"), StandardOpenOption.WRITE), true, 1 << 20, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        printStream.close();
+        documentWriter.close();
+    }
+
+    @Benchmark
+    public void printStream() {
+        for (String document : documents) {
+            printStream.println(document);
+        }
+    }
+
+    @Benchmark
+    public void documentWriter() throws IOException {
+        for (String document : documents) {
+            documentWriter.accept(document);
+        }
+        documentWriter.flush();
+    }
+}
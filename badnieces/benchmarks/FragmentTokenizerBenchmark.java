@@ -0,0 +1,59 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.reader.tokenizer.FragmentTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating and splitting a long line of fragments: by the regular expressions and split of the original run method, and by the FragmentTokenizer.
+ * The default lines are about 1MB and 4MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FragmentTokenizerBenchmark {
+    @Param({"16384", "65536"})
+    public int fragmentCount;
+    @Param({"64"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"26"})
+    public int alphabetSize;
+
+    private String line;
+    private FragmentTokenizer tokenizer;
+
+    @Setup
+    public void setUp() {
+        line = String.join(";", BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize));
+        tokenizer = new FragmentTokenizer(';');
+    }
+
+    @Benchmark
+    public String[] regularExpression() {
+        if (line.matches("(.*;{2,}.*|;{2,})") || !line.matches("(.+;.+)")) {
+            throw new IllegalArgumentException("Could not process string");
+        }
+        return line.split(";");
+    }
+
+    @Benchmark
+    public String[] tokenizer() {
+        return tokenizer.tokenize(line);
+    }
+}
@@ -0,0 +1,88 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.logging.AsyncLogHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.stream.Stream;
+
+/**
+ * Measures a unit of work which logs one record, through the synchronous FileHandler BadNiecesIO used to attach and through the AsyncLogHandler (with each overflow policy).
+ * Four threads work at once, as workers would. The work alone is measured by noLog, so the time logging adds to each unit of work is the difference.
+ * Logging a record with no work between records measures the greatest rate a handler can write instead (-p work=0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LogHandlerBenchmark {
+    @Param({"file", "async_block", "async_drop"})
+    public String handlerType;
+    @Param({"20000"})
+    public long work;
+
+    private Path directory;
+    private Handler handler;
+    private Logger logger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("LogHandlerBenchmark");
+        if (handlerType.equals("file")) {
+            handler = new FileHandler(directory.resolve("BadNieces.log").toString());
+            handler.setFormatter(new SimpleFormatter());
+        } else {
+            AsyncLogHandler.OverflowPolicy overflowPolicy = handlerType.equals("async_drop") ? AsyncLogHandler.OverflowPolicy.DROP : AsyncLogHandler.OverflowPolicy.BLOCK;
+            handler = new AsyncLogHandler(directory, "BadNieces-", ".log", 8192, overflowPolicy);
+        }
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        handler.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void log() {
+        Blackhole.consumeCPU(work);
+        logger.info("Reassembled a line of 1000 fragments.");
+    }
+
+    @Benchmark
+    public void noLog() {
+        Blackhole.consumeCPU(work);
+    }
+}
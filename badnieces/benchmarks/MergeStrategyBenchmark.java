@@ -0,0 +1,68 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.interfaces.strategy.merge.StringMergeStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the merge strategy folding a document together, one overlapping fragment at a time (the merged string grows with every merge).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MergeStrategyBenchmark {
+    @Param({"50", "200"})
+    public int fragmentCount;
+    @Param({"32"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"26"})
+    public int alphabetSize;
+
+    private final StringMergeStrategy mergeStrategy = new MergeOverlapPair();
+    private String[] fragments;
+
+    @Setup
+    public void setUp() {
+        // Unshuffled, so each fragment overlaps the document merged so far.
+        fragments = new String[fragmentCount];
+        int stride = fragmentLength - overlapLength;
+        String text = String.join("", BenchmarkWorkloads.fragments(1, fragmentLength + (fragmentCount - 1) * stride, overlapLength, alphabetSize));
+        for (int i = 0; i < fragmentCount; i++) {
+            fragments[i] = text.substring(i * stride, i * stride + fragmentLength);
+        }
+    }
+
+    @Benchmark
+    public String mergeDocument() {
+        String document = fragments[0];
+        for (int i = 1; i < fragments.length; i++) {
+            document = mergeStrategy.merge(fragments[i], document);
+        }
+        return document;
+    }
+
+    @Benchmark
+    public void mergePairs(Blackhole blackhole) {
+        for (int i = 1; i < fragments.length; i++) {
+            blackhole.consume(mergeStrategy.merge(fragments[i], fragments[i - 1]));
+        }
+    }
+}
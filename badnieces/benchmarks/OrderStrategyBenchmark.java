@@ -0,0 +1,64 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.order.ShortestSuperstringOrder;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures laying out one small line, by the greedy incremental merge (greedy), by the exact Held-Karp order of ShortestSuperstringOrder (exact) and by its branch-and-bound search within a budget of 100ms (bounded).
+ * The exact order costs O(2^n * n^2) for n fragments, so it is only measured up to ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS fragments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class OrderStrategyBenchmark {
+    @Param({"greedy", "exact", "bounded"})
+    public String mode;
+    @Param({"8", "12", "16", "20"})
+    public int fragmentCount;
+    @Param({"16"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"4"})
+    public int alphabetSize;
+
+    private ShortestSuperstringOrder orderStrategy;
+    private String[] fragments;
+
+    @Setup
+    public void setUp() {
+        fragments = BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize);
+        orderStrategy = "exact".equals(mode)
+                ? new ShortestSuperstringOrder(ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS, 0, TimeUnit.MILLISECONDS)
+                : new ShortestSuperstringOrder(0, 100, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public String reassemble() {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        if ("greedy".equals(mode)) {
+            documentCompositor.incrementalMerge();
+        } else {
+            documentCompositor.orderedMerge(orderStrategy);
+        }
+        return documentCompositor.getToString();
+    }
+}
@@ -0,0 +1,101 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.server.ReassemblyClient;
+import badnieces.entities.server.ReassemblyServer;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a batch of small line jobs sent to a resident ReassemblyServer: one request at a time (waiting for each response), and pipelined (every request sent before the responses are received).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReassemblyServerBenchmark {
+    @Param({"1000"})
+    public int jobCount;
+    @Param({"8"})
+    public int fragmentCount;
+    @Param({"4"})
+    public int workers;
+
+    private String[] lines;
+    private ExecutorService workerPool;
+    private ReassemblyServer server;
+    private ReassemblyClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String line = String.join(";", BenchmarkWorkloads.fragments(fragmentCount, 16, 6, 26));
+        lines = new String[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            lines[i] = line;
+        }
+        workerPool = Executors.newFixedThreadPool(workers);
+        server = new ReassemblyServer(0, workerPool, 64, fragments -> {
+            DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments.split(";"));
+            documentCompositor.incrementalMerge();
+            return documentCompositor.getToString();
+        }, path -> path);
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serving.setDaemon(true);
+        serving.start();
+        client = new ReassemblyClient(server.getPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+        workerPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void requestResponse(Blackhole blackhole) throws IOException {
+        for (String line : lines) {
+            blackhole.consume(client.request(ReassemblyServer.LINE, line));
+        }
+    }
+
+    @Benchmark
+    public void pipelined(Blackhole blackhole) throws IOException {
+        // The requests and responses of a batch fit the socket buffers, so every request is sent before the first response is received.
+        for (String line : lines) {
+            client.send(ReassemblyServer.LINE, line);
+        }
+        client.flush();
+        for (int i = 0; i < lines.length; i++) {
+            blackhole.consume(client.receive());
+        }
+    }
+}
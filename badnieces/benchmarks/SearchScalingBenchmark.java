@@ -0,0 +1,53 @@
+package badnieces.benchmarks;
+
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single search pass over many short fragments, by the pairwise NextMaximallyOverlappingPair and by the hashed RollingHashMaximallyOverlappingPair.
+ * A pairwise search of 100000 fragments compares 10^10 ordered pairs (about half an hour per pass), so select the fragment counts run with -p when including it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SearchScalingBenchmark {
+    @Param({"NextMaximallyOverlappingPair", "RollingHashMaximallyOverlappingPair"})
+    public String strategy;
+    @Param({"1000", "10000", "100000"})
+    public int fragmentCount;
+    @Param({"32"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"26"})
+    public int alphabetSize;
+
+    private StringsListSearchStrategy searchStrategy;
+    private String[] fragments;
+
+    @Setup
+    public void setUp() {
+        fragments = BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize);
+        searchStrategy = SearchStrategyBenchmark.searchStrategy(strategy);
+    }
+
+    @Benchmark
+    public int[] search() {
+        return searchStrategy.search(fragments);
+    }
+}
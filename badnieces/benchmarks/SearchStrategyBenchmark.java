@@ -0,0 +1,81 @@
+package badnieces.benchmarks;
+
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.IndexedMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.NextMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.ParallelNextMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.RollingHashMaximallyOverlappingPair;
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single search pass of each search strategy over a fragmented document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchStrategyBenchmark {
+    @Param({"NextMaximallyOverlappingPair", "IncrementalMaximallyOverlappingPair", "ParallelNextMaximallyOverlappingPair", "IndexedMaximallyOverlappingPair", "RollingHashMaximallyOverlappingPair"})
+    public String strategy;
+    @Param({"50", "200"})
+    public int fragmentCount;
+    @Param({"32"})
+    public int fragmentLength;
+    @Param({"8"})
+    public int overlapLength;
+    @Param({"4", "26"})
+    public int alphabetSize;
+
+    private StringsListSearchStrategy searchStrategy;
+    private String[] fragments;
+
+    @Setup
+    public void setUp() {
+        fragments = BenchmarkWorkloads.fragments(fragmentCount, fragmentLength, overlapLength, alphabetSize);
+        searchStrategy = searchStrategy(strategy);
+    }
+
+    @Benchmark
+    public int[] search() {
+        return searchStrategy.search(fragments);
+    }
+
+    /**
+     * Constructs a search strategy from its name.
+     *
+     * @param strategy The name of the strategy.
+     * @return The search strategy.
+     */
+    static StringsListSearchStrategy searchStrategy(String strategy) {
+        switch (strategy) {
+            case "NextMaximallyOverlappingPair":
+                return new NextMaximallyOverlappingPair();
+            case "IncrementalMaximallyOverlappingPair":
+                return new IncrementalMaximallyOverlappingPair();
+            case "ParallelNextMaximallyOverlappingPair":
+                return new ParallelNextMaximallyOverlappingPair();
+            case "IndexedMaximallyOverlappingPair":
+                return new IndexedMaximallyOverlappingPair();
+            case "RollingHashMaximallyOverlappingPair":
+                return new RollingHashMaximallyOverlappingPair();
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unsupported search strategy: " + strategy);
+    }
+}
@@ -0,0 +1,196 @@
+package badnieces.entities.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The MappedResultStore class is responsible for holding results on disk, by the digest of their key, so they survive restarts.
+ * Results are appended to a data file, and located through an index file of fixed capacity which is memory mapped (an open addressing hash table of digests, probed linearly).
+ * <p>
+ * Each slot of the index holds a digest, the position and length of its result in the data file, and a CRC32 of the result.
+ * A result is appended before its slot is written, and a result which does not match its CRC32 (i.e. after a crash) is treated as missing, so the store never returns a torn result.
+ * The store accepts results until half its slots are used, and then only serves the results it holds.
+ * <p>
+ * Methods may be called from any thread.
+ */
+final class MappedResultStore implements Closeable {
+    private static final long MAGIC = 0x42414E4943414348L;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int DIGEST_BYTES = 32;
+    private static final int SLOT_BYTES = 48;
+    private static final String INDEX_FILENAME = "results.index";
+    private static final String DATA_FILENAME = "results.data";
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer index;
+    private final int capacity;
+    private int size;
+
+    /**
+     * Opens (or creates) a store in a directory.
+     *
+     * @param directory The directory of the store's files (created if it does not exist).
+     * @param capacity  The number of slots of the index (a power of 2), of which half can be used. A store of a different capacity is started afresh.
+     * @throws IOException Throws an IO exception if the store cannot be read or written.
+     */
+    MappedResultStore(Path directory, int capacity) throws IOException {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1 || capacity > (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES) {
+            throw new IllegalArgumentException("The capacity of the store must be a power of 2 of at most " + (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES + " slots");
+        }
+        Files.createDirectories(directory);
+        this.capacity = capacity;
+        long indexBytes = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        indexChannel = FileChannel.open(directory.resolve(INDEX_FILENAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataChannel = FileChannel.open(directory.resolve(DATA_FILENAME), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean valid = indexChannel.size() == indexBytes;
+        if (!valid) {
+            // A new store, or a store of another capacity (the results of which cannot be located), is started afresh.
+            indexChannel.truncate(0);
+            dataChannel.truncate(0);
+        }
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexBytes);
+        if (!valid || index.getLong(0) != MAGIC || index.getInt(8) != VERSION || index.getInt(12) != capacity) {
+            for (int slot = 0; slot < capacity; slot++) {
+                index.putLong(slotPosition(slot) + DIGEST_BYTES, 0L);
+            }
+            dataChannel.truncate(0);
+            index.putLong(0, MAGIC);
+            index.putInt(8, VERSION);
+            index.putInt(12, capacity);
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(slotPosition(slot) + DIGEST_BYTES) != 0L) {
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Returns the result held for a digest.
+     *
+     * @param digest The digest of the key.
+     * @return The result, or null if no (intact) result is held.
+     * @throws IOException Throws an IO exception if the data file cannot be read.
+     */
+    synchronized String get(byte[] digest) throws IOException {
+        int slot = find(digest);
+        int position = slotPosition(slot);
+        long offset = index.getLong(position + DIGEST_BYTES) - 1;
+        if (offset < 0) {
+            return null;
+        }
+        int length = index.getInt(position + DIGEST_BYTES + 8);
+        int crc = index.getInt(position + DIGEST_BYTES + 12);
+        if (offset + length > dataChannel.size()) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (dataChannel.read(bytes, offset + bytes.position()) < 0) {
+                return null;
+            }
+        }
+        if (crc(bytes.array()) != crc) {
+            return null;
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Holds a result for a digest, unless a result is already held for it or the store is half full.
+     *
+     * @param digest The digest of the key.
+     * @param result The result.
+     * @throws IOException Throws an IO exception if the data file cannot be written.
+     */
+    synchronized void put(byte[] digest, String result) throws IOException {
+        if (size >= capacity / 2) {
+            return;
+        }
+        int slot = find(digest);
+        int position = slotPosition(slot);
+        if (index.getLong(position + DIGEST_BYTES) != 0L) {
+            return;
+        }
+        byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+        long offset = dataChannel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            dataChannel.write(buffer, offset + buffer.position());
+        }
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            index.put(position + i, digest[i]);
+        }
+        index.putInt(position + DIGEST_BYTES + 8, bytes.length);
+        index.putInt(position + DIGEST_BYTES + 12, crc(bytes));
+        // The position is written last, as it marks the slot used.
+        index.putLong(position + DIGEST_BYTES, offset + 1);
+        size++;
+    }
+
+    /**
+     * Returns the number of results held.
+     *
+     * @return The number of results.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Writes the index and data to disk and closes the store.
+     *
+     * @throws IOException Throws an IO exception if the store cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            dataChannel.force(false);
+            index.force();
+        } finally {
+            dataChannel.close();
+            indexChannel.close();
+        }
+    }
+
+    // Returns the slot holding the digest, or the empty slot it would be held in.
+    private int find(byte[] digest) {
+        // The digest is uniformly distributed, so its leading bytes locate the first slot probed.
+        int slot = (((digest[0] & 0xFF) << 24) | ((digest[1] & 0xFF) << 16) | ((digest[2] & 0xFF) << 8) | (digest[3] & 0xFF)) & (capacity - 1);
+        while (true) {
+            int position = slotPosition(slot);
+            if (index.getLong(position + DIGEST_BYTES) == 0L || matches(position, digest)) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private boolean matches(int position, byte[] digest) {
+        for (int i = 0; i < DIGEST_BYTES; i++) {
+            if (index.get(position + i) != digest[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,254 @@
+package badnieces.entities.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ResultCache class is responsible for holding the reassembled documents of lines of fragments, so a line seen before is not reassembled again.
+ * Results are addressed by a SHA-256 digest of the line (see key), so a result is only ever returned for the same line reassembled the same way.
+ * <p>
+ * The cache has two tiers. The memory tier holds the most recently used results up to a number of characters (least recently used results are evicted first).
+ * The optional disk tier (a MappedResultStore) holds results across runs: a result found on disk is promoted to the memory tier, and every new result is written to both tiers.
+ * Hits of each tier and misses are counted, so the effectiveness of the cache can be reported.
+ * <p>
+ * Methods may be called from any thread.
+ */
+public final class ResultCache implements Closeable {
+    // The characters charged for each result held in memory on top of the result itself (the key and the entry).
+    private static final int ENTRY_OVERHEAD = 64;
+    private final long maxCharacters;
+    private final Map<Key, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final MappedResultStore store;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long characters;
+
+    /**
+     * Constructs a ResultCache held in memory only.
+     *
+     * @param maxCharacters The number of characters of results held in memory.
+     */
+    public ResultCache(long maxCharacters) {
+        if (maxCharacters < 0) {
+            throw new IllegalArgumentException("The memory tier cannot hold a negative number of characters");
+        }
+        this.maxCharacters = maxCharacters;
+        this.store = null;
+    }
+
+    /**
+     * Constructs a ResultCache with a disk tier, holding the results of earlier runs which used the same directory.
+     *
+     * @param maxCharacters The number of characters of results held in memory (0 to hold results on disk only).
+     * @param directory     The directory of the disk tier.
+     * @param diskEntries   The number of results the disk tier can hold (a power of 2, of which half are used).
+     * @throws IOException Throws an IO exception if the disk tier cannot be read or written.
+     */
+    public ResultCache(long maxCharacters, Path directory, int diskEntries) throws IOException {
+        if (maxCharacters < 0) {
+            throw new IllegalArgumentException("The memory tier cannot hold a negative number of characters");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("A directory must be specified for the disk tier");
+        }
+        this.maxCharacters = maxCharacters;
+        this.store = new MappedResultStore(directory, diskEntries);
+    }
+
+    /**
+     * Computes the key of a line of fragments: a SHA-256 digest of the fragments in order, and of the way the line is reassembled.
+     * The order of the fragments is part of the key, as greedy reassembly breaks ties between equal overlaps by position, so the same fragments in another order may reassemble differently.
+     *
+     * @param variant   The way the line is reassembled (i.e. the strategies and configuration), so differently reassembled results are never confused.
+     * @param fragments The fragments of the line.
+     * @return The key.
+     */
+    public static Key key(String variant, String[] fragments) {
+        MessageDigest digest = sha256();
+        // Each string is prefixed by its length, so the boundaries between strings are part of the digest.
+        int bytes = 4 + 2 * variant.length();
+        for (String fragment : fragments) {
+            bytes += 4 + 2 * fragment.length();
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(bytes);
+        encode(encoded, variant);
+        for (String fragment : fragments) {
+            encode(encoded, fragment);
+        }
+        digest.update(encoded.array());
+        return new Key(digest.digest());
+    }
+
+    /**
+     * Computes the key of a line of UTF-8 fragments: a SHA-256 digest of the bytes of the fragments in order, and of the way the line is reassembled.
+     * The fragments are digested without being decoded, so the key of UTF-8 fragments is not the key of the same fragments as Strings (lines reassembled from bytes should name their own variant).
+     *
+     * @param variant   The way the line is reassembled (i.e. the strategies and configuration), so differently reassembled results are never confused.
+     * @param fragments The UTF-8 fragments of the line.
+     * @return The key.
+     */
+    public static Key key(String variant, byte[][] fragments) {
+        MessageDigest digest = sha256();
+        ByteBuffer encoded = ByteBuffer.allocate(4 + 2 * variant.length());
+        encode(encoded, variant);
+        digest.update(encoded.array());
+        // Each fragment is prefixed by its length, so the boundaries between fragments are part of the digest.
+        ByteBuffer length = ByteBuffer.allocate(4);
+        for (byte[] fragment : fragments) {
+            length.clear();
+            digest.update(length.putInt(fragment.length).array());
+            digest.update(fragment);
+        }
+        return new Key(digest.digest());
+    }
+
+    /**
+     * Returns the result of a line, from memory or else from disk.
+     *
+     * @param key The key of the line.
+     * @return The result, or null if the line has no result held.
+     * @throws IOException Throws an IO exception if the disk tier cannot be read.
+     */
+    public String get(Key key) throws IOException {
+        synchronized (entries) {
+            String result = entries.get(key);
+            if (result != null) {
+                memoryHits.incrementAndGet();
+                return result;
+            }
+        }
+        String result = store == null ? null : store.get(key.digest);
+        if (result == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        hold(key, result);
+        return result;
+    }
+
+    /**
+     * Holds the result of a line in memory and on disk.
+     *
+     * @param key    The key of the line.
+     * @param result The result.
+     * @throws IOException Throws an IO exception if the disk tier cannot be written.
+     */
+    public void put(Key key, String result) throws IOException {
+        if (result == null) {
+            throw new IllegalArgumentException("A null result cannot be held");
+        }
+        hold(key, result);
+        if (store != null) {
+            store.put(key.digest, result);
+        }
+    }
+
+    /**
+     * Returns the number of results found in memory.
+     *
+     * @return The number of memory hits.
+     */
+    public long memoryHits() {
+        return memoryHits.get();
+    }
+
+    /**
+     * Returns the number of results found on disk (but not in memory).
+     *
+     * @return The number of disk hits.
+     */
+    public long diskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Returns the number of lines which had no result held.
+     *
+     * @return The number of misses.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Writes the disk tier to disk and closes it.
+     *
+     * @throws IOException Throws an IO exception if the disk tier cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private void hold(Key key, String result) {
+        long weight = weight(result);
+        if (weight > maxCharacters) {
+            return;
+        }
+        synchronized (entries) {
+            String previous = entries.put(key, result);
+            characters += weight - (previous == null ? 0 : weight(previous));
+            // Evict the least recently used results until the memory tier is within its size.
+            Iterator<String> eldest = entries.values().iterator();
+            while (characters > maxCharacters) {
+                characters -= weight(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    private static long weight(String result) {
+        return (long) result.length() + ENTRY_OVERHEAD;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    private static void encode(ByteBuffer encoded, String s) {
+        encoded.putInt(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            encoded.putChar(s.charAt(i));
+        }
+    }
+
+    /**
+     * The SHA-256 digest of a line of fragments.
+     */
+    public static final class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(digest, ((Key) other).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package badnieces.entities.cache;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResultCacheTest {
+
+    @Test
+    public void keyValid() {
+        assertEquals(ResultCache.key("v", new String[]{"ABC", "BCD"}), ResultCache.key("v", new String[]{"ABC", "BCD"}));
+        // The order of the fragments, the boundaries between fragments and the variant are all part of the key.
+        assertNotEquals(ResultCache.key("v", new String[]{"ABC", "BCD"}), ResultCache.key("v", new String[]{"BCD", "ABC"}));
+        assertNotEquals(ResultCache.key("v", new String[]{"ABC", "BCD"}), ResultCache.key("v", new String[]{"AB", "CBCD"}));
+        assertNotEquals(ResultCache.key("v", new String[]{"ABC", "BCD"}), ResultCache.key("w", new String[]{"ABC", "BCD"}));
+        // As they are for UTF-8 fragments.
+        assertEquals(ResultCache.key("v", utf8("ABC", "BCD")), ResultCache.key("v", utf8("ABC", "BCD")));
+        assertNotEquals(ResultCache.key("v", utf8("ABC", "BCD")), ResultCache.key("v", utf8("BCD", "ABC")));
+        assertNotEquals(ResultCache.key("v", utf8("ABC", "BCD")), ResultCache.key("v", utf8("AB", "CBCD")));
+        assertNotEquals(ResultCache.key("v", utf8("ABC", "BCD")), ResultCache.key("w", utf8("ABC", "BCD")));
+    }
+
+    @Test
+    public void memoryTierValid() throws IOException {
+        // Room for two results of 36 characters (each charged 100 characters with the entry).
+        ResultCache cache = new ResultCache(200);
+        ResultCache.Key first = ResultCache.key("v", new String[]{"1"});
+        ResultCache.Key second = ResultCache.key("v", new String[]{"2"});
+        ResultCache.Key third = ResultCache.key("v", new String[]{"3"});
+        cache.put(first, repeat('A', 36));
+        cache.put(second, repeat('B', 36));
+        assertEquals(repeat('A', 36), cache.get(first));
+        // The second result is now the least recently used, so it is evicted first.
+        cache.put(third, repeat('C', 36));
+        assertNull(cache.get(second));
+        assertEquals(repeat('A', 36), cache.get(first));
+        assertEquals(repeat('C', 36), cache.get(third));
+        assertEquals(3, cache.memoryHits());
+        assertEquals(1, cache.misses());
+        assertEquals(0, cache.diskHits());
+    }
+
+    @Test
+    public void diskTierValid() throws IOException {
+        Path directory = temporaryDirectory();
+        ResultCache.Key key = ResultCache.key("v", new String[]{"ABC", "BCD"});
+        try (ResultCache cache = new ResultCache(0, directory, 16)) {
+            cache.put(key, "ABCD");
+        }
+        // The result survives a restart, and is then promoted to memory.
+        try (ResultCache cache = new ResultCache(1000, directory, 16)) {
+            assertEquals("ABCD", cache.get(key));
+            assertEquals("ABCD", cache.get(key));
+            assertNull(cache.get(ResultCache.key("v", new String[]{"BCD", "ABC"})));
+            assertEquals(1, cache.diskHits());
+            assertEquals(1, cache.memoryHits());
+            assertEquals(1, cache.misses());
+        }
+        // A store of another capacity is started afresh.
+        try (ResultCache cache = new ResultCache(0, directory, 32)) {
+            assertNull(cache.get(key));
+        }
+    }
+
+    @Test
+    public void diskTierTornValid() throws IOException {
+        // A result which does not match its checksum is treated as missing.
+        Path directory = temporaryDirectory();
+        ResultCache.Key key = ResultCache.key("v", new String[]{"ABC", "BCD"});
+        try (ResultCache cache = new ResultCache(0, directory, 16)) {
+            cache.put(key, "ABCD");
+        }
+        Files.write(directory.resolve("results.data"), "ABCX".getBytes());
+        try (ResultCache cache = new ResultCache(0, directory, 16)) {
+            assertNull(cache.get(key));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void diskTierInvalid() throws IOException {
+        new ResultCache(0, temporaryDirectory(), 100);
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            repeated.append(c);
+        }
+        return repeated.toString();
+    }
+
+    private static Path temporaryDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("ResultCacheTest");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    private static byte[][] utf8(String... fragments) {
+        byte[][] bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
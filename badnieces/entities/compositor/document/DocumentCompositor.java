@@ -1,12 +1,16 @@
 package badnieces.entities.compositor.document;
 
 import badnieces.interfaces.strategy.merge.StringMergeStrategy;
+import badnieces.interfaces.strategy.order.StringsListOrderStrategy;
+import badnieces.interfaces.strategy.search.IncrementalStringsListSearchStrategy;
 import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The DocumentCompositor class is responsible for holding a mutable representation of a document (represented by a list of strings).
@@ -17,6 +21,7 @@ import java.util.List;
  * In line with the Open-closed principle the DocumentCompositor class aims to be closed for modification and open for extension: it is not possible to remove existing strategies (and the DocumentComposer enforces at least a Merge and Search strategy for recursive merging), but it is possible to extend the class to provide additional functionality.
  * The approach allows for the flexibility to composite documents in different ways depending on a mix of strategy configurations (in case we want to extend the functionality of the application while minimising changes to the code).
  * The DocumentCompositor class further allows for backups to be made of the immutable data structure (to support rollbacks when errors occur). Using these methods is not enforced, but recommended.
+ * The document is held as a PersistentDocument, so a backup or checkpoint is a snapshot taken in O(1) which later merges cannot change, and snapshots share every fragment a merge did not touch.
  * <p>
  * Some goals of the object design were...
  * 1. Provide a flexible solution to mutate an internal data representation of Strings, in particular to answer, what if we want to do merges in different ways in the future?
@@ -27,8 +32,9 @@ import java.util.List;
 public class DocumentCompositor {
     private final StringsListSearchStrategy searchStrategy;
     private final StringMergeStrategy mergeStrategy;
-    private List<String> document;
-    private List<String> documentBackup;
+    private final List<PersistentDocument> checkpoints = new ArrayList<>();
+    private PersistentDocument document;
+    private PersistentDocument documentBackup;
 
 
     /**
@@ -47,8 +53,8 @@ public class DocumentCompositor {
         documentToList.removeAll(Collections.singleton(null));
         this.searchStrategy = searchStrategy;
         this.mergeStrategy = mergeStrategy;
-        this.document = documentToList;
-        this.documentBackup = documentToList;
+        this.document = PersistentDocument.of(documentToList);
+        this.documentBackup = this.document;
     }
 
     public DocumentCompositor(StringsListSearchStrategy searchStrategy, StringMergeStrategy mergeStrategy, List<String> document) {
@@ -56,15 +62,15 @@ public class DocumentCompositor {
         List<String> documentCopy = new ArrayList<>(document);
         // Guarantee no null document fall into the Strings Merger (nulls are not mergable).
         // Collections provides a method to shift elements n*m where n is the number of elements such that it is a singleton time complexity so O(n).
-        document.removeAll(Collections.singleton(null));
+        documentCopy.removeAll(Collections.singleton(null));
         this.searchStrategy = searchStrategy;
         this.mergeStrategy = mergeStrategy;
-        this.document = documentCopy;
-        this.documentBackup = documentCopy;
+        this.document = PersistentDocument.of(documentCopy);
+        this.documentBackup = this.document;
     }
 
     /**
-     * Creates a backup of the current state of the Document.
+     * Creates a backup of the current state of the Document (an O(1) snapshot).
      */
     public void writeBackup() {
         documentBackup = document;
@@ -77,6 +83,39 @@ public class DocumentCompositor {
         document = documentBackup;
     }
 
+    /**
+     * Records a checkpoint of the current state of the Document (an O(1) snapshot) which can later be rolled back to.
+     *
+     * @return The id of the checkpoint.
+     */
+    public int checkpoint() {
+        checkpoints.add(document);
+        return checkpoints.size() - 1;
+    }
+
+    /**
+     * Rolls the Document back to an earlier checkpoint. Checkpoints recorded after it are discarded, and the checkpoint itself can be rolled back to again.
+     *
+     * @param checkpoint The id of the checkpoint (as returned by checkpoint).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the checkpoint does not exist (or was discarded by an earlier rollback).
+     */
+    public void rollback(int checkpoint) throws IllegalArgumentException {
+        if (checkpoint < 0 || checkpoint >= checkpoints.size()) {
+            throw new IllegalArgumentException("Checkpoint " + checkpoint + " does not exist in " + toString());
+        }
+        checkpoints.subList(checkpoint + 1, checkpoints.size()).clear();
+        document = checkpoints.get(checkpoint);
+    }
+
+    /**
+     * Returns a snapshot of the current state of the Document. The snapshot is immutable so it is returned without being copied.
+     *
+     * @return The document as a PersistentDocument.
+     */
+    public PersistentDocument snapshot() {
+        return document;
+    }
+
     /**
      * Merge will merge document at specified indexes using the MergeStrategy implemented.
      *
@@ -85,16 +124,15 @@ public class DocumentCompositor {
      * @return Returns true if the operation was successful indicating String1 has been merged to String2, otherwise returns false.
      */
     public boolean merge(int indexOfString1, int indexOfString2) {
+        // Return false if index out of bounds.
+        if (indexOfString1 < 0 || indexOfString2 < 0 || document.size() - 1 < indexOfString1 || document.size() - 1 < indexOfString2) return false;
         // If passed parameters are null, raise an exception (nulls should not be possible).
         if (document.get(indexOfString1) == null || document.get(indexOfString2) == null) return false;
-        // Return false if index out of bounds.
-        if (document.size() - 1 < indexOfString1 || document.size() - 1 < indexOfString2) return false;
         // Attempt merge.
         String mergedString = mergeStrategy.merge(document.get(indexOfString1), document.get(indexOfString2));
-        // Replace the old string with the new string.
-        document.set(indexOfString2, mergedString);
-        // Post merge remove the string (don't do this before you will mess up the indexes!!).
-        document.remove(indexOfString1);
+        // Replace the old string with the new string, then post merge remove the string (don't do this before you will mess up the indexes!!).
+        // Each step derives a new document, so snapshots of the previous document are unchanged.
+        document = document.set(indexOfString2, mergedString).remove(indexOfString1);
         // Complete operation by returning true.
         return true;
     }
@@ -109,7 +147,7 @@ public class DocumentCompositor {
     // Search document for hits specified by the SearchStrategy implemented.
     public int[] search() {
         // Cast list to primitive type (which is what strategies prefer as shared objects).
-        return searchStrategy.search(document.toArray(new String[0]));
+        return searchStrategy.search(document.toArray());
     }
 
     /**
@@ -140,6 +178,148 @@ public class DocumentCompositor {
         recursiveMerge();
     }
 
+    /**
+     * Performs the same merges as recursiveMerge using an incremental search strategy, which indexes the document once rather than searching it again per iteration.
+     * Merges are made over stable positions (a merged fragment is not shifted out of the document) and the document is compacted once the merging completes.
+     * The document is only replaced once the merging completes, so a failed merge leaves the last good document in place.
+     *
+     * @throws IllegalStateException Throws an illegal state exception if the search strategy is not incremental, or if there are not enough elements in the search token to perform a merge.
+     */
+    public void incrementalMerge() throws IllegalStateException {
+        incrementalMerge(0, null);
+    }
+
+    /**
+     * Performs incrementalMerge, passing the fragments remaining (in order) to a consumer every mergesPerCheckpoint merges.
+     * Greedy merging of the remaining fragments continues exactly as the merging would have, so they can be recorded to resume a very large document part way.
+     *
+     * @param mergesPerCheckpoint The number of merges between each checkpoint (0 for no checkpoints).
+     * @param checkpoint          The consumer of the remaining fragments (ignored if there are no checkpoints).
+     * @throws IllegalStateException Throws an illegal state exception if the search strategy is not incremental, or if there are not enough elements in the search token to perform a merge.
+     */
+    public void incrementalMerge(int mergesPerCheckpoint, Consumer<String[]> checkpoint) throws IllegalStateException {
+        incrementalMerge(mergesPerCheckpoint, checkpoint, null);
+    }
+
+    /**
+     * Performs incrementalMerge within a budget, reserving the bytes of the index before it is built (see IncrementalStringsListSearchStrategy.getIndexBytes), polling the meter of the document as the index is built and spending it before each search pass.
+     * If a limit of the budget is exceeded the merging stops (or never starts, if the index would exceed it or runs out of time), and the fragments remaining (in order) become the document, so the best partial assembly can be read (see get) or merged another way.
+     *
+     * @param mergesPerCheckpoint The number of merges between each checkpoint (0 for no checkpoints).
+     * @param checkpoint          The consumer of the remaining fragments (ignored if there are no checkpoints).
+     * @param meter               The meter of the budget of the document, or null for no budget.
+     * @return The limit exceeded, or null if the merging completed.
+     * @throws IllegalStateException Throws an illegal state exception if the search strategy is not incremental, or if there are not enough elements in the search token to perform a merge.
+     */
+    public MergeBudget.Limit incrementalMerge(int mergesPerCheckpoint, Consumer<String[]> checkpoint, MergeBudget.Meter meter) throws IllegalStateException {
+        if (mergesPerCheckpoint < 0 || (mergesPerCheckpoint > 0 && checkpoint == null)) {
+            throw new IllegalArgumentException("Checkpoints must be made every positive number of merges to a consumer");
+        }
+        if (!(searchStrategy instanceof IncrementalStringsListSearchStrategy)) {
+            throw new IllegalStateException("Merge operation in " + toString() + " was cancelled. An incremental merge requires an IncrementalStringsListSearchStrategy.");
+        }
+        IncrementalStringsListSearchStrategy incrementalSearchStrategy = (IncrementalStringsListSearchStrategy) searchStrategy;
+        // Merged fragments are held as Strings: updating the index scans the whole of a merged fragment against every other fragment, so holding it as a chain of spans (to splice rather than copy it) saves nothing.
+        String[] positions = document.toArray();
+        // Building the index is the greatest allocation of the merge (O(n^2) for n fragments), so a document whose index would exceed its budget is refused before it is built.
+        // Building it is also the longest step of the merge (O(n^2 * L) for fragments of length L), so it is abandoned as soon as the budget is exceeded.
+        MergeBudget.Limit exceeded = meter == null ? null : meter.reserve(incrementalSearchStrategy.getIndexBytes(positions));
+        if (meter == null) {
+            incrementalSearchStrategy.index(positions);
+        } else if (exceeded == null && !incrementalSearchStrategy.index(positions, () -> meter.poll() != null)) {
+            exceeded = meter.getExceeded();
+        }
+        int remaining = positions.length;
+        while (remaining > 1 && exceeded == null) {
+            if (meter != null && (exceeded = meter.spend()) != null) {
+                break;
+            }
+            int[] searchTokens = incrementalSearchStrategy.next();
+            if (searchTokens.length < 2) {
+                throw new IllegalStateException("" +
+                        "Merge operation in " + toString() + " was cancelled. Please restore from the last good backup." +
+                        "A minimum of two search tokens must be returned per every iteration of a merge operation.");
+            }
+            int indexOfString1 = searchTokens[0];
+            int indexOfString2 = searchTokens[1];
+            // If a merge can no longer be completed then end the loop (as merge does for nulls).
+            if (positions[indexOfString1] == null || positions[indexOfString2] == null) {
+                break;
+            }
+            if (indexOfString1 == indexOfString2) {
+                // Merging a position into itself leaves it unchanged, then removes it (as merge does).
+                positions[indexOfString1] = null;
+            } else {
+                positions[indexOfString2] = mergeStrategy.merge(positions[indexOfString1], positions[indexOfString2]);
+                positions[indexOfString1] = null;
+            }
+            incrementalSearchStrategy.update(indexOfString1, indexOfString2, positions[indexOfString2]);
+            remaining--;
+            if (mergesPerCheckpoint > 0 && (positions.length - remaining) % mergesPerCheckpoint == 0 && remaining > 1) {
+                checkpoint.accept(compact(positions, remaining));
+            }
+        }
+        document = PersistentDocument.of(compact(positions, remaining));
+        return exceeded;
+    }
+
+    /**
+     * Merges the document into a single string laid out in the order decided by an order strategy, rather than merging pair by pair with the search and merge strategies.
+     * Each string overlaps the string before it by the greatest head of the string which is the tail of the string before, and strings left out of the order (contained in a string of the order) are absorbed.
+     * The document is only replaced once the merging completes.
+     *
+     * @param orderStrategy The strategy deciding the order of the strings.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the order strategy is missing.
+     */
+    public void orderedMerge(StringsListOrderStrategy orderStrategy) throws IllegalArgumentException {
+        orderedMerge(orderStrategy, null);
+    }
+
+    /**
+     * Performs orderedMerge within a budget, reserving the bytes of the order before it is decided (see StringsListOrderStrategy.getOrderBytes).
+     * If a limit of the budget is already exceeded, or the order would exceed it, the document is left as it was. The time the order itself takes is bounded by the order strategy.
+     *
+     * @param orderStrategy The strategy deciding the order of the strings.
+     * @param meter         The meter of the budget of the document, or null for no budget.
+     * @return The limit exceeded, or null if the merging completed.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the order strategy is missing.
+     */
+    public MergeBudget.Limit orderedMerge(StringsListOrderStrategy orderStrategy, MergeBudget.Meter meter) throws IllegalArgumentException {
+        if (orderStrategy == null) {
+            throw new IllegalArgumentException("An order strategy must be specified to merge the document in order");
+        }
+        String[] fragments = document.toArray();
+        if (fragments.length <= 1) {
+            return null;
+        }
+        MergeBudget.Limit exceeded = meter == null ? null : meter.reserve(orderStrategy.getOrderBytes(fragments));
+        if (exceeded != null) {
+            return exceeded;
+        }
+        StringBuilder merged = new StringBuilder();
+        String previous = null;
+        for (int position : orderStrategy.order(fragments)) {
+            String fragment = fragments[position];
+            int overlap = previous == null ? 0 : LinearCharsArrayComparator.getTailOverlap(fragment, previous);
+            merged.append(fragment, overlap, fragment.length());
+            previous = fragment;
+        }
+        document = PersistentDocument.of(new String[]{merged.toString()});
+        return null;
+    }
+
+    // The text of the remaining positions in order.
+    private static String[] compact(String[] positions, int remaining) {
+        String[] fragments = new String[remaining];
+        int fragment = 0;
+        for (String position : positions) {
+            if (position != null) {
+                fragments[fragment++] = position;
+            }
+        }
+        return fragments;
+    }
+
     /**
      * Return the current document stored within the DocumentCompositor.
      *
@@ -147,7 +327,7 @@ public class DocumentCompositor {
      */
     public List<String> get() {
         // The document is defensively copied to retain the immutability of the internal data.
-        return new ArrayList<>(document);
+        return document.toList();
     }
 
     /**
@@ -156,9 +336,13 @@ public class DocumentCompositor {
      * @return Returns a string representation of the internal document.
      */
     public String getToString() {
+        // A fully merged document is already a single string, so it is returned without being copied again.
+        if (document.size() == 1 && document.get(0) != null) {
+            return document.get(0);
+        }
         StringBuilder stringBuilder = new StringBuilder();
         // Prefer checking for nulls rather than asserting non-nulls since the class could be extended without method override.
-        for (String s : document) {
+        for (String s : document.toArray()) {
             if (s != null) {
                 stringBuilder.append(s);
             }
@@ -1,12 +1,22 @@
 package badnieces.entities.compositor.document;
 
 import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.order.ShortestSuperstringOrder;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
 import badnieces.entities.strategies.search.NextMaximallyOverlappingPair;
 import badnieces.interfaces.strategy.merge.StringMergeStrategy;
 import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class DocumentCompositorTest {
 
@@ -28,4 +38,169 @@ public class DocumentCompositorTest {
         documentCompositor.recursiveMerge();
         assertEquals("Neque porro quisquam est, qui dolorem ipsum quia dolor sit amet, consectetur, adipisci velit, sed quia non numquam eius modi tempora incidunt ut labore et dolore magnam aliquam quaerat voluptatem.", documentCompositor.getToString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void incrementalMergeValid() {
+        StringMergeStrategy mergeStrategy = new MergeOverlapPair();
+        String input = "O draconia;conian devil! Oh la;h lame sa;saint! ";
+        // Test 1.
+        String[] fragments = input.split(";");
+        DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), mergeStrategy, fragments);
+        documentCompositor.incrementalMerge();
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+
+        // Test 2.
+        input = "m quaerat voluptatem.;pora incidunt ut labore et d;, consectetur, adipisci velit;olore magnam aliqua;idunt ut labore et dolore magn;uptatem.;i dolorem ipsum qu;iquam quaerat vol;psum quia dolor sit amet, consectetur, a;ia dolor sit amet, conse;squam est, qui do;Neque porro quisquam est, qu;aerat voluptatem.;m eius modi tem;Neque porro qui;, sed quia non numquam ei;lorem ipsum quia dolor sit amet;ctetur, adipisci velit, sed quia non numq;unt ut labore et dolore magnam aliquam qu;dipisci velit, sed quia non numqua;us modi tempora incid;Neque porro quisquam est, qui dolorem i;uam eius modi tem;pora inc;am al";
+        fragments = input.split(";");
+        documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), mergeStrategy, fragments);
+        documentCompositor.incrementalMerge();
+        assertEquals("Neque porro quisquam est, qui dolorem ipsum quia dolor sit amet, consectetur, adipisci velit, sed quia non numquam eius modi tempora incidunt ut labore et dolore magnam aliquam quaerat voluptatem.", documentCompositor.getToString());
+    }
+
+    @Test
+    public void incrementalMergeEquivalence() {
+        // Random fragments over a small alphabet are highly ambiguous, so the tie-breaking of every merge is exercised.
+        StringMergeStrategy mergeStrategy = new MergeOverlapPair();
+        Random random = new Random(7);
+        for (int test = 0; test < 500; test++) {
+            String[] fragments = new String[2 + random.nextInt(12)];
+            for (int i = 0; i < fragments.length; i++) {
+                StringBuilder fragment = new StringBuilder();
+                int length = 1 + random.nextInt(6);
+                for (int c = 0; c < length; c++) {
+                    fragment.append((char) ('A' + random.nextInt(3)));
+                }
+                fragments[i] = fragment.toString();
+            }
+            DocumentCompositor recursive = new DocumentCompositor(new NextMaximallyOverlappingPair(), mergeStrategy, fragments);
+            recursive.recursiveMerge();
+            DocumentCompositor incremental = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), mergeStrategy, fragments);
+            incremental.incrementalMerge();
+            assertEquals(String.join(";", fragments), recursive.get(), incremental.get());
+        }
+    }
+
+    @Test
+    public void incrementalMergeCheckpointEquivalence() {
+        // Merging continued from the fragments remaining at any checkpoint produces the same document.
+        Random random = new Random(11);
+        for (int test = 0; test < 200; test++) {
+            String[] fragments = new String[2 + random.nextInt(12)];
+            for (int i = 0; i < fragments.length; i++) {
+                StringBuilder fragment = new StringBuilder();
+                int length = 1 + random.nextInt(6);
+                for (int c = 0; c < length; c++) {
+                    fragment.append((char) ('A' + random.nextInt(3)));
+                }
+                fragments[i] = fragment.toString();
+            }
+            List<String[]> checkpoints = new ArrayList<>();
+            DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+            documentCompositor.incrementalMerge(1 + random.nextInt(3), checkpoints::add);
+            for (String[] remaining : checkpoints) {
+                DocumentCompositor resumed = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), remaining);
+                resumed.incrementalMerge();
+                assertEquals(String.join(";", fragments), documentCompositor.get(), resumed.get());
+            }
+        }
+    }
+
+    @Test
+    public void checkpointValid() {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"O draconia", "conian devil! Oh la", "h lame sa", "saint! "});
+        int initial = documentCompositor.checkpoint();
+        documentCompositor.merge(1, 0);
+        int merged = documentCompositor.checkpoint();
+        documentCompositor.recursiveMerge();
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+        documentCompositor.rollback(merged);
+        assertEquals(Arrays.asList("O draconian devil! Oh la", "h lame sa", "saint! "), documentCompositor.get());
+        documentCompositor.rollback(initial);
+        assertEquals(4, documentCompositor.get().size());
+    }
+
+    @Test
+    public void restoreBackupValid() {
+        // A backup is a snapshot, so merges after it do not change it.
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"ABC", "BCD"});
+        documentCompositor.writeBackup();
+        documentCompositor.recursiveMerge();
+        assertEquals("ABCD", documentCompositor.getToString());
+        documentCompositor.restoreBackup();
+        assertEquals(Arrays.asList("ABC", "BCD"), documentCompositor.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rollbackInvalid() {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"ABC", "BCD"});
+        int first = documentCompositor.checkpoint();
+        int second = documentCompositor.checkpoint();
+        documentCompositor.rollback(first);
+        // Rolling back discards the later checkpoints.
+        documentCompositor.rollback(second);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void incrementalMergeInvalid() {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"ABC", "BCD"});
+        documentCompositor.incrementalMerge();
+    }
+
+    @Test
+    public void incrementalMergeBudgetValid() {
+        String[] fragments = "O draconia;conian devil! Oh la;h lame sa;saint! ".split(";");
+        // Within its budget the merge completes as it would without one.
+        DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        assertNull(documentCompositor.incrementalMerge(0, null, new MergeBudget(0, 10, 0).start()));
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+        // Over its budget the merge stops, leaving the fragments remaining (in order) as the document.
+        documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        MergeBudget.Meter meter = new MergeBudget(0, 2, 0).start();
+        assertEquals(MergeBudget.Limit.SEARCHES, documentCompositor.incrementalMerge(0, null, meter));
+        assertEquals(2, meter.getPasses());
+        assertEquals(Arrays.asList("O draconian devil! Oh lame sa", "saint! "), documentCompositor.get());
+        // A document whose index would exceed the budget is refused before it is indexed, leaving its fragments as they were.
+        if (MergeBudget.isAllocationMeasurable()) {
+            documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+            meter = new MergeBudget(0, 0, new IncrementalMaximallyOverlappingPair().getIndexBytes(fragments) / 2).start();
+            assertEquals(MergeBudget.Limit.ALLOCATION, documentCompositor.incrementalMerge(0, null, meter));
+            assertEquals(0, meter.getPasses());
+            assertEquals(Arrays.asList(fragments), documentCompositor.get());
+        }
+    }
+
+    @Test
+    public void incrementalMergeTimeBudgetValid() {
+        // The index of 4000 fragments takes far longer than the budget to build, so it is abandoned part way, leaving the fragments as they were.
+        Random random = new Random(37);
+        String[] fragments = new String[4000];
+        for (int i = 0; i < fragments.length; i++) {
+            char[] fragment = new char[200];
+            for (int c = 0; c < fragment.length; c++) {
+                fragment[c] = (char) ('A' + random.nextInt(4));
+            }
+            fragments[i] = new String(fragment);
+        }
+        DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        MergeBudget.Meter meter = new MergeBudget(budgetNanos, 0, 0).start();
+        assertEquals(MergeBudget.Limit.TIME, documentCompositor.incrementalMerge(0, null, meter));
+        assertEquals(0, meter.getPasses());
+        assertTrue("Abandoned after " + TimeUnit.NANOSECONDS.toMillis(meter.getElapsedNanos()) + "ms", meter.getElapsedNanos() < 5 * budgetNanos);
+        assertEquals(Arrays.asList(fragments), documentCompositor.get());
+    }
+
+    @Test
+    public void orderedMergeValid() {
+        // Contained fragments are absorbed, and the document is laid out in the order of the strategy.
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"lame saint", null, "Oh la", "h lame", "me"});
+        documentCompositor.orderedMerge(new ShortestSuperstringOrder(8, 0, TimeUnit.MILLISECONDS));
+        assertEquals("Oh lame saint", documentCompositor.getToString());
+        assertEquals(1, documentCompositor.get().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void orderedMergeInvalid() {
+        new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), new String[]{"ABC", "BCD"}).orderedMerge(null);
+    }
+}
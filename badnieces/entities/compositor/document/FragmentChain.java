@@ -0,0 +1,216 @@
+package badnieces.entities.compositor.document;
+
+/**
+ * The FragmentChain class is responsible for holding a merged fragment as a chain of spans of the original fragments, rather than as one copied String.
+ * A span is a range of characters of a fragment (the fragment itself is never copied), and the spans of a chain read in order are the characters of the chain.
+ * <p>
+ * Splicing another chain into a chain relinks the spans of the other chain, so a merge costs the spans it walks past rather than a copy of both fragments.
+ * Merges join fragments near the end of a chain, so positions are located from whichever end of the chain is nearer.
+ * Characters are read through a cursor which remembers the last span read, so reading the chain in order (as the comparators do) costs O(1) per character.
+ * The text of a chain is only built when toString is called.
+ * <p>
+ * A FragmentChain is mutable and not thread safe: it belongs to a single compositor.
+ */
+public final class FragmentChain implements CharSequence {
+    private Span head;
+    private Span tail;
+    private int length;
+    private int spans;
+    // The cursor: the last span read and the position of its first character.
+    private Span cursor;
+    private int cursorStart;
+
+    /**
+     * Constructs a new FragmentChain holding a single fragment.
+     *
+     * @param fragment The fragment (an empty fragment makes an empty chain).
+     */
+    public FragmentChain(String fragment) {
+        if (fragment == null) {
+            throw new IllegalArgumentException("A chain cannot be made of a null fragment");
+        }
+        if (!fragment.isEmpty()) {
+            head = new Span(fragment, 0, fragment.length());
+            tail = head;
+            length = fragment.length();
+            spans = 1;
+        }
+        resetCursor();
+    }
+
+    /**
+     * Replaces the characters of the chain between start (inclusive) and end (exclusive) with the characters of another chain.
+     * The spans of the other chain are moved (not copied) into this chain, so the other chain is left empty.
+     *
+     * @param start The position of the first character replaced.
+     * @param end   The position after the last character replaced.
+     * @param other The chain spliced in (which cannot be this chain).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the range is not within the chain or the other chain is this chain.
+     */
+    public void splice(int start, int end, FragmentChain other) throws IllegalArgumentException {
+        if (other == null || other == this) {
+            throw new IllegalArgumentException("A chain can only be spliced with another chain");
+        }
+        if (start < 0 || end < start || end > length) {
+            throw new IllegalArgumentException("The range [" + start + ", " + end + ") is not within a chain of length " + length);
+        }
+        // Split the spans at both ends of the range, so the range is a run of whole spans between before and after.
+        Span after = split(end);
+        Span first = split(start);
+        Span before = first == null ? tail : first.previous;
+        for (Span span = first; span != after; span = span.next) {
+            spans--;
+        }
+        Span insertedHead = other.head;
+        Span insertedTail = other.tail;
+        if (insertedHead == null) {
+            link(before, after);
+        } else {
+            link(before, insertedHead);
+            link(insertedTail, after);
+        }
+        length += other.length - (end - start);
+        spans += other.spans;
+        other.head = null;
+        other.tail = null;
+        other.length = 0;
+        other.spans = 0;
+        other.resetCursor();
+        resetCursor();
+    }
+
+    /**
+     * Returns the number of spans in the chain (the fragments, or parts of fragments, it is made of).
+     *
+     * @return The number of spans.
+     */
+    public int spans() {
+        return spans;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not within a chain of length " + length);
+        }
+        moveCursor(index);
+        return cursor.source.charAt(cursor.start + index - cursorStart);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || end > length) {
+            throw new IndexOutOfBoundsException("The range [" + start + ", " + end + ") is not within a chain of length " + length);
+        }
+        StringBuilder subSequence = new StringBuilder(end - start);
+        int position = 0;
+        for (Span span = head; span != null && position < end; span = span.next) {
+            int spanEnd = position + span.length();
+            if (spanEnd > start) {
+                subSequence.append(span.source, span.start + Math.max(0, start - position), span.start + Math.min(span.length(), end - position));
+            }
+            position = spanEnd;
+        }
+        return subSequence.toString();
+    }
+
+    /**
+     * Builds the text of the chain (a single copy of every span).
+     *
+     * @return The text of the chain.
+     */
+    @Override
+    public String toString() {
+        if (spans == 1 && head.start == 0 && head.end == head.source.length()) {
+            return head.source;
+        }
+        StringBuilder text = new StringBuilder(length);
+        for (Span span = head; span != null; span = span.next) {
+            text.append(span.source, span.start, span.end);
+        }
+        return text.toString();
+    }
+
+    // Returns the span starting at the position (splitting the span containing it if need be), or null at the end of the chain.
+    private Span split(int position) {
+        if (position == length) {
+            return null;
+        }
+        moveCursor(position);
+        Span span = cursor;
+        int offset = position - cursorStart;
+        if (offset == 0) {
+            return span;
+        }
+        Span second = new Span(span.source, span.start + offset, span.end);
+        span.end = span.start + offset;
+        link(second, span.next);
+        link(span, second);
+        spans++;
+        return second;
+    }
+
+    private void link(Span previous, Span next) {
+        if (previous == null) {
+            head = next;
+        } else {
+            previous.next = next;
+        }
+        if (next == null) {
+            tail = previous;
+        } else {
+            next.previous = previous;
+        }
+    }
+
+    private void moveCursor(int index) {
+        if (cursor == null || index < cursorStart / 2) {
+            // Nearer the head than the cursor.
+            cursor = head;
+            cursorStart = 0;
+        } else if (index >= cursorStart + cursor.length() && length - index < index - cursorStart) {
+            // Nearer the tail than the cursor.
+            cursor = tail;
+            cursorStart = length - tail.length();
+        }
+        while (index >= cursorStart + cursor.length()) {
+            cursorStart += cursor.length();
+            cursor = cursor.next;
+        }
+        while (index < cursorStart) {
+            cursor = cursor.previous;
+            cursorStart -= cursor.length();
+        }
+    }
+
+    private void resetCursor() {
+        cursor = head;
+        cursorStart = 0;
+    }
+
+    /**
+     * A range of the characters of a fragment.
+     */
+    private static final class Span {
+        private final String source;
+        private final int start;
+        private int end;
+        private Span previous;
+        private Span next;
+
+        private Span(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int length() {
+            return end - start;
+        }
+    }
+}
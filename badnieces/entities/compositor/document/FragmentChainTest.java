@@ -0,0 +1,69 @@
+package badnieces.entities.compositor.document;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FragmentChainTest {
+
+    @Test
+    public void spliceValid() {
+        FragmentChain chain = new FragmentChain("O draconia");
+        chain.splice(5, 10, new FragmentChain("conian devil! Oh la"));
+        assertEquals("O draconian devil! Oh la", chain.toString());
+        chain.splice(22, 24, new FragmentChain("lame saint! "));
+        assertEquals("O draconian devil! Oh lame saint! ", chain.toString());
+        // The fragments are held as spans, not copied.
+        assertEquals(3, chain.spans());
+        assertEquals('l', chain.charAt(22));
+        assertEquals("devil", chain.subSequence(12, 17));
+    }
+
+    @Test
+    public void extremeValidSplice() {
+        // Random splices (and reads in any order) agree with the same edits to a StringBuilder.
+        Random random = new Random(5);
+        for (int test = 0; test < 500; test++) {
+            StringBuilder expected = new StringBuilder(randomString(random));
+            FragmentChain chain = new FragmentChain(expected.toString());
+            for (int splice = 0; splice < 20; splice++) {
+                int start = random.nextInt(expected.length() + 1);
+                int end = start + random.nextInt(expected.length() - start + 1);
+                String spliced = randomString(random);
+                expected.replace(start, end, spliced);
+                chain.splice(start, end, new FragmentChain(spliced));
+                assertEquals(expected.length(), chain.length());
+                for (int read = 0; read < 10 && expected.length() > 0; read++) {
+                    int index = random.nextInt(expected.length());
+                    assertEquals(expected.charAt(index), chain.charAt(index));
+                }
+            }
+            assertEquals(expected.toString(), chain.toString());
+            int start = random.nextInt(expected.length() + 1);
+            assertEquals(expected.substring(start), chain.subSequence(start, expected.length()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSplice() {
+        FragmentChain chain = new FragmentChain("ABC");
+        chain.splice(2, 4, new FragmentChain("D"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extremeInvalidSplice() {
+        FragmentChain chain = new FragmentChain("ABC");
+        chain.splice(0, 1, chain);
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder string = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            string.append((char) ('A' + random.nextInt(26)));
+        }
+        return string.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package badnieces.entities.compositor.document;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The MergeBudget class holds the limits of merging one document: the wall-clock time, the number of search passes and the bytes allocated on the thread merging it.
+ * A budget is immutable and shared by every document, and each document is merged against a Meter started for it (see start), which a DocumentCompositor checks before each search pass.
+ * A limit of 0 is no limit.
+ * <p>
+ * The allocation limit is a limit on the bytes allocated in total by the thread merging the document (through com.sun.management.ThreadMXBean), garbage included, rather than on the heap the merge holds at once.
+ * It bounds the heap the merge holds from above, so a merge held within it can never hold more, but a merge which allocates and discards many small objects exceeds it long before its heap use does.
+ * Reading the clock and the bytes allocated costs far less than a search pass, but the bytes allocated are only read every ALLOCATION_CHECK_PASSES passes.
+ * Steps which allocate a lot at once (such as building the index of a search) are checked before they are taken (see Meter.reserve), so a document is refused before it allocates more than its budget.
+ * Steps which take a long time (such as comparing every pair of fragments to build that index) are checked as they go (see Meter.poll), so a document is abandoned soon after its time runs out.
+ */
+public final class MergeBudget {
+    /**
+     * The limit a merge exceeded.
+     */
+    public enum Limit {
+        TIME, SEARCHES, ALLOCATION
+    }
+
+    private static final int ALLOCATION_CHECK_PASSES = 16;
+    private final long nanos;
+    private final long searches;
+    private final long allocatedBytes;
+
+    /**
+     * Constructs a budget for merging a document.
+     *
+     * @param nanos          The greatest wall-clock time of the merge in nanoseconds (0 for no limit).
+     * @param searches       The greatest number of search passes of the merge (0 for no limit).
+     * @param allocatedBytes The greatest number of bytes the merge may allocate in total (0 for no limit).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if a limit is negative, or bytes are limited where the JVM cannot measure the bytes a thread allocates.
+     */
+    public MergeBudget(long nanos, long searches, long allocatedBytes) throws IllegalArgumentException {
+        if (nanos < 0 || searches < 0 || allocatedBytes < 0) {
+            throw new IllegalArgumentException("The limits of a merge budget must be positive (or 0 for no limit)");
+        }
+        if (allocatedBytes > 0 && !isAllocationMeasurable()) {
+            throw new IllegalArgumentException("The bytes allocated by a thread cannot be measured by this JVM, so the bytes allocated by a merge cannot be limited");
+        }
+        this.nanos = nanos;
+        this.searches = searches;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Returns whether the JVM can measure the bytes allocated by a thread (so the bytes allocated by a merge can be limited).
+     *
+     * @return True if the bytes allocated can be measured.
+     */
+    public static boolean isAllocationMeasurable() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns whether the budget has no limits.
+     *
+     * @return True if nothing is limited.
+     */
+    public boolean isUnlimited() {
+        return nanos == 0 && searches == 0 && allocatedBytes == 0;
+    }
+
+    /**
+     * Starts metering the merge of one document on the calling thread, from now.
+     *
+     * @return The meter of the merge.
+     */
+    public Meter start() {
+        return new Meter();
+    }
+
+    @Override
+    public String toString() {
+        return "MergeBudget {Nanos:" + nanos + " Searches:" + searches + " AllocatedBytes:" + allocatedBytes + "}";
+    }
+
+    /**
+     * The meter of the merge of one document, which is not thread safe: it is spent by the thread merging the document, as the bytes allocated are those of that thread.
+     * Once a limit is exceeded the meter stays exceeded.
+     */
+    public final class Meter {
+        private final long startNanos = System.nanoTime();
+        private final com.sun.management.ThreadMXBean threads = allocatedBytes > 0 ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+        private final long threadId = Thread.currentThread().getId();
+        private final long startAllocatedBytes = threads == null ? 0 : threads.getThreadAllocatedBytes(threadId);
+        private long passes;
+        private Limit exceeded;
+
+        private Meter() {
+        }
+
+        /**
+         * Spends one search pass, returning the limit exceeded (if any) before it is made.
+         *
+         * @return The limit exceeded, or null if the pass is within the budget.
+         */
+        public Limit spend() {
+            if (exceeded == null && (exceeded = check(0, passes % ALLOCATION_CHECK_PASSES == 0)) == null) {
+                passes++;
+            }
+            return exceeded;
+        }
+
+        /**
+         * Checks the budget before a step which allocates about the bytes given at once (such as building the index of a search), without spending a search pass.
+         * The step exceeds the allocation limit if the bytes allocated so far and the bytes of the step exceed it, so it is refused before it is taken.
+         *
+         * @param bytes The bytes the step is estimated to allocate.
+         * @return The limit exceeded, or null if the step is within the budget.
+         */
+        public Limit reserve(long bytes) {
+            if (exceeded == null) {
+                exceeded = check(bytes, true);
+            }
+            return exceeded;
+        }
+
+        /**
+         * Checks the budget part way through a step (such as between the rows of an index being built), without spending a search pass.
+         *
+         * @return The limit exceeded, or null if the merge is still within the budget.
+         */
+        public Limit poll() {
+            return reserve(0);
+        }
+
+        // The limit exceeded by the passes spent, the time elapsed or the bytes allocated with the bytes of the next step (which are only read if asked).
+        private Limit check(long bytes, boolean readAllocated) {
+            if (searches > 0 && passes >= searches) {
+                return Limit.SEARCHES;
+            }
+            if (nanos > 0 && System.nanoTime() - startNanos > nanos) {
+                return Limit.TIME;
+            }
+            if (threads != null && readAllocated && threads.getThreadAllocatedBytes(threadId) - startAllocatedBytes + bytes > allocatedBytes) {
+                return Limit.ALLOCATION;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the limit exceeded.
+         *
+         * @return The limit exceeded, or null if every pass was within the budget.
+         */
+        public Limit getExceeded() {
+            return exceeded;
+        }
+
+        /**
+         * Returns the number of search passes spent.
+         *
+         * @return The passes spent.
+         */
+        public long getPasses() {
+            return passes;
+        }
+
+        /**
+         * Returns the wall-clock time since the meter was started.
+         *
+         * @return The elapsed nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package badnieces.entities.compositor.document;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MergeBudgetTest {
+
+    @Test
+    public void searchesExceeded() {
+        MergeBudget.Meter meter = new MergeBudget(0, 3, 0).start();
+        for (int pass = 0; pass < 3; pass++) {
+            assertNull(meter.spend());
+        }
+        assertEquals(MergeBudget.Limit.SEARCHES, meter.spend());
+        // An exceeded meter stays exceeded.
+        assertEquals(MergeBudget.Limit.SEARCHES, meter.spend());
+        assertEquals(MergeBudget.Limit.SEARCHES, meter.getExceeded());
+        assertEquals(3, meter.getPasses());
+    }
+
+    @Test
+    public void timeExceeded() throws InterruptedException {
+        MergeBudget.Meter meter = new MergeBudget(TimeUnit.MILLISECONDS.toNanos(10), 0, 0).start();
+        assertNull(meter.spend());
+        Thread.sleep(20);
+        // Polling part way through a step finds the time exceeded without spending a pass, and the meter stays exceeded.
+        assertEquals(MergeBudget.Limit.TIME, meter.poll());
+        assertEquals(1, meter.getPasses());
+        assertEquals(MergeBudget.Limit.TIME, meter.spend());
+    }
+
+    @Test
+    public void allocationExceeded() {
+        if (!MergeBudget.isAllocationMeasurable()) {
+            return;
+        }
+        MergeBudget.Meter meter = new MergeBudget(0, 0, 1 << 20).start();
+        assertNull(meter.spend());
+        // 2MB allocated on the thread of the meter.
+        long[][] allocated = new long[64][];
+        for (int i = 0; i < allocated.length; i++) {
+            allocated[i] = new long[1 << 12];
+        }
+        // The bytes allocated are read every 16 passes.
+        MergeBudget.Limit exceeded = null;
+        for (int pass = 0; pass < 16 && exceeded == null; pass++) {
+            exceeded = meter.spend();
+        }
+        assertEquals(MergeBudget.Limit.ALLOCATION, exceeded);
+        assertEquals(1 << 12, allocated[allocated.length - 1].length);
+    }
+
+    @Test
+    public void reserveExceeded() {
+        // A step is refused before it is taken, and a refused step spends no search pass.
+        MergeBudget.Meter meter = new MergeBudget(0, 1, 0).start();
+        assertNull(meter.reserve(Long.MAX_VALUE / 2));
+        assertNull(meter.spend());
+        assertEquals(MergeBudget.Limit.SEARCHES, meter.reserve(0));
+        assertEquals(1, meter.getPasses());
+        if (!MergeBudget.isAllocationMeasurable()) {
+            return;
+        }
+        meter = new MergeBudget(0, 0, 1 << 20).start();
+        assertNull(meter.reserve(1 << 10));
+        assertEquals(MergeBudget.Limit.ALLOCATION, meter.reserve(1 << 21));
+        assertEquals(0, meter.getPasses());
+        assertEquals(MergeBudget.Limit.ALLOCATION, meter.spend());
+    }
+
+    @Test
+    public void unlimitedValid() {
+        MergeBudget budget = new MergeBudget(0, 0, 0);
+        assertTrue(budget.isUnlimited());
+        assertFalse(new MergeBudget(0, 1, 0).isUnlimited());
+        MergeBudget.Meter meter = budget.start();
+        for (int pass = 0; pass < 1000; pass++) {
+            assertNull(meter.spend());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void budgetInvalid() {
+        new MergeBudget(-1, 0, 0);
+    }
+}
@@ -0,0 +1,310 @@
+package badnieces.entities.compositor.document;
+
+import badnieces.interfaces.strategy.merge.StringMergeStrategy;
+import badnieces.interfaces.strategy.search.IncrementalStringsListSearchStrategy;
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The OnlineDocumentCompositor class is responsible for compositing a document from fragments as they arrive, rather than from a document of fragments known up front.
+ * Each fragment added is merged straight away into the contigs (the partial documents) assembled so far, so the partial assembly can be read at any time (see getContigs).
+ * <p>
+ * A fragment is merged after the contig whose tail is the longest head of the fragment, and before the contig whose head is the longest tail of the fragment (joining both contigs when it bridges them).
+ * Ties go to the contig holding the earliest fragment. A fragment equal to the head or tail of a contig is contained in it, so it is discarded.
+ * The heads and tails of the contigs (of from minOverlap to maxOverlap characters) are indexed by their hashes, and every hash found is confirmed by comparing characters.
+ * A fragment is therefore merged in O(fragment length + maxOverlap), however many fragments have arrived, and contigs are held as FragmentChains so a merge copies no contig.
+ * <p>
+ * A merge made as a fragment arrives cannot be undone by a longer overlap arriving later, so an online assembly can differ from the greedy assembly of the same fragments.
+ * Overlaps shorter than minOverlap or longer than maxOverlap, and fragments contained within a contig (other than at one of its ends), are left to getToString, which merges the contigs with the search and merge strategies as DocumentCompositor does.
+ * <p>
+ * An OnlineDocumentCompositor is mutable and not thread safe: fragments arriving on several threads must be added under a lock.
+ */
+public class OnlineDocumentCompositor {
+    // The hashes of heads and tails are polynomial over the characters (modulo 2^64), and are keyed with their length.
+    private static final long BASE = 0x5DEECE66DL;
+    private static final long LENGTH_MIX = 0x9E3779B97F4A7C15L;
+    private final StringsListSearchStrategy searchStrategy;
+    private final StringMergeStrategy mergeStrategy;
+    private final int minOverlap;
+    private final int maxOverlap;
+    // Contigs by the arrival of their earliest fragment, so they are read in the order their fragments arrived.
+    private final TreeMap<Integer, Contig> contigs = new TreeMap<>();
+    private final Map<Long, List<Contig>> heads = new HashMap<>();
+    private final Map<Long, List<Contig>> tails = new HashMap<>();
+    private int fragments;
+    private int containedFragments;
+    private long merges;
+
+    /**
+     * Instantiates an OnlineDocumentCompositor holding no fragments.
+     *
+     * @param searchStrategy The search strategy the contigs are merged with by getToString.
+     * @param mergeStrategy  The merge strategy the contigs are merged with by getToString.
+     * @param minOverlap     The shortest overlap merged as a fragment arrives (shorter overlaps are left to getToString). Short overlaps are often chance, and a merge is never revisited, so this is the shortest overlap trusted between neighbouring fragments.
+     * @param maxOverlap     The longest overlap merged as a fragment arrives (at least the length of the fragments expected, as longer overlaps are left to getToString).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if a strategy is missing, or the overlaps are not from 1 to maxOverlap.
+     */
+    public OnlineDocumentCompositor(StringsListSearchStrategy searchStrategy, StringMergeStrategy mergeStrategy, int minOverlap, int maxOverlap) throws IllegalArgumentException {
+        if (searchStrategy == null || mergeStrategy == null) {
+            throw new IllegalArgumentException("A search and merge strategy must be specified");
+        }
+        if (minOverlap < 1 || maxOverlap < minOverlap) {
+            throw new IllegalArgumentException("Overlaps must be from at least 1 character to maxOverlap, not from " + minOverlap + " to " + maxOverlap);
+        }
+        this.searchStrategy = searchStrategy;
+        this.mergeStrategy = mergeStrategy;
+        this.minOverlap = minOverlap;
+        this.maxOverlap = maxOverlap;
+    }
+
+    /**
+     * Merges a fragment into the contigs assembled so far (or holds it as a new contig if it overlaps none).
+     * Nulls and empty fragments are ignored (nulls are not mergable, and an empty fragment is contained in every contig).
+     *
+     * @param fragment The fragment which has arrived.
+     */
+    public void addFragment(String fragment) {
+        if (fragment == null || fragment.isEmpty()) {
+            return;
+        }
+        int arrival = fragments++;
+        int length = fragment.length();
+        long[] hashes = prefixHashes(fragment);
+        long[] powers = powers(length);
+        Contig before = null;
+        int beforeOverlap = 0;
+        Contig after = null;
+        int afterOverlap = 0;
+        // The longest overlap confirmed on each side is taken, so each side costs at most one lookup per length of overlap.
+        for (int overlap = Math.min(length, maxOverlap); overlap >= minOverlap && before == null; overlap--) {
+            before = findTail(tails.get(key(hashes[overlap], overlap)), fragment, overlap);
+            beforeOverlap = before == null ? 0 : overlap;
+        }
+        for (int overlap = Math.min(length, maxOverlap); overlap >= minOverlap && after == null; overlap--) {
+            after = findHead(heads.get(key(hashes[length] - hashes[length - overlap] * powers[overlap], overlap)), fragment, overlap);
+            afterOverlap = after == null ? 0 : overlap;
+        }
+        if (beforeOverlap == length || afterOverlap == length) {
+            containedFragments++;
+            return;
+        }
+        // A fragment overlapping both ends of the same contig is merged on the side of the longer overlap (after the contig, when both are equal).
+        if (before != null && before == after) {
+            if (afterOverlap > beforeOverlap) {
+                before = null;
+            } else {
+                after = null;
+            }
+        }
+        Contig contig = new Contig(arrival, new FragmentChain(fragment), fragment.length(), head(fragment), tail(fragment));
+        if (before != null) {
+            contig = join(before, contig, beforeOverlap);
+        }
+        if (after != null) {
+            contig = join(contig, after, afterOverlap);
+        }
+        index(contig);
+        contigs.put(contig.arrival, contig);
+    }
+
+    /**
+     * Returns the number of contigs assembled so far.
+     *
+     * @return The number of contigs.
+     */
+    public int size() {
+        return contigs.size();
+    }
+
+    /**
+     * Returns the number of fragments discarded as contained in a contig when they arrived.
+     *
+     * @return The number of contained fragments.
+     */
+    public int getContainedFragments() {
+        return containedFragments;
+    }
+
+    /**
+     * Returns the number of merges made as fragments arrived.
+     *
+     * @return The number of merges.
+     */
+    public long getMerges() {
+        return merges;
+    }
+
+    /**
+     * Returns the partial assembly: the text of each contig assembled so far, in the order of the earliest fragment of each (O(the characters of the contigs)).
+     *
+     * @return The contigs.
+     */
+    public String[] getContigs() {
+        String[] texts = new String[contigs.size()];
+        int contig = 0;
+        for (Contig value : contigs.values()) {
+            texts[contig++] = value.chain.toString();
+        }
+        return texts;
+    }
+
+    /**
+     * Merges the contigs assembled so far into a document with the search and merge strategies (incrementally if the search strategy is incremental), leaving the contigs unchanged so more fragments can still arrive.
+     *
+     * @return The document.
+     * @throws IllegalStateException Throws an illegal state exception if the search strategy does not return enough search tokens to perform a merge.
+     */
+    public String getToString() throws IllegalStateException {
+        if (contigs.size() == 1) {
+            return contigs.firstEntry().getValue().chain.toString();
+        }
+        DocumentCompositor documentCompositor = new DocumentCompositor(searchStrategy, mergeStrategy, getContigs());
+        if (searchStrategy instanceof IncrementalStringsListSearchStrategy) {
+            documentCompositor.incrementalMerge();
+        } else {
+            documentCompositor.recursiveMerge();
+        }
+        return documentCompositor.getToString();
+    }
+
+    @Override
+    public String toString() {
+        return "OnlineDocumentCompositor {Fragments:" + fragments + " Contigs:" + contigs.size() + " Merges:" + merges + "}";
+    }
+
+    // Merges the contig after into the contig before, where the head of after is the tail of before (of overlap characters).
+    private Contig join(Contig before, Contig after, int overlap) {
+        unindex(before);
+        unindex(after);
+        contigs.remove(before.arrival);
+        contigs.remove(after.arrival);
+        // The overlap is replaced by the whole of the contig before (as MergeOverlapPair merges), and splicing the chains copies no characters.
+        after.chain.splice(0, overlap, before.chain);
+        int length = before.length + after.length - overlap;
+        // Only the characters of a head or tail held already are needed to build the head and tail of the merged contig.
+        String head = before.length >= maxOverlap ? before.head : head(before.head + after.head.substring(overlap));
+        String tail = after.length - overlap >= maxOverlap ? after.tail : tail(before.tail + after.tail.substring(overlap - (after.length - after.tail.length())));
+        merges++;
+        return new Contig(Math.min(before.arrival, after.arrival), after.chain, length, head, tail);
+    }
+
+    // The contig (earliest first) whose tail is the head of the fragment, of overlap characters.
+    private static Contig findTail(List<Contig> candidates, String fragment, int overlap) {
+        Contig found = null;
+        if (candidates != null) {
+            for (Contig candidate : candidates) {
+                if ((found == null || candidate.arrival < found.arrival) && candidate.tail.regionMatches(candidate.tail.length() - overlap, fragment, 0, overlap)) {
+                    found = candidate;
+                }
+            }
+        }
+        return found;
+    }
+
+    // The contig (earliest first) whose head is the tail of the fragment, of overlap characters.
+    private static Contig findHead(List<Contig> candidates, String fragment, int overlap) {
+        Contig found = null;
+        if (candidates != null) {
+            for (Contig candidate : candidates) {
+                if ((found == null || candidate.arrival < found.arrival) && candidate.head.regionMatches(0, fragment, fragment.length() - overlap, overlap)) {
+                    found = candidate;
+                }
+            }
+        }
+        return found;
+    }
+
+    private void index(Contig contig) {
+        long[] headHashes = prefixHashes(contig.head);
+        for (int overlap = minOverlap; overlap <= contig.head.length(); overlap++) {
+            heads.computeIfAbsent(key(headHashes[overlap], overlap), key -> new ArrayList<>(1)).add(contig);
+        }
+        for (long key : tailKeys(contig.tail)) {
+            tails.computeIfAbsent(key, k -> new ArrayList<>(1)).add(contig);
+        }
+    }
+
+    private void unindex(Contig contig) {
+        long[] headHashes = prefixHashes(contig.head);
+        for (int overlap = minOverlap; overlap <= contig.head.length(); overlap++) {
+            remove(heads, key(headHashes[overlap], overlap), contig);
+        }
+        for (long key : tailKeys(contig.tail)) {
+            remove(tails, key, contig);
+        }
+    }
+
+    // The keys of every tail of a tail held, from minOverlap characters.
+    private long[] tailKeys(String tail) {
+        int length = tail.length();
+        long[] hashes = prefixHashes(tail);
+        long[] powers = powers(length);
+        long[] keys = new long[Math.max(0, length - minOverlap + 1)];
+        for (int overlap = minOverlap; overlap <= length; overlap++) {
+            keys[overlap - minOverlap] = key(hashes[length] - hashes[length - overlap] * powers[overlap], overlap);
+        }
+        return keys;
+    }
+
+    private static void remove(Map<Long, List<Contig>> index, long key, Contig contig) {
+        // A fragment which has just arrived is joined before it is indexed, so its keys may not be indexed.
+        List<Contig> indexed = index.get(key);
+        if (indexed != null && indexed.remove(contig) && indexed.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private String head(String text) {
+        return text.length() <= maxOverlap ? text : text.substring(0, maxOverlap);
+    }
+
+    private String tail(String text) {
+        return text.length() <= maxOverlap ? text : text.substring(text.length() - maxOverlap);
+    }
+
+    // hashes[i] is the hash of the first i characters of the text.
+    private static long[] prefixHashes(String text) {
+        long[] hashes = new long[text.length() + 1];
+        for (int i = 0; i < text.length(); i++) {
+            hashes[i + 1] = hashes[i] * BASE + text.charAt(i);
+        }
+        return hashes;
+    }
+
+    private static long[] powers(int length) {
+        long[] powers = new long[length + 1];
+        powers[0] = 1;
+        for (int i = 1; i <= length; i++) {
+            powers[i] = powers[i - 1] * BASE;
+        }
+        return powers;
+    }
+
+    private static long key(long hash, int length) {
+        return hash + length * LENGTH_MIX;
+    }
+
+    /**
+     * A contig: a chain of merged fragments, with its head and tail of at most maxOverlap characters (the whole text of a short contig).
+     */
+    private static final class Contig {
+        private final int arrival;
+        private final FragmentChain chain;
+        private final int length;
+        private final String head;
+        private final String tail;
+
+        private Contig(int arrival, FragmentChain chain, int length, String head, String tail) {
+            this.arrival = arrival;
+            this.chain = chain;
+            this.length = length;
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+}
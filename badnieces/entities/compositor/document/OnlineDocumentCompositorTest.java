@@ -0,0 +1,91 @@
+package badnieces.entities.compositor.document;
+
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.NextMaximallyOverlappingPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OnlineDocumentCompositorTest {
+
+    @Test
+    public void addFragmentValid() {
+        OnlineDocumentCompositor documentCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 1, 64);
+        for (String fragment : "O draconia;conian devil! Oh la;h lame sa;saint! ".split(";")) {
+            documentCompositor.addFragment(fragment);
+        }
+        assertArrayEquals(new String[]{"O draconian devil! Oh lame saint! "}, documentCompositor.getContigs());
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+        assertEquals(3, documentCompositor.getMerges());
+
+        // The partial assembly can be read as fragments arrive, and a fragment bridging two contigs joins them.
+        documentCompositor = new OnlineDocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), 2, 64);
+        documentCompositor.addFragment("ABCD");
+        documentCompositor.addFragment("GHIJ");
+        documentCompositor.addFragment(null);
+        documentCompositor.addFragment("");
+        assertArrayEquals(new String[]{"ABCD", "GHIJ"}, documentCompositor.getContigs());
+        documentCompositor.addFragment("CDEFGH");
+        assertArrayEquals(new String[]{"ABCDEFGHIJ"}, documentCompositor.getContigs());
+        assertEquals(2, documentCompositor.getMerges());
+    }
+
+    @Test
+    public void addFragmentContained() {
+        OnlineDocumentCompositor documentCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 1, 64);
+        documentCompositor.addFragment("ABCDEF");
+        // Fragments at either end of a contig are discarded as they arrive.
+        documentCompositor.addFragment("ABC");
+        documentCompositor.addFragment("DEF");
+        assertEquals(2, documentCompositor.getContainedFragments());
+        // A fragment within a contig is held until the contigs are merged.
+        documentCompositor.addFragment("CD");
+        assertEquals(2, documentCompositor.size());
+        assertEquals("ABCDEF", documentCompositor.getToString());
+        // The overlap of a short fragment with both ends of the same contig is merged on the side of the longer overlap.
+        documentCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 1, 64);
+        documentCompositor.addFragment("ABCA");
+        documentCompositor.addFragment("CAXAB");
+        assertArrayEquals(new String[]{"ABCAXAB"}, documentCompositor.getContigs());
+    }
+
+    @Test
+    public void addFragmentShuffled() {
+        // Fragments of a random text overlapping by 8 to 11 characters reassemble the text in any order of arrival, with overlaps longer than maxOverlap left to getToString.
+        Random random = new Random(22);
+        for (int test = 0; test < 200; test++) {
+            char[] text = new char[200 + random.nextInt(400)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (char) ('a' + random.nextInt(26));
+            }
+            List<String> fragments = new ArrayList<>();
+            int start = 0;
+            while (true) {
+                int length = Math.min(text.length - start, 16 + random.nextInt(16));
+                fragments.add(new String(text, start, length));
+                if (start + length == text.length) {
+                    break;
+                }
+                start += length - 8 - random.nextInt(4);
+            }
+            Collections.shuffle(fragments, random);
+            OnlineDocumentCompositor documentCompositor = new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 6, 6 + random.nextInt(40));
+            for (String fragment : fragments) {
+                documentCompositor.addFragment(fragment);
+            }
+            assertEquals(new String(text), documentCompositor.getToString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlapInvalid() {
+        new OnlineDocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), 4, 3);
+    }
+}
@@ -0,0 +1,247 @@
+package badnieces.entities.compositor.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The PersistentDocument class is responsible for holding a document (an ordered list of fragments) which is never modified once built.
+ * Setting or removing a fragment returns a new document, and leaves this document as it was, so holding a reference to a document is a snapshot of it (an O(1) backup).
+ * <p>
+ * The fragments are held in a tree ordered by position (a treap with priorities derived from the position each fragment was built at, so the tree is balanced in expectation).
+ * Setting or removing a fragment copies only the O(log n) nodes on the path to the fragment, and every other node is shared with the document it was derived from.
+ * Checkpoints of a document of n fragments therefore cost O(log n) memory per merge made since the checkpoint, rather than a copy of the document each.
+ * <p>
+ * A PersistentDocument is immutable and so is safe to share between threads. Fragments may be null.
+ */
+public final class PersistentDocument {
+    private static final PersistentDocument EMPTY = new PersistentDocument(null);
+    private final Node root;
+
+    private PersistentDocument(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a document from an array of fragments in O(n).
+     *
+     * @param fragments The fragments of the document in order.
+     * @return The document.
+     */
+    public static PersistentDocument of(String[] fragments) {
+        if (fragments == null) {
+            throw new IllegalArgumentException("A document cannot be built from a null array of fragments");
+        }
+        // The tree is built left to right, keeping the right spine of the tree on a stack (each fragment is pushed and popped once).
+        Builder[] spine = new Builder[fragments.length];
+        int spineSize = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            Builder node = new Builder(fragments[i], priority(i));
+            Builder lastPopped = null;
+            while (spineSize > 0 && spine[spineSize - 1].priority < node.priority) {
+                lastPopped = spine[--spineSize];
+            }
+            node.left = lastPopped;
+            if (spineSize > 0) {
+                spine[spineSize - 1].right = node;
+            }
+            spine[spineSize++] = node;
+        }
+        return spineSize == 0 ? EMPTY : new PersistentDocument(spine[0].build());
+    }
+
+    /**
+     * Builds a document from a list of fragments in O(n).
+     *
+     * @param fragments The fragments of the document in order.
+     * @return The document.
+     */
+    public static PersistentDocument of(List<String> fragments) {
+        if (fragments == null) {
+            throw new IllegalArgumentException("A document cannot be built from a null list of fragments");
+        }
+        return of(fragments.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the number of fragments in the document.
+     *
+     * @return The number of fragments.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the fragment at a position in O(log n).
+     *
+     * @param index The position of the fragment.
+     * @return The fragment.
+     * @throws IndexOutOfBoundsException Throws an IndexOutOfBoundsException if the position is not within the document.
+     */
+    public String get(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.fragment;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns a document with the fragment at a position replaced, in O(log n) time and memory. This document is unchanged.
+     *
+     * @param index    The position of the fragment.
+     * @param fragment The fragment to set.
+     * @return The new document.
+     * @throws IndexOutOfBoundsException Throws an IndexOutOfBoundsException if the position is not within the document.
+     */
+    public PersistentDocument set(int index, String fragment) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return new PersistentDocument(set(root, index, fragment));
+    }
+
+    /**
+     * Returns a document with the fragment at a position removed (later fragments move down one position), in O(log n) time and memory. This document is unchanged.
+     *
+     * @param index The position of the fragment.
+     * @return The new document.
+     * @throws IndexOutOfBoundsException Throws an IndexOutOfBoundsException if the position is not within the document.
+     */
+    public PersistentDocument remove(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return new PersistentDocument(remove(root, index));
+    }
+
+    /**
+     * Copies the fragments of the document into an array in O(n).
+     *
+     * @return The fragments in order.
+     */
+    public String[] toArray() {
+        String[] fragments = new String[size()];
+        fill(root, fragments, 0);
+        return fragments;
+    }
+
+    /**
+     * Copies the fragments of the document into a new list in O(n).
+     *
+     * @return The fragments in order.
+     */
+    public List<String> toList() {
+        List<String> fragments = new ArrayList<>(size());
+        for (String fragment : toArray()) {
+            fragments.add(fragment);
+        }
+        return fragments;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not within a document of " + size() + " fragments");
+        }
+    }
+
+    private static Node set(Node node, int index, String fragment) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node(node.fragment, node.priority, set(node.left, index, fragment), node.right);
+        }
+        if (index == leftSize) {
+            return new Node(fragment, node.priority, node.left, node.right);
+        }
+        return new Node(node.fragment, node.priority, node.left, set(node.right, index - leftSize - 1, fragment));
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node(node.fragment, node.priority, remove(node.left, index), node.right);
+        }
+        if (index == leftSize) {
+            return join(node.left, node.right);
+        }
+        return new Node(node.fragment, node.priority, node.left, remove(node.right, index - leftSize - 1));
+    }
+
+    // Joins two trees where every fragment of left precedes every fragment of right, copying only the nodes along the seam.
+    private static Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority >= right.priority) {
+            return new Node(left.fragment, left.priority, left.left, join(left.right, right));
+        }
+        return new Node(right.fragment, right.priority, join(left, right.left), right.right);
+    }
+
+    private static int fill(Node node, String[] fragments, int offset) {
+        while (node != null) {
+            offset = fill(node.left, fragments, offset);
+            fragments[offset++] = node.fragment;
+            node = node.right;
+        }
+        return offset;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int priority(int position) {
+        // A fixed mix of the position, so the same fragments always build the same tree.
+        int h = position * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * A fragment and the subtrees of the fragments before and after it. Nodes are never modified once built.
+     */
+    private static final class Node {
+        private final String fragment;
+        private final int priority;
+        private final Node left;
+        private final Node right;
+        private final int size;
+
+        private Node(String fragment, int priority, Node left, Node right) {
+            this.fragment = fragment;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    /**
+     * A node of a tree being built, linked before it is frozen into Nodes.
+     */
+    private static final class Builder {
+        private final String fragment;
+        private final int priority;
+        private Builder left;
+        private Builder right;
+
+        private Builder(String fragment, int priority) {
+            this.fragment = fragment;
+            this.priority = priority;
+        }
+
+        private Node build() {
+            return new Node(fragment, priority, left == null ? null : left.build(), right == null ? null : right.build());
+        }
+    }
+}
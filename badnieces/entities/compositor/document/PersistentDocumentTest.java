@@ -0,0 +1,71 @@
+package badnieces.entities.compositor.document;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PersistentDocumentTest {
+
+    @Test
+    public void setAndRemoveValid() {
+        PersistentDocument document = PersistentDocument.of(new String[]{"A", "B", "C", "D"});
+        PersistentDocument merged = document.set(2, "BC").remove(1);
+        assertArrayEquals(new String[]{"A", "BC", "D"}, merged.toArray());
+        assertEquals("BC", merged.get(1));
+        // The document merged from is a snapshot, so it is unchanged.
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, document.toArray());
+        assertEquals(0, PersistentDocument.of(new String[0]).size());
+        assertEquals(Arrays.asList("A", null), PersistentDocument.of(Arrays.asList("A", null)).toList());
+    }
+
+    @Test
+    public void snapshotEquivalence() {
+        // Random edits of a document and of a list agree, and every snapshot keeps the fragments it was taken with.
+        Random random = new Random(13);
+        List<String> fragments = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            fragments.add("F" + i);
+        }
+        PersistentDocument document = PersistentDocument.of(fragments);
+        List<PersistentDocument> snapshots = new ArrayList<>();
+        List<List<String>> expectedSnapshots = new ArrayList<>();
+        while (fragments.size() > 1) {
+            int index = random.nextInt(fragments.size());
+            if (random.nextBoolean()) {
+                String fragment = "S" + random.nextInt();
+                fragments.set(index, fragment);
+                document = document.set(index, fragment);
+            } else {
+                fragments.remove(index);
+                document = document.remove(index);
+            }
+            if (random.nextInt(50) == 0) {
+                snapshots.add(document);
+                expectedSnapshots.add(new ArrayList<>(fragments));
+            }
+        }
+        assertEquals(fragments, document.toList());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expectedSnapshots.get(i), snapshots.get(i).toList());
+            for (int j = 0; j < snapshots.get(i).size(); j++) {
+                assertEquals(expectedSnapshots.get(i).get(j), snapshots.get(i).get(j));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getInvalid() {
+        PersistentDocument.of(new String[]{"A"}).get(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removeInvalid() {
+        PersistentDocument.of(new String[0]).remove(0);
+    }
+}
@@ -0,0 +1,142 @@
+package badnieces.entities.compositor.document;
+
+import badnieces.interfaces.strategy.merge.BytesMergeStrategy;
+import badnieces.interfaces.strategy.search.IncrementalBytesListSearchStrategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The Utf8DocumentCompositor class is responsible for compositing a document whose fragments are held as UTF-8 bytes, as the DocumentCompositor composites a document of Strings.
+ * Fragments are searched and merged without being decoded, and the document is only decoded when its text is asked for (see getToString), so a mostly ASCII document is held in half the memory of its characters.
+ * Merging with strategies which honour the contracts of their String counterparts (see IncrementalBytesListSearchStrategy and BytesMergeStrategy) produces the document the DocumentCompositor produces.
+ * <p>
+ * Only the incremental merge is supported. The document is only replaced once the merging completes, so a failed merge leaves the last good document in place.
+ */
+public class Utf8DocumentCompositor {
+    private final IncrementalBytesListSearchStrategy searchStrategy;
+    private final BytesMergeStrategy mergeStrategy;
+    private byte[][] document;
+
+    /**
+     * Instantiates a Utf8DocumentCompositor. Removes null references on instantiation.
+     * The fragments are never written to, so they are held without being copied.
+     *
+     * @param searchStrategy An input search strategy.
+     * @param mergeStrategy  An input merge strategy.
+     * @param document       An input document (represented by an array of UTF-8 strings).
+     */
+    public Utf8DocumentCompositor(IncrementalBytesListSearchStrategy searchStrategy, BytesMergeStrategy mergeStrategy, byte[][] document) {
+        this.searchStrategy = searchStrategy;
+        this.mergeStrategy = mergeStrategy;
+        this.document = Arrays.stream(document).filter(Objects::nonNull).toArray(byte[][]::new);
+    }
+
+    /**
+     * Merges the document until no more merges are possible, indexing the document once and updating the index per merge (as DocumentCompositor.incrementalMerge does).
+     *
+     * @throws IllegalStateException Throws an illegal state exception if there are not enough elements in the search token to perform a merge.
+     */
+    public void incrementalMerge() throws IllegalStateException {
+        incrementalMerge(0, null);
+    }
+
+    /**
+     * Performs incrementalMerge, passing the fragments remaining (in order, decoded) to a consumer every mergesPerCheckpoint merges.
+     *
+     * @param mergesPerCheckpoint The number of merges between each checkpoint (0 for no checkpoints).
+     * @param checkpoint          The consumer of the remaining fragments (ignored if there are no checkpoints).
+     * @throws IllegalStateException Throws an illegal state exception if there are not enough elements in the search token to perform a merge.
+     */
+    public void incrementalMerge(int mergesPerCheckpoint, Consumer<String[]> checkpoint) throws IllegalStateException {
+        if (mergesPerCheckpoint < 0 || (mergesPerCheckpoint > 0 && checkpoint == null)) {
+            throw new IllegalArgumentException("Checkpoints must be made every positive number of merges to a consumer");
+        }
+        byte[][] positions = document.clone();
+        searchStrategy.index(positions);
+        int remaining = positions.length;
+        while (remaining > 1) {
+            int[] searchTokens = searchStrategy.next();
+            if (searchTokens.length < 2) {
+                throw new IllegalStateException("" +
+                        "Merge operation in " + toString() + " was cancelled. Please restore from the last good backup." +
+                        "A minimum of two search tokens must be returned per every iteration of a merge operation.");
+            }
+            int indexOfString1 = searchTokens[0];
+            int indexOfString2 = searchTokens[1];
+            if (positions[indexOfString1] == null || positions[indexOfString2] == null) {
+                break;
+            }
+            if (indexOfString1 != indexOfString2) {
+                positions[indexOfString2] = mergeStrategy.merge(positions[indexOfString1], positions[indexOfString2]);
+            }
+            // Merging a position into itself leaves it unchanged, then removes it (as DocumentCompositor.merge does).
+            positions[indexOfString1] = null;
+            searchStrategy.update(indexOfString1, indexOfString2, positions[indexOfString2]);
+            remaining--;
+            if (mergesPerCheckpoint > 0 && (positions.length - remaining) % mergesPerCheckpoint == 0 && remaining > 1) {
+                checkpoint.accept(Arrays.stream(compact(positions, remaining)).map(Utf8DocumentCompositor::decode).toArray(String[]::new));
+            }
+        }
+        document = compact(positions, remaining);
+    }
+
+    // The remaining positions in order.
+    private static byte[][] compact(byte[][] positions, int remaining) {
+        byte[][] fragments = new byte[remaining][];
+        int fragment = 0;
+        for (byte[] position : positions) {
+            if (position != null) {
+                fragments[fragment++] = position;
+            }
+        }
+        return fragments;
+    }
+
+    /**
+     * Return the current document stored within the Utf8DocumentCompositor.
+     *
+     * @return The document as an array of UTF-8 strings (the array is copied, and the strings must not be written to).
+     */
+    public byte[][] get() {
+        return document.clone();
+    }
+
+    /**
+     * Returns the UTF-8 bytes of the document (the fragments remaining, joined).
+     *
+     * @return The UTF-8 bytes of the document.
+     */
+    public byte[] getToBytes() {
+        // A fully merged document is already a single string, so it is returned without being copied again.
+        if (document.length == 1) {
+            return document[0];
+        }
+        int length = 0;
+        for (byte[] fragment : document) {
+            length += fragment.length;
+        }
+        byte[] bytes = new byte[length];
+        int position = 0;
+        for (byte[] fragment : document) {
+            System.arraycopy(fragment, 0, bytes, position, fragment.length);
+            position += fragment.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes the document to a String (the only point the document is decoded).
+     *
+     * @return Returns a string representation of the internal document.
+     */
+    public String getToString() {
+        return decode(getToBytes());
+    }
+
+    private static String decode(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package badnieces.entities.compositor.document;
+
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.Utf8MaximallyOverlappingPair;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Utf8DocumentCompositorTest {
+    // ASCII characters and characters of two and three bytes ('é' and 'è' share their first byte), so equal overlaps in characters are unequal in bytes.
+    private static final char[] ALPHABET = {'A', 'B', 'é', 'è', '€'};
+
+    @Test
+    public void incrementalMergeValid() {
+        Utf8DocumentCompositor documentCompositor = compositor("O draconia;conian devil! Oh la;h lame sa;saint! ".split(";"));
+        documentCompositor.incrementalMerge();
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+
+        documentCompositor = compositor("Prêt-à-por;-porter, naï;naïve café;fé déjà vu".split(";"));
+        documentCompositor.incrementalMerge();
+        assertEquals("Prêt-à-porter, naïve café déjà vu", documentCompositor.getToString());
+        assertArrayEquals("Prêt-à-porter, naïve café déjà vu".getBytes(StandardCharsets.UTF_8), documentCompositor.getToBytes());
+        assertEquals(1, documentCompositor.get().length);
+    }
+
+    @Test
+    public void incrementalMergeEquivalence() {
+        // UTF-8 fragments reassemble to the document their Strings reassemble to, including how every tie is broken.
+        Random random = new Random(13);
+        for (int test = 0; test < 500; test++) {
+            String[] fragments = randomFragments(random);
+            DocumentCompositor expected = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+            expected.incrementalMerge();
+            Utf8DocumentCompositor documentCompositor = compositor(fragments);
+            documentCompositor.incrementalMerge();
+            assertEquals(String.join(";", fragments), expected.getToString(), documentCompositor.getToString());
+            assertEquals(String.join(";", fragments), expected.get().size(), documentCompositor.get().length);
+        }
+    }
+
+    @Test
+    public void incrementalMergeCheckpointEquivalence() {
+        // The checkpoints are the decoded fragments the String compositor checkpoints.
+        Random random = new Random(17);
+        for (int test = 0; test < 200; test++) {
+            String[] fragments = randomFragments(random);
+            int mergesPerCheckpoint = 1 + random.nextInt(3);
+            List<String[]> expected = new ArrayList<>();
+            new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments).incrementalMerge(mergesPerCheckpoint, expected::add);
+            List<String[]> checkpoints = new ArrayList<>();
+            compositor(fragments).incrementalMerge(mergesPerCheckpoint, checkpoints::add);
+            assertEquals(expected.size(), checkpoints.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(String.join(";", fragments), expected.get(i), checkpoints.get(i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incrementalMergeInvalid() {
+        compositor(new String[]{"A", "B"}).incrementalMerge(1, null);
+    }
+
+    private static Utf8DocumentCompositor compositor(String[] fragments) {
+        byte[][] bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return new Utf8DocumentCompositor(new Utf8MaximallyOverlappingPair(), new MergeOverlapPair(), bytes);
+    }
+
+    private static String[] randomFragments(Random random) {
+        String[] fragments = new String[2 + random.nextInt(12)];
+        for (int i = 0; i < fragments.length; i++) {
+            char[] fragment = new char[1 + random.nextInt(6)];
+            for (int c = 0; c < fragment.length; c++) {
+                fragment[c] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            fragments[i] = new String(fragment);
+        }
+        return fragments;
+    }
+}
@@ -0,0 +1,224 @@
+package badnieces.entities.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import oddschecker.utils.collections.LongOpenHashSet;
+
+/**
+ * The ShreddedDocumentGenerator class is responsible for producing fragmented documents (workloads) with a known reassembly.
+ * A document is shredded into fragments of one length, where each fragment overlaps the next by at least the overlap length, and the fragments are shuffled.
+ * <p>
+ * Reassembly is guaranteed to be unambiguous because every substring of the document of the overlap length is unique.
+ * Any head of the overlap length or longer is therefore found only at its true position, and every shredded document keeps an overlap of at least that length until it is reassembled, so greedy merging can only reproduce the document.
+ * <p>
+ * Generation is deterministic: the same seed and configuration always produce the same documents and fragments (line by line), so workloads of any size can be reproduced rather than stored.
+ */
+public final class ShreddedDocumentGenerator {
+    /**
+     * The characters of generated documents unless another alphabet is given.
+     */
+    public static final String DEFAULT_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz ,.!";
+    private static final char FRAGMENT_SEPARATOR = ';';
+    private static final long HASH_BASE = 1_000_003L;
+    private final long seed;
+    private final int fragmentLength;
+    private final int overlapLength;
+
+    /**
+     * Constructs a new ShreddedDocumentGenerator.
+     *
+     * @param seed           The seed all documents and shuffles are derived from.
+     * @param fragmentLength The length of each fragment (at least 2).
+     * @param overlapLength  The least overlap of each fragment with the next (at least 1 and less than the fragment length).
+     */
+    public ShreddedDocumentGenerator(long seed, int fragmentLength, int overlapLength) {
+        if (fragmentLength < 2) {
+            throw new IllegalArgumentException("Fragments must have a length of at least 2");
+        }
+        if (overlapLength < 1 || overlapLength >= fragmentLength) {
+            throw new IllegalArgumentException("The overlap must be at least 1 and less than the fragment length");
+        }
+        this.seed = seed;
+        this.fragmentLength = fragmentLength;
+        this.overlapLength = overlapLength;
+    }
+
+    /**
+     * Generates the document of a line, a random text over the alphabet which shreds into the given number of fragments.
+     *
+     * @param lineNumber    The line number (each line of a workload has its own document).
+     * @param fragmentCount The number of fragments the document shreds into (at least 2).
+     * @param alphabet      The characters of the document.
+     * @return The document.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the alphabet is too small for every substring of the overlap length to be unique.
+     */
+    public String generateDocument(long lineNumber, int fragmentCount, String alphabet) throws IllegalArgumentException {
+        if (fragmentCount < 2) {
+            throw new IllegalArgumentException("A document must shred into at least 2 fragments");
+        }
+        validateCharacters(alphabet);
+        Random random = lineRandom(lineNumber);
+        int stride = fragmentLength - overlapLength;
+        char[] document = new char[fragmentLength + (fragmentCount - 1) * stride];
+        LongOpenHashSet windows = new LongOpenHashSet(document.length);
+        long leadingPower = power(overlapLength - 1);
+        // The hash of the (overlapLength - 1) characters before the next character.
+        long leadingHash = 0;
+        for (int i = 0; i < document.length; i++) {
+            int first = random.nextInt(alphabet.length());
+            boolean placed = false;
+            for (int attempt = 0; attempt < alphabet.length() && !placed; attempt++) {
+                char c = alphabet.charAt((first + attempt) % alphabet.length());
+                long windowHash = leadingHash * HASH_BASE + c;
+                // Only place a character which completes a window not seen before (windows are not complete until the overlap length is reached).
+                if (i < overlapLength - 1 || windows.add(windowHash)) {
+                    document[i] = c;
+                    leadingHash = i < overlapLength - 1 ? windowHash : windowHash - document[i - overlapLength + 1] * leadingPower;
+                    placed = true;
+                }
+            }
+            if (!placed) {
+                throw new IllegalArgumentException("The alphabet is too small for a document of " + document.length + " characters with unique overlaps of length " + overlapLength + ". Use a larger alphabet or overlap.");
+            }
+        }
+        return new String(document);
+    }
+
+    /**
+     * Shreds a document into shuffled fragments, each overlapping the next by at least the overlap length (the last fragment ends at the end of the document).
+     *
+     * @param lineNumber The line number (each line of a workload is shuffled differently).
+     * @param document   The document to shred.
+     * @return The fragments of the document.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the document is not longer than one fragment, contains a separator or line terminator, or repeats a substring of the overlap length (so its reassembly would be ambiguous).
+     */
+    public String[] shred(long lineNumber, String document) throws IllegalArgumentException {
+        if (document == null || document.length() <= fragmentLength) {
+            throw new IllegalArgumentException("A document must be longer than one fragment");
+        }
+        validateCharacters(document);
+        validateUniqueOverlaps(document);
+        return cut(lineNumber, document);
+    }
+
+    private String[] cut(long lineNumber, String document) {
+        int stride = fragmentLength - overlapLength;
+        int fragmentCount = (document.length() - fragmentLength + stride - 1) / stride + 1;
+        String[] fragments = new String[fragmentCount];
+        for (int i = 0; i < fragmentCount; i++) {
+            int start = Math.min(i * stride, document.length() - fragmentLength);
+            fragments[i] = document.substring(start, start + fragmentLength);
+        }
+        // Shuffle so the order of the fragments says nothing of their position in the document.
+        Random random = lineRandom(~lineNumber);
+        for (int i = fragments.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String fragment = fragments[i];
+            fragments[i] = fragments[j];
+            fragments[j] = fragment;
+        }
+        return fragments;
+    }
+
+    /**
+     * Writes a workload file in the input format of BadNiecesIO (one line of fragments separated by semi-colons per document), and optionally the expected output.
+     * Lines are generated and written one at a time, so files of any size can be written.
+     *
+     * @param fragmentsPath The path of the workload file.
+     * @param expectedPath  The path of the file of reassembled documents (one per line) or null.
+     * @param lines         The number of lines.
+     * @param fragmentCount The number of fragments per line.
+     * @param alphabet      The characters of the documents.
+     * @throws IOException Throws an IO exception if a file cannot be written.
+     */
+    public void write(Path fragmentsPath, Path expectedPath, long lines, int fragmentCount, String alphabet) throws IOException {
+        try (BufferedWriter fragmentsWriter = Files.newBufferedWriter(fragmentsPath, StandardCharsets.UTF_8);
+             BufferedWriter expectedWriter = expectedPath == null ? null : Files.newBufferedWriter(expectedPath, StandardCharsets.UTF_8)) {
+            for (long line = 0; line < lines; line++) {
+                // Generated documents are unique by construction, so they are cut without being validated again.
+                String document = generateDocument(line, fragmentCount, alphabet);
+                String[] fragments = cut(line, document);
+                for (int i = 0; i < fragments.length; i++) {
+                    if (i > 0) {
+                        fragmentsWriter.write(FRAGMENT_SEPARATOR);
+                    }
+                    fragmentsWriter.write(fragments[i]);
+                }
+                fragmentsWriter.newLine();
+                if (expectedWriter != null) {
+                    expectedWriter.write(document);
+                    expectedWriter.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a workload file.
+     * Arguments: fragmentsPath lines fragmentCount fragmentLength overlapLength seed [expectedPath] [alphabet]
+     *
+     * @param args Arguments passed to the main method.
+     * @throws IOException Throws an IO exception if a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6 || args.length > 8) {
+            throw new IllegalArgumentException("Usage: ShreddedDocumentGenerator fragmentsPath lines fragmentCount fragmentLength overlapLength seed [expectedPath] [alphabet]");
+        }
+        ShreddedDocumentGenerator generator = new ShreddedDocumentGenerator(Long.parseLong(args[5]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        Path expectedPath = args.length > 6 ? Paths.get(args[6]) : null;
+        String alphabet = args.length > 7 ? args[7] : DEFAULT_ALPHABET;
+        generator.write(Paths.get(args[0]), expectedPath, Long.parseLong(args[1]), Integer.parseInt(args[2]), alphabet);
+    }
+
+    private Random lineRandom(long lineNumber) {
+        return new Random(seed ^ (lineNumber * 0x9E3779B97F4A7C15L));
+    }
+
+    private void validateUniqueOverlaps(String document) {
+        // Windows are compared by hash, and windows with equal hashes are compared character by character.
+        Map<Long, Integer> windows = new HashMap<>();
+        long leadingPower = power(overlapLength - 1);
+        long windowHash = 0;
+        for (int i = 0; i < document.length(); i++) {
+            if (i >= overlapLength) {
+                windowHash -= document.charAt(i - overlapLength) * leadingPower;
+            }
+            windowHash = windowHash * HASH_BASE + document.charAt(i);
+            if (i >= overlapLength - 1) {
+                int start = i - overlapLength + 1;
+                Integer previous = windows.putIfAbsent(windowHash, start);
+                if (previous != null && document.regionMatches(previous, document, start, overlapLength)) {
+                    throw new IllegalArgumentException("The document repeats the substring at " + start + " of the overlap length, so its reassembly would be ambiguous");
+                }
+            }
+        }
+    }
+
+    private static void validateCharacters(String characters) {
+        if (characters == null || characters.isEmpty()) {
+            throw new IllegalArgumentException("Characters must be specified");
+        }
+        for (int i = 0; i < characters.length(); i++) {
+            char c = characters.charAt(i);
+            if (c == FRAGMENT_SEPARATOR || c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("A document cannot contain a fragment separator or a line terminator (at " + i + ")");
+            }
+        }
+    }
+
+    private static long power(int exponent) {
+        long power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= HASH_BASE;
+        }
+        return power;
+    }
+}
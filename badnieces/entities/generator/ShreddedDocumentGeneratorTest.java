@@ -0,0 +1,79 @@
+package badnieces.entities.generator;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ShreddedDocumentGeneratorTest {
+
+    @Test
+    public void shredValid() {
+        // Small alphabets and short overlaps are the hardest documents to generate and to reassemble.
+        int[][] configurations = {{8, 3, 60}, {20, 6, 40}, {5, 4, 30}, {2, 1, 3}};
+        for (int[] configuration : configurations) {
+            ShreddedDocumentGenerator generator = new ShreddedDocumentGenerator(configuration[0] * 31L, configuration[0], configuration[1]);
+            String alphabet = configuration[1] == 1 ? "ABCD" : "ABCDEFGHIJKL";
+            for (int line = 0; line < 20; line++) {
+                String document = generator.generateDocument(line, configuration[2], alphabet);
+                String[] fragments = generator.shred(line, document);
+                assertEquals(configuration[2], fragments.length);
+                DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+                documentCompositor.incrementalMerge();
+                assertEquals(document, documentCompositor.getToString());
+            }
+        }
+    }
+
+    @Test
+    public void shredDeterministic() {
+        ShreddedDocumentGenerator generator = new ShreddedDocumentGenerator(42, 12, 4);
+        ShreddedDocumentGenerator twin = new ShreddedDocumentGenerator(42, 12, 4);
+        String document = generator.generateDocument(7, 50, ShreddedDocumentGenerator.DEFAULT_ALPHABET);
+        assertEquals(document, twin.generateDocument(7, 50, ShreddedDocumentGenerator.DEFAULT_ALPHABET));
+        assertArrayEquals(generator.shred(7, document), twin.shred(7, document));
+    }
+
+    @Test
+    public void writeValid() throws IOException {
+        File fragmentsFile = File.createTempFile("ShreddedDocumentGeneratorTest", ".txt");
+        File expectedFile = File.createTempFile("ShreddedDocumentGeneratorTest", ".expected.txt");
+        fragmentsFile.deleteOnExit();
+        expectedFile.deleteOnExit();
+        new ShreddedDocumentGenerator(1, 10, 4).write(fragmentsFile.toPath(), expectedFile.toPath(), 5, 25, ShreddedDocumentGenerator.DEFAULT_ALPHABET);
+        List<String> lines = Files.readAllLines(fragmentsFile.toPath(), StandardCharsets.UTF_8);
+        List<String> expected = Files.readAllLines(expectedFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), lines.get(i).split(";"));
+            documentCompositor.incrementalMerge();
+            assertEquals(expected.get(i), documentCompositor.getToString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shredInvalid() {
+        // "ABC" repeats, so the reassembly of the document would be ambiguous.
+        new ShreddedDocumentGenerator(1, 6, 3).shred(0, "ABCDEFABCXYZ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void generateDocumentInvalid() {
+        // Two letters hold only four distinct pairs, far fewer than the document needs.
+        new ShreddedDocumentGenerator(1, 4, 2).generateDocument(0, 100, "AB");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extremeInvalid() {
+        new ShreddedDocumentGenerator(1, 4, 4);
+    }
+}
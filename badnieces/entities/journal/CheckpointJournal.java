@@ -0,0 +1,367 @@
+package badnieces.entities.journal;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * The CheckpointJournal class is responsible for recording the progress of a batch (one input file) so that a run which stops part way can be resumed.
+ * Each completed line is appended to the journal with its output, in line order, so the completed lines are always the first lines of the input.
+ * A line still being reassembled may also be recorded part way, as the fragments remaining after some of its merges (greedy merging continues from those fragments exactly as it would have).
+ * <p>
+ * The journal is append-only and synced to disk (fsync) every linesPerSync completed lines, and whenever a part way line is recorded.
+ * Every record carries a CRC32 of its content, so a record torn by a crash is detected on open, and the journal is truncated to the last whole record.
+ * The journal begins with the size and modification time of the input and the variant of the run (how its lines are reassembled), and a journal of any other input or variant is discarded rather than resumed.
+ * <p>
+ * Record methods may be called from any thread.
+ */
+public final class CheckpointJournal implements Closeable {
+    private static final String HEADER = "BadNiecesJournal 1";
+    private static final char COMPLETED = 'L';
+    private static final char PART_WAY = 'P';
+    private final String header;
+    private final char fragmentSeparator;
+    private final Pattern fragmentSplitter;
+    private final int linesPerSync;
+    private final Path journalPath;
+    // The records of the journal as opened (from the end of the header to the last whole record), replayed before any record is appended.
+    private final long replayStart;
+    private final long replayEnd;
+    private final long completedLines;
+    private final Map<Long, String[]> partWayLines = new HashMap<>();
+    private final FileOutputStream stream;
+    private final FileChannel channel;
+    private final Writer writer;
+    private long nextLine;
+    private int unsyncedLines;
+    private long syncs;
+    private long writeNanos;
+
+    private CheckpointJournal(Path journalPath, String header, char fragmentSeparator, int linesPerSync) throws IOException {
+        this.journalPath = journalPath;
+        this.header = header;
+        this.fragmentSeparator = fragmentSeparator;
+        this.fragmentSplitter = Pattern.compile(Pattern.quote(String.valueOf(fragmentSeparator)));
+        this.linesPerSync = linesPerSync;
+        long headerEnd = (header + '\n').getBytes(StandardCharsets.UTF_8).length;
+        long[] loaded = Files.exists(journalPath) ? load(headerEnd) : new long[]{0, 0};
+        replayEnd = loaded[0];
+        completedLines = loaded[1];
+        replayStart = replayEnd == 0 ? 0 : headerEnd;
+        nextLine = completedLines;
+        // Drop whatever follows the last whole record (a torn record, or a journal of another input) before appending.
+        try (FileChannel truncating = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            truncating.truncate(replayEnd);
+        }
+        stream = new FileOutputStream(journalPath.toFile(), true);
+        channel = stream.getChannel();
+        writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+        if (replayEnd == 0) {
+            writer.write(header);
+            writer.write('\n');
+            sync();
+        }
+    }
+
+    /**
+     * Opens (or creates) the journal of an input file, for runs of no particular variant.
+     *
+     * @param journalPath       The path of the journal.
+     * @param inputPath         The path of the input file the journal records the progress of.
+     * @param fragmentSeparator The separator of fragments, which no fragment contains (used to record lines part way).
+     * @param linesPerSync      The number of completed lines recorded between each sync to disk (at least 1).
+     * @return The journal, holding the progress of an earlier run of the same input if there was one.
+     * @throws IOException Throws an IO exception if the journal cannot be read or written, or the input does not exist.
+     */
+    public static CheckpointJournal open(Path journalPath, Path inputPath, char fragmentSeparator, int linesPerSync) throws IOException {
+        return open(journalPath, inputPath, "", fragmentSeparator, linesPerSync);
+    }
+
+    /**
+     * Opens (or creates) the journal of an input file reassembled by a variant of the run.
+     * The outputs of a journal are only replayed to a run of the same variant, so a run with other settings starts the input again rather than mixing the outputs of both.
+     *
+     * @param journalPath       The path of the journal.
+     * @param inputPath         The path of the input file the journal records the progress of.
+     * @param variant           The variant of the run (every setting which changes the output of a line), on one line.
+     * @param fragmentSeparator The separator of fragments, which no fragment contains (used to record lines part way).
+     * @param linesPerSync      The number of completed lines recorded between each sync to disk (at least 1).
+     * @return The journal, holding the progress of an earlier run of the same input and variant if there was one.
+     * @throws IOException Throws an IO exception if the journal cannot be read or written, or the input does not exist.
+     */
+    public static CheckpointJournal open(Path journalPath, Path inputPath, String variant, char fragmentSeparator, int linesPerSync) throws IOException {
+        if (journalPath == null || inputPath == null || variant == null) {
+            throw new IllegalArgumentException("A journal path, input path and variant must be specified");
+        }
+        if (variant.indexOf('\n') >= 0 || variant.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("The variant of a journal must be on one line");
+        }
+        if (linesPerSync < 1) {
+            throw new IllegalArgumentException("The journal must be synced at least every line");
+        }
+        String header = HEADER + ' ' + Files.size(inputPath) + ' ' + Files.getLastModifiedTime(inputPath).toMillis() + (variant.isEmpty() ? "" : ' ' + variant);
+        return new CheckpointJournal(journalPath, header, fragmentSeparator, linesPerSync);
+    }
+
+    /**
+     * Returns the number of lines the journal held as completed when it was opened (the position of the first unfinished line).
+     *
+     * @return The number of completed lines.
+     */
+    public long completedLines() {
+        return completedLines;
+    }
+
+    /**
+     * Passes the output of every line the journal held as completed when it was opened to a consumer, in line order.
+     *
+     * @param output The consumer of each output.
+     * @throws IOException Throws an IO exception if the journal cannot be read.
+     */
+    public void replay(Consumer<String> output) throws IOException {
+        try (InputStream in = Files.newInputStream(journalPath)) {
+            skipFully(in, replayStart);
+            scan(in, replayEnd - replayStart, (record, end) -> {
+                if (record.charAt(0) == COMPLETED) {
+                    output.accept(payload(record));
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Returns the fragments remaining of a line recorded part way (by the latest record of the line when the journal was opened).
+     *
+     * @param line The line number (from 0).
+     * @return The remaining fragments of the line, or null if the line was not recorded part way.
+     */
+    public synchronized String[] getPartWayLine(long line) {
+        String[] fragments = partWayLines.get(line);
+        return fragments == null ? null : fragments.clone();
+    }
+
+    /**
+     * Records a completed line. Lines must be recorded in order, from the first unfinished line.
+     *
+     * @param line   The line number (from 0).
+     * @param output The output of the line (which cannot contain a line terminator).
+     * @throws IOException Throws an IO exception if the journal cannot be written.
+     */
+    public synchronized void recordLine(long line, String output) throws IOException {
+        if (line != nextLine) {
+            throw new IllegalStateException("Line " + line + " cannot be recorded as completed before line " + nextLine);
+        }
+        long start = System.nanoTime();
+        append(COMPLETED, line, output);
+        nextLine++;
+        partWayLines.remove(line);
+        if (++unsyncedLines >= linesPerSync) {
+            sync();
+        }
+        writeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Records the fragments remaining of a line part way through its reassembly, and syncs the journal.
+     *
+     * @param line      The line number (from 0).
+     * @param fragments The remaining fragments in order (none of which can contain the fragment separator or a line terminator).
+     * @throws IOException Throws an IO exception if the journal cannot be written.
+     */
+    public synchronized void recordPartWayLine(long line, String[] fragments) throws IOException {
+        if (line < nextLine) {
+            throw new IllegalStateException("Line " + line + " is already recorded as completed");
+        }
+        long start = System.nanoTime();
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < fragments.length; i++) {
+            if (fragments[i].indexOf(fragmentSeparator) >= 0) {
+                throw new IllegalArgumentException("A fragment of line " + line + " contains the fragment separator");
+            }
+            if (i > 0) {
+                joined.append(fragmentSeparator);
+            }
+            joined.append(fragments[i]);
+        }
+        append(PART_WAY, line, joined.toString());
+        sync();
+        writeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the number of times the journal has been synced to disk since it was opened.
+     *
+     * @return The number of syncs.
+     */
+    public synchronized long syncs() {
+        return syncs;
+    }
+
+    /**
+     * Returns the time spent recording lines (writing and syncing the journal) since the journal was opened.
+     *
+     * @return The time in nanoseconds.
+     */
+    public synchronized long writeNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * Syncs any records not yet synced and closes the journal.
+     *
+     * @throws IOException Throws an IO exception if the journal cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (unsyncedLines > 0) {
+                sync();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void append(char kind, long line, String payload) throws IOException {
+        if (payload.indexOf('\n') >= 0 || payload.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("A record of line " + line + " cannot contain a line terminator");
+        }
+        writer.write(kind);
+        writer.write(' ');
+        writer.write(Long.toString(line));
+        writer.write(' ');
+        writer.write(Long.toHexString(crc(payload)));
+        writer.write(' ');
+        writer.write(payload);
+        writer.write('\n');
+    }
+
+    private void sync() throws IOException {
+        writer.flush();
+        channel.force(false);
+        unsyncedLines = 0;
+        syncs++;
+    }
+
+    // Reads the records of an existing journal, returning {the end of the last whole record, the number of completed lines}.
+    private long[] load(long headerEnd) throws IOException {
+        long[] loaded = new long[2];
+        try (InputStream in = Files.newInputStream(journalPath)) {
+            scan(in, Long.MAX_VALUE, (record, end) -> {
+                if (end == headerEnd && record.equals(header)) {
+                    loaded[0] = end;
+                    return true;
+                }
+                if (loaded[0] == 0 || !accept(record, loaded[1])) {
+                    return false;
+                }
+                if (record.charAt(0) == COMPLETED) {
+                    loaded[1]++;
+                }
+                loaded[0] = end;
+                return true;
+            });
+        }
+        return loaded;
+    }
+
+    // Accepts a whole record which follows the completed lines in order (and keeps the latest record of each line part way).
+    private boolean accept(String record, long completed) {
+        if (record.length() < 2 || record.charAt(1) != ' ' || (record.charAt(0) != COMPLETED && record.charAt(0) != PART_WAY)) {
+            return false;
+        }
+        int lineEnd = record.indexOf(' ', 2);
+        int crcEnd = lineEnd < 0 ? -1 : record.indexOf(' ', lineEnd + 1);
+        if (crcEnd < 0) {
+            return false;
+        }
+        long line;
+        long crc;
+        try {
+            line = Long.parseLong(record.substring(2, lineEnd));
+            crc = Long.parseLong(record.substring(lineEnd + 1, crcEnd), 16);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        String payload = record.substring(crcEnd + 1);
+        if (crc != crc(payload)) {
+            return false;
+        }
+        if (record.charAt(0) == COMPLETED) {
+            if (line != completed) {
+                return false;
+            }
+            partWayLines.remove(line);
+            return true;
+        }
+        if (line < completed) {
+            return false;
+        }
+        partWayLines.put(line, fragmentSplitter.split(payload, -1));
+        return true;
+    }
+
+    private static String payload(String record) {
+        return record.substring(record.indexOf(' ', record.indexOf(' ', 2) + 1) + 1);
+    }
+
+    private static long crc(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                throw new IOException("The journal ended before its records were replayed");
+            }
+            bytes -= skipped;
+        }
+    }
+
+    // Passes each whole record (terminated by a line feed) within the limit to the visitor, with the offset of its end, until the visitor rejects a record.
+    private static void scan(InputStream in, long limit, RecordVisitor visitor) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        long offset = 0;
+        int read;
+        while (offset < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - offset))) > 0) {
+            int recordStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                record.write(buffer, recordStart, i - recordStart);
+                recordStart = i + 1;
+                if (!visitor.visit(new String(record.toByteArray(), StandardCharsets.UTF_8), offset + i + 1)) {
+                    return;
+                }
+                record.reset();
+            }
+            record.write(buffer, recordStart, read - recordStart);
+            offset += read;
+        }
+    }
+
+    private interface RecordVisitor {
+        boolean visit(String record, long end);
+    }
+}
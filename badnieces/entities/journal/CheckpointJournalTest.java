@@ -0,0 +1,134 @@
+package badnieces.entities.journal;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CheckpointJournalTest {
+
+    @Test
+    public void resumeValid() throws IOException {
+        File input = write("ABC;BCD\nXYZ;YZA\nQRS;RST\n");
+        File journalFile = temporaryFile();
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 1)) {
+            assertEquals(0, journal.completedLines());
+            journal.recordLine(0, "ABCD");
+            journal.recordLine(1, "XYZA");
+            journal.recordPartWayLine(2, new String[]{"", "QRS", "RST"});
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 1)) {
+            assertEquals(2, journal.completedLines());
+            assertEquals(Arrays.asList("ABCD", "XYZA"), replay(journal));
+            assertArrayEquals(new String[]{"", "QRS", "RST"}, journal.getPartWayLine(2));
+            assertNull(journal.getPartWayLine(1));
+            journal.recordLine(2, "QRST");
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 1)) {
+            assertEquals(3, journal.completedLines());
+            assertEquals(Arrays.asList("ABCD", "XYZA", "QRST"), replay(journal));
+            assertNull(journal.getPartWayLine(2));
+        }
+    }
+
+    @Test
+    public void tornRecordValid() throws IOException {
+        // A record cut short by a crash (or corrupted) is dropped along with everything after it.
+        File input = write("ABC;BCD\nXYZ;YZA\n");
+        File journalFile = temporaryFile();
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 64)) {
+            journal.recordLine(0, "ABCD");
+        }
+        Files.write(journalFile.toPath(), "L 1 0 XYZ".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 64)) {
+            assertEquals(1, journal.completedLines());
+            journal.recordLine(1, "XYZA");
+        }
+        Files.write(journalFile.toPath(), "L 2 0 corrupt\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), ';', 64)) {
+            assertEquals(2, journal.completedLines());
+            assertEquals(Arrays.asList("ABCD", "XYZA"), replay(journal));
+        }
+    }
+
+    @Test
+    public void otherInputValid() throws IOException {
+        // The journal of another input is discarded rather than resumed.
+        File journalFile = temporaryFile();
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), write("ABC;BCD\n").toPath(), ';', 1)) {
+            journal.recordLine(0, "ABCD");
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), write("ABCDE;CDEF\n").toPath(), ';', 1)) {
+            assertEquals(0, journal.completedLines());
+            assertEquals(new ArrayList<String>(), replay(journal));
+        }
+    }
+
+    @Test
+    public void otherVariantValid() throws IOException {
+        // The journal of a run with other settings is discarded rather than resumed, and a run of the same settings resumes it.
+        File input = write("ABC;BCD\nXYZ;YZA\n");
+        File journalFile = temporaryFile();
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), "Greedy;status:false", ';', 1)) {
+            journal.recordLine(0, "ABCD");
+            journal.recordPartWayLine(1, new String[]{"XYZ", "YZA"});
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), "Greedy;status:true", ';', 1)) {
+            assertEquals(0, journal.completedLines());
+            assertNull(journal.getPartWayLine(1));
+            assertEquals(new ArrayList<String>(), replay(journal));
+            journal.recordLine(0, "OK\tABCD");
+        }
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile.toPath(), input.toPath(), "Greedy;status:true", ';', 1)) {
+            assertEquals(1, journal.completedLines());
+            assertEquals(Arrays.asList("OK\tABCD"), replay(journal));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void variantInvalid() throws IOException {
+        CheckpointJournal.open(temporaryFile().toPath(), write("ABC;BCD\n").toPath(), "Greedy\nstatus:true", ';', 1).close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void recordLineInvalid() throws IOException {
+        try (CheckpointJournal journal = CheckpointJournal.open(temporaryFile().toPath(), write("ABC;BCD\n").toPath(), ';', 1)) {
+            journal.recordLine(1, "ABCD");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordPartWayLineInvalid() throws IOException {
+        try (CheckpointJournal journal = CheckpointJournal.open(temporaryFile().toPath(), write("ABC;BCD\n").toPath(), ';', 1)) {
+            journal.recordPartWayLine(0, new String[]{"AB;C", "BCD"});
+        }
+    }
+
+    private static List<String> replay(CheckpointJournal journal) throws IOException {
+        List<String> outputs = new ArrayList<>();
+        journal.replay(outputs::add);
+        return outputs;
+    }
+
+    private static File write(String document) throws IOException {
+        File file = temporaryFile();
+        Files.write(file.toPath(), document.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static File temporaryFile() throws IOException {
+        File file = File.createTempFile("CheckpointJournalTest", ".txt");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,261 @@
+package badnieces.entities.logging;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * The AsyncLogHandler class is responsible for writing log records to a file of the day without blocking the thread which logs them on file I/O.
+ * Published records are placed in a bounded buffer and written by a single background thread, which formats and writes records in batches and flushes once per batch.
+ * The writer checks the buffer every 10 milliseconds (or as soon as the buffer is full, flushed or closed), so records reach the file within about 10 milliseconds.
+ * <p>
+ * Records are written to a file per day (prefix + ISO date + suffix, i.e. BadNieces-2020-01-31.log) by the time of each record, so a run spanning midnight rolls over to a new file. Files are appended to.
+ * When the buffer is full the overflow policy applies: BLOCK waits for room (no record is lost), DROP discards the record and counts it, and the number of records dropped is written to the log once there is room.
+ * <p>
+ * The caller of each record is found when the record is published (as the formatter would find it), since the writer thread cannot find it later.
+ * Closing the handler writes every record buffered before it returns (the log manager closes handlers when the JVM exits, so System.exit loses no records).
+ */
+public final class AsyncLogHandler extends Handler {
+    /**
+     * What publishing a record does when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP
+    }
+
+    private static final int BATCH_SIZE = 256;
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private final Path directory;
+    private final String prefix;
+    private final String suffix;
+    private final ZoneId zone;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<LogRecord> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    // Records published to the buffer and records written (both only grow), so flush waits for what was published before it.
+    private final AtomicLong published = new AtomicLong();
+    private final Object progress = new Object();
+    private long written;
+    private volatile boolean closed;
+    // Owned by the writer thread.
+    private BufferedWriter file;
+    private LocalDate fileDate;
+
+    /**
+     * Constructs a new AsyncLogHandler writing with a SimpleFormatter, and starts its writer thread.
+     *
+     * @param directory      The directory of the log files (which must exist).
+     * @param prefix         The start of the name of each log file.
+     * @param suffix         The end of the name of each log file.
+     * @param capacity       The greatest number of records buffered.
+     * @param overflowPolicy What publishing a record does when the buffer is full.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the directory does not exist, the capacity is not positive or any argument is missing.
+     */
+    public AsyncLogHandler(Path directory, String prefix, String suffix, int capacity, OverflowPolicy overflowPolicy) throws IllegalArgumentException {
+        if (directory == null || prefix == null || suffix == null || overflowPolicy == null || capacity < 1) {
+            throw new IllegalArgumentException("A directory, file name and overflow policy must be specified, and at least one record buffered");
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("The directory of the log files does not exist: " + directory);
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.zone = ZoneId.systemDefault();
+        this.overflowPolicy = overflowPolicy;
+        buffer = new ArrayBlockingQueue<>(capacity);
+        setFormatter(new SimpleFormatter());
+        writer = new Thread(this::write, "BadNiecesLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Places a record in the buffer to be written (applying the overflow policy if the buffer is full).
+     *
+     * @param record The log record.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // Find the caller on this thread (the writer thread would find itself).
+        record.getSourceClassName();
+        if (!buffer.offer(record)) {
+            // The buffer is full, so the writer is woken rather than left to linger.
+            LockSupport.unpark(writer);
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.incrementAndGet();
+                return;
+            }
+            try {
+                buffer.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        published.incrementAndGet();
+    }
+
+    /**
+     * Waits until every record published before the flush has been written and flushed to the file.
+     */
+    @Override
+    public void flush() {
+        long target = published.get();
+        LockSupport.unpark(writer);
+        synchronized (progress) {
+            while (written < target && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every record buffered, then stops the writer thread and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because the buffer was full (or the publishing thread was interrupted while waiting for room).
+     *
+     * @return The number of records dropped.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the path of the log file of a date.
+     *
+     * @param date The date.
+     * @return The path of the log file.
+     */
+    public Path getPath(LocalDate date) {
+        return directory.resolve(prefix + date.format(DateTimeFormatter.ISO_LOCAL_DATE) + suffix);
+    }
+
+    // The loop of the writer thread: write every record buffered (a batch at a time, flushing once per batch), then linger until there are more.
+    private void write() {
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        long reportedDropped = 0;
+        while (true) {
+            buffer.drainTo(batch, BATCH_SIZE);
+            int count = batch.size();
+            long droppedNow = dropped.get();
+            if (droppedNow > reportedDropped) {
+                LogRecord report = new LogRecord(Level.WARNING, "Dropped " + (droppedNow - reportedDropped) + " log records (the log buffer was full).");
+                report.setLoggerName("BadNiecesLogs");
+                report.setSourceClassName(AsyncLogHandler.class.getName());
+                report.setSourceMethodName("publish");
+                batch.add(report);
+                reportedDropped = droppedNow;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+                synchronized (progress) {
+                    written += count;
+                    progress.notifyAll();
+                }
+            } else if (closed) {
+                break;
+            } else {
+                // The writer lingers rather than waiting on the buffer, so publishing a record never wakes the writer (which on a busy core would take the core from the publishing thread).
+                LockSupport.parkNanos(this, LINGER_NANOS);
+            }
+        }
+        closeFile();
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        for (LogRecord record : batch) {
+            String text;
+            try {
+                text = getFormatter().format(record);
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.FORMAT_FAILURE);
+                continue;
+            }
+            try {
+                rollOver(Instant.ofEpochMilli(record.getMillis()).atZone(zone).toLocalDate());
+                file.write(text);
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+        if (file != null) {
+            try {
+                file.flush();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+
+    // Opens the file of the date of a record, closing the file of another date.
+    private void rollOver(LocalDate date) throws IOException {
+        if (file != null && date.equals(fileDate)) {
+            return;
+        }
+        closeFile();
+        file = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(getPath(date).toFile(), true), StandardCharsets.UTF_8));
+        fileDate = date;
+    }
+
+    private void closeFile() {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+        file = null;
+    }
+}
@@ -0,0 +1,102 @@
+package badnieces.entities.logging;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogHandlerTest {
+
+    @Test
+    public void publishValid() throws IOException {
+        Path directory = temporaryDirectory();
+        AsyncLogHandler handler = new AsyncLogHandler(directory, "Test-", ".log", 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        for (int i = 0; i < 1000; i++) {
+            logger.info("Record " + i);
+        }
+        handler.flush();
+        List<String> lines = Files.readAllLines(handler.getPath(LocalDate.now()), StandardCharsets.UTF_8);
+        assertTrue(lines.contains("INFO: Record 999"));
+        // The caller is the method which logged the record, not the writer thread.
+        assertTrue(lines.get(0).endsWith(AsyncLogHandlerTest.class.getName() + " publishValid"));
+        logger.info("Record 1000");
+        handler.close();
+        lines = Files.readAllLines(handler.getPath(LocalDate.now()), StandardCharsets.UTF_8);
+        assertEquals(2002, lines.size());
+        assertEquals("INFO: Record 1000", lines.get(2001));
+        assertEquals(0, handler.getDropped());
+    }
+
+    @Test
+    public void rollOverValid() throws IOException {
+        // Records are written to the file of the day they were made, and files are appended to.
+        Path directory = temporaryDirectory();
+        LocalDate day = LocalDate.of(2020, 1, 31);
+        AsyncLogHandler handler = new AsyncLogHandler(directory, "Test-", ".log", 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+        handler.publish(record("Before midnight", day));
+        handler.publish(record("After midnight", day.plusDays(1)));
+        handler.close();
+        handler = new AsyncLogHandler(directory, "Test-", ".log", 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+        handler.publish(record("Next run", day.plusDays(1)));
+        handler.close();
+        assertEquals("Test-2020-01-31.log", handler.getPath(day).getFileName().toString());
+        assertEquals("WARNING: Before midnight", Files.readAllLines(handler.getPath(day)).get(1));
+        List<String> lines = Files.readAllLines(handler.getPath(day.plusDays(1)));
+        assertEquals(4, lines.size());
+        assertEquals("WARNING: After midnight", lines.get(1));
+        assertEquals("WARNING: Next run", lines.get(3));
+    }
+
+    @Test
+    public void dropValid() throws IOException {
+        // Records which find the buffer full are dropped and counted, and the count is written to the log.
+        Path directory = temporaryDirectory();
+        AsyncLogHandler handler = new AsyncLogHandler(directory, "Test-", ".log", 1, AsyncLogHandler.OverflowPolicy.DROP);
+        LocalDate day = LocalDate.of(2020, 1, 31);
+        for (int i = 0; i < 10000; i++) {
+            handler.publish(record("Record " + i, day));
+        }
+        handler.close();
+        long written = Files.readAllLines(handler.getPath(day)).stream().filter(line -> line.startsWith("WARNING: Record ")).count();
+        // The count is a record of the time it is written.
+        long reported = Files.readAllLines(handler.getPath(LocalDate.now())).stream().filter(line -> line.startsWith("WARNING: Dropped "))
+                .mapToLong(line -> Long.parseLong(line.split(" ")[2])).sum();
+        assertTrue(handler.getDropped() > 0);
+        assertEquals(10000, written + handler.getDropped());
+        assertEquals(handler.getDropped(), reported);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void directoryInvalid() throws IOException {
+        new AsyncLogHandler(temporaryDirectory().resolve("missing"), "Test-", ".log", 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static LogRecord record(String message, LocalDate date) {
+        LogRecord record = new LogRecord(Level.WARNING, message);
+        record.setMillis(date.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        record.setSourceClassName(AsyncLogHandlerTest.class.getName());
+        record.setSourceMethodName("record");
+        return record;
+    }
+
+    private static Path temporaryDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("AsyncLogHandlerTest");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+}
@@ -0,0 +1,139 @@
+package badnieces.entities.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class is responsible for recording a distribution of values (i.e. latencies in nanoseconds) in a fixed amount of memory, in the style of an HDR histogram.
+ * Values are counted in buckets of logarithmic size: each power of two is divided into 32 linear buckets, so any value is reported within 1/32 (about 3%) of its true value, over the whole range of a long.
+ * <p>
+ * Recording a value is one increment of a bucket and costs no allocation, and values may be recorded from many threads at once.
+ * Reading a histogram while values are recorded is safe, but a reading may miss values recorded during it.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below 2 * SUB_BUCKETS are counted exactly, then every power of two up to 2^62 is divided into SUB_BUCKETS buckets.
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a value (negative values are recorded as 0).
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        buckets.incrementAndGet(bucketOf(recorded));
+        count.increment();
+        sum.add(recorded);
+        if (recorded < min.get()) {
+            min.accumulateAndGet(recorded, Math::min);
+        }
+        if (recorded > max.get()) {
+            max.accumulateAndGet(recorded, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a start time.
+     *
+     * @param startNanos The start time (from System.nanoTime).
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the least value recorded.
+     *
+     * @return The least value recorded, or 0 if no value has been recorded.
+     */
+    public long getMin() {
+        long least = min.get();
+        return least == Long.MAX_VALUE ? 0 : least;
+    }
+
+    /**
+     * Returns the greatest value recorded.
+     *
+     * @return The greatest value recorded, or 0 if no value has been recorded.
+     */
+    public long getMax() {
+        long greatest = max.get();
+        return greatest == Long.MIN_VALUE ? 0 : greatest;
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return The mean, or 0 if no value has been recorded.
+     */
+    public double getMean() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) getSum() / recorded;
+    }
+
+    /**
+     * Returns the value at a percentile of the values recorded: the greatest value of the bucket holding it (but no more than the greatest value recorded).
+     *
+     * @param percentile The percentile (from 0 to 100).
+     * @return The value at the percentile, or 0 if no value has been recorded.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the percentile is not from 0 to 100.
+     */
+    public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("A percentile must be from 0 to 100");
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // The bucket of a (non-negative) value.
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // The greatest value counted in a bucket.
+    static long highestValueOf(int bucket) {
+        int shift = bucket / SUB_BUCKETS - 1;
+        if (shift <= 0) {
+            return bucket;
+        }
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
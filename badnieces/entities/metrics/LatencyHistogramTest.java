@@ -0,0 +1,66 @@
+package badnieces.entities.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void recordValid() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMax());
+        for (long value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        // Small values are counted exactly.
+        assertEquals(50, histogram.getCount());
+        assertEquals(1275, histogram.getSum());
+        assertEquals(1, histogram.getMin());
+        assertEquals(50, histogram.getMax());
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        histogram.record(-5);
+        assertEquals(0, histogram.getMin());
+    }
+
+    @Test
+    public void percentileEquivalence() {
+        // Every percentile is within 1/32 of the exact value at that percentile.
+        Random random = new Random(17);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 40);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " for " + exact, reported >= exact && reported - exact <= exact / 32);
+        }
+    }
+
+    @Test
+    public void bucketValid() {
+        // Buckets are contiguous over the whole range of a long.
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+        for (int bucket = 0; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(highest));
+            assertEquals(bucket + 1, LatencyHistogram.bucketOf(highest + 1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentileInvalid() {
+        new LatencyHistogram().getValueAtPercentile(101);
+    }
+}
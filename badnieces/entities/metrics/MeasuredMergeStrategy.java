@@ -0,0 +1,63 @@
+package badnieces.entities.metrics;
+
+import badnieces.interfaces.strategy.merge.StringMergeStrategy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MeasuredMergeStrategy is a decorator of a merge strategy which records the latency of each merge, and the bytes each merge copies, in a MetricsRegistry.
+ * The results of the strategy are unchanged. Metrics are labelled by the name of the strategy decorated.
+ * <p>
+ * Merging Strings copies the merged String, so each merge counts the bytes of the merged String (2 bytes per character).
+ */
+public class MeasuredMergeStrategy implements StringMergeStrategy {
+    private final StringMergeStrategy mergeStrategy;
+    private final LatencyHistogram mergeNanos;
+    private final LongAdder merges;
+    private final LongAdder bytesCopied;
+
+    private MeasuredMergeStrategy(StringMergeStrategy mergeStrategy, MetricsRegistry registry) {
+        this.mergeStrategy = mergeStrategy;
+        String name = mergeStrategy.strategyToName();
+        mergeNanos = registry.histogram("merge_nanos", "strategy", name);
+        merges = registry.counter("merges_total", "strategy", name);
+        bytesCopied = registry.counter("merge_bytes_copied_total", "strategy", name);
+    }
+
+    /**
+     * Decorates a merge strategy.
+     *
+     * @param mergeStrategy The merge strategy to measure.
+     * @param registry      The registry the metrics are recorded in.
+     * @return The decorated merge strategy.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the strategy or registry is missing.
+     */
+    public static MeasuredMergeStrategy of(StringMergeStrategy mergeStrategy, MetricsRegistry registry) throws IllegalArgumentException {
+        if (mergeStrategy == null || registry == null) {
+            throw new IllegalArgumentException("A merge strategy and registry must be specified");
+        }
+        return new MeasuredMergeStrategy(mergeStrategy, registry);
+    }
+
+    @Override
+    public String merge(String s1, String s2) {
+        long start = System.nanoTime();
+        String merged = mergeStrategy.merge(s1, s2);
+        mergeNanos.recordSince(start);
+        merges.increment();
+        if (merged != null) {
+            bytesCopied.add(2L * merged.length());
+        }
+        return merged;
+    }
+
+    @Override
+    public String strategyToName() {
+        return mergeStrategy.strategyToName();
+    }
+
+    @Override
+    public String toString() {
+        return "Measured " + mergeStrategy;
+    }
+}
@@ -0,0 +1,118 @@
+package badnieces.entities.metrics;
+
+import badnieces.interfaces.strategy.search.IncrementalStringsListSearchStrategy;
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * MeasuredSearchStrategy is a decorator of a search strategy which records the latency of each search pass, and the pairs of strings compared, in a MetricsRegistry.
+ * The results of the strategy are unchanged. Metrics are labelled by the name of the strategy decorated.
+ * <p>
+ * A search pass is a search, or a call of next on an incremental strategy. Indexing and updating an incremental strategy are recorded separately.
+ * The decorator is always an IncrementalStringsListSearchStrategy, but only an incremental strategy can be indexed, searched by next or updated through it.
+ */
+public class MeasuredSearchStrategy implements IncrementalStringsListSearchStrategy {
+    private final StringsListSearchStrategy searchStrategy;
+    private final LatencyHistogram passNanos;
+    private final LatencyHistogram indexNanos;
+    private final LatencyHistogram updateNanos;
+    private final LongAdder passes;
+    private final LongAdder pairsCompared;
+
+    /**
+     * Constructs a new MeasuredSearchStrategy.
+     *
+     * @param searchStrategy The search strategy to measure.
+     * @param registry       The registry the metrics are recorded in.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the strategy or registry is missing.
+     */
+    public MeasuredSearchStrategy(StringsListSearchStrategy searchStrategy, MetricsRegistry registry) throws IllegalArgumentException {
+        if (searchStrategy == null || registry == null) {
+            throw new IllegalArgumentException("A search strategy and registry must be specified");
+        }
+        this.searchStrategy = searchStrategy;
+        String name = searchStrategy.getStrategyName();
+        passNanos = registry.histogram("search_pass_nanos", "strategy", name);
+        indexNanos = registry.histogram("search_index_nanos", "strategy", name);
+        updateNanos = registry.histogram("search_update_nanos", "strategy", name);
+        passes = registry.counter("search_passes_total", "strategy", name);
+        pairsCompared = registry.counter("search_pairs_compared_total", "strategy", name);
+    }
+
+    @Override
+    public int[] search(String[] search) {
+        long compared = searchStrategy.getPairsCompared();
+        long start = System.nanoTime();
+        int[] tokens = searchStrategy.search(search);
+        passNanos.recordSince(start);
+        passes.increment();
+        pairsCompared.add(searchStrategy.getPairsCompared() - compared);
+        return tokens;
+    }
+
+    @Override
+    public void index(String[] strings) {
+        long compared = searchStrategy.getPairsCompared();
+        long start = System.nanoTime();
+        incremental().index(strings);
+        indexNanos.recordSince(start);
+        pairsCompared.add(searchStrategy.getPairsCompared() - compared);
+    }
+
+    @Override
+    public boolean index(String[] strings, BooleanSupplier abandon) {
+        long compared = searchStrategy.getPairsCompared();
+        long start = System.nanoTime();
+        boolean indexed = incremental().index(strings, abandon);
+        indexNanos.recordSince(start);
+        pairsCompared.add(searchStrategy.getPairsCompared() - compared);
+        return indexed;
+    }
+
+    @Override
+    public long getIndexBytes(String[] strings) {
+        return incremental().getIndexBytes(strings);
+    }
+
+    @Override
+    public int[] next() {
+        long start = System.nanoTime();
+        int[] tokens = incremental().next();
+        passNanos.recordSince(start);
+        passes.increment();
+        return tokens;
+    }
+
+    @Override
+    public void update(int fromIndex, int intoIndex, CharSequence merged) {
+        long compared = searchStrategy.getPairsCompared();
+        long start = System.nanoTime();
+        incremental().update(fromIndex, intoIndex, merged);
+        updateNanos.recordSince(start);
+        pairsCompared.add(searchStrategy.getPairsCompared() - compared);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return searchStrategy.getStrategyName();
+    }
+
+    @Override
+    public long getPairsCompared() {
+        return searchStrategy.getPairsCompared();
+    }
+
+    @Override
+    public String toString() {
+        return "Measured " + searchStrategy;
+    }
+
+    private IncrementalStringsListSearchStrategy incremental() {
+        if (!(searchStrategy instanceof IncrementalStringsListSearchStrategy)) {
+            throw new IllegalStateException("The search strategy " + searchStrategy.getStrategyName() + " is not incremental.");
+        }
+        return (IncrementalStringsListSearchStrategy) searchStrategy;
+    }
+}
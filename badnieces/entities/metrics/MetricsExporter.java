@@ -0,0 +1,81 @@
+package badnieces.entities.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The MetricsExporter class is responsible for writing snapshots of a MetricsRegistry to a file: periodically while a run is in progress (optionally), and once more when the run ends (when the exporter is closed).
+ * Periodic snapshots are written on a single daemon thread, so a slow file system never holds back the lines of a run. A periodic snapshot which cannot be written is logged and the next one is tried.
+ */
+public final class MetricsExporter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger("BadNiecesLogs");
+    private final MetricsRegistry registry;
+    private final Path path;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new MetricsExporter.
+     *
+     * @param registry      The registry to export.
+     * @param path          The path of the snapshot file (see MetricsRegistry.write for the format).
+     * @param periodSeconds The number of seconds between periodic snapshots (0 for a snapshot when closed only).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the registry or path is missing or the period is negative.
+     */
+    public MetricsExporter(MetricsRegistry registry, Path path, long periodSeconds) throws IllegalArgumentException {
+        if (registry == null || path == null || periodSeconds < 0) {
+            throw new IllegalArgumentException("A registry and path must be specified, and snapshots exported every positive number of seconds (or 0 for when closed only)");
+        }
+        this.registry = registry;
+        this.path = path;
+        if (periodSeconds == 0) {
+            scheduler = null;
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BadNiecesMetricsExporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::exportPeriodically, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes a snapshot of the registry to the file.
+     *
+     * @throws IOException Throws an IO exception if the file cannot be written.
+     */
+    public synchronized void export() throws IOException {
+        registry.write(path);
+    }
+
+    /**
+     * Stops the periodic snapshots and writes the final snapshot.
+     *
+     * @throws IOException Throws an IO exception if the final snapshot cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        export();
+    }
+
+    private void exportPeriodically() {
+        try {
+            export();
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warning("Could not export metrics to " + path + ": " + e);
+        }
+    }
+}
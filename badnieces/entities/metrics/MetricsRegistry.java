@@ -0,0 +1,227 @@
+package badnieces.entities.metrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MetricsRegistry class is responsible for holding the named counters and latency histograms of a run, and exporting a snapshot of them.
+ * A metric is named (i.e. "search_next_nanos") and optionally labelled by pairs of label names and values (i.e. "strategy", "IncrementalMaximallyOverlappingPair"), and the same name and labels always return the same metric.
+ * <p>
+ * Snapshots are exported as JSON or in the Prometheus text format, where each histogram is a summary of its quantiles.
+ * Looking a metric up validates its name, so callers hold the metrics they update often rather than looking them up per value.
+ * Metrics may be updated from many threads while a snapshot is taken; a snapshot is a reading of each metric in turn rather than of every metric at one instant.
+ */
+public final class MetricsRegistry {
+    private static final String PROMETHEUS_PREFIX = "badnieces_";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private final ConcurrentMap<MetricName, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricName, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter of a name and labels, creating it if it does not exist.
+     *
+     * @param name   The name of the counter (letters, digits and underscores).
+     * @param labels Pairs of label names and label values.
+     * @return The counter.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the name is not valid or the labels are not in pairs.
+     */
+    public LongAdder counter(String name, String... labels) throws IllegalArgumentException {
+        return counters.computeIfAbsent(new MetricName(name, labels), metricName -> new LongAdder());
+    }
+
+    /**
+     * Returns the histogram of a name and labels, creating it if it does not exist.
+     *
+     * @param name   The name of the histogram (letters, digits and underscores).
+     * @param labels Pairs of label names and label values.
+     * @return The histogram.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the name is not valid or the labels are not in pairs.
+     */
+    public LatencyHistogram histogram(String name, String... labels) throws IllegalArgumentException {
+        return histograms.computeIfAbsent(new MetricName(name, labels), metricName -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns a snapshot of every metric as a JSON object of counters and histograms, keyed by name and labels.
+     *
+     * @return The snapshot in JSON.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<MetricName, LongAdder> counter : new TreeMap<>(counters).entrySet()) {
+            json.append(separator).append("    ");
+            appendJsonString(json, counter.getKey().toString());
+            json.append(": ").append(counter.getValue().sum());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"histograms\": {");
+        separator = "\n";
+        for (Map.Entry<MetricName, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            json.append(separator).append("    ");
+            appendJsonString(json, entry.getKey().toString());
+            json.append(": {\"count\": ").append(histogram.getCount())
+                    .append(", \"sum\": ").append(histogram.getSum())
+                    .append(", \"min\": ").append(histogram.getMin())
+                    .append(", \"max\": ").append(histogram.getMax())
+                    .append(", \"mean\": ").append(Math.round(histogram.getMean()));
+            for (double percentile : PERCENTILES) {
+                json.append(", \"p").append(BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString().replace(".", "")).append("\": ").append(histogram.getValueAtPercentile(percentile));
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    /**
+     * Returns a snapshot of every metric in the Prometheus text format (each name prefixed with "badnieces_"). Counters are counters and histograms are summaries.
+     *
+     * @return The snapshot in the Prometheus text format.
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        String type = null;
+        for (Map.Entry<MetricName, LongAdder> counter : new TreeMap<>(counters).entrySet()) {
+            MetricName name = counter.getKey();
+            if (!name.name.equals(type)) {
+                type = name.name;
+                text.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name.name).append(" counter\n");
+            }
+            text.append(PROMETHEUS_PREFIX).append(name.name).append(name.labels(null, null)).append(' ').append(counter.getValue().sum()).append('\n');
+        }
+        type = null;
+        for (Map.Entry<MetricName, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            MetricName name = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            if (!name.name.equals(type)) {
+                type = name.name;
+                text.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name.name).append(" summary\n");
+            }
+            for (double percentile : PERCENTILES) {
+                text.append(PROMETHEUS_PREFIX).append(name.name).append(name.labels("quantile", formatQuantile(percentile)))
+                        .append(' ').append(histogram.getValueAtPercentile(percentile)).append('\n');
+            }
+            text.append(PROMETHEUS_PREFIX).append(name.name).append("_sum").append(name.labels(null, null)).append(' ').append(histogram.getSum()).append('\n');
+            text.append(PROMETHEUS_PREFIX).append(name.name).append("_count").append(name.labels(null, null)).append(' ').append(histogram.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a snapshot of every metric to a file, replacing the file in one move so a reader never sees a partly written snapshot.
+     * A file name ending ".json" is written as JSON, any other in the Prometheus text format.
+     *
+     * @param path The path of the file.
+     * @throws IOException Throws an IO exception if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        String snapshot = path.toString().endsWith(".json") ? toJson() : toPrometheus();
+        Path absolute = path.toAbsolutePath();
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.write(temporary, snapshot.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // The quantile of a percentile, written exactly (i.e. 99.9 is "0.999").
+    private static String formatQuantile(double percentile) {
+        return BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * The name and labels of a metric, ordered by name then labels.
+     */
+    private static final class MetricName implements Comparable<MetricName> {
+        private final String name;
+        private final String[] labels;
+        private final String key;
+
+        private MetricName(String name, String[] labels) {
+            if (name == null || !name.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+                throw new IllegalArgumentException("A metric name must be made of letters, digits and underscores: " + name);
+            }
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels of the metric " + name + " must be pairs of names and values");
+            }
+            for (int i = 0; i < labels.length; i += 2) {
+                if (labels[i] == null || !labels[i].matches("[A-Za-z_][A-Za-z0-9_]*") || labels[i + 1] == null) {
+                    throw new IllegalArgumentException("A label of the metric " + name + " must be named with letters, digits and underscores, and have a value");
+                }
+            }
+            this.name = name;
+            this.labels = labels.clone();
+            this.key = name + labels(null, null);
+        }
+
+        // The labels in the Prometheus form ({name="value",...}), with an extra label if one is given.
+        private String labels(String extraName, String extraValue) {
+            if (labels.length == 0 && extraName == null) {
+                return "";
+            }
+            StringBuilder text = new StringBuilder("{");
+            for (int i = 0; i < labels.length; i += 2) {
+                appendLabel(text, labels[i], labels[i + 1]);
+            }
+            if (extraName != null) {
+                appendLabel(text, extraName, extraValue);
+            }
+            text.setCharAt(text.length() - 1, '}');
+            return text.toString();
+        }
+
+        private static void appendLabel(StringBuilder text, String name, String value) {
+            text.append(name).append("=\"").append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append("\",");
+        }
+
+        @Override
+        public int compareTo(MetricName other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : key.compareTo(other.key);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MetricName && key.equals(((MetricName) other).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+}
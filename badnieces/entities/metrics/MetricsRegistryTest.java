@@ -0,0 +1,86 @@
+package badnieces.entities.metrics;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void exportValid() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("lines_total").add(3);
+        registry.counter("merges_total", "strategy", "Merge \"A\"").increment();
+        assertSame(registry.counter("lines_total"), registry.counter("lines_total"));
+        LatencyHistogram histogram = registry.histogram("stage_nanos", "stage", "read");
+        histogram.record(10);
+        histogram.record(20);
+        assertEquals("{\n"
+                + "  \"counters\": {\n"
+                + "    \"lines_total\": 3,\n"
+                + "    \"merges_total{strategy=\\\"Merge \\\\\\\"A\\\\\\\"\\\"}\": 1\n"
+                + "  },\n"
+                + "  \"histograms\": {\n"
+                + "    \"stage_nanos{stage=\\\"read\\\"}\": {\"count\": 2, \"sum\": 30, \"min\": 10, \"max\": 20, \"mean\": 15, \"p50\": 10, \"p90\": 20, \"p99\": 20, \"p999\": 20}\n"
+                + "  }\n"
+                + "}\n", registry.toJson());
+        assertEquals("# TYPE badnieces_lines_total counter\n"
+                + "badnieces_lines_total 3\n"
+                + "# TYPE badnieces_merges_total counter\n"
+                + "badnieces_merges_total{strategy=\"Merge \\\"A\\\"\"} 1\n"
+                + "# TYPE badnieces_stage_nanos summary\n"
+                + "badnieces_stage_nanos{stage=\"read\",quantile=\"0.5\"} 10\n"
+                + "badnieces_stage_nanos{stage=\"read\",quantile=\"0.9\"} 20\n"
+                + "badnieces_stage_nanos{stage=\"read\",quantile=\"0.99\"} 20\n"
+                + "badnieces_stage_nanos{stage=\"read\",quantile=\"0.999\"} 20\n"
+                + "badnieces_stage_nanos_sum{stage=\"read\"} 30\n"
+                + "badnieces_stage_nanos_count{stage=\"read\"} 2\n", registry.toPrometheus());
+        Path directory = Files.createTempDirectory("MetricsRegistryTest");
+        directory.toFile().deleteOnExit();
+        // The final snapshot is written when the exporter is closed.
+        MetricsExporter exporter = new MetricsExporter(registry, directory.resolve("metrics.prom"), 0);
+        try {
+            registry.counter("lines_total").increment();
+        } finally {
+            exporter.close();
+        }
+        assertTrue(new String(Files.readAllBytes(directory.resolve("metrics.prom")), StandardCharsets.UTF_8).contains("badnieces_lines_total 4\n"));
+    }
+
+    @Test
+    public void measuredStrategyEquivalence() {
+        // Decorated strategies reassemble the same document, and record every search pass, comparison and merge.
+        String[] fragments = "all is well;ell that en;hat end;t ends well".split(";");
+        DocumentCompositor expected = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        expected.incrementalMerge();
+        MetricsRegistry registry = new MetricsRegistry();
+        DocumentCompositor measured = new DocumentCompositor(new MeasuredSearchStrategy(new IncrementalMaximallyOverlappingPair(), registry), MeasuredMergeStrategy.of(new MergeOverlapPair(), registry), fragments);
+        measured.incrementalMerge();
+        assertEquals(expected.getToString(), measured.getToString());
+        assertEquals(3, registry.counter("search_passes_total", "strategy", "IncrementalMaximallyOverlappingPair").sum());
+        // The index compares 4 * 3 ordered pairs, then each merge compares the merged string both ways with those remaining (2 * 2, then 2 * 1).
+        assertEquals(12 + 4 + 2, registry.counter("search_pairs_compared_total", "strategy", "IncrementalMaximallyOverlappingPair").sum());
+        assertEquals(3, registry.counter("merges_total", "strategy", "MergeOverlapPair").sum());
+        assertEquals(3, registry.histogram("merge_nanos", "strategy", "MergeOverlapPair").getCount());
+        // Each merge copies the merged String, and the last merge copies the whole document.
+        long bytesCopied = registry.counter("merge_bytes_copied_total", "strategy", "MergeOverlapPair").sum();
+        assertTrue(bytesCopied >= 2L * expected.getToString().length());
+        assertEquals("all is well", MeasuredMergeStrategy.of(new MergeOverlapPair(), registry).merge("is well", "all is"));
+        assertEquals(bytesCopied + 2L * "all is well".length(), registry.counter("merge_bytes_copied_total", "strategy", "MergeOverlapPair").sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nameInvalid() {
+        new MetricsRegistry().counter("lines total");
+    }
+}
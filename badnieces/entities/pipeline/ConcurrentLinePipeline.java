@@ -0,0 +1,147 @@
+package badnieces.entities.pipeline;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The ConcurrentLinePipeline class is responsible for processing independent lines concurrently while emitting their results in the original line order.
+ * Each submitted line becomes one task on a worker pool. Results are held in a reorder buffer (a window of pending tasks in submission order) and emitted as soon as every earlier line has been emitted.
+ * The window is bounded, so a slow line holds back at most a window of results and the reader never runs further ahead than the window.
+ * A pipeline is driven by a single thread (the thread submitting lines), and the output consumer is only ever called from that thread.
+ *
+ * @param <T> The type of a line (i.e. the line as a String, or the line as its fragments).
+ */
+public final class ConcurrentLinePipeline<T> implements AutoCloseable {
+    private final ExecutorService workerPool;
+    private final int window;
+    private final Function<T, String> task;
+    private final Consumer<String> output;
+    private final Deque<Future<String>> reorderBuffer;
+
+    /**
+     * Constructs a new ConcurrentLinePipeline.
+     *
+     * @param workerPool The worker pool the line tasks are submitted to (shut down when the pipeline is closed).
+     * @param window     The greatest number of lines submitted but not yet emitted.
+     * @param task       The task applied to each line (i.e. reassembling the line to a document).
+     * @param output     The consumer of each result, called in the order the lines were submitted.
+     */
+    public ConcurrentLinePipeline(ExecutorService workerPool, int window, Function<T, String> task, Consumer<String> output) {
+        if (workerPool == null || task == null || output == null) {
+            throw new IllegalArgumentException("A worker pool, task and output must be specified");
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("The reorder window must hold at least one line");
+        }
+        this.workerPool = workerPool;
+        this.window = window;
+        this.task = task;
+        this.output = output;
+        this.reorderBuffer = new ArrayDeque<>(window);
+    }
+
+    /**
+     * Static factory which returns a worker pool for the pipeline.
+     * Supported types (input params) include: PLATFORM (a fixed pool of platform threads) and VIRTUAL (one virtual thread per task).
+     * Virtual threads are looked up at runtime, so the type is only supported when running on a Java runtime which provides them.
+     *
+     * @param type    The type of worker pool to construct.
+     * @param workers The number of platform threads (ignored by virtual threads, where concurrency is bounded by the window).
+     * @return Returns an ExecutorService.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the type requested is not a supported type.
+     */
+    public static ExecutorService getWorkerPool(String type, int workers) throws IllegalArgumentException {
+        if (type == null) {
+            throw new IllegalArgumentException("Input parameter cannot be a null object");
+        }
+        if (workers < 1) {
+            throw new IllegalArgumentException("A worker pool must have at least one worker");
+        }
+        type = type.toUpperCase();
+        switch (type) {
+            case "PLATFORM":
+                AtomicInteger workerCount = new AtomicInteger();
+                return Executors.newFixedThreadPool(workers, runnable -> {
+                    Thread thread = new Thread(runnable, "BadNieces-worker-" + workerCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            case "VIRTUAL":
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalArgumentException("Virtual threads are not supported by this Java runtime.");
+                }
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unsupported worker pool type specified to getWorkerPool method.");
+    }
+
+    /**
+     * Submits a line to the worker pool, first emitting every result at the head of the reorder buffer which is complete.
+     * If the reorder buffer is full the method blocks until the oldest line has been emitted.
+     *
+     * @param line The line to process.
+     * @throws IllegalArgumentException Rethrown from a line task which failed with an IllegalArgumentException.
+     * @throws IllegalStateException    Rethrown from a line task which failed with an IllegalStateException, or thrown if the pipeline is interrupted.
+     */
+    public void submit(T line) {
+        while (!reorderBuffer.isEmpty() && (reorderBuffer.size() >= window || reorderBuffer.peekFirst().isDone())) {
+            emitHead();
+        }
+        reorderBuffer.addLast(workerPool.submit(() -> task.apply(line)));
+    }
+
+    /**
+     * Blocks until every submitted line has been emitted (in order).
+     *
+     * @throws IllegalArgumentException Rethrown from a line task which failed with an IllegalArgumentException.
+     * @throws IllegalStateException    Rethrown from a line task which failed with an IllegalStateException, or thrown if the pipeline is interrupted.
+     */
+    public void finish() {
+        while (!reorderBuffer.isEmpty()) {
+            emitHead();
+        }
+    }
+
+    /**
+     * Cancels any line not yet emitted and shuts the worker pool down.
+     */
+    @Override
+    public void close() {
+        for (Future<String> pending : reorderBuffer) {
+            pending.cancel(true);
+        }
+        reorderBuffer.clear();
+        workerPool.shutdownNow();
+    }
+
+    private void emitHead() {
+        Future<String> head = reorderBuffer.pollFirst();
+        try {
+            output.accept(head.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The line pipeline was interrupted before every line was emitted.");
+        } catch (ExecutionException e) {
+            // Surface the failure of the line exactly as a sequential run would have thrown it.
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("A line task failed: " + cause);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package badnieces.entities.pipeline;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentLinePipelineTest {
+
+    @Test
+    public void validOrder() {
+        // Earlier lines take longer than later lines, so they complete out of order.
+        List<String> emitted = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        try (ConcurrentLinePipeline<String> pipeline = new ConcurrentLinePipeline<>(ConcurrentLinePipeline.getWorkerPool("platform", 4), 3, line -> {
+            LockSupport.parkNanos((20 - Integer.parseInt(line)) * 200_000L);
+            return "line " + line;
+        }, emitted::add)) {
+            for (int i = 0; i < 20; i++) {
+                pipeline.submit(String.valueOf(i));
+                expected.add("line " + i);
+            }
+            pipeline.finish();
+        }
+        assertEquals(expected, emitted);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLine() {
+        // A failed line surfaces as the exception the line task threw.
+        try (ConcurrentLinePipeline<String> pipeline = new ConcurrentLinePipeline<>(ConcurrentLinePipeline.getWorkerPool("PLATFORM", 2), 2, line -> {
+            throw new IllegalArgumentException(line);
+        }, line -> {
+        })) {
+            pipeline.submit("A");
+            pipeline.finish();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWorkerPool() {
+        ConcurrentLinePipeline.getWorkerPool("FIBRE", 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extremeInvalidWorkerPool() {
+        ConcurrentLinePipeline.getWorkerPool("PLATFORM", 0);
+    }
+}
@@ -1,13 +1,17 @@
 package badnieces.entities.reader.encoding;
 
+import badnieces.entities.reader.tokenizer.FragmentTokenizer;
 import badnieces.interfaces.read.Readable;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 /**
@@ -34,7 +38,7 @@ public abstract class EncodingReadable implements Readable {
 
     /**
      * Static factory constructor which returns an EncodingReadable subclass.
-     * Supported types (input params) include: UTF8.
+     * Supported types (input params) include: UTF8, UTF8_MMAP (a UTF8 file read through a memory mapping).
      *
      * @param type The type of read to construct.
      * @return Returns an EncodingReadable object.
@@ -48,6 +52,8 @@ public abstract class EncodingReadable implements Readable {
         switch (type) {
             case "UTF8":
                 return new UTF8Reader();
+            case "UTF8_MMAP":
+                return new MappedUTF8Reader();
             default:
                 break;
         }
@@ -87,6 +93,72 @@ public abstract class EncodingReadable implements Readable {
         return lines.toArray(new String[0]);
     }
 
+    /**
+     * Lazily reads each line of the file as it is consumed.
+     *
+     * @param absPath The path of the object to be read.
+     * @return A stream of the lines of the file which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be read.
+     */
+    @Override
+    public Stream<String> readToStream(String absPath) throws IOException {
+        FileInputStream inStream = new FileInputStream(absPath);
+        InputStreamReader inReader = new InputStreamReader(inStream);
+        BufferedReader br = new BufferedReader(inReader);
+        return streamLines(br);
+    }
+
+    /**
+     * Lazily reads each line of the file as it is consumed, split into its fragments (empty fragments are kept).
+     *
+     * @param absPath   The path of the object to be read.
+     * @param separator The character separating fragments.
+     * @return A stream of the fragments of each line which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be read.
+     */
+    @Override
+    public Stream<String[]> readToFragments(String absPath, char separator) throws IOException {
+        // Each line is split in a single scan for the separator (a quoted regular expression would be compiled and matched per line).
+        FragmentTokenizer tokenizer = new FragmentTokenizer(separator);
+        return readToStream(absPath).map(tokenizer::split);
+    }
+
+    /**
+     * Lazily reads each line of the file as it is consumed, split into its fragments encoded as UTF-8 bytes (empty fragments are kept).
+     * The lines are decoded by readToFragments and each fragment is encoded again, so readers which hold the bytes of the file should override the method.
+     *
+     * @param absPath   The path of the object to be read.
+     * @param separator The character separating fragments.
+     * @return A stream of the UTF-8 fragments of each line which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be read.
+     */
+    @Override
+    public Stream<byte[][]> readToByteFragments(String absPath, char separator) throws IOException {
+        return readToFragments(absPath, separator).map(fragments -> {
+            byte[][] encoded = new byte[fragments.length][];
+            for (int i = 0; i < fragments.length; i++) {
+                encoded[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+            }
+            return encoded;
+        });
+    }
+
+    /**
+     * Streams the lines of a reader, closing the reader when the stream is closed.
+     *
+     * @param br The reader to stream.
+     * @return A stream of the lines of the reader.
+     */
+    static Stream<String> streamLines(BufferedReader br) {
+        return br.lines().onClose(() -> {
+            try {
+                br.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     public final String toString() {
         return "Encoding Reader {Type:" + type + " Encoding:" + encoding + "}";
     }
@@ -0,0 +1,299 @@
+package badnieces.entities.reader.encoding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * MappedUTF8Reader is a Readable responsible for reading well-formed UTF8 files through a memory mapping of the file.
+ * The mapped bytes are scanned for line (and fragment) boundaries directly, and only the bytes of each line (or fragment) are decoded to a String.
+ * Files are mapped in windows, so files larger than 2GB are read by moving the window along the file (a line must fit within the largest window of 2GB).
+ * Line terminators are '\n' or "\r\n". The file is always decoded as UTF8 regardless of the platform encoding.
+ */
+class MappedUTF8Reader extends EncodingReadable {
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+    private final int windowSize;
+
+    /**
+     * Constructs a new mapped UTF8 reader.
+     */
+    MappedUTF8Reader() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a new mapped UTF8 reader.
+     *
+     * @param windowSize The number of bytes of the file mapped at once (windows grow to fit a line longer than the window).
+     */
+    MappedUTF8Reader(int windowSize) {
+        super("UTF8 Mapped EncodingReadable", "UTF8");
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("The mapped window must hold at least one byte");
+        }
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads the file at the absPath specified to a string (lines are joined without their terminators).
+     *
+     * @param absPath The absPath to the file.
+     * @return Returns the data at the absPath to a string.
+     * @throws IOException Throws an IO exception if the file cannot be read.
+     */
+    @Override
+    public String readToString(String absPath) throws IOException {
+        StringBuilder response = new StringBuilder();
+        try (Stream<String> lines = readToStream(absPath)) {
+            lines.forEachOrdered(response::append);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return response.toString();
+    }
+
+    /**
+     * Reads each line of the file at the absPath specified to a different string contained in an array.
+     *
+     * @param absPath The absPath to the file.
+     * @return Returns the lines of the file.
+     * @throws IOException Throws an IO exception if the file cannot be read.
+     */
+    @Override
+    public String[] readToStrings(String absPath) throws IOException {
+        try (Stream<String> lines = readToStream(absPath)) {
+            return lines.toArray(String[]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Lazily reads each line of the file at the absPath specified as it is consumed, decoding each line straight from the mapping.
+     *
+     * @param absPath The absPath to the file.
+     * @return Returns a stream of the lines of the file which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be opened.
+     */
+    @Override
+    public Stream<String> readToStream(String absPath) throws IOException {
+        return streamMapped(absPath, MappedLines::line);
+    }
+
+    /**
+     * Lazily reads each line of the file at the absPath specified as its fragments.
+     * Boundaries are found by scanning the mapped bytes (the separator is ASCII, so it can never be part of a multi-byte character) and each fragment is decoded straight from its slice of the mapping.
+     *
+     * @param absPath   The absPath to the file.
+     * @param separator The character separating fragments (must be ASCII).
+     * @return Returns a stream of the fragments of each line which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be opened.
+     */
+    @Override
+    public Stream<String[]> readToFragments(String absPath, char separator) throws IOException {
+        if (separator > 0x7F) {
+            throw new IllegalArgumentException("A mapped fragment separator must be an ASCII character");
+        }
+        return streamMapped(absPath, lines -> lines.fragments((byte) separator));
+    }
+
+    /**
+     * Lazily reads each line of the file at the absPath specified as its fragments encoded as UTF-8 bytes.
+     * The bytes of each fragment are copied straight from its slice of the mapping, so nothing is decoded.
+     *
+     * @param absPath   The absPath to the file.
+     * @param separator The character separating fragments (must be ASCII).
+     * @return A stream of the UTF-8 fragments of each line which closes the file when the stream is closed.
+     * @throws IOException Throws an IO exception if the file cannot be opened.
+     */
+    @Override
+    public Stream<byte[][]> readToByteFragments(String absPath, char separator) throws IOException {
+        if (separator > 0x7F) {
+            throw new IllegalArgumentException("A mapped fragment separator must be an ASCII character");
+        }
+        return streamMapped(absPath, lines -> lines.byteFragments((byte) separator));
+    }
+
+    private <T> Stream<T> streamMapped(String absPath, Function<MappedLines, T> decoder) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(absPath), StandardOpenOption.READ);
+        MappedLines lines = new MappedLines(channel, windowSize);
+        Iterator<T> iterator = new Iterator<T>() {
+            private boolean advanced;
+            private boolean hasLine;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    try {
+                        hasLine = lines.advance();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    advanced = true;
+                }
+                return hasLine;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return decoder.apply(lines);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * A cursor over the lines of a mapped file. The cursor holds the window of the file the current line is mapped in.
+     */
+    private static final class MappedLines {
+        private static final byte NEW_LINE = '\n';
+        private static final byte CARRIAGE_RETURN = '\r';
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int windowSize;
+        private MappedByteBuffer window;
+        private ByteBuffer cursor;
+        // The offset of the window within the file.
+        private long windowStart;
+        // The offset (within the window) the next line starts at.
+        private int nextLineStart;
+        // The current line as [lineStart, lineEnd) within the window (excluding the terminator).
+        private int lineStart;
+        private int lineEnd;
+        private byte[] scratch = new byte[256];
+
+        private MappedLines(FileChannel channel, int windowSize) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.windowSize = windowSize;
+            map(0, (int) Math.min(windowSize, fileSize));
+        }
+
+        /**
+         * Moves to the next line, moving the window along the file (or growing it) when the line is not wholly mapped.
+         *
+         * @return Returns false once every line has been read.
+         * @throws IOException Throws an IO exception if the file cannot be mapped.
+         */
+        private boolean advance() throws IOException {
+            while (true) {
+                int limit = window.limit();
+                if (nextLineStart >= limit && windowStart + limit >= fileSize) {
+                    return false;
+                }
+                for (int i = nextLineStart; i < limit; i++) {
+                    if (window.get(i) == NEW_LINE) {
+                        setLine(nextLineStart, i);
+                        nextLineStart = i + 1;
+                        return true;
+                    }
+                }
+                if (windowStart + limit >= fileSize) {
+                    // The last line of the file has no terminator.
+                    setLine(nextLineStart, limit);
+                    nextLineStart = limit;
+                    return true;
+                }
+                // Remap from the start of the unfinished line, growing the window if the line alone fills it.
+                long lineOffset = windowStart + nextLineStart;
+                int size = nextLineStart == 0 ? grow(limit) : windowSize;
+                map(lineOffset, (int) Math.min(size, fileSize - lineOffset));
+            }
+        }
+
+        private int grow(int size) throws IOException {
+            if (size == Integer.MAX_VALUE) {
+                throw new IOException("A line of the file exceeds the largest mappable window of " + Integer.MAX_VALUE + " bytes");
+            }
+            return (int) Math.min(Integer.MAX_VALUE, 2L * Math.max(size, windowSize));
+        }
+
+        private void map(long offset, int size) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            cursor = window.duplicate();
+            windowStart = offset;
+            nextLineStart = 0;
+        }
+
+        private void setLine(int start, int end) {
+            if (end > start && window.get(end - 1) == CARRIAGE_RETURN) {
+                end--;
+            }
+            lineStart = start;
+            lineEnd = end;
+        }
+
+        private String line() {
+            return decode(lineStart, lineEnd);
+        }
+
+        private String[] fragments(byte separator) {
+            // Empty fragments are kept (i.e. "A;;B" produces {"A", "", "B"}) so they can be validated.
+            List<String> fragments = new ArrayList<>();
+            int fragmentStart = lineStart;
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (window.get(i) == separator) {
+                    fragments.add(decode(fragmentStart, i));
+                    fragmentStart = i + 1;
+                }
+            }
+            fragments.add(decode(fragmentStart, lineEnd));
+            return fragments.toArray(new String[0]);
+        }
+
+        private byte[][] byteFragments(byte separator) {
+            List<byte[]> fragments = new ArrayList<>();
+            int fragmentStart = lineStart;
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (window.get(i) == separator) {
+                    fragments.add(copy(fragmentStart, i));
+                    fragmentStart = i + 1;
+                }
+            }
+            fragments.add(copy(fragmentStart, lineEnd));
+            return fragments.toArray(new byte[0][]);
+        }
+
+        private byte[] copy(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            cursor.position(start);
+            cursor.get(bytes);
+            return bytes;
+        }
+
+        private String decode(int start, int end) {
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 2 * scratch.length)];
+            }
+            cursor.position(start);
+            cursor.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
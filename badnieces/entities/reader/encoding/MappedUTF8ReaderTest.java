@@ -0,0 +1,68 @@
+package badnieces.entities.reader.encoding;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MappedUTF8ReaderTest {
+    private static final String DOCUMENT = "O draconia;conian devil! Oh la\r\nh lame sa;saint!\n\néé;€€;;x";
+
+    @Test
+    public void readToStringsValid() throws IOException {
+        File file = write(DOCUMENT);
+        String[] expectedResult = {"O draconia;conian devil! Oh la", "h lame sa;saint!", "", "éé;€€;;x"};
+        // Windows smaller than a line (and smaller than a character) move and grow along the file.
+        for (int windowSize : new int[]{3, 8, 1024}) {
+            assertArrayEquals(expectedResult, new MappedUTF8Reader(windowSize).readToStrings(file.getAbsolutePath()));
+        }
+        assertEquals(String.join("", expectedResult), new MappedUTF8Reader().readToString(file.getAbsolutePath()));
+    }
+
+    @Test
+    public void readToFragmentsValid() throws IOException {
+        File file = write(DOCUMENT);
+        try (Stream<String[]> lines = new MappedUTF8Reader(5).readToFragments(file.getAbsolutePath(), ';')) {
+            String fragments = lines.map(line -> String.join("|", line)).collect(Collectors.joining("/"));
+            // Empty fragments (and empty lines) are kept.
+            assertEquals("O draconia|conian devil! Oh la/h lame sa|saint!//éé|€€||x", fragments);
+        }
+    }
+
+    @Test
+    public void readToByteFragmentsValid() throws IOException {
+        // The UTF-8 fragments are the bytes of the fragments read as Strings.
+        File file = write(DOCUMENT);
+        try (Stream<byte[][]> lines = new MappedUTF8Reader(5).readToByteFragments(file.getAbsolutePath(), ';')) {
+            String fragments = lines.map(line -> Arrays.stream(line).map(fragment -> new String(fragment, StandardCharsets.UTF_8)).collect(Collectors.joining("|")))
+                    .collect(Collectors.joining("/"));
+            assertEquals("O draconia|conian devil! Oh la/h lame sa|saint!//éé|€€||x", fragments);
+        }
+    }
+
+    @Test
+    public void readToStringsInvalid() throws IOException {
+        File file = write("");
+        assertArrayEquals(new String[0], new MappedUTF8Reader().readToStrings(file.getAbsolutePath()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readToFragmentsExtremeInvalid() throws IOException {
+        new MappedUTF8Reader().readToFragments(write(DOCUMENT).getAbsolutePath(), '€');
+    }
+
+    private static File write(String document) throws IOException {
+        File file = File.createTempFile("MappedUTF8ReaderTest", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), document.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -1,20 +1,33 @@
 package badnieces.entities.reader.encoding;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * UTF8Reader is an Readable responsible for reading well-formed UTF8 files.
  */
 class UTF8Reader extends EncodingReadable {
+    private final Charset charset;
 
     /**
-     * Constructs a new UTF8 reader.
+     * Constructs a new UTF8 reader, decoding files by the platform encoding (which must be UTF8).
      */
     UTF8Reader() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a new UTF8 reader decoding files by the charset specified in place of the platform encoding (so the check of the encoding can be tested).
+     *
+     * @param charset The charset files are decoded by.
+     */
+    UTF8Reader(Charset charset) {
         // UTF8 EncodingReadable constructor supports no modification.
         super("UTF8 EncodingReadable", "UTF8");
+        this.charset = charset;
     }
 
 
@@ -29,7 +42,7 @@ class UTF8Reader extends EncodingReadable {
     @Override
     public String readToString(String absPath) throws IOException {
         FileInputStream inStream = new FileInputStream(absPath);
-        InputStreamReader inReader = new InputStreamReader(inStream);
+        InputStreamReader inReader = new InputStreamReader(inStream, charset);
         if (!inReader.getEncoding().equals("UTF8")) {
             throw new UnsupportedEncodingException("File must be a well formed UTF8 document");
         }
@@ -52,7 +65,7 @@ class UTF8Reader extends EncodingReadable {
      */
     public String[] readToStrings(String absPath) throws IOException {
         FileInputStream inStream = new FileInputStream(absPath);
-        InputStreamReader inReader = new InputStreamReader(inStream);
+        InputStreamReader inReader = new InputStreamReader(inStream, charset);
         if (!inReader.getEncoding().equals("UTF8")) {
             throw new UnsupportedEncodingException("File must be a well formed UTF8 document");
         }
@@ -65,4 +78,23 @@ class UTF8Reader extends EncodingReadable {
         return lines.toArray(new String[0]);
     }
 
+    /**
+     * Lazily reads each line of the file at the absPath specified as it is consumed.
+     *
+     * @param absPath The absPath to the file.
+     * @return Returns a stream of the lines of the file which closes the file when the stream is closed.
+     * @throws IOException                  Throws an IO exception if the file cannot be read.
+     * @throws UnsupportedEncodingException Throws an UnsupportedEncodingException if the file read is detected to an invalid format.
+     */
+    @Override
+    public Stream<String> readToStream(String absPath) throws IOException {
+        FileInputStream inStream = new FileInputStream(absPath);
+        InputStreamReader inReader = new InputStreamReader(inStream, charset);
+        if (!inReader.getEncoding().equals("UTF8")) {
+            inReader.close();
+            throw new UnsupportedEncodingException("File must be a well formed UTF8 document");
+        }
+        return streamLines(new BufferedReader(inReader));
+    }
+
 }
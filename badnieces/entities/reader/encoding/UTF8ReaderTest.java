@@ -0,0 +1,129 @@
+package badnieces.entities.reader.encoding;
+
+import badnieces.entities.reader.tokenizer.FragmentTokenizer;
+import badnieces.entities.reader.tokenizer.LineFormatException;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UTF8ReaderTest {
+    private static final String DOCUMENT = "O draconia;conian devil! Oh la\r\nh lame sa;saint!\n\néé;€€;;x";
+
+    @Test
+    public void readToStreamValid() throws IOException {
+        File file = write(DOCUMENT);
+        try (Stream<String> lines = new UTF8Reader(StandardCharsets.UTF_8).readToStream(file.getAbsolutePath())) {
+            assertArrayEquals(new String[]{"O draconia;conian devil! Oh la", "h lame sa;saint!", "", "éé;€€;;x"}, lines.toArray());
+        }
+        try (Stream<String[]> lines = new UTF8Reader(StandardCharsets.UTF_8).readToFragments(file.getAbsolutePath(), ';')) {
+            String fragments = lines.map(line -> String.join("|", line)).collect(Collectors.joining("/"));
+            // Empty fragments (and empty lines) are kept.
+            assertEquals("O draconia|conian devil! Oh la/h lame sa|saint!//éé|€€||x", fragments);
+        }
+    }
+
+    @Test
+    public void readToStreamLazy() {
+        // Each line is read from the reader only as it is consumed.
+        ScriptedReader reader = new ScriptedReader("A;B\n", "C;D\n", "E;F\n");
+        try (Stream<String> lines = EncodingReadable.streamLines(new BufferedReader(reader))) {
+            Iterator<String> iterator = lines.iterator();
+            assertEquals("A;B", iterator.next());
+            assertEquals(1, reader.reads);
+            assertEquals("C;D", iterator.next());
+            assertEquals(2, reader.reads);
+        }
+        // Closing the stream closes the reader, although it was not read to the end.
+        assertTrue(reader.closed);
+    }
+
+    @Test
+    public void readToStreamInvalidLine() {
+        // The lines before an invalid line are delivered, and the lines after it are never read.
+        ScriptedReader reader = new ScriptedReader("A;B\n", "C;;D\n");
+        FragmentTokenizer tokenizer = new FragmentTokenizer(';');
+        List<String> valid = new ArrayList<>();
+        try (Stream<String> lines = EncodingReadable.streamLines(new BufferedReader(reader))) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                valid.add(String.join("|", FragmentTokenizer.validate(tokenizer.split(iterator.next()))));
+            }
+            fail("The second line has a double separator");
+        } catch (LineFormatException e) {
+            assertEquals(1, valid.size());
+            assertEquals("A|B", valid.get(0));
+            assertEquals(2, reader.reads);
+        }
+        assertTrue(reader.closed);
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void readToStreamInvalid() throws IOException {
+        // A file which would not be decoded as UTF8 is refused before a stream is returned.
+        new UTF8Reader(StandardCharsets.ISO_8859_1).readToStream(write(DOCUMENT).getAbsolutePath());
+    }
+
+    @Test
+    public void readToFragmentsInvalid() throws IOException {
+        File file = write(DOCUMENT);
+        try {
+            new UTF8Reader(StandardCharsets.US_ASCII).readToFragments(file.getAbsolutePath(), ';');
+            fail("A file which would not be decoded as UTF8 is refused");
+        } catch (UnsupportedEncodingException e) {
+            assertEquals("File must be a well formed UTF8 document", e.getMessage());
+        }
+    }
+
+    private static File write(String document) throws IOException {
+        File file = File.createTempFile("UTF8ReaderTest", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), document.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // A reader which returns one chunk of text per read, counting the reads and recording whether it was closed.
+    private static final class ScriptedReader extends Reader {
+        private final String[] chunks;
+        private int reads;
+        private boolean closed;
+
+        private ScriptedReader(String... chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("The reader is closed");
+            }
+            if (reads == chunks.length) {
+                return -1;
+            }
+            String chunk = chunks[reads++];
+            // Chunks are shorter than the buffer of a BufferedReader.
+            chunk.getChars(0, chunk.length(), buffer, offset);
+            return chunk.length();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
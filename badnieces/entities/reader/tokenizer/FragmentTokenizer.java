@@ -0,0 +1,141 @@
+package badnieces.entities.reader.tokenizer;
+
+import oddschecker.utils.comparator.LinearBytesArrayComparator;
+
+import java.util.Arrays;
+
+/**
+ * The FragmentTokenizer class is responsible for splitting a line into its fragments, and validating the fragments of a line, without regular expressions.
+ * Splitting is a single scan of the line for the separator, and every fragment is copied from the line once.
+ * Empty fragments are kept (i.e. "A;;B" produces {"A", "", "B"}), as String.split with a limit of -1 does.
+ * <p>
+ * A line is valid if it contains no double separators, and contains a separator with a character before and after it.
+ * Faults are reported as a LineFormatException holding the position in the line where the fault was found.
+ */
+public final class FragmentTokenizer {
+    private final char separator;
+
+    /**
+     * Constructs a new FragmentTokenizer.
+     *
+     * @param separator The character separating fragments.
+     */
+    public FragmentTokenizer(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Splits a line into its fragments (empty fragments are kept).
+     *
+     * @param line The line.
+     * @return The fragments of the line.
+     */
+    public String[] split(String line) {
+        return split(line, false);
+    }
+
+    /**
+     * Splits a line into its fragments and validates the fragments in the same scan of the line.
+     *
+     * @param line The line.
+     * @return The fragments of the line (empty fragments are kept).
+     * @throws LineFormatException Throws a LineFormatException if the line contains double separators or fewer than two fragments.
+     */
+    public String[] tokenize(String line) throws LineFormatException {
+        String[] fragments = split(line, true);
+        validateFragmentPair(fragments, line.length());
+        return fragments;
+    }
+
+    /**
+     * Validates the fragments of a line which has already been split (i.e. by a reader), in time proportional to the number of fragments.
+     * The position of a fault is recovered from the lengths of the fragments before it.
+     *
+     * @param fragments The fragments of a line (empty fragments are kept).
+     * @return The fragments of the line (if valid).
+     * @throws LineFormatException Throws a LineFormatException if the line contains double separators or fewer than two fragments.
+     */
+    public static String[] validate(String[] fragments) throws LineFormatException {
+        int position = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            position += fragments[i].length();
+            // An empty fragment between two separators (the separator after it is at the position).
+            if (i > 0 && i < fragments.length - 1 && fragments[i].isEmpty()) {
+                throw new LineFormatException("Expected no double separators", position);
+            }
+            position++;
+        }
+        validateFragmentPair(fragments, Math.max(0, position - 1));
+        return fragments;
+    }
+
+    /**
+     * Validates the UTF-8 fragments of a line which has already been split (i.e. by a reader), in time proportional to the number of fragments.
+     * The position of a fault is given in characters, as for the decoded fragments, and is only counted once a fault is found.
+     *
+     * @param fragments The UTF-8 fragments of a line (empty fragments are kept).
+     * @return The fragments of the line (if valid).
+     * @throws LineFormatException Throws a LineFormatException if the line contains double separators or fewer than two fragments.
+     */
+    public static byte[][] validate(byte[][] fragments) throws LineFormatException {
+        for (int i = 1; i < fragments.length - 1; i++) {
+            if (fragments[i].length == 0) {
+                throw new LineFormatException("Expected no double separators", getPosition(fragments, i + 1) - 1);
+            }
+        }
+        boolean hasFragmentPair = fragments.length > 3
+                || (fragments.length == 3 && !(fragments[0].length == 0 && fragments[2].length == 0))
+                || (fragments.length == 2 && fragments[0].length != 0 && fragments[1].length != 0);
+        if (!hasFragmentPair) {
+            throw new LineFormatException("Expected at least two fragments", Math.max(0, getPosition(fragments, fragments.length) - 1));
+        }
+        return fragments;
+    }
+
+    // The position in characters after the separator which follows the first count fragments.
+    private static int getPosition(byte[][] fragments, int count) {
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            position += LinearBytesArrayComparator.getUtf16Length(fragments[i], 0, fragments[i].length) + 1;
+        }
+        return position;
+    }
+
+    private String[] split(String line, boolean validate) {
+        // The positions of the separators are collected first, so the array of fragments is allocated once at its size.
+        int[] separators = new int[16];
+        int count = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) != separator) {
+                continue;
+            }
+            // A separator directly after a separator which is not the first character closes an empty fragment between them.
+            if (validate && count > 0 && separators[count - 1] == i - 1) {
+                throw new LineFormatException("Expected no double separators", i);
+            }
+            if (count == separators.length) {
+                separators = Arrays.copyOf(separators, count * 2);
+            }
+            separators[count++] = i;
+        }
+        String[] fragments = new String[count + 1];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            fragments[i] = line.substring(start, separators[i]);
+            start = separators[i] + 1;
+        }
+        fragments[count] = line.substring(start);
+        return fragments;
+    }
+
+    private static void validateFragmentPair(String[] fragments, int lineLength) {
+        // A line of one fragment, or only empty fragments around its separators, has no separator with a character before and after it.
+        boolean hasFragmentPair = fragments.length > 3
+                || (fragments.length == 3 && !(fragments[0].isEmpty() && fragments[2].isEmpty()))
+                || (fragments.length == 2 && !fragments[0].isEmpty() && !fragments[1].isEmpty());
+        if (!hasFragmentPair) {
+            throw new LineFormatException("Expected at least two fragments", lineLength);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package badnieces.entities.reader.tokenizer;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FragmentTokenizerTest {
+    private final FragmentTokenizer tokenizer = new FragmentTokenizer(';');
+
+    @Test
+    public void tokenizeValid() {
+        assertArrayEquals(new String[]{"ABC", "BCD"}, tokenizer.tokenize("ABC;BCD"));
+        assertArrayEquals(new String[]{"", "AB", "C"}, tokenizer.tokenize(";AB;C"));
+        assertArrayEquals(new String[]{"A", "B", ""}, tokenizer.tokenize("A;B;"));
+        assertArrayEquals(new String[]{""}, tokenizer.split(""));
+        assertArrayEquals(new String[]{"A", "", "B"}, tokenizer.split("A;;B"));
+    }
+
+    @Test
+    public void tokenizeInvalid() {
+        assertPosition("A;;B", 2);
+        assertPosition(";;A", 1);
+        assertPosition("ABC;BCD;;", 8);
+        assertPosition("ABC", 3);
+        assertPosition(";ABC", 4);
+        assertPosition("", 0);
+        assertPosition("éé;😀;;x", 6);
+    }
+
+    @Test
+    public void tokenizeEquivalence() {
+        // The tokenizer splits as String.split and accepts exactly the lines accepted by the regular expressions it replaces.
+        Random random = new Random(5);
+        for (int test = 0; test < 20000; test++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(9);
+            for (int i = 0; i < length; i++) {
+                line.append(random.nextInt(3) == 0 ? ';' : (char) ('A' + random.nextInt(2)));
+            }
+            String text = line.toString();
+            String[] expected = text.split(";", -1);
+            assertArrayEquals(text, expected, tokenizer.split(text));
+            boolean valid = !text.matches("(.*;{2,}.*|;{2,})") && text.matches("(.+;.+)");
+            LineFormatException tokenizeFault = null;
+            LineFormatException validateFault = null;
+            LineFormatException byteFault = null;
+            try {
+                assertArrayEquals(text, expected, tokenizer.tokenize(text));
+            } catch (LineFormatException e) {
+                tokenizeFault = e;
+            }
+            try {
+                FragmentTokenizer.validate(expected);
+            } catch (LineFormatException e) {
+                validateFault = e;
+            }
+            try {
+                FragmentTokenizer.validate(utf8(expected));
+            } catch (LineFormatException e) {
+                byteFault = e;
+            }
+            assertEquals(text, valid, tokenizeFault == null);
+            assertEquals(text, valid, validateFault == null);
+            assertEquals(text, valid, byteFault == null);
+            if (!valid) {
+                assertEquals(text, tokenizeFault.getPosition(), validateFault.getPosition());
+                assertEquals(text, tokenizeFault.getPosition(), byteFault.getPosition());
+            }
+        }
+    }
+
+    private void assertPosition(String line, int position) {
+        try {
+            tokenizer.tokenize(line);
+            fail(line);
+        } catch (LineFormatException e) {
+            assertEquals(line, position, e.getPosition());
+        }
+        try {
+            FragmentTokenizer.validate(tokenizer.split(line));
+            fail(line);
+        } catch (LineFormatException e) {
+            assertEquals(line, position, e.getPosition());
+        }
+        try {
+            // Positions of UTF-8 fragments are counted in characters.
+            FragmentTokenizer.validate(utf8(tokenizer.split(line)));
+            fail(line);
+        } catch (LineFormatException e) {
+            assertEquals(line, position, e.getPosition());
+        }
+    }
+
+    private static byte[][] utf8(String[] fragments) {
+        byte[][] bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,30 @@
+package badnieces.entities.reader.tokenizer;
+
+/**
+ * Thrown when a line of fragments is not well formed, recording the position in the line where the fault was found.
+ * A LineFormatException is an IllegalArgumentException, so callers handling invalid input as illegal arguments handle it unchanged.
+ */
+public class LineFormatException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    private final int position;
+
+    /**
+     * Constructs a new LineFormatException.
+     *
+     * @param message  The description of the fault.
+     * @param position The position (from 0) of the character of the line where the fault was found.
+     */
+    public LineFormatException(String message, int position) {
+        super(message + " (at character " + position + ")");
+        this.position = position;
+    }
+
+    /**
+     * Returns the position of the character of the line where the fault was found.
+     *
+     * @return The position (from 0).
+     */
+    public int getPosition() {
+        return position;
+    }
+}
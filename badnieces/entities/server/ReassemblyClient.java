@@ -0,0 +1,117 @@
+package badnieces.entities.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ReassemblyClient class is responsible for sending jobs to a ReassemblyServer (on the loopback address) and receiving their responses, in the frames of its protocol.
+ * Requests are buffered until flushed (or until a response is received), so many requests can be pipelined in one write, and responses are received in the order the requests were sent.
+ * A client is a single connection. Requests may be sent by one thread while responses are received by another, so a client pipelining many requests never waits on its own unread responses.
+ */
+public final class ReassemblyClient implements AutoCloseable {
+    private static final int STREAM_BUFFER = 1 << 16;
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+
+    /**
+     * Connects to a ReassemblyServer.
+     *
+     * @param port The port of the server.
+     * @throws IOException Throws an IO exception if the server cannot be connected to.
+     */
+    public ReassemblyClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), STREAM_BUFFER));
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER));
+    }
+
+    /**
+     * Sends a request (buffered until flush, or until the next response is received).
+     *
+     * @param type    The type of the job (ReassemblyServer.LINE or ReassemblyServer.FILE).
+     * @param payload The line, or the path of the file.
+     * @throws IOException Throws an IO exception if the request cannot be written.
+     */
+    public void send(byte type, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(1 + bytes.length);
+        output.writeByte(type);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes every request sent to the server.
+     *
+     * @throws IOException Throws an IO exception if the requests cannot be written.
+     */
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Receives the response to the oldest request not yet answered, first flushing any requests sent.
+     *
+     * @return The response.
+     * @throws IOException Throws an IO exception if the response cannot be read (i.e. the server closed the connection).
+     */
+    public Response receive() throws IOException {
+        output.flush();
+        int length = input.readInt();
+        byte status = input.readByte();
+        byte[] payload = new byte[length - 1];
+        input.readFully(payload);
+        return new Response(status, new String(payload, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a request and receives its response, when no other request is waiting for a response.
+     *
+     * @param type    The type of the job (ReassemblyServer.LINE or ReassemblyServer.FILE).
+     * @param payload The line, or the path of the file.
+     * @return The response.
+     * @throws IOException Throws an IO exception if the request cannot be written or the response read.
+     */
+    public Response request(byte type, String payload) throws IOException {
+        send(type, payload);
+        return receive();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * The status of a job (ReassemblyServer.OK, INVALID or FAILED) and its payload (the document or documents, or why the job was not completed).
+     */
+    public static final class Response {
+        private final byte status;
+        private final String payload;
+
+        private Response(byte status, String payload) {
+            this.status = status;
+            this.payload = payload;
+        }
+
+        public byte getStatus() {
+            return status;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        @Override
+        public String toString() {
+            return "Response {Status:" + status + " Payload:" + payload + "}";
+        }
+    }
+}
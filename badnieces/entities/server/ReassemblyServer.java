@@ -0,0 +1,283 @@
+package badnieces.entities.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The ReassemblyServer class is responsible for serving reassembly jobs from one resident process, so a job does not pay for starting (and warming up) a JVM.
+ * The server listens on a TCP port of the loopback address only, and jobs are run on a worker pool shared by every connection.
+ * <p>
+ * The protocol is a stream of frames in each direction. A frame is a 4 byte big-endian length, followed by that many bytes: a type (or status) byte and a UTF-8 payload.
+ * A request is a LINE (a line of fragments, reassembled to its document) or a FILE (the path of a file, every line of which is reassembled).
+ * A response is OK (the payload is the document, or the documents of every line of a file separated by '\n'), INVALID (the line or a line of the file is not valid, the payload is why) or FAILED (the job could not be run, the payload is why).
+ * A job which fails in any way (an Error included, such as running out of memory on a very large line) is answered FAILED, and the connection goes on serving the jobs after it.
+ * <p>
+ * Requests may be pipelined: a client can send any number of requests without waiting for their responses.
+ * The jobs of a connection run concurrently (up to a window of jobs in flight, beyond which the connection is not read until the oldest job is answered), and responses are always sent in the order of the requests.
+ * Responses are written through a buffer, which is flushed whenever no completed response is waiting, so a burst of small jobs is answered in a few writes.
+ * A request which is not a frame of the protocol (an unknown type, or a length greater than MAX_FRAME) is answered FAILED, and the connection is closed once every earlier request is answered.
+ */
+public final class ReassemblyServer implements AutoCloseable {
+    public static final byte LINE = 'L';
+    public static final byte FILE = 'F';
+    public static final byte OK = 0;
+    public static final byte INVALID = 1;
+    public static final byte FAILED = 2;
+    public static final int MAX_FRAME = 1 << 30;
+    private static final int STREAM_BUFFER = 1 << 16;
+    private static final Response END_OF_REQUESTS = new Response(OK, new byte[0]);
+    private final ServerSocket serverSocket;
+    private final ExecutorService workerPool;
+    private final int window;
+    private final Function<String, String> lineJob;
+    private final Function<String, String> fileJob;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong jobs = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new ReassemblyServer bound to a port of the loopback address. Connections are accepted once serve is called.
+     *
+     * @param port       The port (0 for any free port, see getPort).
+     * @param workerPool The worker pool jobs are run on (shared by every connection, and not shut down by the server).
+     * @param window     The greatest number of jobs of a connection in flight at once.
+     * @param lineJob    Reassembles a line to its document, throwing an IllegalArgumentException if the line is not valid.
+     * @param fileJob    Reassembles every line of the file at a path to the documents of the file separated by '\n', throwing an IllegalArgumentException if a line is not valid.
+     * @throws IOException              Throws an IO exception if the port cannot be bound.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the worker pool or a job is missing, or the window does not hold a job.
+     */
+    public ReassemblyServer(int port, ExecutorService workerPool, int window, Function<String, String> lineJob, Function<String, String> fileJob) throws IOException, IllegalArgumentException {
+        if (workerPool == null || lineJob == null || fileJob == null) {
+            throw new IllegalArgumentException("A worker pool, line job and file job must be specified");
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("The window of a connection must hold at least one job");
+        }
+        this.workerPool = workerPool;
+        this.window = window;
+        this.lineJob = lineJob;
+        this.fileJob = fileJob;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of jobs received so far (by every connection).
+     *
+     * @return The number of jobs.
+     */
+    public long getJobs() {
+        return jobs.get();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Each connection is served by a thread reading its requests and a thread writing its responses.
+     *
+     * @throws IOException Throws an IO exception if a connection cannot be accepted (other than because the server was closed).
+     */
+    public void serve() throws IOException {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (closed) {
+                    return;
+                }
+                throw e;
+            }
+            socket.setTcpNoDelay(true);
+            Connection connection = new Connection(socket, connectionCount.incrementAndGet());
+            connections.add(connection);
+            connection.start();
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open connection (jobs in flight are not answered).
+     *
+     * @throws IOException Throws an IO exception if the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private Response run(byte type, String payload) {
+        try {
+            String result = type == LINE ? lineJob.apply(payload) : fileJob.apply(payload);
+            return new Response(OK, encode(result));
+        } catch (IllegalArgumentException e) {
+            return new Response(INVALID, encode(e.getMessage()));
+        } catch (Throwable e) {
+            // An Error fails its job only, so the jobs pipelined after it are still answered.
+            return new Response(FAILED, encode(String.valueOf(e)));
+        }
+    }
+
+    private static byte[] encode(String payload) {
+        return String.valueOf(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A status and payload to be written as a response frame.
+     */
+    private static final class Response {
+        private final byte status;
+        private final byte[] payload;
+
+        private Response(byte status, byte[] payload) {
+            this.status = status;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * A connection of a client. Jobs are queued in the order of their requests, so the writer answers them in that order as each completes.
+     * A job takes a permit of the window until it is answered, so a reader which finds the window full waits (and stops reading the socket) until the oldest job is answered.
+     */
+    private final class Connection {
+        private final Socket socket;
+        private final BlockingQueue<Future<Response>> pending = new LinkedBlockingQueue<>();
+        private final Semaphore inFlight = new Semaphore(window);
+        private final Thread reader;
+        private final Thread writer;
+
+        private Connection(Socket socket, int id) {
+            this.socket = socket;
+            this.reader = new Thread(this::readRequests, "BadNieces-connection-" + id + "-reader");
+            this.writer = new Thread(this::writeResponses, "BadNieces-connection-" + id + "-writer");
+            reader.setDaemon(true);
+            writer.setDaemon(true);
+        }
+
+        private void start() {
+            reader.start();
+            writer.start();
+        }
+
+        private void readRequests() {
+            // The input is not closed here, as closing it would close the socket before the writer answers the jobs read.
+            try {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), STREAM_BUFFER));
+                while (true) {
+                    int length;
+                    try {
+                        length = input.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    byte type = length > 0 ? input.readByte() : 0;
+                    if (length > MAX_FRAME || (type != LINE && type != FILE)) {
+                        enqueue(CompletableFuture.completedFuture(new Response(FAILED, encode("Expected a LINE or FILE frame of at most " + MAX_FRAME + " bytes"))));
+                        break;
+                    }
+                    byte[] payload = new byte[length - 1];
+                    input.readFully(payload);
+                    jobs.incrementAndGet();
+                    String job = new String(payload, StandardCharsets.UTF_8);
+                    Future<Response> response;
+                    try {
+                        response = workerPool.submit(() -> run(type, job));
+                    } catch (RejectedExecutionException e) {
+                        response = CompletableFuture.completedFuture(new Response(FAILED, encode("The server is shutting down")));
+                    }
+                    enqueue(response);
+                }
+            } catch (IOException e) {
+                // The connection was closed (or broken) by the client or the server, so no further requests are read.
+            } catch (InterruptedException e) {
+                // The writer has closed the connection while the reader waited for the window.
+                Thread.currentThread().interrupt();
+            } finally {
+                // The end of the requests is queued after the last job, so every job read is answered before the connection is closed.
+                pending.add(CompletableFuture.completedFuture(END_OF_REQUESTS));
+            }
+        }
+
+        private void enqueue(Future<Response> response) throws InterruptedException {
+            inFlight.acquire();
+            pending.add(response);
+        }
+
+        private void writeResponses() {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), STREAM_BUFFER))) {
+                while (true) {
+                    Response response = response(pending.take());
+                    if (response == END_OF_REQUESTS) {
+                        break;
+                    }
+                    output.writeInt(1 + response.payload.length);
+                    output.writeByte(response.status);
+                    output.write(response.payload);
+                    Future<Response> next = pending.peek();
+                    if (next == null || !next.isDone()) {
+                        output.flush();
+                    }
+                    inFlight.release();
+                }
+            } catch (IOException e) {
+                // The client has gone, so the remaining responses cannot be written.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private Response response(Future<Response> job) throws InterruptedException {
+            try {
+                return job.get();
+            } catch (ExecutionException e) {
+                // Jobs answer their own failures, so this is a failure of the worker pool running the job, which fails that job only.
+                return new Response(FAILED, encode(String.valueOf(e.getCause())));
+            }
+        }
+
+        private void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // The socket is being discarded.
+            }
+            reader.interrupt();
+            writer.interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package badnieces.entities.server;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReassemblyServerTest {
+    private ExecutorService workerPool;
+    private ReassemblyServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        workerPool = Executors.newFixedThreadPool(4);
+        // Lines are reassembled (after a random delay, so jobs complete out of order), and a file job echoes its path.
+        server = new ReassemblyServer(0, workerPool, 8, line -> {
+            if (!line.contains(";")) {
+                throw new IllegalArgumentException("Expected at least two fragments");
+            }
+            if (line.equals("fail;fail")) {
+                throw new IllegalStateException("Failed");
+            }
+            if (line.equals("error;error")) {
+                throw new StackOverflowError("Too deep");
+            }
+            sleep(ThreadLocalRandom.current().nextInt(2));
+            DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), line.split(";"));
+            documentCompositor.incrementalMerge();
+            return documentCompositor.getToString();
+        }, path -> "file " + path);
+        Thread serving = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serving.setDaemon(true);
+        serving.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        workerPool.shutdownNow();
+    }
+
+    @Test
+    public void requestValid() throws IOException {
+        try (ReassemblyClient client = new ReassemblyClient(server.getPort())) {
+            ReassemblyClient.Response response = client.request(ReassemblyServer.LINE, "O draconia;conian devil! Oh la;h lame sa;saint! ");
+            assertEquals(ReassemblyServer.OK, response.getStatus());
+            assertEquals("O draconian devil! Oh lame saint! ", response.getPayload());
+            response = client.request(ReassemblyServer.FILE, "/tmp/input.txt");
+            assertEquals(ReassemblyServer.OK, response.getStatus());
+            assertEquals("file /tmp/input.txt", response.getPayload());
+            // A failed job is answered, and the connection serves the next job.
+            response = client.request(ReassemblyServer.LINE, "ABC");
+            assertEquals(ReassemblyServer.INVALID, response.getStatus());
+            assertEquals("Expected at least two fragments", response.getPayload());
+            response = client.request(ReassemblyServer.LINE, "fail;fail");
+            assertEquals(ReassemblyServer.FAILED, response.getStatus());
+            assertEquals(ReassemblyServer.OK, client.request(ReassemblyServer.LINE, "Prêt-à-;à-porter").getStatus());
+        }
+        assertEquals(5, server.getJobs());
+    }
+
+    @Test
+    public void pipelineValid() throws Exception {
+        // Thousands of requests are sent without waiting, on two connections at once, and each is answered in the order it was sent.
+        int requests = 5000;
+        try (ReassemblyClient first = new ReassemblyClient(server.getPort());
+             ReassemblyClient second = new ReassemblyClient(server.getPort())) {
+            Thread firstSender = sender(first, requests);
+            Thread secondSender = sender(second, requests);
+            for (int i = 0; i < requests; i++) {
+                assertEquals("ABC" + i + "DEF", first.receive().getPayload());
+                assertEquals("ABC" + i + "DEF", second.receive().getPayload());
+            }
+            firstSender.join(TimeUnit.SECONDS.toMillis(10));
+            secondSender.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        assertEquals(2 * requests, server.getJobs());
+    }
+
+    @Test
+    public void errorValid() throws IOException {
+        // A job throwing an Error in the middle of a pipeline is answered FAILED, and the jobs after it are still answered.
+        try (ReassemblyClient client = new ReassemblyClient(server.getPort())) {
+            client.send(ReassemblyServer.LINE, "ABC;BCD");
+            client.send(ReassemblyServer.LINE, "error;error");
+            client.send(ReassemblyServer.LINE, "XYZ;YZA");
+            client.flush();
+            assertEquals("ABCD", client.receive().getPayload());
+            ReassemblyClient.Response response = client.receive();
+            assertEquals(ReassemblyServer.FAILED, response.getStatus());
+            assertEquals("java.lang.StackOverflowError: Too deep", response.getPayload());
+            assertEquals("XYZA", client.receive().getPayload());
+            assertEquals(ReassemblyServer.OK, client.request(ReassemblyServer.LINE, "ABC;BCD").getStatus());
+        }
+    }
+
+    @Test
+    public void frameInvalid() throws IOException {
+        // A request of an unknown type is answered FAILED after every earlier request, then the connection is closed.
+        try (ReassemblyClient client = new ReassemblyClient(server.getPort())) {
+            client.send(ReassemblyServer.LINE, "ABC;BCD");
+            client.send((byte) 'X', "ABC;BCD");
+            client.send(ReassemblyServer.LINE, "ABC;BCD");
+            assertEquals("ABCD", client.receive().getPayload());
+            assertEquals(ReassemblyServer.FAILED, client.receive().getStatus());
+            boolean closed = false;
+            try {
+                client.receive();
+            } catch (EOFException e) {
+                closed = true;
+            }
+            assertTrue(closed);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowInvalid() throws IOException {
+        new ReassemblyServer(0, workerPool, 0, line -> line, path -> path);
+    }
+
+    private static Thread sender(ReassemblyClient client, int requests) {
+        Thread sender = new Thread(() -> {
+            try {
+                for (int i = 0; i < requests; i++) {
+                    client.send(ReassemblyServer.LINE, "ABC" + i + ";" + i + "DEF");
+                }
+                client.flush();
+            } catch (IOException e) {
+                // The receiver fails once the connection is closed.
+                try {
+                    client.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        sender.start();
+        return sender;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package badnieces.entities.strategies.filter;
+
+import badnieces.interfaces.strategy.filter.StringsListFilterStrategy;
+import oddschecker.utils.automaton.GeneralizedSuffixAutomaton;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ContainedFragmentsFilter is a strategy which removes every fragment contained in another fragment, in one pass over all the fragments.
+ * A fragment contained in a longer fragment is removed, and of a set of identical fragments only the first is kept (unless it is contained in a longer fragment too).
+ * <p>
+ * The search strategies treat a contained fragment as the greatest possible overlap, so the compositor would otherwise absorb contained fragments one merge (and one search) at a time.
+ * Containment is answered by walking each fragment through one generalized suffix automaton of the line, so the filter costs O(N) for N characters in total.
+ * <p>
+ * Where the fragments of a line reassemble without ambiguity (every merge joins two fragments at their true overlap) the document composited is the same with or without the filter.
+ * Where they do not, the greedy merge can splice into the middle of a fragment before a contained fragment is absorbed, and the documents may differ.
+ * <p>
+ * A greedy equivalent filter only removes the contained fragments whose removal provably leaves the document of the greedy merge (IncrementalMaximallyOverlappingPair or NextMaximallyOverlappingPair, with MergeOverlapPair) unchanged.
+ * Merging a contained fragment into a fragment containing it leaves that fragment as it is, so the greedy merge absorbs a contained fragment without changing any other fragment as long as its overlap (its length) is greater than every overlap of the fragments kept.
+ * A contained fragment is therefore removed only if it is longer than the greatest overlap of two fragments not contained in one another, and it is not a prefix of a later fragment (the greedy merge would move that fragment into its place, rather than absorb it).
+ * A contained fragment which is a prefix of a later fragment is kept, and only fragments longer than it are removed, so every merge of the fragments kept comes after the fragments removed are absorbed.
+ * The greatest overlap is found by walking each fragment through a second automaton of the fragments not contained in another, and the prefixes by sorting the fragments, so a greedy equivalent filter costs O(N log n) for N characters of n fragments.
+ */
+public class ContainedFragmentsFilter implements StringsListFilterStrategy {
+    private final String strategyName;
+    private final boolean greedyEquivalent;
+
+    /**
+     * The constructor for the strategy ContainedFragmentsFilter, which removes every duplicate and contained fragment.
+     */
+    public ContainedFragmentsFilter() {
+        this(false);
+    }
+
+    /**
+     * The constructor for the strategy ContainedFragmentsFilter.
+     *
+     * @param greedyEquivalent Whether to remove only the contained fragments whose removal leaves the document of the greedy merge unchanged.
+     */
+    public ContainedFragmentsFilter(boolean greedyEquivalent) {
+        this.greedyEquivalent = greedyEquivalent;
+        strategyName = greedyEquivalent ? "GreedyEquivalentContainedFragmentsFilter" : "ContainedFragmentsFilter";
+    }
+
+    /**
+     * Removes duplicate and contained fragments (and nulls) from the array of fragments.
+     * For example in [ABCD, BC, ABCD, XY] the result is [ABCD, XY].
+     *
+     * @param strings An array of fragments to be filtered.
+     * @return Returns a new array of the fragments not contained in any other fragment, in their original order.
+     */
+    @Override
+    public String[] filter(String[] strings) {
+        return filter(strings, () -> false);
+    }
+
+    /**
+     * Removes duplicate and contained fragments as filter does, asking before each fragment is indexed whether to abandon the filter.
+     * The fragments left by an abandoned filter are the fragments as they were, so a merge within a budget can go on from them.
+     *
+     * @param strings An array of fragments to be filtered.
+     * @param abandon Asked before each fragment is indexed, returning true to abandon the filter.
+     * @return Returns a new array of the fragments not contained in any other fragment, in their original order, or null if the filter was abandoned.
+     */
+    @Override
+    public String[] filter(String[] strings, BooleanSupplier abandon) {
+        GeneralizedSuffixAutomaton automaton = new GeneralizedSuffixAutomaton(strings, abandon);
+        if (automaton.isAbandoned()) {
+            return null;
+        }
+        if (greedyEquivalent) {
+            return filterGreedyEquivalent(automaton, strings, abandon);
+        }
+        String[] kept = new String[strings.length];
+        int size = 0;
+        boolean keptEmpty = false;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] == null) {
+                continue;
+            }
+            if (strings[i].isEmpty()) {
+                // An empty fragment is contained in any other fragment, so it is only kept (once) if every fragment is empty.
+                if (keptEmpty || automaton.longestLength(GeneralizedSuffixAutomaton.ROOT) > 0) {
+                    continue;
+                }
+                keptEmpty = true;
+            } else if (isContained(automaton, strings, i)) {
+                continue;
+            }
+            kept[size++] = strings[i];
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Filter Strategy " + strategyName;
+    }
+
+    private static String[] filterGreedyEquivalent(GeneralizedSuffixAutomaton automaton, String[] strings, BooleanSupplier abandon) {
+        // The fragments the full filter keeps contain every other fragment, and none contains another.
+        boolean[] contained = new boolean[strings.length];
+        String[] maximal = new String[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                contained[i] = strings[i].isEmpty() || isContained(automaton, strings, i);
+                maximal[i] = contained[i] ? null : strings[i];
+            }
+        }
+        // The greatest overlap of two fragments not contained in one another is the longest head of a maximal fragment found in another.
+        GeneralizedSuffixAutomaton maximalAutomaton = new GeneralizedSuffixAutomaton(maximal, abandon);
+        if (maximalAutomaton.isAbandoned()) {
+            return null;
+        }
+        int greatestOverlap = 0;
+        for (int i = 0; i < maximal.length; i++) {
+            if (maximal[i] != null) {
+                greatestOverlap = Math.max(greatestOverlap, longestSharedHead(maximalAutomaton, maximal, i));
+            }
+        }
+        // A contained fragment kept because it is a prefix of a later fragment overlaps by its length, so only longer fragments are removed.
+        Integer[] sorted = sortedIds(strings);
+        int[] ranks = new int[strings.length];
+        for (int rank = 0; rank < sorted.length; rank++) {
+            ranks[sorted[rank]] = rank;
+        }
+        boolean[] prefixOfLater = new boolean[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            if (contained[i] && strings[i].length() > greatestOverlap) {
+                prefixOfLater[i] = isPrefixOfLater(strings, sorted, ranks[i]);
+                if (prefixOfLater[i]) {
+                    greatestOverlap = Math.max(greatestOverlap, strings[i].length());
+                }
+            }
+        }
+        String[] kept = new String[strings.length];
+        int size = 0;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null && (!contained[i] || prefixOfLater[i] || strings[i].length() <= greatestOverlap)) {
+                kept[size++] = strings[i];
+            }
+        }
+        return Arrays.copyOf(kept, size);
+    }
+
+    private static int longestSharedHead(GeneralizedSuffixAutomaton automaton, String[] strings, int id) {
+        // The heads of a fragment found in other fragments are the prefixes of the walk which reach a state shared with another fragment.
+        int state = GeneralizedSuffixAutomaton.ROOT;
+        int length = 0;
+        while (length < strings[id].length()) {
+            state = automaton.transition(state, strings[id].charAt(length));
+            if (automaton.otherId(state, id) == GeneralizedSuffixAutomaton.NONE) {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    private static Integer[] sortedIds(String[] strings) {
+        int size = 0;
+        Integer[] ids = new Integer[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                ids[size++] = i;
+            }
+        }
+        Integer[] sorted = Arrays.copyOf(ids, size);
+        Arrays.sort(sorted, Comparator.comparing((Integer id) -> strings[id]).thenComparing(id -> id));
+        return sorted;
+    }
+
+    private static boolean isPrefixOfLater(String[] strings, Integer[] sorted, int rank) {
+        // The fragments a fragment is a prefix of follow it in sorted order.
+        String prefix = strings[sorted[rank]];
+        for (int next = rank + 1; next < sorted.length && strings[sorted[next]].startsWith(prefix); next++) {
+            if (sorted[next] > sorted[rank] && strings[sorted[next]].length() > prefix.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isContained(GeneralizedSuffixAutomaton automaton, String[] strings, int id) {
+        // The whole fragment is a substring of itself, so the walk always succeeds.
+        int state = GeneralizedSuffixAutomaton.ROOT;
+        for (int i = 0; i < strings[id].length(); i++) {
+            state = automaton.transition(state, strings[id].charAt(i));
+        }
+        if (automaton.otherId(state, id) == GeneralizedSuffixAutomaton.NONE) {
+            return false;
+        }
+        // Contained in a longer fragment, or identical to an earlier fragment (the fragments containing it of the same length are identical to it).
+        return automaton.longestLength(state) > strings[id].length() || automaton.firstId(state) < id;
+    }
+}
@@ -0,0 +1,163 @@
+package badnieces.entities.strategies.filter;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.generator.ShreddedDocumentGenerator;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import badnieces.entities.strategies.search.NextMaximallyOverlappingPair;
+import badnieces.interfaces.strategy.filter.StringsListFilterStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContainedFragmentsFilterTest {
+    private StringsListFilterStrategy stringsListFilterStrategy = new ContainedFragmentsFilter();
+
+    @Test
+    public void validFilter() {
+        assertArrayEquals(new String[]{"ABCD", "XY"}, stringsListFilterStrategy.filter(new String[]{"ABCD", "BC", "ABCD", "XY"}));
+        assertArrayEquals(new String[]{"ABCD", "XBC"}, stringsListFilterStrategy.filter(new String[]{"BC", "BC", "ABCD", "D", null, "XBC"}));
+        // No fragment is contained in another.
+        assertArrayEquals(new String[]{"ABC", "BCD", "CDE"}, stringsListFilterStrategy.filter(new String[]{"ABC", "BCD", "CDE"}));
+    }
+
+    @Test
+    public void extremeValidFilter() {
+        // Compare against testing every ordered pair of fragments.
+        Random random = new Random(23);
+        for (int test = 0; test < 1000; test++) {
+            String[] strings = new String[random.nextInt(20)];
+            for (int i = 0; i < strings.length; i++) {
+                StringBuilder string = new StringBuilder();
+                int length = random.nextInt(6);
+                for (int c = 0; c < length; c++) {
+                    string.append((char) ('A' + random.nextInt(3)));
+                }
+                strings[i] = random.nextInt(10) == 0 ? null : string.toString();
+            }
+            assertArrayEquals(filterPairwise(strings), stringsListFilterStrategy.filter(strings));
+        }
+    }
+
+    @Test
+    public void reassemblyValid() {
+        // Shredded documents with duplicate and contained fragments added reassemble to the same document with or without the filter.
+        ShreddedDocumentGenerator generator = new ShreddedDocumentGenerator(5, 12, 4);
+        Random random = new Random(29);
+        for (int line = 0; line < 50; line++) {
+            String document = generator.generateDocument(line, 30, ShreddedDocumentGenerator.DEFAULT_ALPHABET);
+            List<String> fragments = new ArrayList<>(Arrays.asList(generator.shred(line, document)));
+            for (int i = 0; i < 15; i++) {
+                String fragment = fragments.get(random.nextInt(fragments.size()));
+                int start = random.nextInt(fragment.length());
+                String contained = fragment.substring(start, start + 1 + random.nextInt(fragment.length() - start));
+                fragments.add(random.nextInt(fragments.size() + 1), contained);
+            }
+            String[] unfiltered = fragments.toArray(new String[0]);
+            String[] filtered = stringsListFilterStrategy.filter(unfiltered);
+            assertEquals(30, filtered.length);
+            assertEquals(document, reassemble(unfiltered));
+            assertEquals(document, reassemble(filtered));
+            assertEquals(document, reassemble(new ContainedFragmentsFilter(true).filter(unfiltered)));
+        }
+    }
+
+    @Test
+    public void validGreedyEquivalentFilter() {
+        StringsListFilterStrategy greedyEquivalentFilter = new ContainedFragmentsFilter(true);
+        assertArrayEquals(new String[]{"ABCD", "XY"}, greedyEquivalentFilter.filter(new String[]{"ABCD", "BC", "ABCD", "XY"}));
+        assertArrayEquals(new String[]{"ABCD", "XYZ"}, greedyEquivalentFilter.filter(new String[]{"ABCD", "AB", "XYZ"}));
+        // AB is a prefix of a later fragment, so the greedy merge would move that fragment into its place.
+        assertArrayEquals(new String[]{"AB", "ABCD", "XYZ"}, greedyEquivalentFilter.filter(new String[]{"AB", "ABCD", "XYZ"}));
+        // BC is no longer than the overlap CD of CDXY in ABCD, so it may be merged into before it is absorbed.
+        assertArrayEquals(new String[]{"ABCD", "CDXY", "BC"}, greedyEquivalentFilter.filter(new String[]{"ABCD", "CDXY", "BC"}));
+        assertArrayEquals(new String[]{"", "A", ""}, greedyEquivalentFilter.filter(new String[]{"", "A", null, ""}));
+    }
+
+    @Test
+    public void extremeValidGreedyEquivalentFilter() {
+        // Lines of short fragments over a small alphabet are full of ambiguous overlaps, and reassemble to the same document with or without the filter.
+        StringsListFilterStrategy greedyEquivalentFilter = new ContainedFragmentsFilter(true);
+        Random random = new Random(31);
+        int removed = 0;
+        for (int test = 0; test < 5000; test++) {
+            String[] strings = new String[1 + random.nextInt(12)];
+            for (int i = 0; i < strings.length; i++) {
+                StringBuilder string = new StringBuilder();
+                int length = 1 + random.nextInt(test % 2 == 0 ? 4 : 8);
+                for (int c = 0; c < length; c++) {
+                    string.append((char) ('A' + random.nextInt(2 + test % 3)));
+                }
+                strings[i] = string.toString();
+            }
+            String[] filtered = greedyEquivalentFilter.filter(strings);
+            removed += strings.length - filtered.length;
+            assertEquals(reassemble(strings), reassemble(filtered));
+            assertEquals(recursiveReassemble(strings), recursiveReassemble(filtered));
+        }
+        assertTrue(removed > 1000);
+    }
+
+    @Test
+    public void abandonedFilter() {
+        // An abandoned filter removes nothing, whichever fragment it is abandoned at.
+        String[] strings = {"ABCD", "BC", "ABCD", "XY"};
+        for (boolean greedyEquivalent : new boolean[]{false, true}) {
+            for (int polls = 0; polls < 6; polls++) {
+                int[] remaining = {polls};
+                String[] filtered = new ContainedFragmentsFilter(greedyEquivalent).filter(strings, () -> remaining[0]-- <= 0);
+                if (filtered != null) {
+                    assertArrayEquals(new String[]{"ABCD", "XY"}, filtered);
+                }
+            }
+            assertNull(new ContainedFragmentsFilter(greedyEquivalent).filter(strings, () -> true));
+        }
+    }
+
+    @Test
+    public void invalidFilter() {
+        assertArrayEquals(new String[0], stringsListFilterStrategy.filter(new String[0]));
+        assertArrayEquals(new String[0], stringsListFilterStrategy.filter(new String[]{null, null}));
+        assertArrayEquals(new String[]{""}, stringsListFilterStrategy.filter(new String[]{"", null, ""}));
+    }
+
+    private static String reassemble(String[] fragments) {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        documentCompositor.incrementalMerge();
+        return documentCompositor.getToString();
+    }
+
+    private static String recursiveReassemble(String[] fragments) {
+        DocumentCompositor documentCompositor = new DocumentCompositor(new NextMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        documentCompositor.recursiveMerge();
+        return documentCompositor.getToString();
+    }
+
+    private static String[] filterPairwise(String[] strings) {
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] == null) {
+                continue;
+            }
+            boolean contained = false;
+            for (int j = 0; j < strings.length && !contained; j++) {
+                if (j == i || strings[j] == null) {
+                    continue;
+                }
+                contained = (strings[j].length() > strings[i].length() && strings[j].contains(strings[i])) || (j < i && strings[j].equals(strings[i]));
+            }
+            if (!contained) {
+                kept.add(strings[i]);
+            }
+        }
+        return kept.toArray(new String[0]);
+    }
+}
@@ -1,13 +1,16 @@
 package badnieces.entities.strategies.merge;
 
+import badnieces.interfaces.strategy.merge.BytesMergeStrategy;
 import badnieces.interfaces.strategy.merge.StringMergeStrategy;
-import oddschecker.utils.comparator.CharsArrayComparator;
+import oddschecker.utils.comparator.LinearBytesArrayComparator;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
 
 /**
  * Merges an overlap pair from the head of the first input string to the second input string.
  * If no overlap exists then the second string as unmerged is returned (as there is no overlap).
+ * Fragments held as UTF-8 bytes are merged without being decoded (an overlap never splits a multi-byte character).
  */
-public class MergeOverlapPair implements StringMergeStrategy {
+public class MergeOverlapPair implements StringMergeStrategy, BytesMergeStrategy {
     private final String strategyName;
 
     public MergeOverlapPair() {
@@ -31,14 +34,46 @@ public class MergeOverlapPair implements StringMergeStrategy {
         if (fromString == null) {
             return null;
         }
-        int[] overlap = CharsArrayComparator.getHeadIndexesGreedy(fromString.toCharArray(), intoString.toCharArray());
-        if (overlap.length == 0) {
+        long overlap = LinearCharsArrayComparator.getHeadOverlap(fromString, intoString);
+        int overlapLength = LinearCharsArrayComparator.getHeadLength(overlap);
+        if (overlapLength == 0) {
             return fromString;
         }
+        int overlapStart = LinearCharsArrayComparator.getHeadStart(overlap);
         /*
-         * Build a string of the the second array of chars substring until the last elem of the index where the head of the first string occurs in the second.
-         * Then build the rest of the first string, then build the rest of the second string again*/
-        return intoString.substring(0, overlap[0]) + fromString + intoString.substring(overlap[overlap.length - 1] + 1);
+         * Build the second string until the position where the head of the first string occurs in it.
+         * Then build the first string, then build the rest of the second string after the overlap*/
+        return new StringBuilder(intoString.length() - overlapLength + fromString.length())
+                .append(intoString, 0, overlapStart)
+                .append(fromString)
+                .append(intoString, overlapStart + overlapLength, intoString.length())
+                .toString();
+    }
+
+    /**
+     * Merges an ordered pair of overlapping UTF-8 strings where the overlap occurs, producing the UTF-8 bytes of merging their Strings.
+     * Nulls are merged as Strings are merged.
+     *
+     * @param fromBytes The UTF-8 string to merge from.
+     * @param intoBytes The UTF-8 string to merge to.
+     * @return Returns the merged bytes on success or returns the fromBytes object if there is no overlap.
+     */
+    @Override
+    public byte[] merge(byte[] fromBytes, byte[] intoBytes) {
+        if (intoBytes == null || fromBytes == null) {
+            return fromBytes;
+        }
+        long overlap = LinearBytesArrayComparator.getHeadOverlap(fromBytes, intoBytes);
+        int overlapLength = LinearBytesArrayComparator.getHeadLength(overlap);
+        if (overlapLength == 0) {
+            return fromBytes;
+        }
+        int overlapStart = LinearBytesArrayComparator.getHeadStart(overlap);
+        byte[] merged = new byte[intoBytes.length - overlapLength + fromBytes.length];
+        System.arraycopy(intoBytes, 0, merged, 0, overlapStart);
+        System.arraycopy(fromBytes, 0, merged, overlapStart, fromBytes.length);
+        System.arraycopy(intoBytes, overlapStart + overlapLength, merged, overlapStart + fromBytes.length, intoBytes.length - overlapStart - overlapLength);
+        return merged;
     }
 
     @Override
@@ -2,6 +2,9 @@ package badnieces.entities.strategies.merge;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -43,6 +46,21 @@ public class MergeOverlapPairTest {
         assertEquals(expectedResult, merge);
     }
 
+    @Test
+    public void validBytesMerge() {
+        assertEquals("Prêt-à-porter", new String(mergeOverlapPair.merge(utf8("à-porter"), utf8("Prêt-à")), StandardCharsets.UTF_8));
+        // 'é' and 'è' share their first byte, which is not an overlap.
+        assertEquals("éA", new String(mergeOverlapPair.merge(utf8("éA"), utf8("xè")), StandardCharsets.UTF_8));
+        assertNull(mergeOverlapPair.merge(null, utf8("C")));
+        // UTF-8 strings merge to the bytes of merging their Strings.
+        Random random = new Random(4);
+        for (int test = 0; test < 5000; test++) {
+            String from = randomString(random).replace('B', 'é');
+            String into = randomString(random).replace('C', '€');
+            assertEquals(from + " into " + into, mergeOverlapPair.merge(from, into), new String(mergeOverlapPair.merge(utf8(from), utf8(into)), StandardCharsets.UTF_8));
+        }
+    }
+
     @Test
     public void invalidMerge() {
         String mergeFrom = "";
@@ -64,4 +82,17 @@ public class MergeOverlapPairTest {
         merge = mergeOverlapPair.merge(mergeFrom, mergeInto);
         assertEquals(mergeFrom, merge);
     }
-}
\ No newline at end of file
+
+    private static String randomString(Random random) {
+        StringBuilder string = new StringBuilder();
+        int length = random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            string.append((char) ('A' + random.nextInt(3)));
+        }
+        return string.toString();
+    }
+
+    private static byte[] utf8(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+}
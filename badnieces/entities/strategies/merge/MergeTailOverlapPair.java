@@ -0,0 +1,49 @@
+package badnieces.entities.strategies.merge;
+
+import badnieces.interfaces.strategy.merge.StringMergeStrategy;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+
+/**
+ * Merges an overlap pair by appending the first input string to the second input string, where the head of the first string is the tail of the second.
+ * This is the merge of the pairs found by a search of suffix-prefix overlaps (see RollingHashMaximallyOverlappingPair), which finds the head of a string only at the end of another string.
+ * MergeOverlapPair would instead splice the first string in where its head first occurs in the second (i.e. merging ABC into ABXAB produces ABCXAB rather than ABXABC).
+ * If no overlap exists the first string is appended to the second whole.
+ */
+public class MergeTailOverlapPair implements StringMergeStrategy {
+    private final String strategyName;
+
+    public MergeTailOverlapPair() {
+        strategyName = "MergeTailOverlapPair";
+    }
+
+    /**
+     * Merges an ordered pair of strings at the greatest head of the first string which is the tail of the second.
+     * For example merging ABC into ABXAB produces ABXABC.
+     *
+     * @param fromString The string to merge from.
+     * @param intoString The string to merge to.
+     * @return Returns the merged String object, or the fromString object if there is no string to merge to.
+     */
+    @Override
+    public String merge(String fromString, String intoString) {
+        // Nulls are merged as MergeOverlapPair merges them.
+        if (intoString == null || fromString == null) {
+            return fromString;
+        }
+        int overlapLength = LinearCharsArrayComparator.getTailOverlap(fromString, intoString);
+        return new StringBuilder(intoString.length() - overlapLength + fromString.length())
+                .append(intoString)
+                .append(fromString, overlapLength, fromString.length())
+                .toString();
+    }
+
+    @Override
+    public String strategyToName() {
+        return strategyName;
+    }
+
+    @Override
+    public String toString() {
+        return "String Merge Strategy: " + strategyName;
+    }
+}
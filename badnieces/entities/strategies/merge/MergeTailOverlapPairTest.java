@@ -0,0 +1,42 @@
+package badnieces.entities.strategies.merge;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.search.RollingHashMaximallyOverlappingPair;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MergeTailOverlapPairTest {
+    private MergeTailOverlapPair mergeTailOverlapPair = new MergeTailOverlapPair();
+
+    @Test
+    public void validMerge() {
+        assertEquals("431ABC123", mergeTailOverlapPair.merge("ABC123", "431ABC"));
+        assertEquals("DEF;;;341", mergeTailOverlapPair.merge(";;;341", "DEF;;;"));
+        // The head is merged at the tail, not where it first occurs.
+        assertEquals("ABXABC", mergeTailOverlapPair.merge("ABC", "ABXAB"));
+        // A string which is a tail of the other adds nothing.
+        assertEquals("ABCDE", mergeTailOverlapPair.merge("CDE", "ABCDE"));
+    }
+
+    @Test
+    public void validDocument() {
+        // Paired with a suffix-prefix search the document is laid out at the tails the search found.
+        String[] fragments = {"ABXAB", "ABC"};
+        DocumentCompositor tail = new DocumentCompositor(new RollingHashMaximallyOverlappingPair(), mergeTailOverlapPair, fragments);
+        tail.recursiveMerge();
+        assertEquals("ABXABC", tail.getToString());
+        DocumentCompositor head = new DocumentCompositor(new RollingHashMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        head.recursiveMerge();
+        assertEquals("ABCXAB", head.getToString());
+    }
+
+    @Test
+    public void invalidMerge() {
+        // Strings which do not overlap are joined.
+        assertEquals("DEFABC", mergeTailOverlapPair.merge("ABC", "DEF"));
+        assertEquals("ABC", mergeTailOverlapPair.merge("ABC", null));
+        assertNull(mergeTailOverlapPair.merge(null, "ABC"));
+    }
+}
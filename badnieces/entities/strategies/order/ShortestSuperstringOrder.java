@@ -0,0 +1,479 @@
+package badnieces.entities.strategies.order;
+
+import badnieces.entities.strategies.filter.ContainedFragmentsFilter;
+import badnieces.interfaces.strategy.order.StringsListOrderStrategy;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * ShortestSuperstringOrder is a strategy which orders strings to lay out the shortest superstring of them, rather than merging the next maximally overlapping pair greedily.
+ * Strings contained in another string are left out first (see ContainedFragmentsFilter), then the suffix-prefix overlap of every ordered pair of the strings left is computed once (an O(n^2) matrix).
+ * <p>
+ * Up to exactFragments strings are ordered exactly by the Held-Karp dynamic programme over subsets of the strings, in O(2^n * n^2) time and O(2^n * n) memory (about 100MB for 20 strings).
+ * The subsets of each size are solved in parallel on a ForkJoinPool, as each subset only reads the subsets one string smaller.
+ * <p>
+ * More strings are ordered by a branch-and-bound search seeded with the greedy order, within a budget of time.
+ * Each first string of the order is searched on its own task, sharing the length of the shortest order found so far to prune every branch which cannot be shorter.
+ * If the budget runs out the shortest order found so far is returned (never longer than the greedy order), and the exhausted budget is counted.
+ * <p>
+ * Exact orders are the same whatever the number of threads. Orders of the same length are chosen between by the order of the strings, unless a budget runs out.
+ */
+public class ShortestSuperstringOrder implements StringsListOrderStrategy {
+    public static final int MAX_EXACT_FRAGMENTS = 20;
+    // Below this many strings the dynamic programme runs on the calling thread (its subsets are too few to split).
+    private static final int PARALLEL_FRAGMENTS = 14;
+    private static final int MASKS_PER_TASK = 1 << 12;
+    // The clock is read every so many branches of the search.
+    private static final int BRANCHES_PER_CHECK = 1 << 10;
+    private final String strategyName;
+    private final int exactFragments;
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final AtomicLong exhaustedBudgets = new AtomicLong();
+
+    /**
+     * The constructor for the strategy ShortestSuperstringOrder (ordering on the common ForkJoinPool).
+     *
+     * @param exactFragments The greatest number of strings ordered exactly (at most MAX_EXACT_FRAGMENTS).
+     * @param budget         The time budget of the branch-and-bound search of more strings.
+     * @param unit           The unit of the budget.
+     */
+    public ShortestSuperstringOrder(int exactFragments, long budget, TimeUnit unit) {
+        this(exactFragments, budget, unit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * The constructor for the strategy ShortestSuperstringOrder.
+     *
+     * @param exactFragments The greatest number of strings ordered exactly (at most MAX_EXACT_FRAGMENTS).
+     * @param budget         The time budget of the branch-and-bound search of more strings.
+     * @param unit           The unit of the budget.
+     * @param pool           The pool to order on.
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the pool is missing, the strings ordered exactly are not from 0 to MAX_EXACT_FRAGMENTS or the budget is negative.
+     */
+    public ShortestSuperstringOrder(int exactFragments, long budget, TimeUnit unit, ForkJoinPool pool) throws IllegalArgumentException {
+        if (pool == null || unit == null) {
+            throw new IllegalArgumentException("A ForkJoinPool and the unit of the budget must be specified");
+        }
+        if (exactFragments < 0 || exactFragments > MAX_EXACT_FRAGMENTS) {
+            throw new IllegalArgumentException("From 0 to " + MAX_EXACT_FRAGMENTS + " strings can be ordered exactly, not " + exactFragments);
+        }
+        if (budget < 0) {
+            throw new IllegalArgumentException("The budget of the search cannot be negative");
+        }
+        strategyName = "ShortestSuperstringOrder";
+        this.exactFragments = exactFragments;
+        this.budgetNanos = unit.toNanos(budget);
+        this.pool = pool;
+    }
+
+    /**
+     * Orders the strings to lay out their shortest superstring (or the shortest found within the budget), leaving out nulls and strings contained in another string.
+     * For example in [CDE, ABC, BCD] the order is [1, 2, 0] (ABCDE).
+     *
+     * @param strings An array of strings to be ordered.
+     * @return Returns the positions of the strings in order.
+     */
+    @Override
+    public int[] order(String[] strings) {
+        String[] kept = new ContainedFragmentsFilter().filter(strings);
+        // The filter keeps the strings themselves in their original order, so each is matched to its position by reference.
+        int[] positions = new int[kept.length];
+        for (int i = 0, k = 0; i < strings.length && k < kept.length; i++) {
+            if (strings[i] == kept[k]) {
+                positions[k++] = i;
+            }
+        }
+        if (kept.length <= 1) {
+            return positions;
+        }
+        int n = kept.length;
+        char[][] fragments = new char[n][];
+        int[][] failures = new int[n][];
+        int[] lengths = new int[n];
+        for (int i = 0; i < n; i++) {
+            fragments[i] = kept[i].toCharArray();
+            failures[i] = LinearCharsArrayComparator.getFailureFunction(fragments[i]);
+            lengths[i] = fragments[i].length;
+        }
+        // overlaps[i][j] is the overlap of string i followed by string j.
+        int[][] overlaps = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    overlaps[i][j] = LinearCharsArrayComparator.getTailOverlap(fragments[j], failures[j], fragments[i]);
+                }
+            }
+        }
+        int[] order = n <= exactFragments ? exactOrder(overlaps) : boundedOrder(overlaps, lengths);
+        int[] orderedPositions = new int[n];
+        for (int i = 0; i < n; i++) {
+            orderedPositions[i] = positions[order[i]];
+        }
+        return orderedPositions;
+    }
+
+    /**
+     * Estimates the bytes order allocates, as an upper bound (the strings contained in another string, which are left out first, are counted).
+     * The overlap matrices cost O(n^2) bytes, and ordering exactly costs O(2^n * n) bytes more (about 100MB for 20 strings).
+     *
+     * @param strings The array of strings to order.
+     * @return The bytes the order is estimated to allocate.
+     */
+    @Override
+    public long getOrderBytes(String[] strings) {
+        long n = 0;
+        long bytes = 0;
+        for (String string : strings) {
+            if (string != null) {
+                n++;
+                // The characters (2 bytes each) and failure function (4 bytes each) of the string, with a header of 16 bytes for each array.
+                bytes += 6L * string.length() + 32;
+            }
+        }
+        // Two matrices of overlaps (or of successors), and the pairs of the greedy order of a bounded search.
+        bytes += 2 * n * (4 * n + 24) + 32 * n * n;
+        long exact = Math.min(n, exactFragments);
+        if (exact > 1) {
+            // The overlap (4 bytes) and previous string (1 byte) of each path, and the mask of each subset.
+            bytes += (1L << exact) * (5 * exact + 4);
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    /**
+     * Returns the number of orders whose branch-and-bound search ran out of its budget (so the order may not be the shortest).
+     *
+     * @return The number of exhausted budgets.
+     */
+    public long getExhaustedBudgets() {
+        return exhaustedBudgets.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Order Strategy " + strategyName;
+    }
+
+    // The Held-Karp dynamic programme: the greatest total overlap of a path through each subset of the strings, ending at each string of the subset.
+    private int[] exactOrder(int[][] overlaps) {
+        int n = overlaps.length;
+        int subsets = 1 << n;
+        int[] pathOverlaps = new int[subsets * n];
+        byte[] previous = new byte[subsets * n];
+        // incoming[j][i] is the overlap of string i followed by string j, so the overlaps into each string are read in a row.
+        int[][] incoming = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                incoming[j][i] = overlaps[i][j];
+            }
+        }
+        // Subsets are solved in order of size, each size at once (a path of one string has no overlap, so subsets of one string are already solved).
+        int[] masks = new int[subsets];
+        int[] sizeStarts = new int[n + 2];
+        for (int mask = 0; mask < subsets; mask++) {
+            sizeStarts[Integer.bitCount(mask) + 1]++;
+        }
+        for (int size = 1; size <= n + 1; size++) {
+            sizeStarts[size] += sizeStarts[size - 1];
+        }
+        int[] next = Arrays.copyOf(sizeStarts, n + 1);
+        for (int mask = 0; mask < subsets; mask++) {
+            masks[next[Integer.bitCount(mask)]++] = mask;
+        }
+        for (int size = 2; size <= n; size++) {
+            SubsetsTask subsetsTask = new SubsetsTask(incoming, pathOverlaps, previous, masks, sizeStarts[size], sizeStarts[size + 1]);
+            if (n >= PARALLEL_FRAGMENTS) {
+                pool.invoke(subsetsTask);
+            } else {
+                subsetsTask.compute();
+            }
+        }
+        int full = subsets - 1;
+        int last = 0;
+        for (int i = 1; i < n; i++) {
+            if (pathOverlaps[full * n + i] > pathOverlaps[full * n + last]) {
+                last = i;
+            }
+        }
+        int[] order = new int[n];
+        int mask = full;
+        for (int position = n - 1; position > 0; position--) {
+            order[position] = last;
+            int before = previous[mask * n + last];
+            mask ^= 1 << last;
+            last = before;
+        }
+        order[0] = last;
+        return order;
+    }
+
+    // The branch-and-bound search, seeded with the greedy order.
+    private int[] boundedOrder(int[][] overlaps, int[] lengths) {
+        int n = overlaps.length;
+        int[] greedy = greedyOrder(overlaps);
+        int greedyLength = orderLength(greedy, overlaps, lengths);
+        // Each string costs at least its length less the greatest overlap of any string before it, which bounds the length of every order from below.
+        int[] leastCosts = new int[n];
+        for (int j = 0; j < n; j++) {
+            int greatestOverlap = 0;
+            for (int i = 0; i < n; i++) {
+                greatestOverlap = Math.max(greatestOverlap, overlaps[i][j]);
+            }
+            leastCosts[j] = lengths[j] - greatestOverlap;
+        }
+        // The strings which may follow each string, by the greatest overlap first (so the first branch searched is the greedy choice).
+        int[][] successors = new int[n][];
+        for (int i = 0; i < n; i++) {
+            final int from = i;
+            successors[i] = IntStream.range(0, n).filter(j -> j != from).boxed()
+                    .sorted(Comparator.comparingInt((Integer j) -> -overlaps[from][j]).thenComparingInt(j -> j))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        BranchSearch search = new BranchSearch(overlaps, lengths, leastCosts, successors, greedyLength, System.nanoTime() + budgetNanos);
+        List<StartTask> starts = new ArrayList<>(n);
+        for (int start = 0; start < n; start++) {
+            starts.add(new StartTask(search, start));
+        }
+        int[] best = pool.invoke(new RecursiveTask<int[]>() {
+            @Override
+            protected int[] compute() {
+                invokeAll(starts);
+                // Orders of the same length are taken from the earliest first string.
+                int[] shortest = null;
+                int shortestLength = Integer.MAX_VALUE;
+                for (StartTask start : starts) {
+                    int[] order = start.join();
+                    if (order != null && orderLength(order, overlaps, lengths) < shortestLength) {
+                        shortest = order;
+                        shortestLength = orderLength(order, overlaps, lengths);
+                    }
+                }
+                return shortest;
+            }
+        });
+        if (search.expired) {
+            exhaustedBudgets.incrementAndGet();
+        }
+        return best == null || orderLength(best, overlaps, lengths) > greedyLength ? greedy : best;
+    }
+
+    // The greedy order: the pairs of strings by greatest overlap first, each joined unless it would give a string two neighbours on one side (or close a cycle).
+    private static int[] greedyOrder(int[][] overlaps) {
+        int n = overlaps.length;
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && overlaps[i][j] > 0) {
+                    pairs.add(new int[]{overlaps[i][j], i, j});
+                }
+            }
+        }
+        pairs.sort(Comparator.comparingInt((int[] pair) -> -pair[0]).thenComparingInt(pair -> pair[1]).thenComparingInt(pair -> pair[2]));
+        int[] successor = new int[n];
+        int[] predecessor = new int[n];
+        int[] chainEnd = new int[n];
+        int[] chainStart = new int[n];
+        Arrays.fill(successor, -1);
+        Arrays.fill(predecessor, -1);
+        for (int i = 0; i < n; i++) {
+            chainEnd[i] = i;
+            chainStart[i] = i;
+        }
+        for (int[] pair : pairs) {
+            int from = pair[1];
+            int into = pair[2];
+            // A string joins another only at the end of its chain, and never to the start of its own chain.
+            if (successor[from] != -1 || predecessor[into] != -1 || chainEnd[into] == from) {
+                continue;
+            }
+            successor[from] = into;
+            predecessor[into] = from;
+            int start = chainStart[from];
+            int end = chainEnd[into];
+            chainEnd[start] = end;
+            chainStart[end] = start;
+        }
+        int[] order = new int[n];
+        int position = 0;
+        for (int i = 0; i < n; i++) {
+            if (predecessor[i] == -1) {
+                for (int string = i; string != -1; string = successor[string]) {
+                    order[position++] = string;
+                }
+            }
+        }
+        return order;
+    }
+
+    private static int orderLength(int[] order, int[][] overlaps, int[] lengths) {
+        int length = lengths[order[0]];
+        for (int i = 1; i < order.length; i++) {
+            length += lengths[order[i]] - overlaps[order[i - 1]][order[i]];
+        }
+        return length;
+    }
+
+    /**
+     * Solves a range of the subsets of one size (each subset reads only the subsets one string smaller, so the range can be split freely).
+     */
+    private static final class SubsetsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[][] incoming;
+        private final int[] pathOverlaps;
+        private final byte[] previous;
+        private final int[] masks;
+        private final int start;
+        private final int end;
+
+        private SubsetsTask(int[][] incoming, int[] pathOverlaps, byte[] previous, int[] masks, int start, int end) {
+            this.incoming = incoming;
+            this.pathOverlaps = pathOverlaps;
+            this.previous = previous;
+            this.masks = masks;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > MASKS_PER_TASK && getPool() != null) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new SubsetsTask(incoming, pathOverlaps, previous, masks, start, middle), new SubsetsTask(incoming, pathOverlaps, previous, masks, middle, end));
+                return;
+            }
+            int n = incoming.length;
+            for (int i = start; i < end; i++) {
+                int mask = masks[i];
+                // Only the strings of the subset are visited, lowest first.
+                for (int lasts = mask; lasts != 0; lasts &= lasts - 1) {
+                    int last = Integer.numberOfTrailingZeros(lasts);
+                    int pathMask = mask ^ (1 << last);
+                    int pathStart = pathMask * n;
+                    int[] overlapsInto = incoming[last];
+                    int greatestOverlap = -1;
+                    int before = 0;
+                    // Paths of the same total overlap are taken from the earliest string before the last.
+                    for (int candidates = pathMask; candidates != 0; candidates &= candidates - 1) {
+                        int candidate = Integer.numberOfTrailingZeros(candidates);
+                        int overlap = pathOverlaps[pathStart + candidate] + overlapsInto[candidate];
+                        if (overlap > greatestOverlap) {
+                            greatestOverlap = overlap;
+                            before = candidate;
+                        }
+                    }
+                    pathOverlaps[mask * n + last] = greatestOverlap;
+                    previous[mask * n + last] = (byte) before;
+                }
+            }
+        }
+    }
+
+    /**
+     * The state shared by the searches of every first string: the problem, the length of the shortest order found and the deadline.
+     */
+    private static final class BranchSearch {
+        private final int[][] overlaps;
+        private final int[] lengths;
+        private final int[] leastCosts;
+        private final int[][] successors;
+        private final AtomicInteger shortestLength;
+        private final long deadline;
+        private volatile boolean expired;
+
+        private BranchSearch(int[][] overlaps, int[] lengths, int[] leastCosts, int[][] successors, int shortestLength, long deadline) {
+            this.overlaps = overlaps;
+            this.lengths = lengths;
+            this.leastCosts = leastCosts;
+            this.successors = successors;
+            this.shortestLength = new AtomicInteger(shortestLength);
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Searches the orders starting with one string depth first, producing the shortest found (the first found of the same length), or null if none is as short as the shortest order of every search.
+     */
+    private static final class StartTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+        private final BranchSearch search;
+        private final int start;
+        private final int[] path;
+        private final boolean[] used;
+        private int[] shortest;
+        private int shortestLength = Integer.MAX_VALUE;
+        private int branches;
+
+        private StartTask(BranchSearch search, int start) {
+            this.search = search;
+            this.start = start;
+            this.path = new int[search.lengths.length];
+            this.used = new boolean[search.lengths.length];
+        }
+
+        @Override
+        protected int[] compute() {
+            int remainingCost = 0;
+            for (int leastCost : search.leastCosts) {
+                remainingCost += leastCost;
+            }
+            path[0] = start;
+            used[start] = true;
+            branch(1, search.lengths[start], remainingCost - search.leastCosts[start]);
+            return shortest;
+        }
+
+        private void branch(int depth, int length, int remainingCost) {
+            if (search.expired) {
+                return;
+            }
+            if (++branches % BRANCHES_PER_CHECK == 0 && System.nanoTime() > search.deadline) {
+                search.expired = true;
+                return;
+            }
+            // Only branches which cannot be as short as the shortest order found are pruned, so every order of the shortest length remains to be found.
+            if (length + remainingCost > Math.min(shortestLength, search.shortestLength.get())) {
+                return;
+            }
+            if (depth == path.length) {
+                if (length < shortestLength) {
+                    shortestLength = length;
+                    shortest = path.clone();
+                    search.shortestLength.accumulateAndGet(length, Math::min);
+                }
+                return;
+            }
+            int last = path[depth - 1];
+            for (int next : search.successors[last]) {
+                if (used[next]) {
+                    continue;
+                }
+                used[next] = true;
+                path[depth] = next;
+                branch(depth + 1, length + search.lengths[next] - search.overlaps[last][next], remainingCost - search.leastCosts[next]);
+                used[next] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package badnieces.entities.strategies.order;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.entities.strategies.search.IncrementalMaximallyOverlappingPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShortestSuperstringOrderTest {
+    private ShortestSuperstringOrder exact = new ShortestSuperstringOrder(ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS, 0, TimeUnit.MILLISECONDS);
+    // No strings are ordered exactly, so every order is searched by branch and bound (with a budget it never runs out of).
+    private ShortestSuperstringOrder bounded = new ShortestSuperstringOrder(0, 1, TimeUnit.HOURS);
+
+    @Test
+    public void validOrder() {
+        assertArrayEquals(new int[]{1, 2, 0}, exact.order(new String[]{"CDE", "ABC", "BCD"}));
+        assertArrayEquals(new int[]{1, 2, 0}, bounded.order(new String[]{"CDE", "ABC", "BCD"}));
+        // Nulls and contained strings are left out.
+        assertArrayEquals(new int[]{3, 1}, exact.order(new String[]{"BC", "CDE", null, "ABC"}));
+        assertArrayEquals(new int[]{0}, exact.order(new String[]{"ABC", "ABC"}));
+        assertArrayEquals(new int[]{}, exact.order(new String[]{}));
+        assertEquals(0, bounded.getExhaustedBudgets());
+    }
+
+    @Test
+    public void shortestSuperstringValid() {
+        // The greedy merge joins the greatest overlaps first, which here lays out a longer document than the shortest superstring.
+        String[] fragments = {"aab", "abaa", "bab", "bbab"};
+        DocumentCompositor greedy = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        greedy.incrementalMerge();
+        DocumentCompositor ordered = new DocumentCompositor(new IncrementalMaximallyOverlappingPair(), new MergeOverlapPair(), fragments);
+        ordered.orderedMerge(exact);
+        assertEquals("aabbabaa", greedy.getToString());
+        assertEquals("bbabaab", ordered.getToString());
+    }
+
+    @Test
+    public void bruteForceEquivalence() {
+        // Over a small alphabet the strings overlap ambiguously, so the shortest order is rarely the greedy order.
+        Random random = new Random(24);
+        for (int test = 0; test < 300; test++) {
+            String[] strings = new String[2 + random.nextInt(6)];
+            for (int i = 0; i < strings.length; i++) {
+                char[] string = new char[1 + random.nextInt(6)];
+                for (int j = 0; j < string.length; j++) {
+                    string[j] = (char) ('a' + random.nextInt(3));
+                }
+                strings[i] = new String(string);
+            }
+            int shortest = shortestLength(strings);
+            assertEquals(shortest, layout(strings, exact.order(strings)).length());
+            assertEquals(shortest, layout(strings, bounded.order(strings)).length());
+            String superstring = layout(strings, exact.order(strings));
+            for (String string : strings) {
+                assertTrue(superstring.contains(string));
+            }
+        }
+    }
+
+    @Test
+    public void parallelEquivalence() {
+        // Enough strings for the subsets to be split across the pool, which must not change the order.
+        Random random = new Random(25);
+        ShortestSuperstringOrder sequential = new ShortestSuperstringOrder(16, 0, TimeUnit.MILLISECONDS, new ForkJoinPool(1));
+        ShortestSuperstringOrder parallel = new ShortestSuperstringOrder(16, 0, TimeUnit.MILLISECONDS, new ForkJoinPool(4));
+        for (int test = 0; test < 3; test++) {
+            String[] strings = new String[16];
+            for (int i = 0; i < strings.length; i++) {
+                char[] string = new char[4 + random.nextInt(4)];
+                for (int j = 0; j < string.length; j++) {
+                    string[j] = (char) ('a' + random.nextInt(2));
+                }
+                strings[i] = new String(string);
+            }
+            int[] order = sequential.order(strings);
+            assertArrayEquals(order, parallel.order(strings));
+            assertEquals(layout(strings, order).length(), layout(strings, bounded.order(strings)).length());
+        }
+    }
+
+    @Test
+    public void budgetValid() {
+        // A budget of nothing returns an order no longer than the greedy order, and counts the exhausted budget.
+        Random random = new Random(26);
+        ShortestSuperstringOrder unbudgeted = new ShortestSuperstringOrder(0, 0, TimeUnit.MILLISECONDS);
+        String[] strings = new String[60];
+        for (int i = 0; i < strings.length; i++) {
+            char[] string = new char[6 + random.nextInt(6)];
+            for (int j = 0; j < string.length; j++) {
+                string[j] = (char) ('a' + random.nextInt(2));
+            }
+            strings[i] = new String(string);
+        }
+        String superstring = layout(strings, unbudgeted.order(strings));
+        for (String string : strings) {
+            assertTrue(superstring.contains(string));
+        }
+        assertEquals(1, unbudgeted.getExhaustedBudgets());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactFragmentsInvalid() {
+        new ShortestSuperstringOrder(ShortestSuperstringOrder.MAX_EXACT_FRAGMENTS + 1, 0, TimeUnit.MILLISECONDS);
+    }
+
+    // The superstring of an order, each string overlapping the string before by its greatest head which is a tail of that string.
+    private static String layout(String[] strings, int[] order) {
+        StringBuilder superstring = new StringBuilder();
+        String previous = "";
+        for (int position : order) {
+            superstring.append(strings[position].substring(overlap(previous, strings[position])));
+            previous = strings[position];
+        }
+        return superstring.toString();
+    }
+
+    private static int overlap(String previous, String string) {
+        for (int length = Math.min(previous.length(), string.length()); length > 0; length--) {
+            if (previous.endsWith(string.substring(0, length))) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    // The length of the shortest superstring, by laying out every permutation of the strings not contained in another string (of identical strings the first is kept).
+    private static int shortestLength(String[] strings) {
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < strings.length; i++) {
+            boolean contained = false;
+            for (int j = 0; j < strings.length; j++) {
+                if (j != i && strings[j].contains(strings[i]) && (strings[j].length() > strings[i].length() || j < i)) {
+                    contained = true;
+                }
+            }
+            if (!contained) {
+                kept.add(strings[i]);
+            }
+        }
+        String[] keptStrings = kept.toArray(new String[0]);
+        return shortestLength(keptStrings, new int[keptStrings.length], new boolean[keptStrings.length], 0);
+    }
+
+    private static int shortestLength(String[] strings, int[] order, boolean[] used, int depth) {
+        if (depth == strings.length) {
+            return layout(strings, order).length();
+        }
+        int shortest = Integer.MAX_VALUE;
+        for (int i = 0; i < strings.length; i++) {
+            if (!used[i]) {
+                used[i] = true;
+                order[depth] = i;
+                shortest = Math.min(shortest, shortestLength(strings, order, used, depth + 1));
+                used[i] = false;
+            }
+        }
+        return shortest;
+    }
+}
@@ -0,0 +1,166 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.IncrementalStringsListSearchStrategy;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * IncrementalMaximallyOverlappingPair is a strategy which identifies the next maximally overlapping pair from an overlap matrix computed once.
+ * The results (and the order of the results) are identical to NextMaximallyOverlappingPair, including which pair is returned when two pairs share the greatest overlap.
+ * <p>
+ * The matrix holds the greatest head of every string contained in every other string.
+ * The best partner of each string (its row) is kept in a max-heap, so the next pair is found without comparing any strings.
+ * After a merge only the row and column of the merged string are recomputed, and heap entries left behind by the merge are discarded lazily as they surface.
+ * The matrix costs O(n^2) memory for n strings.
+ */
+public class IncrementalMaximallyOverlappingPair extends OverlapMatrix implements IncrementalStringsListSearchStrategy {
+    private final String strategyName;
+    // The characters of each remaining string (null once a string is removed), extracted once per string rather than once per comparison.
+    private char[][] strings = new char[0][];
+    // The failure function of each remaining string, so comparing a pair of strings allocates nothing.
+    private int[][] failures = new int[0][];
+
+    /**
+     * The constructor for the strategy IncrementalMaximallyOverlappingPair.
+     */
+    public IncrementalMaximallyOverlappingPair() {
+        strategyName = "IncrementalMaximallyOverlappingPair";
+    }
+
+    /**
+     * Searches the input list of strings for the next maximally overlapping string header CONTAINED IN another string in the array.
+     * The search indexes the array (see index) so prefer index and next when searching repeatedly.
+     * If no match can be found the array will cleanly return [0,0].
+     *
+     * @param strings An array of strings to be searched.
+     * @return Returns the array of positions which are the next maximally overlapping pair else returns [0,0]
+     */
+    @Override
+    public int[] search(String[] strings) {
+        index(strings);
+        return searchPair();
+    }
+
+    /**
+     * Computes the overlap matrix over an array of strings (O(n^2) comparisons), discarding any previous index.
+     *
+     * @param strings The array of strings to index.
+     */
+    @Override
+    public void index(String[] strings) {
+        index(strings, () -> false);
+    }
+
+    /**
+     * Computes the overlap matrix over an array of strings, asking before each row of the matrix whether to abandon it.
+     *
+     * @param strings The array of strings to index.
+     * @param abandon Asked before each string is compared with the others, returning true to abandon the index.
+     * @return Returns true if the index was built, or false if it was abandoned.
+     */
+    @Override
+    public boolean index(String[] strings, BooleanSupplier abandon) {
+        int size = strings.length;
+        this.strings = new char[size][];
+        failures = new int[size][];
+        for (int i = 0; i < size; i++) {
+            if (strings[i] != null) {
+                this.strings[i] = strings[i].toCharArray();
+                failures[i] = LinearCharsArrayComparator.getFailureFunction(this.strings[i]);
+            }
+        }
+        return indexMatrix(abandon);
+    }
+
+    /**
+     * Estimates the bytes index allocates: the O(n^2) matrix, and the characters and failure function of every string.
+     *
+     * @param strings The array of strings to index.
+     * @return The bytes the index is estimated to allocate.
+     */
+    @Override
+    public long getIndexBytes(String[] strings) {
+        long characters = 0;
+        for (String string : strings) {
+            if (string != null) {
+                // The characters (2 bytes each) and failure function (4 bytes each) of the string, with a header of 16 bytes for each array.
+                characters += 6L * string.length() + 32;
+            }
+        }
+        return matrixBytes(strings.length) + characters;
+    }
+
+    /**
+     * Returns the next maximally overlapping pair as positions [from, into] within the indexed array.
+     * If no pair overlaps the pair [p, p] is returned, where p is the first remaining position (the position a search of the remaining strings reports as [0,0]).
+     *
+     * @return Returns the positions of the next maximally overlapping pair.
+     */
+    @Override
+    public int[] next() {
+        return nextPair();
+    }
+
+    /**
+     * Recomputes the row and column of the merged string and refreshes the rows which pointed at either string of the merge.
+     *
+     * @param fromIndex The position of the string merged from.
+     * @param intoIndex The position of the string merged into.
+     * @param merged    The result of the merge (a null removes the string at intoIndex).
+     */
+    @Override
+    public void update(int fromIndex, int intoIndex, CharSequence merged) {
+        remove(fromIndex);
+        if (fromIndex != intoIndex) {
+            if (merged == null) {
+                remove(intoIndex);
+            } else {
+                replace(intoIndex, merged);
+            }
+        }
+        updateMatrix(fromIndex, intoIndex);
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Search Strategy " + strategyName;
+    }
+
+    @Override
+    int positions() {
+        return strings.length;
+    }
+
+    @Override
+    boolean isRemaining(int position) {
+        return strings[position] != null;
+    }
+
+    @Override
+    int compare(int from, int into) {
+        return LinearCharsArrayComparator.getHeadLength(LinearCharsArrayComparator.getHeadOverlap(strings[from], failures[from], strings[into]));
+    }
+
+    private void remove(int position) {
+        strings[position] = null;
+        failures[position] = null;
+    }
+
+    private void replace(int position, CharSequence string) {
+        // The merged string is extracted once and compared as an array against every other string.
+        char[] replacement = string.toString().toCharArray();
+        strings[position] = replacement;
+        failures[position] = LinearCharsArrayComparator.getFailureFunction(replacement);
+    }
+}
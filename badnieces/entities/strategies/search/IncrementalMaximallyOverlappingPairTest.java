@@ -0,0 +1,77 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.IncrementalStringsListSearchStrategy;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class IncrementalMaximallyOverlappingPairTest {
+    private IncrementalStringsListSearchStrategy stringsListSearchStrategy = new IncrementalMaximallyOverlappingPair();
+
+    @Test
+    public void validSearch() {
+        // Test1.
+        // In ABCE, BCE, ABCE, we expect the next maximally overlapping pair to be ABCE, ABCE.
+        String[] strings = {"ABCE", "BCE", "ABCE"};
+        int[] expectedResult = {2, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(strings));
+
+        // Test2
+        // In ABCE, BCE, we expect BCE to be the head contained in ABCE.
+        strings = new String[]{"ABCE", "BCE"};
+        expectedResult = new int[]{1, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(strings));
+
+        // Test3. Case sensitivity.
+        strings = new String[]{"Abce", "bCe"};
+        expectedResult = new int[]{1, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(strings));
+
+        // Test4. The head of the lower position is merged when it is the greater head (the reverse case).
+        strings = new String[]{"DEFABC", "123DEF"};
+        expectedResult = new int[]{0, 1};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(strings));
+    }
+
+    @Test
+    public void extremeValidSearch() {
+        String input = "O draconia;conian devil! Oh la;h lame sa;saint! ";
+        String[] fragments = input.split(";");
+        int[] expectedTest1Result = {1, 0};
+        assertArrayEquals(expectedTest1Result, stringsListSearchStrategy.search(fragments));
+        input = "m quaerat voluptatem.;pora incidunt ut labore et d;, consectetur, adipisci velit;olore magnam aliqua;idunt ut labore et dolore magn;uptatem.;i dolorem ipsum qu;iquam quaerat vol;psum quia dolor sit amet, consectetur, a;ia dolor sit amet, conse;squam est, qui do;Neque porro quisquam est, qu;aerat voluptatem.;m eius modi tem;Neque porro qui;, sed quia non numquam ei;lorem ipsum quia dolor sit amet;ctetur, adipisci velit, sed quia non numq;unt ut labore et dolore magnam aliquam qu;dipisci velit, sed quia non numqua;us modi tempora incid;Neque porro quisquam est, qui dolorem i;uam eius modi tem;pora inc;am al";
+        fragments = input.split(";");
+        int[] expectedTest2Result = {19, 17};
+        assertArrayEquals(expectedTest2Result, stringsListSearchStrategy.search(fragments));
+    }
+
+    @Test
+    public void validUpdate() {
+        // O draconia, conian devil! Oh la, h lame sa, saint!
+        String[] fragments = "O draconia;conian devil! Oh la;h lame sa;saint!".split(";");
+        stringsListSearchStrategy.index(fragments);
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.next());
+        // Positions are stable, so after merging position 1 into position 0 the next pair is still reported by the original positions.
+        stringsListSearchStrategy.update(1, 0, "O draconian devil! Oh la");
+        assertArrayEquals(new int[]{2, 0}, stringsListSearchStrategy.next());
+        stringsListSearchStrategy.update(2, 0, "O draconian devil! Oh lame sa");
+        assertArrayEquals(new int[]{3, 0}, stringsListSearchStrategy.next());
+    }
+
+    @Test
+    public void invalidSearch() {
+        int[] expectedResult = {0, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{"", ""}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{""}));
+        // No overlapping pair remains, so the first remaining position is merged into itself.
+        stringsListSearchStrategy.index(new String[]{null, "AB", "CD"});
+        assertArrayEquals(new int[]{1, 1}, stringsListSearchStrategy.next());
+    }
+
+    @Test
+    public void extremeInvalidSearch() {
+        int[] expectedResult = {0, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{null, null, null}));
+    }
+}
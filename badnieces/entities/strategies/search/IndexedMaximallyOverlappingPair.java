@@ -0,0 +1,95 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import oddschecker.utils.automaton.GeneralizedSuffixAutomaton;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+
+/**
+ * IndexedMaximallyOverlappingPair is a strategy which identifies the next maximally overlapping pair from one index over every string, rather than comparing the strings pair by pair.
+ * The results (and the order of the results) are identical to NextMaximallyOverlappingPair, including which pair is returned when two pairs share the greatest overlap.
+ * <p>
+ * The index is a generalized suffix automaton of the strings, which holds every substring of every string along with the first two strings it occurs in.
+ * Walking the head of a string through the automaton finds the greatest head of that string contained in any other string (and the first such string) in time proportional to the head.
+ * A search therefore costs O(N) time and memory for N characters in total, against O(n^2 * L) comparisons for n strings of length L.
+ * Only the direction of the winning pair is decided by comparing strings.
+ */
+public class IndexedMaximallyOverlappingPair implements StringsListSearchStrategy {
+    private final String strategyName;
+
+    /**
+     * The constructor for the strategy IndexedMaximallyOverlappingPair.
+     */
+    public IndexedMaximallyOverlappingPair() {
+        strategyName = "IndexedMaximallyOverlappingPair";
+    }
+
+    /**
+     * Searches the input list of strings for the next maximally overlapping string header CONTAINED IN another string in the array.
+     * If no match can be found the array will cleanly return [0,0].
+     *
+     * @param strings An array of strings to be searched.
+     * @return Returns the array of positions which are the next maximally overlapping pair else returns [0,0]
+     */
+    @Override
+    public int[] search(String[] strings) {
+        GeneralizedSuffixAutomaton automaton = new GeneralizedSuffixAutomaton(strings);
+        int currMaximalOverlap = 0;
+        int lower = 0;
+        int higher = 0;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] == null) {
+                continue;
+            }
+            // Walk the head of the string while it is still contained in another string (strings containing a head also contain every shorter head).
+            int state = GeneralizedSuffixAutomaton.ROOT;
+            int overlap = 0;
+            int partner = GeneralizedSuffixAutomaton.NONE;
+            while (overlap < strings[i].length()) {
+                int next = automaton.transition(state, strings[i].charAt(overlap));
+                int other = automaton.otherId(next, i);
+                if (other == GeneralizedSuffixAutomaton.NONE) {
+                    break;
+                }
+                state = next;
+                partner = other;
+                overlap++;
+            }
+            if (overlap == 0 || overlap < currMaximalOverlap) {
+                continue;
+            }
+            // Pairs sharing the greatest overlap are ordered by position, the order NextMaximallyOverlappingPair visits pairs in.
+            int pairLower = Math.min(i, partner);
+            int pairHigher = Math.max(i, partner);
+            if (overlap > currMaximalOverlap || pairLower < lower || (pairLower == lower && pairHigher < higher)) {
+                currMaximalOverlap = overlap;
+                lower = pairLower;
+                higher = pairHigher;
+            }
+        }
+        if (currMaximalOverlap == 0) {
+            return new int[2];
+        }
+        // The head of the higher string is merged into the lower string unless the head of the lower string overlaps further (as in NextMaximallyOverlappingPair).
+        int higherIntoLower = LinearCharsArrayComparator.getHeadLength(LinearCharsArrayComparator.getHeadOverlap(strings[higher], strings[lower]));
+        int lowerIntoHigher = LinearCharsArrayComparator.getHeadLength(LinearCharsArrayComparator.getHeadOverlap(strings[lower], strings[higher]));
+        if (higherIntoLower < lowerIntoHigher) {
+            return new int[]{lower, higher};
+        }
+        return new int[]{higher, lower};
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Search Strategy " + strategyName;
+    }
+}
@@ -0,0 +1,64 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IndexedMaximallyOverlappingPairTest {
+    private StringsListSearchStrategy stringsListSearchStrategy = new IndexedMaximallyOverlappingPair();
+
+    @Test
+    public void validSearch() {
+        String[] strings = {"ABCE", "BCE", "ABCE"};
+        assertArrayEquals(new int[]{2, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABCE", "BCE"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABC;;;;", ";;;;B"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"XYZABC", "ABCDEF"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+    }
+
+    @Test
+    public void extremeValidSearch() {
+        // Small alphabets give many pairs sharing the greatest overlap, so the pair returned must follow the order of NextMaximallyOverlappingPair exactly.
+        Random random = new Random(17);
+        StringsListSearchStrategy sequential = new NextMaximallyOverlappingPair();
+        for (int test = 0; test < 2000; test++) {
+            String[] strings = new String[random.nextInt(30)];
+            int alphabet = 1 + random.nextInt(4);
+            for (int i = 0; i < strings.length; i++) {
+                StringBuilder string = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int c = 0; c < length; c++) {
+                    string.append((char) ('A' + random.nextInt(alphabet)));
+                }
+                strings[i] = random.nextInt(10) == 0 ? null : string.toString();
+            }
+            assertArrayEquals(sequential.search(strings), stringsListSearchStrategy.search(strings));
+        }
+    }
+
+    @Test
+    public void recursiveMergeValid() {
+        String input = "O draconia;conian devil! Oh la;h lame sa;saint! ";
+        DocumentCompositor documentCompositor = new DocumentCompositor(stringsListSearchStrategy, new MergeOverlapPair(), input.split(";"));
+        documentCompositor.recursiveMerge();
+        assertEquals("O draconian devil! Oh lame saint! ", documentCompositor.getToString());
+    }
+
+    @Test
+    public void invalidSearch() {
+        int[] expectedResult = {0, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{"", ""}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{null, null, null}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{"ABC", "XYZ"}));
+    }
+}
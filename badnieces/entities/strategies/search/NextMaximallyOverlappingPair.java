@@ -1,7 +1,7 @@
 package badnieces.entities.strategies.search;
 
 import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
-import oddschecker.utils.comparator.CharsArrayComparator;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
 
 /**
  * NextMaximallyOverlappingPair is a strategy which takes an array of strings and identifies the next maximally overlapping string.
@@ -12,6 +12,7 @@ import oddschecker.utils.comparator.CharsArrayComparator;
 
 public class NextMaximallyOverlappingPair implements StringsListSearchStrategy {
     private final String strategyName;
+    private long pairsCompared;
 
     /**
      * The constructor for the strategy NextMaximallyOverlappingPair.
@@ -33,6 +34,31 @@ public class NextMaximallyOverlappingPair implements StringsListSearchStrategy {
     // Set of tokens returned == [0,1]
     @Override
     public int[] search(String[] strings) {
+        // Extract the characters and failure function of every string once, so comparing a pair allocates nothing.
+        char[][] fragments = new char[strings.length][];
+        int[][] failures = new int[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                fragments[i] = strings[i].toCharArray();
+                failures[i] = LinearCharsArrayComparator.getFailureFunction(fragments[i]);
+            }
+        }
+        int[] greatestOverlap = searchRange(fragments, failures, 0, fragments.length);
+        pairsCompared += pairsCompared(fragments);
+        return new int[]{greatestOverlap[1], greatestOverlap[2]};
+    }
+
+    /**
+     * Searches the pairs visited from the strings in [start, end) into every other string, in the order search visits them (so a search split into ranges is the search of their concatenation).
+     * The first greatest pair visited is returned as [overlap, from, into], or [0, 0, 0] if no pair overlaps.
+     *
+     * @param fragments The characters of each string (null for a null string).
+     * @param failures  The failure function of each string (see LinearCharsArrayComparator).
+     * @param start     The first string searched from.
+     * @param end       The string after the last string searched from.
+     * @return The overlap and positions of the first greatest pair visited.
+     */
+    static int[] searchRange(char[][] fragments, int[][] failures, int start, int end) {
         // There are two tests for overlapping pair heads.
         // ABCDEF -> DEFABC where ABC matches in the second string from the first (the straight case).
         // 123DEF -> DEFABC where DEF matches in the first string from the second (the reverse case).
@@ -44,40 +70,57 @@ public class NextMaximallyOverlappingPair implements StringsListSearchStrategy {
         // If the greatest overlap is ever exceeded update it with the new pair of overlapping strings.
         int currMaximalOverlap = 0;
         boolean reverseCase;
-        int[] greatestOverlapIndexes = new int[2];
-        // For each string in the array locate the maximally overlapping pair.
-        for (int i = 0; i < strings.length; i++) {
+        int[] greatestOverlap = new int[3];
+        // For each string in the range locate the maximally overlapping pair.
+        for (int i = start; i < end; i++) {
             // Avoid nulls
-            if (strings[i] == null) {
+            if (fragments[i] == null) {
                 continue;
             }
-            char[] currFragment = strings[i].toCharArray();
-            for (int j = 0; j < strings.length; j++) {
+            char[] currFragment = fragments[i];
+            for (int j = 0; j < fragments.length; j++) {
                 // Skip nulls or if i and j are the same item don't self-check.
-                if (strings[j] == null || i == j) {
+                if (fragments[j] == null || i == j) {
                     continue;
                 }
-                char[] nextFragment = strings[j].toCharArray();
+                char[] nextFragment = fragments[j];
                 // Test the straight case.
-                int[] headPositions = CharsArrayComparator.getHeadIndexesGreedy(nextFragment, currFragment);
+                int headLength = LinearCharsArrayComparator.getHeadLength(LinearCharsArrayComparator.getHeadOverlap(nextFragment, failures[j], currFragment));
                 // Test the reverse case
-                int[] reverseHeadPositions = CharsArrayComparator.getHeadIndexesGreedy(currFragment, nextFragment);
-                reverseCase = headPositions.length < reverseHeadPositions.length;
-                if (currMaximalOverlap < headPositions.length && (!reverseCase)) {
-                    // Update our array of indexes (from, into).
-                    greatestOverlapIndexes[1] = i;
-                    greatestOverlapIndexes[0] = j;
-                    currMaximalOverlap = headPositions.length;
+                int reverseHeadLength = LinearCharsArrayComparator.getHeadLength(LinearCharsArrayComparator.getHeadOverlap(currFragment, failures[i], nextFragment));
+                reverseCase = headLength < reverseHeadLength;
+                if (currMaximalOverlap < headLength && (!reverseCase)) {
+                    // Update our pair (from, into).
+                    greatestOverlap[1] = j;
+                    greatestOverlap[2] = i;
+                    currMaximalOverlap = headLength;
                 }
-                if (currMaximalOverlap < reverseHeadPositions.length && reverseCase) {
-                    // Update our array of indexes (from, into).
-                    greatestOverlapIndexes[0] = i;
-                    greatestOverlapIndexes[1] = j;
-                    currMaximalOverlap = reverseHeadPositions.length;
+                if (currMaximalOverlap < reverseHeadLength && reverseCase) {
+                    // Update our pair (from, into).
+                    greatestOverlap[1] = i;
+                    greatestOverlap[2] = j;
+                    currMaximalOverlap = reverseHeadLength;
                 }
             }
         }
-        return greatestOverlapIndexes;
+        greatestOverlap[0] = currMaximalOverlap;
+        return greatestOverlap;
+    }
+
+    /**
+     * Returns the ordered pairs compared by a search of the strings: each pair of strings is compared both ways from each of its strings.
+     *
+     * @param fragments The characters of each string (null for a null string).
+     * @return The number of ordered pairs compared.
+     */
+    static long pairsCompared(char[][] fragments) {
+        long strings = 0;
+        for (char[] fragment : fragments) {
+            if (fragment != null) {
+                strings++;
+            }
+        }
+        return 2 * strings * (strings - 1);
     }
 
     /**
@@ -90,6 +133,11 @@ public class NextMaximallyOverlappingPair implements StringsListSearchStrategy {
         return this.strategyName;
     }
 
+    @Override
+    public long getPairsCompared() {
+        return pairsCompared;
+    }
+
     @Override
     public String toString() {
         return "Strings List Search Strategy " + strategyName;
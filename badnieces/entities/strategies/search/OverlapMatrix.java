@@ -0,0 +1,286 @@
+package badnieces.entities.strategies.search;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * OverlapMatrix holds the overlap matrix of the incremental strategies, independently of how the strings compared are held (as characters or as UTF-8 bytes).
+ * The matrix holds the greatest head of every string contained in every other string, measured in characters.
+ * The best partner of each string (its row) is kept in a max-heap, so the next pair is found without comparing any strings.
+ * After a merge only the row and column of the merged string are recomputed, and heap entries left behind by the merge are discarded lazily as they surface.
+ * The matrix costs O(n^2) memory for n strings.
+ * <p>
+ * Subclasses hold the strings and compare pairs of them; the pairs returned are those NextMaximallyOverlappingPair returns for the same overlaps.
+ */
+abstract class OverlapMatrix {
+    // Rows are ordered by greatest overlap, then by the position of the pair (the order NextMaximallyOverlappingPair visits pairs).
+    private static final Comparator<RowCandidate> CANDIDATE_ORDER = Comparator
+            .comparingInt((RowCandidate candidate) -> -candidate.overlap)
+            .thenComparingInt(candidate -> candidate.lower)
+            .thenComparingInt(candidate -> candidate.higher);
+    // overlaps[a][b] is the length of the greatest head of string a contained in string b.
+    private int[][] overlaps = new int[0][0];
+    private int[] bestPartners = new int[0];
+    private int[] rowVersions = new int[0];
+    private PriorityQueue<RowCandidate> candidates = new PriorityQueue<>(CANDIDATE_ORDER);
+    private int firstRemaining;
+    private long pairsCompared;
+
+    /**
+     * Returns the number of positions indexed (including positions removed since).
+     *
+     * @return The number of positions.
+     */
+    abstract int positions();
+
+    /**
+     * Returns whether a string remains at a position.
+     *
+     * @param position The position.
+     * @return Whether the position holds a string.
+     */
+    abstract boolean isRemaining(int position);
+
+    /**
+     * Compares a pair of remaining strings.
+     *
+     * @param from The position of the string whose head is located.
+     * @param into The position of the string the head is located in.
+     * @return The length in characters of the greatest head of the string at from contained in the string at into.
+     */
+    abstract int compare(int from, int into);
+
+    /**
+     * Estimates the bytes the matrix allocates over a number of positions (the matrix itself, and the row of each position).
+     *
+     * @param positions The number of positions indexed.
+     * @return The bytes the matrix is estimated to allocate.
+     */
+    static long matrixBytes(int positions) {
+        // Each row of the matrix is an array of its own (with a header of 16 bytes), referenced from the matrix.
+        return (long) positions * (4L * positions + 16 + 8) + 2 * (4L * positions + 16);
+    }
+
+    public long getPairsCompared() {
+        return pairsCompared;
+    }
+
+    /**
+     * Computes the matrix over the strings held (O(n^2) comparisons), discarding the previous matrix.
+     */
+    void indexMatrix() {
+        indexMatrix(() -> false);
+    }
+
+    /**
+     * Computes the matrix over the strings held, asking before each row whether to abandon it (an abandoned matrix is discarded, leaving no pairs).
+     *
+     * @param abandon Asked before each row of the matrix is compared, returning true to abandon the matrix.
+     * @return Returns true if the matrix was computed, or false if it was abandoned.
+     */
+    boolean indexMatrix(BooleanSupplier abandon) {
+        int size = positions();
+        overlaps = new int[size][size];
+        bestPartners = new int[size];
+        rowVersions = new int[size];
+        candidates = new PriorityQueue<>(Math.max(1, size), CANDIDATE_ORDER);
+        firstRemaining = 0;
+        advanceFirstRemaining();
+        for (int i = 0; i < size; i++) {
+            if (!isRemaining(i)) {
+                continue;
+            }
+            if (abandon.getAsBoolean()) {
+                overlaps = new int[0][0];
+                bestPartners = new int[0];
+                rowVersions = new int[0];
+                candidates = new PriorityQueue<>(CANDIDATE_ORDER);
+                return false;
+            }
+            for (int j = 0; j < size; j++) {
+                if (!isRemaining(j) || i == j) {
+                    continue;
+                }
+                overlaps[i][j] = headLength(i, j);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (isRemaining(i)) {
+                computeRow(i);
+            } else {
+                bestPartners[i] = -1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next maximally overlapping pair as positions [from, into], or [p, p] if no pair overlaps (p is the first remaining position).
+     *
+     * @return The positions of the next maximally overlapping pair.
+     */
+    int[] nextPair() {
+        RowCandidate candidate = peekCandidate();
+        if (candidate == null) {
+            int position = firstRemaining < positions() ? firstRemaining : 0;
+            return new int[]{position, position};
+        }
+        return toTokens(candidate);
+    }
+
+    /**
+     * Returns the maximally overlapping pair of a search, or [0,0] if no pair overlaps.
+     *
+     * @return The positions of the maximally overlapping pair.
+     */
+    int[] searchPair() {
+        RowCandidate candidate = peekCandidate();
+        if (candidate == null) {
+            return new int[2];
+        }
+        return toTokens(candidate);
+    }
+
+    /**
+     * Updates the matrix following a merge, once the subclass has removed the string at fromIndex and replaced (or removed) the string at intoIndex.
+     * Recomputes the row and column of the merged string and refreshes the rows which pointed at either string of the merge.
+     *
+     * @param fromIndex The position of the string merged from.
+     * @param intoIndex The position of the string merged into.
+     */
+    void updateMatrix(int fromIndex, int intoIndex) {
+        remove(fromIndex);
+        boolean intoRemains = fromIndex != intoIndex && isRemaining(intoIndex);
+        if (fromIndex != intoIndex) {
+            if (intoRemains) {
+                replace(intoIndex);
+            } else {
+                remove(intoIndex);
+            }
+        }
+        for (int i = 0; i < positions(); i++) {
+            if (!isRemaining(i) || i == intoIndex) {
+                continue;
+            }
+            if (bestPartners[i] == fromIndex || bestPartners[i] == intoIndex) {
+                // The best partner of the row has gone (or changed) so the row is recomputed from the matrix.
+                computeRow(i);
+            } else if (intoRemains && isBetterPartner(i, intoIndex, bestPartners[i])) {
+                bestPartners[i] = intoIndex;
+                offerRow(i);
+            }
+        }
+        if (intoRemains) {
+            computeRow(intoIndex);
+        }
+        advanceFirstRemaining();
+    }
+
+    private void remove(int position) {
+        bestPartners[position] = -1;
+        rowVersions[position]++;
+    }
+
+    private void replace(int position) {
+        for (int i = 0; i < positions(); i++) {
+            if (!isRemaining(i) || i == position) {
+                continue;
+            }
+            overlaps[position][i] = headLength(position, i);
+            overlaps[i][position] = headLength(i, position);
+        }
+    }
+
+    private int headLength(int from, int into) {
+        pairsCompared++;
+        return compare(from, into);
+    }
+
+    private void computeRow(int row) {
+        int bestPartner = -1;
+        for (int i = 0; i < positions(); i++) {
+            if (isRemaining(i) && i != row && isBetterPartner(row, i, bestPartner)) {
+                bestPartner = i;
+            }
+        }
+        bestPartners[row] = bestPartner;
+        offerRow(row);
+    }
+
+    private void offerRow(int row) {
+        rowVersions[row]++;
+        int partner = bestPartners[row];
+        // Pairs which do not overlap are never merged by choice, so they are not offered.
+        if (partner >= 0 && pairOverlap(row, partner) > 0) {
+            candidates.add(new RowCandidate(pairOverlap(row, partner), Math.min(row, partner), Math.max(row, partner), row, rowVersions[row]));
+        }
+    }
+
+    private boolean isBetterPartner(int row, int candidate, int current) {
+        if (current < 0) {
+            return true;
+        }
+        int candidateOverlap = pairOverlap(row, candidate);
+        int currentOverlap = pairOverlap(row, current);
+        if (candidateOverlap != currentOverlap) {
+            return candidateOverlap > currentOverlap;
+        }
+        // Equal overlaps fall back to the first pair visited by the search, ordered by lower position then higher position.
+        int candidateLower = Math.min(row, candidate);
+        int currentLower = Math.min(row, current);
+        if (candidateLower != currentLower) {
+            return candidateLower < currentLower;
+        }
+        return Math.max(row, candidate) < Math.max(row, current);
+    }
+
+    private int pairOverlap(int a, int b) {
+        return Math.max(overlaps[a][b], overlaps[b][a]);
+    }
+
+    private RowCandidate peekCandidate() {
+        while (!candidates.isEmpty()) {
+            RowCandidate candidate = candidates.peek();
+            if (candidate.version == rowVersions[candidate.row]) {
+                return candidate;
+            }
+            // Stale entries are discarded as they surface.
+            candidates.poll();
+        }
+        return null;
+    }
+
+    private int[] toTokens(RowCandidate candidate) {
+        // The head of the higher position contained in the lower position is preferred when both heads are of equal length.
+        if (overlaps[candidate.higher][candidate.lower] >= overlaps[candidate.lower][candidate.higher]) {
+            return new int[]{candidate.higher, candidate.lower};
+        }
+        return new int[]{candidate.lower, candidate.higher};
+    }
+
+    private void advanceFirstRemaining() {
+        while (firstRemaining < positions() && !isRemaining(firstRemaining)) {
+            firstRemaining++;
+        }
+    }
+
+    /**
+     * The best partner of a row at the time it was offered to the heap.
+     */
+    private static final class RowCandidate {
+        private final int overlap;
+        private final int lower;
+        private final int higher;
+        private final int row;
+        private final int version;
+
+        private RowCandidate(int overlap, int lower, int higher, int row, int version) {
+            this.overlap = overlap;
+            this.lower = lower;
+            this.higher = higher;
+            this.row = row;
+            this.version = version;
+        }
+    }
+}
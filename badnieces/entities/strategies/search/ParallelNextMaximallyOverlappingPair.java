@@ -0,0 +1,127 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import oddschecker.utils.comparator.LinearCharsArrayComparator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelNextMaximallyOverlappingPair is a strategy which identifies the next maximally overlapping pair by splitting the pairwise search across a ForkJoinPool.
+ * The range of strings searched from (the outer loop of NextMaximallyOverlappingPair) is split into sub-ranges, each searched on its own task.
+ * The best pair of each sub-range is reduced in the order of the sub-ranges, and a later pair only replaces an earlier pair when its overlap is strictly greater.
+ * The result is therefore exactly the result of NextMaximallyOverlappingPair, whatever the number of threads or the way the range was split.
+ * <p>
+ * The strategy is only used by the benchmarks (see SearchStrategyBenchmark and DocumentCompositorBenchmark), which compare it with the sequential and incremental searches.
+ */
+public class ParallelNextMaximallyOverlappingPair implements StringsListSearchStrategy {
+    // Below this many strings searched from, a range is searched on a single task.
+    private static final int DEFAULT_ROWS_PER_TASK = 16;
+    private final String strategyName;
+    private final ForkJoinPool pool;
+    private final int rowsPerTask;
+    private long pairsCompared;
+
+    /**
+     * The constructor for the strategy ParallelNextMaximallyOverlappingPair (searching on the common ForkJoinPool).
+     */
+    public ParallelNextMaximallyOverlappingPair() {
+        this(ForkJoinPool.commonPool(), DEFAULT_ROWS_PER_TASK);
+    }
+
+    /**
+     * The constructor for the strategy ParallelNextMaximallyOverlappingPair.
+     *
+     * @param pool        The pool to search on.
+     * @param rowsPerTask The greatest number of strings searched from by a single task.
+     */
+    public ParallelNextMaximallyOverlappingPair(ForkJoinPool pool, int rowsPerTask) {
+        if (pool == null) {
+            throw new IllegalArgumentException("A ForkJoinPool must be specified");
+        }
+        if (rowsPerTask < 1) {
+            throw new IllegalArgumentException("Each task must search at least one string");
+        }
+        strategyName = "ParallelNextMaximallyOverlappingPair";
+        this.pool = pool;
+        this.rowsPerTask = rowsPerTask;
+    }
+
+    /**
+     * Searches the input list of strings for the next maximally overlapping string header CONTAINED IN another string in the array (see NextMaximallyOverlappingPair).
+     * If no match can be found the array will cleanly return [0,0].
+     *
+     * @param strings An array of strings to be searched.
+     * @return Returns the array of positions which are the next maximally overlapping pair else returns [0,0]
+     */
+    @Override
+    public int[] search(String[] strings) {
+        // Extract the characters and failure functions once, the arrays are then only read by the tasks.
+        char[][] fragments = new char[strings.length][];
+        int[][] failures = new int[strings.length][];
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] != null) {
+                fragments[i] = strings[i].toCharArray();
+                failures[i] = LinearCharsArrayComparator.getFailureFunction(fragments[i]);
+            }
+        }
+        int[] greatestOverlap = pool.invoke(new RangeSearch(fragments, failures, 0, fragments.length, rowsPerTask));
+        pairsCompared += NextMaximallyOverlappingPair.pairsCompared(fragments);
+        return new int[]{greatestOverlap[1], greatestOverlap[2]};
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public long getPairsCompared() {
+        return pairsCompared;
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Search Strategy " + strategyName;
+    }
+
+    /**
+     * Searches the pairs visited from a range of strings, producing [overlap, from, into] of the first greatest pair in the range.
+     */
+    private static final class RangeSearch extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+        private final char[][] fragments;
+        private final int[][] failures;
+        private final int start;
+        private final int end;
+        private final int rowsPerTask;
+
+        private RangeSearch(char[][] fragments, int[][] failures, int start, int end, int rowsPerTask) {
+            this.fragments = fragments;
+            this.failures = failures;
+            this.start = start;
+            this.end = end;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (end - start <= rowsPerTask) {
+                return NextMaximallyOverlappingPair.searchRange(fragments, failures, start, end);
+            }
+            int middle = (start + end) >>> 1;
+            RangeSearch earlier = new RangeSearch(fragments, failures, start, middle, rowsPerTask);
+            RangeSearch later = new RangeSearch(fragments, failures, middle, end, rowsPerTask);
+            later.fork();
+            int[] earlierOverlap = earlier.compute();
+            int[] laterOverlap = later.join();
+            // The later range only wins with a strictly greater overlap (as the sequential search visits the earlier range first).
+            return laterOverlap[0] > earlierOverlap[0] ? laterOverlap : earlierOverlap;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelNextMaximallyOverlappingPairTest {
+    private StringsListSearchStrategy stringsListSearchStrategy = new ParallelNextMaximallyOverlappingPair();
+
+    @Test
+    public void validSearch() {
+        String[] strings = {"ABCE", "BCE", "ABCE"};
+        assertArrayEquals(new int[]{2, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABCE", "BCE"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABC;;;;", ";;;;B"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+    }
+
+    @Test
+    public void extremeValidSearch() {
+        // Split one string per task across several pools, the pair returned never depends on the split or the number of threads.
+        Random random = new Random(11);
+        for (int parallelism = 1; parallelism <= 8; parallelism *= 2) {
+            StringsListSearchStrategy sequential = new NextMaximallyOverlappingPair();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            StringsListSearchStrategy parallel = new ParallelNextMaximallyOverlappingPair(pool, 1);
+            for (int test = 0; test < 200; test++) {
+                String[] strings = new String[random.nextInt(40)];
+                for (int i = 0; i < strings.length; i++) {
+                    StringBuilder string = new StringBuilder();
+                    int length = random.nextInt(6);
+                    for (int c = 0; c < length; c++) {
+                        string.append((char) ('A' + random.nextInt(3)));
+                    }
+                    strings[i] = random.nextInt(10) == 0 ? null : string.toString();
+                }
+                assertArrayEquals(sequential.search(strings), parallel.search(strings));
+            }
+            assertEquals(sequential.getPairsCompared(), parallel.getPairsCompared());
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void invalidSearch() {
+        int[] expectedResult = {0, 0};
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{"", ""}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{}));
+        assertArrayEquals(expectedResult, stringsListSearchStrategy.search(new String[]{null, null, null}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void extremeInvalidSearch() {
+        new ParallelNextMaximallyOverlappingPair(ForkJoinPool.commonPool(), 0);
+    }
+}
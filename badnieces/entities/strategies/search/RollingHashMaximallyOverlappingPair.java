@@ -0,0 +1,157 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import oddschecker.utils.collections.LongIntOpenHashMap;
+
+/**
+ * RollingHashMaximallyOverlappingPair is a strategy which identifies the next maximally overlapping pair by the polynomial (Rabin-Karp) hashes of the heads and tails of the strings, rather than by comparing the strings pair by pair.
+ * The pair found is the pair with the greatest suffix-prefix overlap: the head of one string which is the tail of another (the overlap of the Shortest Superstring Problem).
+ * For instance in ABCDE BCDEF the head of BCDEF at element 1 is the tail of ABCDE at element 0, and so the int array returned is [1,0].
+ * <p>
+ * The hash of every head of every string is computed in a single pass of its characters, and every tail is held in a primitive hash table keyed by its hash and length.
+ * The greatest overlap of each string is then found by probing the table with its heads from the longest down, and every tail found is compared with the head to rule out a collision.
+ * A search therefore costs O(N) time and memory for N characters in total, against O(n^2 * L) comparisons for n strings of length L, which suits many short strings.
+ * <p>
+ * A head contained within another string (rather than at its end) is not found, so the pairs can differ from those of NextMaximallyOverlappingPair where the greatest head of a string is found within another string.
+ * Where the greatest heads are all tails (as for fragments of text which rarely repeats) the pairs are the same, including which pair is returned when two pairs share the greatest overlap.
+ * <p>
+ * The pairs should be merged at the tail the search found, by MergeTailOverlapPair. MergeOverlapPair splices the head in where it first occurs in the other string, which is not the tail where the head occurs again within it (i.e. [ABXAB, ABC] is laid out as ABCXAB rather than ABXABC).
+ */
+public class RollingHashMaximallyOverlappingPair implements StringsListSearchStrategy {
+    // Hashes are polynomial over the characters (modulo 2^64), and keyed with their length.
+    private static final long BASE = 0x5DEECE66DL;
+    private static final long LENGTH_MIX = 0x9E3779B97F4A7C15L;
+    private static final int NONE = -1;
+    private final String strategyName;
+    private long pairsCompared;
+
+    /**
+     * The constructor for the strategy RollingHashMaximallyOverlappingPair.
+     */
+    public RollingHashMaximallyOverlappingPair() {
+        strategyName = "RollingHashMaximallyOverlappingPair";
+    }
+
+    /**
+     * Searches the input list of strings for the next maximally overlapping string head which is the tail of another string in the array.
+     * If no match can be found the array will cleanly return [0,0].
+     *
+     * @param strings An array of strings to be searched.
+     * @return Returns the array of positions which are the next maximally overlapping pair else returns [0,0]
+     */
+    @Override
+    public int[] search(String[] strings) {
+        int characters = 0;
+        int longest = 0;
+        for (String string : strings) {
+            if (string != null) {
+                characters += string.length();
+                longest = Math.max(longest, string.length());
+            }
+        }
+        long[] powers = new long[longest + 1];
+        powers[0] = 1;
+        for (int i = 1; i <= longest; i++) {
+            powers[i] = powers[i - 1] * BASE;
+        }
+        long[][] hashes = new long[strings.length][];
+        // Each tail is an entry of a chain of the tails sharing its key, whose first entry is held in the table.
+        LongIntOpenHashMap tails = new LongIntOpenHashMap(characters);
+        int[] entryStrings = new int[characters];
+        int[] entryNext = new int[characters];
+        int entries = 0;
+        // Strings are chained in reverse, so each chain reads its strings in the order of their positions.
+        for (int j = strings.length - 1; j >= 0; j--) {
+            if (strings[j] == null) {
+                continue;
+            }
+            hashes[j] = prefixHashes(strings[j]);
+            int length = strings[j].length();
+            for (int overlap = 1; overlap <= length; overlap++) {
+                long key = key(hashes[j][length] - hashes[j][length - overlap] * powers[overlap], overlap);
+                entryStrings[entries] = j;
+                entryNext[entries] = tails.get(key, NONE);
+                tails.put(key, entries++);
+            }
+        }
+        int currMaximalOverlap = 0;
+        int from = 0;
+        int into = 0;
+        long compared = 0;
+        for (int i = 0; i < strings.length; i++) {
+            if (strings[i] == null) {
+                continue;
+            }
+            // Probe the heads from the longest down, stopping at the first (greatest) overlap of the string, or once no head can match the greatest overlap found.
+            boolean found = false;
+            for (int overlap = strings[i].length(); overlap >= Math.max(1, currMaximalOverlap) && !found; overlap--) {
+                for (int entry = tails.get(key(hashes[i][overlap], overlap), NONE); entry != NONE; entry = entryNext[entry]) {
+                    int j = entryStrings[entry];
+                    if (j == i) {
+                        continue;
+                    }
+                    compared++;
+                    if (!strings[j].regionMatches(strings[j].length() - overlap, strings[i], 0, overlap)) {
+                        continue;
+                    }
+                    found = true;
+                    if (overlap > currMaximalOverlap || isEarlierPair(i, j, from, into)) {
+                        currMaximalOverlap = overlap;
+                        from = i;
+                        into = j;
+                    }
+                }
+            }
+        }
+        pairsCompared += compared;
+        return new int[]{from, into};
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public long getPairsCompared() {
+        return pairsCompared;
+    }
+
+    @Override
+    public String toString() {
+        return "Strings List Search Strategy " + strategyName;
+    }
+
+    // Pairs sharing the greatest overlap are ordered by lower position then higher position (the order NextMaximallyOverlappingPair visits pairs in), and the head of the higher position is preferred within a pair.
+    private static boolean isEarlierPair(int from, int into, int currentFrom, int currentInto) {
+        int lower = Math.min(from, into);
+        int currentLower = Math.min(currentFrom, currentInto);
+        if (lower != currentLower) {
+            return lower < currentLower;
+        }
+        int higher = Math.max(from, into);
+        int currentHigher = Math.max(currentFrom, currentInto);
+        if (higher != currentHigher) {
+            return higher < currentHigher;
+        }
+        return from > into && currentFrom < currentInto;
+    }
+
+    // hashes[i] is the hash of the first i characters of the string.
+    private static long[] prefixHashes(String string) {
+        long[] hashes = new long[string.length() + 1];
+        for (int i = 0; i < string.length(); i++) {
+            hashes[i + 1] = hashes[i] * BASE + string.charAt(i);
+        }
+        return hashes;
+    }
+
+    private static long key(long hash, int length) {
+        return hash + length * LENGTH_MIX;
+    }
+}
@@ -0,0 +1,73 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.entities.compositor.document.DocumentCompositor;
+import badnieces.entities.strategies.merge.MergeOverlapPair;
+import badnieces.interfaces.strategy.search.StringsListSearchStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RollingHashMaximallyOverlappingPairTest {
+    private StringsListSearchStrategy stringsListSearchStrategy = new RollingHashMaximallyOverlappingPair();
+
+    @Test
+    public void validSearch() {
+        String[] strings = {"ABCDE", "BCDEF"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABCE", "BCE", "ABCE"};
+        assertArrayEquals(new int[]{2, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"XYZABC", "ABCDEF"};
+        assertArrayEquals(new int[]{1, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{"DEFXYZ", null, "ABCDEF"};
+        assertArrayEquals(new int[]{0, 2}, stringsListSearchStrategy.search(strings));
+        // Only heads which are tails are found, so BC within ABCD is not an overlap.
+        strings = new String[]{"ABCD", "BCX"};
+        assertArrayEquals(new int[]{0, 0}, stringsListSearchStrategy.search(strings));
+        strings = new String[]{};
+        assertArrayEquals(new int[]{0, 0}, stringsListSearchStrategy.search(strings));
+    }
+
+    @Test
+    public void tieSearch() {
+        // Pairs sharing the greatest overlap are returned in the order NextMaximallyOverlappingPair returns them.
+        String[] strings = {"XAB", "ABX", "YAB", "ABY"};
+        assertArrayEquals(new NextMaximallyOverlappingPair().search(strings), stringsListSearchStrategy.search(strings));
+        strings = new String[]{"ABA", "BAB"};
+        assertArrayEquals(new NextMaximallyOverlappingPair().search(strings), stringsListSearchStrategy.search(strings));
+    }
+
+    @Test
+    public void fragmentsEquivalence() {
+        // Fragments of a random text over 26 letters overlap only at their ends, so the pairs are those of NextMaximallyOverlappingPair.
+        Random random = new Random(23);
+        StringsListSearchStrategy sequential = new NextMaximallyOverlappingPair();
+        for (int test = 0; test < 300; test++) {
+            char[] text = new char[100 + random.nextInt(300)];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (char) ('a' + random.nextInt(26));
+            }
+            List<String> fragments = new ArrayList<>();
+            int start = 0;
+            while (true) {
+                int length = Math.min(text.length - start, 12 + random.nextInt(12));
+                fragments.add(new String(text, start, length));
+                if (start + length == text.length) {
+                    break;
+                }
+                start += length - 4 - random.nextInt(6);
+            }
+            Collections.shuffle(fragments, random);
+            String[] strings = fragments.toArray(new String[0]);
+            assertArrayEquals(String.join(";", strings), sequential.search(strings), stringsListSearchStrategy.search(strings));
+            DocumentCompositor documentCompositor = new DocumentCompositor(new RollingHashMaximallyOverlappingPair(), new MergeOverlapPair(), strings);
+            documentCompositor.recursiveMerge();
+            assertEquals(new String(text), documentCompositor.getToString());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package badnieces.entities.strategies.search;
+
+import badnieces.interfaces.strategy.search.IncrementalBytesListSearchStrategy;
+import oddschecker.utils.comparator.LinearBytesArrayComparator;
+
+/**
+ * Utf8MaximallyOverlappingPair is IncrementalMaximallyOverlappingPair over strings held as UTF-8 bytes, so fragments are compared without being decoded.
+ * Overlaps are located byte by byte (never splitting a multi-byte character) and ranked by their length in characters, so the pairs returned are those IncrementalMaximallyOverlappingPair returns for the decoded strings.
+ * The one exception is a head ending between the two halves of a surrogate pair, which is not a head of the UTF-8 string (the characters of the pair are one code point).
+ * <p>
+ * An ASCII string is held in half the memory of its characters, and the length in characters of a head of an ASCII string is its length in bytes.
+ */
+public class Utf8MaximallyOverlappingPair extends OverlapMatrix implements IncrementalBytesListSearchStrategy {
+    private final String strategyName;
+    // The bytes of each remaining string (null once a string is removed).
+    private byte[][] strings = new byte[0][];
+    // The failure function of each remaining string, so comparing a pair of strings allocates nothing.
+    private int[][] failures = new int[0][];
+    // Whether each remaining string is ASCII, so the length of its heads need not be counted in characters.
+    private boolean[] ascii = new boolean[0];
+
+    /**
+     * The constructor for the strategy Utf8MaximallyOverlappingPair.
+     */
+    public Utf8MaximallyOverlappingPair() {
+        strategyName = "Utf8MaximallyOverlappingPair";
+    }
+
+    /**
+     * Searches the input list of UTF-8 strings for the next maximally overlapping string header CONTAINED IN another string in the array.
+     * If no match can be found the array will cleanly return [0,0].
+     *
+     * @param strings An array of UTF-8 strings to be searched.
+     * @return Returns the array of positions which are the next maximally overlapping pair else returns [0,0]
+     */
+    public int[] search(byte[][] strings) {
+        index(strings);
+        return searchPair();
+    }
+
+    /**
+     * Computes the overlap matrix over an array of UTF-8 strings (O(n^2) comparisons), discarding any previous index.
+     *
+     * @param strings The array of UTF-8 strings to index.
+     */
+    @Override
+    public void index(byte[][] strings) {
+        int size = strings.length;
+        this.strings = new byte[size][];
+        failures = new int[size][];
+        ascii = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (strings[i] != null) {
+                load(i, strings[i]);
+            }
+        }
+        indexMatrix();
+    }
+
+    /**
+     * Returns the next maximally overlapping pair as positions [from, into] within the indexed array.
+     * If no pair overlaps the pair [p, p] is returned, where p is the first remaining position.
+     *
+     * @return Returns the positions of the next maximally overlapping pair.
+     */
+    @Override
+    public int[] next() {
+        return nextPair();
+    }
+
+    /**
+     * Recomputes the row and column of the merged string and refreshes the rows which pointed at either string of the merge.
+     *
+     * @param fromIndex The position of the string merged from.
+     * @param intoIndex The position of the string merged into.
+     * @param merged    The UTF-8 result of the merge (a null removes the string at intoIndex).
+     */
+    @Override
+    public void update(int fromIndex, int intoIndex, byte[] merged) {
+        remove(fromIndex);
+        if (fromIndex != intoIndex) {
+            if (merged == null) {
+                remove(intoIndex);
+            } else {
+                load(intoIndex, merged);
+            }
+        }
+        updateMatrix(fromIndex, intoIndex);
+    }
+
+    /**
+     * Gets the name of the strategy.
+     *
+     * @return Returns the strategy name.
+     */
+    @Override
+    public String getStrategyName() {
+        return this.strategyName;
+    }
+
+    @Override
+    public String toString() {
+        return "Bytes List Search Strategy " + strategyName;
+    }
+
+    @Override
+    int positions() {
+        return strings.length;
+    }
+
+    @Override
+    boolean isRemaining(int position) {
+        return strings[position] != null;
+    }
+
+    @Override
+    int compare(int from, int into) {
+        int headLength = LinearBytesArrayComparator.getHeadLength(LinearBytesArrayComparator.getHeadOverlap(strings[from], failures[from], strings[into]));
+        return ascii[from] ? headLength : LinearBytesArrayComparator.getUtf16Length(strings[from], 0, headLength);
+    }
+
+    private void load(int position, byte[] string) {
+        // The strings are never written to, so they are held without being copied.
+        strings[position] = string;
+        failures[position] = LinearBytesArrayComparator.getFailureFunction(string);
+        ascii[position] = LinearBytesArrayComparator.isAscii(string);
+    }
+
+    private void remove(int position) {
+        strings[position] = null;
+        failures[position] = null;
+    }
+}
@@ -0,0 +1,64 @@
+package badnieces.entities.strategies.search;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class Utf8MaximallyOverlappingPairTest {
+    private final Utf8MaximallyOverlappingPair bytesListSearchStrategy = new Utf8MaximallyOverlappingPair();
+
+    @Test
+    public void validSearch() {
+        assertArrayEquals(new int[]{2, 0}, bytesListSearchStrategy.search(utf8("ABCE", "BCE", "ABCE")));
+        assertArrayEquals(new int[]{0, 1}, bytesListSearchStrategy.search(utf8("DEFABC", "123DEF")));
+        // Overlaps are ranked in characters: "éé" (four bytes) and "AAA" (three bytes) are heads of two and three characters.
+        assertArrayEquals(new int[]{3, 2}, bytesListSearchStrategy.search(utf8("xéé", "ééy", "zAAA", "AAAw")));
+    }
+
+    @Test
+    public void invalidSearch() {
+        // 'é' and 'è' share their first byte, and '😀' and '😁' share their high surrogate, but neither pair overlaps.
+        assertArrayEquals(new int[2], bytesListSearchStrategy.search(utf8("éA", "xè")));
+        assertArrayEquals(new int[2], bytesListSearchStrategy.search(utf8("😀x", "A😁")));
+    }
+
+    @Test
+    public void validUpdate() {
+        bytesListSearchStrategy.index(utf8("O draconia", "conian devil! Oh la", "h lame sa", "saint!"));
+        assertArrayEquals(new int[]{1, 0}, bytesListSearchStrategy.next());
+        bytesListSearchStrategy.update(1, 0, utf8("O draconian devil! Oh la")[0]);
+        assertArrayEquals(new int[]{2, 0}, bytesListSearchStrategy.next());
+        bytesListSearchStrategy.update(2, 0, utf8("O draconian devil! Oh lame sa")[0]);
+        assertArrayEquals(new int[]{3, 0}, bytesListSearchStrategy.next());
+    }
+
+    @Test
+    public void searchEquivalence() {
+        // The pairs found in UTF-8 fragments are the pairs found in their Strings.
+        char[] alphabet = {'A', 'B', 'é', 'è', '€'};
+        IncrementalMaximallyOverlappingPair stringsListSearchStrategy = new IncrementalMaximallyOverlappingPair();
+        Random random = new Random(23);
+        for (int test = 0; test < 2000; test++) {
+            String[] fragments = new String[2 + random.nextInt(8)];
+            for (int i = 0; i < fragments.length; i++) {
+                char[] fragment = new char[1 + random.nextInt(5)];
+                for (int c = 0; c < fragment.length; c++) {
+                    fragment[c] = alphabet[random.nextInt(alphabet.length)];
+                }
+                fragments[i] = new String(fragment);
+            }
+            assertArrayEquals(String.join(";", fragments), stringsListSearchStrategy.search(fragments), bytesListSearchStrategy.search(utf8(fragments)));
+        }
+    }
+
+    private static byte[][] utf8(String... fragments) {
+        byte[][] bytes = new byte[fragments.length][];
+        for (int i = 0; i < fragments.length; i++) {
+            bytes[i] = fragments[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,174 @@
+package badnieces.entities.writer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * The DocumentWriter class is responsible for writing reassembled documents, one per line, to a channel (standard output or a file) in UTF-8.
+ * Documents are encoded straight into a large buffer (without allocating), and the buffer is written to the channel when it fills, every so many documents (optionally) and when the writer is flushed or closed.
+ * Unlike System.out.println, writing a document neither takes the lock of System.out nor flushes per line.
+ * <p>
+ * Documents are written in the order accept is called. A DocumentWriter is a Consumer of documents, so it can be the output of the sequential path or of a ConcurrentLinePipeline (which calls its output in line order from one thread).
+ * Accepting documents from several threads at once is safe, but their order is then the order the calls were made.
+ * Characters which cannot be encoded (i.e. unpaired surrogates) are written as '?', as System.out writes them.
+ */
+public final class DocumentWriter implements Consumer<String>, Flushable, AutoCloseable {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final byte[] bytesBuffered;
+    private final ByteBuffer buffer;
+    private int position;
+    private final int documentsPerFlush;
+    private int documentsSinceFlush;
+    private long documents;
+    private long bytes;
+
+    /**
+     * Constructs a new DocumentWriter.
+     *
+     * @param channel           The channel the documents are written to.
+     * @param closeChannel      Whether closing the writer closes the channel.
+     * @param bufferBytes       The size of the buffer.
+     * @param documentsPerFlush The number of documents between each flush (0 to flush only when the buffer fills, or when flushed or closed).
+     * @throws IllegalArgumentException Throws an IllegalArgumentException if the channel is missing, the buffer cannot hold a line separator or the documents per flush is negative.
+     */
+    public DocumentWriter(WritableByteChannel channel, boolean closeChannel, int bufferBytes, int documentsPerFlush) throws IllegalArgumentException {
+        if (channel == null || bufferBytes < 16 || documentsPerFlush < 0) {
+            throw new IllegalArgumentException("A channel must be specified, with a buffer of at least 16 bytes and a positive number of documents per flush (or 0 for when full)");
+        }
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.bytesBuffered = new byte[bufferBytes];
+        this.buffer = ByteBuffer.wrap(bytesBuffered);
+        this.documentsPerFlush = documentsPerFlush;
+    }
+
+    /**
+     * Constructs a new DocumentWriter to standard output (which is not closed when the writer is closed).
+     *
+     * @param bufferBytes       The size of the buffer.
+     * @param documentsPerFlush The number of documents between each flush (0 to flush only when the buffer fills, or when flushed or closed).
+     * @return The writer.
+     */
+    public static DocumentWriter toStandardOutput(int bufferBytes, int documentsPerFlush) {
+        return new DocumentWriter(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), false, bufferBytes, documentsPerFlush);
+    }
+
+    /**
+     * Constructs a new DocumentWriter to a file, which is created or replaced.
+     *
+     * @param path              The path of the file.
+     * @param bufferBytes       The size of the buffer.
+     * @param documentsPerFlush The number of documents between each flush (0 to flush only when the buffer fills, or when flushed or closed).
+     * @return The writer.
+     * @throws IOException Throws an IO exception if the file cannot be opened.
+     */
+    public static DocumentWriter toFile(Path path, int bufferBytes, int documentsPerFlush) throws IOException {
+        FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new DocumentWriter(file, true, bufferBytes, documentsPerFlush);
+    }
+
+    /**
+     * Writes a document and a line separator.
+     *
+     * @param document The document (null is written as "null", as System.out.println writes it).
+     * @throws UncheckedIOException Throws an UncheckedIOException if the buffer cannot be written to the channel.
+     */
+    @Override
+    public synchronized void accept(String document) throws UncheckedIOException {
+        try {
+            encode(document == null ? "null" : document);
+            encode(LINE_SEPARATOR);
+            documents++;
+            if (documentsPerFlush > 0 && ++documentsSinceFlush >= documentsPerFlush) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes every document buffered to the channel.
+     *
+     * @throws IOException Throws an IO exception if the buffer cannot be written to the channel.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        buffer.limit(position).position(0);
+        while (buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        position = 0;
+        documentsSinceFlush = 0;
+    }
+
+    /**
+     * Flushes the writer, then closes the channel (unless the channel is standard output).
+     *
+     * @throws IOException Throws an IO exception if the buffer cannot be written to the channel.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    public synchronized long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Returns the number of bytes written to the channel (not counting bytes still buffered).
+     *
+     * @return The number of bytes written.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    // Encodes characters into the buffer in UTF-8, writing the buffer to the channel whenever it cannot hold the next character.
+    private void encode(String characters) throws IOException {
+        int length = characters.length();
+        for (int i = 0; i < length; i++) {
+            if (position > bytesBuffered.length - 4) {
+                flush();
+            }
+            char c = characters.charAt(i);
+            if (c < 0x80) {
+                bytesBuffered[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytesBuffered[position++] = (byte) (0xC0 | c >> 6);
+                bytesBuffered[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(characters.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, characters.charAt(++i));
+                bytesBuffered[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytesBuffered[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytesBuffered[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytesBuffered[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                bytesBuffered[position++] = '?';
+            } else {
+                bytesBuffered[position++] = (byte) (0xE0 | c >> 12);
+                bytesBuffered[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytesBuffered[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+}
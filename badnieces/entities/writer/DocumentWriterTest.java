@@ -0,0 +1,73 @@
+package badnieces.entities.writer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DocumentWriterTest {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    @Test
+    public void acceptValid() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(Channels.newChannel(output), true, 16, 0);
+        writer.accept("ABC");
+        // Nothing is written until the buffer fills.
+        assertEquals(0, output.size());
+        // Documents longer than the buffer are written through it, and characters are encoded in UTF-8 across flushes.
+        writer.accept("Prêt-à-porter, naïve café 😀 déjà vu");
+        writer.accept(null);
+        writer.accept("\uD83D");
+        writer.close();
+        String expected = "ABC" + SEPARATOR + "Prêt-à-porter, naïve café 😀 déjà vu" + SEPARATOR + "null" + SEPARATOR + "?" + SEPARATOR;
+        assertEquals(expected, new String(output.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(4, writer.getDocuments());
+        assertEquals(output.size(), writer.getBytes());
+    }
+
+    @Test
+    public void flushValid() throws IOException {
+        // Documents are written every so many documents.
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DocumentWriter writer = new DocumentWriter(Channels.newChannel(output), true, 1 << 16, 2);
+        writer.accept("A");
+        assertEquals(0, output.size());
+        writer.accept("B");
+        assertEquals("A" + SEPARATOR + "B" + SEPARATOR, new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void fileEquivalence() throws IOException {
+        // A file written by the writer holds the same lines as the documents, in order.
+        Random random = new Random(19);
+        String[] documents = new String[2000];
+        for (int i = 0; i < documents.length; i++) {
+            char[] document = new char[random.nextInt(300)];
+            for (int j = 0; j < document.length; j++) {
+                document[j] = (char) (random.nextBoolean() ? 'a' + random.nextInt(26) : 0xA0 + random.nextInt(0x2000));
+            }
+            documents[i] = new String(document);
+        }
+        Path file = Files.createTempFile("DocumentWriterTest", ".txt");
+        file.toFile().deleteOnExit();
+        try (DocumentWriter writer = DocumentWriter.toFile(file, 4096, 0)) {
+            Arrays.stream(documents).forEachOrdered(writer);
+        }
+        assertArrayEquals(documents, Files.readAllLines(file, StandardCharsets.UTF_8).toArray(new String[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferInvalid() {
+        new DocumentWriter(Channels.newChannel(new ByteArrayOutputStream()), true, 8, 0);
+    }
+}
@@ -1,6 +1,7 @@
 package badnieces.interfaces.read;
 
 import java.io.IOException;
+import java.util.stream.Stream;
 
 /**
  * The Readable interface declares an implementing object will be able to read filesystem input.
@@ -17,5 +18,39 @@ public interface Readable {
 
     String[] readToStrings(String absPath) throws IOException;
 
+    /**
+     * Lazily reads each line of the file as it is consumed, so only the line being processed is held in memory.
+     * The stream holds the file open and must be closed by the caller (i.e. with try-with-resources).
+     *
+     * @param absPath The path of the file.
+     * @return A stream of the lines of the file.
+     * @throws IOException Throws an IO exception if the file cannot be opened. Failures while reading are thrown as an UncheckedIOException when the stream is consumed.
+     */
+    Stream<String> readToStream(String absPath) throws IOException;
+
+    /**
+     * Lazily reads each line of the file as it is consumed, split into its fragments.
+     * Empty fragments are kept (i.e. "A;;B" produces {"A", "", "B"}) so that the caller can validate the line.
+     * The stream holds the file open and must be closed by the caller (i.e. with try-with-resources).
+     *
+     * @param absPath   The path of the file.
+     * @param separator The character separating fragments.
+     * @return A stream of the fragments of each line of the file.
+     * @throws IOException Throws an IO exception if the file cannot be opened. Failures while reading are thrown as an UncheckedIOException when the stream is consumed.
+     */
+    Stream<String[]> readToFragments(String absPath, char separator) throws IOException;
+
+    /**
+     * Lazily reads each line of the file as it is consumed, split into its fragments encoded as UTF-8 bytes.
+     * Empty fragments are kept (as by readToFragments), and the fragments hold the characters readToFragments would read.
+     * The stream holds the file open and must be closed by the caller (i.e. with try-with-resources).
+     *
+     * @param absPath   The path of the file.
+     * @param separator The character separating fragments.
+     * @return A stream of the UTF-8 fragments of each line of the file.
+     * @throws IOException Throws an IO exception if the file cannot be opened. Failures while reading are thrown as an UncheckedIOException when the stream is consumed.
+     */
+    Stream<byte[][]> readToByteFragments(String absPath, char separator) throws IOException;
+
 
 }
@@ -0,0 +1,37 @@
+package badnieces.interfaces.strategy.filter;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A StringsListFilterStrategy object removes strings from an array of strings before it is composited (for example strings which add nothing to the document).
+ * Following the strategy design pattern, implementing types define which strings are removed.
+ */
+public interface StringsListFilterStrategy {
+    /**
+     * Returns the strings which are kept by the filter, in their original order.
+     * Implementation should ignore (and drop) nulls.
+     *
+     * @param strings The array of strings to filter.
+     * @return Returns a new array of the strings kept.
+     */
+    String[] filter(String[] strings);
+
+    /**
+     * Filters the strings as filter does, asking whether to abandon the filter as it goes, so a merge within a budget is not held up by filtering a very large array.
+     * Strategies which cannot abandon their filter filter the whole array.
+     *
+     * @param strings The array of strings to filter.
+     * @param abandon Asked before each string is filtered, returning true to abandon the filter.
+     * @return Returns a new array of the strings kept, or null if the filter was abandoned.
+     */
+    default String[] filter(String[] strings, BooleanSupplier abandon) {
+        return filter(strings);
+    }
+
+    /**
+     * A method must be provided corresponding to the name of the implemented strategy.
+     *
+     * @return The name of the strategy.
+     */
+    String getStrategyName();
+}
@@ -0,0 +1,23 @@
+package badnieces.interfaces.strategy.merge;
+
+/**
+ * A BytesMergeStrategy object provides methods to merge two strings encoded as UTF-8 bytes to one, without decoding them.
+ * Merging UTF-8 strings must produce the UTF-8 encoding of merging the decoded strings.
+ */
+public interface BytesMergeStrategy {
+    /**
+     * Merges one UTF-8 string into another.
+     *
+     * @param fromBytes The UTF-8 string to merge from.
+     * @param intoBytes The UTF-8 string to merge into.
+     * @return The UTF-8 result of the merge.
+     */
+    byte[] merge(byte[] fromBytes, byte[] intoBytes);
+
+    /**
+     * A method must be provided corresponding to the name of the implemented strategy.
+     *
+     * @return The name of the strategy.
+     */
+    String strategyToName();
+}
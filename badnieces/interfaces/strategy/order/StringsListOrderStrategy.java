@@ -0,0 +1,36 @@
+package badnieces.interfaces.strategy.order;
+
+/**
+ * A StringsListOrderStrategy object decides the order the strings of an array are laid out in, as a whole, rather than the next pair to merge.
+ * Each string of the order overlaps the next by the greatest head of the next string which is the tail of the string (see LinearCharsArrayComparator.getTailOverlap), so an order is a superstring of the strings.
+ * Following the strategy design pattern, implementing types define how the order is found (for example exactly, or within a budget of time).
+ */
+public interface StringsListOrderStrategy {
+    /**
+     * Returns the positions of the strings in the order they are laid out.
+     * A string may be left out only if it is contained in a string of the order, and each position appears at most once.
+     * Implementation should ignore (and leave out) nulls.
+     *
+     * @param strings The array of strings to order.
+     * @return Returns the positions of the strings in order.
+     */
+    int[] order(String[] strings);
+
+    /**
+     * Estimates the bytes order allocates for an array of strings, so a merge within a budget can be refused before it orders more than the budget allows.
+     * Strategies which do not estimate their allocation return 0.
+     *
+     * @param strings The array of strings to order.
+     * @return The bytes the order is estimated to allocate.
+     */
+    default long getOrderBytes(String[] strings) {
+        return 0;
+    }
+
+    /**
+     * A method must be provided corresponding to the name of the implemented strategy.
+     *
+     * @return The name of the strategy.
+     */
+    String getStrategyName();
+}
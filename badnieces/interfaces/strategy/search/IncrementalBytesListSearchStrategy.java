@@ -0,0 +1,42 @@
+package badnieces.interfaces.strategy.search;
+
+/**
+ * An IncrementalBytesListSearchStrategy holds an index over strings encoded as UTF-8 bytes, as an IncrementalStringsListSearchStrategy holds an index over Strings.
+ * Strings are searched without being decoded, and the tokens returned are those the same search of the decoded strings returns.
+ * Positions are stable: the positions returned always refer to the array passed to index, and a merged or removed string never shifts the position of another.
+ * Implementing objects hold state, so each instance should only serve one compositor (and one thread) at a time.
+ */
+public interface IncrementalBytesListSearchStrategy {
+    /**
+     * Builds the index over an array of UTF-8 strings, discarding any previous index.
+     * Implementation should ignore nulls.
+     *
+     * @param strings The array of UTF-8 strings to index.
+     */
+    void index(byte[][] strings);
+
+    /**
+     * Returns the next set of tokens from the index (positions within the array passed to index).
+     *
+     * @return Returns a set of tokens corresponding to the next result of the search.
+     */
+    int[] next();
+
+    /**
+     * Updates the index following a merge of the string at fromIndex into the string at intoIndex.
+     * The string at fromIndex is removed from the index and the string at intoIndex is replaced by the merged string.
+     * If fromIndex and intoIndex are the same position the string is removed.
+     *
+     * @param fromIndex The position of the string merged from.
+     * @param intoIndex The position of the string merged into.
+     * @param merged    The UTF-8 result of the merge (a null removes the string at intoIndex).
+     */
+    void update(int fromIndex, int intoIndex, byte[] merged);
+
+    /**
+     * A method must be provided corresponding to the name of the implemented strategy.
+     *
+     * @return The name of the strategy.
+     */
+    String getStrategyName();
+}
@@ -0,0 +1,62 @@
+package badnieces.interfaces.strategy.search;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * An IncrementalStringsListSearchStrategy is a StringsListSearchStrategy which holds an index over the strings it searches.
+ * Rather than searching the whole array again on every iteration of a merge, the index is told about each merge and recomputes only what that merge touched.
+ * Positions are stable: the positions returned always refer to the array passed to index, and a merged or removed string never shifts the position of another.
+ * Implementing objects hold state, so each instance should only serve one compositor (and one thread) at a time.
+ */
+public interface IncrementalStringsListSearchStrategy extends StringsListSearchStrategy {
+    /**
+     * Builds the index over an array of strings, discarding any previous index.
+     * Implementation should ignore nulls.
+     *
+     * @param strings The array of strings to index.
+     */
+    void index(String[] strings);
+
+    /**
+     * Builds the index as index does, asking whether to abandon it as it goes, so a merge within a budget is not held up by building the index of a very large array.
+     * An abandoned index is discarded, and must be built again before it is searched.
+     * Strategies which cannot abandon their index build it whole.
+     *
+     * @param strings The array of strings to index.
+     * @param abandon Asked before each string is compared with the others, returning true to abandon the index.
+     * @return Returns true if the index was built, or false if it was abandoned.
+     */
+    default boolean index(String[] strings, BooleanSupplier abandon) {
+        index(strings);
+        return true;
+    }
+
+    /**
+     * Estimates the bytes index allocates for an array of strings, so a merge within a budget can be refused before it indexes more than the budget allows.
+     * Strategies which do not estimate their index return 0.
+     *
+     * @param strings The array of strings to index.
+     * @return The bytes the index is estimated to allocate.
+     */
+    default long getIndexBytes(String[] strings) {
+        return 0;
+    }
+
+    /**
+     * Returns the next set of tokens from the index (positions within the array passed to index).
+     *
+     * @return Returns a set of tokens corresponding to the next result of the search.
+     */
+    int[] next();
+
+    /**
+     * Updates the index following a merge of the string at fromIndex into the string at intoIndex.
+     * The string at fromIndex is removed from the index and the string at intoIndex is replaced by the merged string.
+     * If fromIndex and intoIndex are the same position the string is removed.
+     *
+     * @param fromIndex The position of the string merged from.
+     * @param intoIndex The position of the string merged into.
+     * @param merged    The result of the merge (a null removes the string at intoIndex).
+     */
+    void update(int fromIndex, int intoIndex, CharSequence merged);
+}
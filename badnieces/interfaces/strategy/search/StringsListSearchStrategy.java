@@ -23,4 +23,14 @@ public interface StringsListSearchStrategy {
      * @return The name of the strategy.
      */
     String getStrategyName();
+
+    /**
+     * Returns the number of ordered pairs of strings (the head of one string searched for in another) compared by the strategy so far.
+     * Strategies which do not count their comparisons return 0.
+     *
+     * @return The number of ordered pairs of strings compared.
+     */
+    default long getPairsCompared() {
+        return 0;
+    }
 }
\ No newline at end of file
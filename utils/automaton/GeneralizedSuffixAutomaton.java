@@ -0,0 +1,288 @@
+package oddschecker.utils.automaton;
+
+import oddschecker.utils.collections.LongIntOpenHashMap;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * GeneralizedSuffixAutomaton is responsible for indexing every substring of a set of strings in one automaton.
+ * Each state of the automaton is a class of substrings which occur at exactly the same positions, and walking the characters of a substring from the root reaches its state.
+ * Every state records the two smallest ids (positions in the array of strings) of the strings its substrings occur in, which is enough to answer "does this substring occur in a string other than s, and which is the first", along with the length of the longest string it occurs in.
+ * <p>
+ * Contract: the automaton is built in O(N) time and memory for N characters in total (transitions are held in a single hash table), and it is immutable once built.
+ * Null strings are skipped (they have no substrings) but keep their id.
+ */
+public class GeneralizedSuffixAutomaton {
+    /**
+     * The state of the empty string, which every walk starts from.
+     */
+    public static final int ROOT = 0;
+    /**
+     * Returned in place of a state or an id which does not exist.
+     */
+    public static final int NONE = -1;
+    private final LongIntOpenHashMap transitions;
+    private int[] lengths;
+    private int[] links;
+    private int[] firstIds;
+    private int[] secondIds;
+    private int[] longestLengths;
+    // The characters leaving each state, held as linked lists so a state can be cloned.
+    private int[] edgeHeads;
+    private int[] edgeNexts = new int[16];
+    private char[] edgeChars = new char[16];
+    private int states;
+    private int edges;
+    private boolean abandoned;
+
+    /**
+     * Builds the automaton over an array of strings.
+     *
+     * @param strings The strings to index (the id of a string is its position in the array).
+     */
+    public GeneralizedSuffixAutomaton(String[] strings) {
+        this(strings, () -> false);
+    }
+
+    /**
+     * Builds the automaton over an array of strings, asking before each string is indexed whether to abandon it.
+     * An abandoned automaton indexes only some of the strings, so it must not be walked (see isAbandoned).
+     *
+     * @param strings The strings to index (the id of a string is its position in the array).
+     * @param abandon Asked before each string is indexed, returning true to abandon the automaton.
+     */
+    public GeneralizedSuffixAutomaton(String[] strings, BooleanSupplier abandon) {
+        int characters = 0;
+        for (String string : strings) {
+            characters += string == null ? 0 : string.length();
+        }
+        // A suffix automaton has fewer than 2N states and 3N transitions.
+        int capacity = 2 * characters + 2;
+        lengths = new int[capacity];
+        links = new int[capacity];
+        firstIds = new int[capacity];
+        secondIds = new int[capacity];
+        longestLengths = new int[capacity];
+        edgeHeads = new int[capacity];
+        transitions = new LongIntOpenHashMap(3 * characters + 1);
+        newState(0, NONE);
+        for (int id = 0; id < strings.length; id++) {
+            if (strings[id] == null) {
+                continue;
+            }
+            if (abandon.getAsBoolean()) {
+                abandoned = true;
+                return;
+            }
+            int last = ROOT;
+            for (int i = 0; i < strings[id].length(); i++) {
+                last = extend(last, strings[id].charAt(i));
+                // The state of every prefix of a string occurs in that string (and so does every suffix of the prefix, recorded below).
+                record(last, id, strings[id].length());
+            }
+        }
+        propagateIds();
+    }
+
+    /**
+     * Returns whether the automaton was abandoned before every string was indexed.
+     *
+     * @return True if the automaton was abandoned.
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * Follows a transition of the automaton.
+     *
+     * @param state The state to follow the transition from.
+     * @param c     The character of the transition.
+     * @return Returns the state reached, or NONE if no indexed substring continues with the character.
+     */
+    public int transition(int state, char c) {
+        return transitions.get(key(state, c), NONE);
+    }
+
+    /**
+     * Returns the length of the longest substring of a state.
+     *
+     * @param state The state.
+     * @return The length of the longest substring of the state.
+     */
+    public int length(int state) {
+        return lengths[state];
+    }
+
+    /**
+     * Returns the smallest id of a string the substrings of a state occur in.
+     *
+     * @param state The state.
+     * @return The smallest id, or NONE for the root of an automaton over no characters.
+     */
+    public int firstId(int state) {
+        return firstIds[state];
+    }
+
+    /**
+     * Returns the second smallest id of a string the substrings of a state occur in.
+     *
+     * @param state The state.
+     * @return The second smallest id, or NONE if the substrings occur in only one string.
+     */
+    public int secondId(int state) {
+        return secondIds[state];
+    }
+
+    /**
+     * Returns the length of the longest string the substrings of a state occur in.
+     *
+     * @param state The state.
+     * @return The length of the longest string containing the substrings of the state.
+     */
+    public int longestLength(int state) {
+        return longestLengths[state];
+    }
+
+    /**
+     * Returns the smallest id of a string other than the string given which the substrings of a state occur in.
+     *
+     * @param state The state.
+     * @param id    The id of the string to exclude.
+     * @return The smallest id other than the id given, or NONE if the substrings occur in no other string.
+     */
+    public int otherId(int state, int id) {
+        return firstIds[state] != id ? firstIds[state] : secondIds[state];
+    }
+
+    /**
+     * Returns the number of states of the automaton.
+     *
+     * @return The number of states.
+     */
+    public int size() {
+        return states;
+    }
+
+    private int extend(int last, char c) {
+        int existing = transition(last, c);
+        if (existing != NONE) {
+            // The string continues a substring which is already indexed (from another string).
+            if (lengths[last] + 1 == lengths[existing]) {
+                return existing;
+            }
+            int clone = cloneState(existing, lengths[last] + 1);
+            redirect(last, c, existing, clone);
+            return clone;
+        }
+        int current = newState(lengths[last] + 1, NONE);
+        int p = last;
+        while (p != NONE && transition(p, c) == NONE) {
+            addTransition(p, c, current);
+            p = links[p];
+        }
+        if (p == NONE) {
+            links[current] = ROOT;
+        } else {
+            int q = transition(p, c);
+            if (lengths[p] + 1 == lengths[q]) {
+                links[current] = q;
+            } else {
+                int clone = cloneState(q, lengths[p] + 1);
+                redirect(p, c, q, clone);
+                links[current] = clone;
+            }
+        }
+        return current;
+    }
+
+    // Moves the transitions on c into q (from p and its suffix links) to the clone of q.
+    private void redirect(int p, char c, int q, int clone) {
+        while (p != NONE && transition(p, c) == q) {
+            transitions.put(key(p, c), clone);
+            p = links[p];
+        }
+    }
+
+    private int cloneState(int q, int length) {
+        int clone = newState(length, links[q]);
+        for (int edge = edgeHeads[q]; edge != NONE; edge = edgeNexts[edge]) {
+            addTransition(clone, edgeChars[edge], transition(q, edgeChars[edge]));
+        }
+        links[q] = clone;
+        return clone;
+    }
+
+    private int newState(int length, int link) {
+        if (states == lengths.length) {
+            int capacity = 2 * states;
+            lengths = Arrays.copyOf(lengths, capacity);
+            links = Arrays.copyOf(links, capacity);
+            firstIds = Arrays.copyOf(firstIds, capacity);
+            secondIds = Arrays.copyOf(secondIds, capacity);
+            longestLengths = Arrays.copyOf(longestLengths, capacity);
+            edgeHeads = Arrays.copyOf(edgeHeads, capacity);
+        }
+        lengths[states] = length;
+        links[states] = link;
+        firstIds[states] = NONE;
+        secondIds[states] = NONE;
+        longestLengths[states] = 0;
+        edgeHeads[states] = NONE;
+        return states++;
+    }
+
+    private void addTransition(int state, char c, int target) {
+        if (edges == edgeChars.length) {
+            edgeChars = Arrays.copyOf(edgeChars, 2 * edges);
+            edgeNexts = Arrays.copyOf(edgeNexts, 2 * edges);
+        }
+        edgeChars[edges] = c;
+        edgeNexts[edges] = edgeHeads[state];
+        edgeHeads[state] = edges++;
+        transitions.put(key(state, c), target);
+    }
+
+    private void record(int state, int id, int length) {
+        longestLengths[state] = Math.max(longestLengths[state], length);
+        if (id == NONE || id == firstIds[state] || id == secondIds[state]) {
+            return;
+        }
+        if (firstIds[state] == NONE || id < firstIds[state]) {
+            secondIds[state] = firstIds[state];
+            firstIds[state] = id;
+        } else if (secondIds[state] == NONE || id < secondIds[state]) {
+            secondIds[state] = id;
+        }
+    }
+
+    private void propagateIds() {
+        // A substring occurs wherever a longer substring ending with it occurs, so the ids flow from each state to its suffix link (longest states first).
+        int longest = 0;
+        for (int state = 0; state < states; state++) {
+            longest = Math.max(longest, lengths[state]);
+        }
+        // Counting sort of the states by length (starts[length] is the first slot of the states of that length).
+        int[] starts = new int[longest + 2];
+        for (int state = 0; state < states; state++) {
+            starts[lengths[state] + 1]++;
+        }
+        for (int length = 1; length < starts.length; length++) {
+            starts[length] += starts[length - 1];
+        }
+        int[] byLength = new int[states];
+        for (int state = 0; state < states; state++) {
+            byLength[starts[lengths[state]]++] = state;
+        }
+        for (int i = states - 1; i > 0; i--) {
+            int state = byLength[i];
+            record(links[state], firstIds[state], longestLengths[state]);
+            record(links[state], secondIds[state], longestLengths[state]);
+        }
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+}
@@ -0,0 +1,98 @@
+package oddschecker.utils.collections;
+
+/**
+ * LongIntOpenHashMap is responsible for mapping primitive long keys to primitive int values without boxing either.
+ * Entries are held in a single open addressing table (linear probing) which doubles when it is half full.
+ * Entries can be put (or replaced) but never removed. The map is not thread safe.
+ */
+public class LongIntOpenHashMap {
+    private long[] keys;
+    private int[] values;
+    private boolean[] occupied;
+    private int size;
+
+    /**
+     * Constructs a new LongIntOpenHashMap.
+     *
+     * @param expectedSize The number of entries expected (the map grows beyond it if needed).
+     */
+    public LongIntOpenHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        occupied = new boolean[capacity];
+    }
+
+    /**
+     * Maps a key to a value, replacing any value the key was mapped to.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(long key, int value) {
+        int slot = slot(key);
+        values[slot] = value;
+        if (!occupied[slot]) {
+            keys[slot] = key;
+            occupied[slot] = true;
+            size++;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Gets the value a key is mapped to.
+     *
+     * @param key          The key.
+     * @param defaultValue The value returned if the key is not mapped.
+     * @return Returns the value the key is mapped to, or the default value.
+     */
+    public int get(long key, int defaultValue) {
+        int slot = slot(key);
+        return occupied[slot] ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Returns the number of entries of the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Returns the slot holding the key, or the empty slot the key belongs in.
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (occupied[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] previousKeys = keys;
+        int[] previousValues = values;
+        boolean[] previousOccupied = occupied;
+        keys = new long[previousKeys.length * 2];
+        values = new int[previousKeys.length * 2];
+        occupied = new boolean[previousKeys.length * 2];
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousOccupied[i]) {
+                int slot = slot(previousKeys[i]);
+                keys[slot] = previousKeys[i];
+                values[slot] = previousValues[i];
+                occupied[slot] = true;
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        // Spread the bits of the key so that keys differing only in their high bits do not collide.
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,92 @@
+package oddschecker.utils.collections;
+
+/**
+ * LongOpenHashSet is responsible for holding a set of primitive longs without boxing each member.
+ * Members are held in a single open addressing table (linear probing) which doubles when it is half full.
+ * Members can be added but never removed. The set is not thread safe.
+ */
+public class LongOpenHashSet {
+    private long[] members;
+    private boolean[] occupied;
+    private int size;
+
+    /**
+     * Constructs a new LongOpenHashSet.
+     *
+     * @param expectedSize The number of members expected (the set grows beyond it if needed).
+     */
+    public LongOpenHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        members = new long[capacity];
+        occupied = new boolean[capacity];
+    }
+
+    /**
+     * Adds a member to the set.
+     *
+     * @param member The member to add.
+     * @return Returns true if the member was added, or false if the set already contained the member.
+     */
+    public boolean add(long member) {
+        int slot = slot(member);
+        if (occupied[slot]) {
+            return false;
+        }
+        members[slot] = member;
+        occupied[slot] = true;
+        size++;
+        if (size * 2 > members.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Tests if the set contains a member.
+     *
+     * @param member The member to test.
+     * @return Returns true if the set contains the member.
+     */
+    public boolean contains(long member) {
+        return occupied[slot(member)];
+    }
+
+    /**
+     * Returns the number of members of the set.
+     *
+     * @return The number of members.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Returns the slot holding the member, or the empty slot the member belongs in.
+    private int slot(long member) {
+        int mask = members.length - 1;
+        int slot = mix(member) & mask;
+        while (occupied[slot] && members[slot] != member) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] previousMembers = members;
+        boolean[] previousOccupied = occupied;
+        members = new long[previousMembers.length * 2];
+        occupied = new boolean[previousMembers.length * 2];
+        for (int i = 0; i < previousMembers.length; i++) {
+            if (previousOccupied[i]) {
+                int slot = slot(previousMembers[i]);
+                members[slot] = previousMembers[i];
+                occupied[slot] = true;
+            }
+        }
+    }
+
+    private static int mix(long member) {
+        // Spread the bits of the member so that members differing only in their high bits do not collide.
+        long mixed = member * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,159 @@
+package oddschecker.utils.comparator;
+
+/**
+ * LinearBytesArrayComparator is responsible for providing reusable static helper methods to compare UTF-8 encoded byte arrays in linear time.
+ * It honours the contracts of LinearCharsArrayComparator over the bytes of a string rather than its characters, so strings held as UTF-8 are compared without being decoded.
+ * Each member of the class follows a contract of return and must always obey that contract (detailed in JavaDoc).
+ * <p>
+ * A head is only ever taken up to a code point boundary of byteSet, so a head never splits a multi-byte character.
+ * For strings of characters in the Basic Multilingual Plane the head found is therefore the head LinearCharsArrayComparator finds over the decoded strings (measured in bytes rather than characters).
+ * Heads are packed as longs as LinearCharsArrayComparator packs them (the start in the high 32 bits and the length in the low 32 bits, both in bytes).
+ * The bytes are assumed to be well-formed UTF-8.
+ */
+public class LinearBytesArrayComparator {
+
+    /**
+     * Locates the greatest head of byteSet contained in byteSuperSet (the first occurrence of it) which ends on a code point boundary of byteSet.
+     * Given the UTF-8 bytes of "DEFG" and "ABCDEF" produce the head starting at 3 of length 3.
+     * Given the UTF-8 bytes of "éA" and "xè" produce the head of length 0 ('é' and 'è' share their first byte, but a head never ends within a character).
+     *
+     * @param byteSet      Input UTF-8 bytes with leading head indexes.
+     * @param byteSuperSet Input UTF-8 bytes expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(byte[] byteSet, byte[] byteSuperSet) {
+        if (byteSet.length == 0 || byteSuperSet.length == 0) {
+            return 0L;
+        }
+        return getHeadOverlap(byteSet, getFailureFunction(byteSet), byteSuperSet);
+    }
+
+    /**
+     * Locates the greatest head of byteSet contained in byteSuperSet which ends on a code point boundary, using a failure function computed beforehand and allocating nothing.
+     * The head is located with a single Knuth-Morris-Pratt pass of byteSuperSet, so the method runs in O(byteSet + byteSuperSet).
+     *
+     * @param byteSet      Input UTF-8 bytes with leading head indexes.
+     * @param failure      The failure function of byteSet (see getFailureFunction).
+     * @param byteSuperSet Input UTF-8 bytes expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(byte[] byteSet, int[] failure, byte[] byteSuperSet) {
+        if (byteSet.length == 0) {
+            return 0L;
+        }
+        int matched = 0;
+        int greatestMatched = 0;
+        int greatestMatchedEnd = -1;
+        for (int i = 0; i < byteSuperSet.length; i++) {
+            while (matched > 0 && byteSuperSet[i] != byteSet[matched]) {
+                matched = failure[matched - 1];
+            }
+            if (byteSuperSet[i] == byteSet[matched]) {
+                matched++;
+            }
+            // The match grows by one byte per position, so the first position a head of a given length is matched at is the end of its first occurrence.
+            // Only heads ending on a code point boundary are taken, so a longer match ending within a character waits for its next boundary.
+            if (matched > greatestMatched && isCodePointBoundary(byteSet, matched)) {
+                greatestMatched = matched;
+                greatestMatchedEnd = i;
+                if (greatestMatched == byteSet.length) {
+                    break;
+                }
+            }
+        }
+        return packHead(greatestMatchedEnd - greatestMatched + 1, greatestMatched);
+    }
+
+    /**
+     * Returns the position in byteSuperSet of the first byte of a head returned by getHeadOverlap.
+     *
+     * @param head A head packed as a long.
+     * @return The start of the head (0 for a head of length 0).
+     */
+    public static int getHeadStart(long head) {
+        return (int) (head >>> 32);
+    }
+
+    /**
+     * Returns the length in bytes of a head returned by getHeadOverlap.
+     *
+     * @param head A head packed as a long.
+     * @return The length of the head.
+     */
+    public static int getHeadLength(long head) {
+        return (int) head;
+    }
+
+    /**
+     * Computes the Knuth-Morris-Pratt failure function (prefix function) of a set of bytes.
+     * The element at position i is the length of the longest proper prefix of byteSet[0..i] which is also a suffix of byteSet[0..i].
+     *
+     * @param byteSet Input bytes.
+     * @return The failure function of the bytes (an empty array for no bytes).
+     */
+    public static int[] getFailureFunction(byte[] byteSet) {
+        int[] failure = new int[byteSet.length];
+        int border = 0;
+        for (int i = 1; i < byteSet.length; i++) {
+            while (border > 0 && byteSet[i] != byteSet[border]) {
+                border = failure[border - 1];
+            }
+            if (byteSet[i] == byteSet[border]) {
+                border++;
+            }
+            failure[i] = border;
+        }
+        return failure;
+    }
+
+    /**
+     * Returns whether a position of UTF-8 bytes is a code point boundary (the start or end of the bytes, or a position which does not hold a continuation byte).
+     *
+     * @param bytes    Input UTF-8 bytes.
+     * @param position A position from 0 to bytes.length.
+     * @return Whether no character is split at the position.
+     */
+    public static boolean isCodePointBoundary(byte[] bytes, int position) {
+        return position == bytes.length || (bytes[position] & 0xC0) != 0x80;
+    }
+
+    /**
+     * Returns the number of UTF-16 characters (the length of the String) the UTF-8 bytes from start to end decode to.
+     * Given the UTF-8 bytes of "Aé😀" produce the output 4 (a character outside the Basic Multilingual Plane is two UTF-16 characters).
+     *
+     * @param bytes Input UTF-8 bytes.
+     * @param start The first position (a code point boundary).
+     * @param end   The position after the last byte (a code point boundary).
+     * @return The number of UTF-16 characters.
+     */
+    public static int getUtf16Length(byte[] bytes, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            int b = bytes[i] & 0xFF;
+            // Each character starts with one byte which is not a continuation byte, and a four byte character is a surrogate pair.
+            if ((b & 0xC0) != 0x80) {
+                length += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns whether the UTF-8 bytes are all ASCII (so each byte is one UTF-16 character).
+     *
+     * @param bytes Input UTF-8 bytes.
+     * @return Whether every byte is below 0x80.
+     */
+    public static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long packHead(int start, int length) {
+        return length == 0 ? 0L : ((long) start << 32) | length;
+    }
+}
@@ -0,0 +1,92 @@
+package oddschecker.utils.comparator;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LinearBytesArrayComparatorTest {
+    // ASCII characters and characters of two and three bytes, several of which share their leading bytes ('é' and 'è', '€' and '₤').
+    private static final char[] ALPHABET = {'A', 'B', 'é', 'è', '€', '₤'};
+
+    @Test
+    public void getHeadOverlapValid() {
+        long head = LinearBytesArrayComparator.getHeadOverlap(utf8("DEFG"), utf8("ABCDEF"));
+        assertEquals(3, LinearBytesArrayComparator.getHeadStart(head));
+        assertEquals(3, LinearBytesArrayComparator.getHeadLength(head));
+        // Positions are in bytes ('é' is two bytes).
+        head = LinearBytesArrayComparator.getHeadOverlap(utf8("éBC"), utf8("AéBé"));
+        assertEquals(1, LinearBytesArrayComparator.getHeadStart(head));
+        assertEquals(3, LinearBytesArrayComparator.getHeadLength(head));
+        assertEquals(0L, LinearBytesArrayComparator.getHeadOverlap(utf8("XYZABC"), utf8("DEFABC")));
+        assertEquals(0L, LinearBytesArrayComparator.getHeadOverlap(new byte[0], utf8("ABC")));
+        assertEquals(0L, LinearBytesArrayComparator.getHeadOverlap(utf8("ABC"), new byte[0]));
+    }
+
+    @Test
+    public void getHeadOverlapBoundary() {
+        // 'é' and 'è' share their first byte, which is never a head on its own.
+        assertEquals(0L, LinearBytesArrayComparator.getHeadOverlap(utf8("éA"), utf8("xè")));
+        // '€' and '₤' share their first two bytes, so only the 'A' before them is a head.
+        long head = LinearBytesArrayComparator.getHeadOverlap(utf8("A€"), utf8("xA₤"));
+        assertEquals(1, LinearBytesArrayComparator.getHeadStart(head));
+        assertEquals(1, LinearBytesArrayComparator.getHeadLength(head));
+        // A surrogate pair is one character of four bytes, and characters sharing a high surrogate are not split.
+        assertEquals(0L, LinearBytesArrayComparator.getHeadOverlap(utf8("😀x"), utf8("😁")));
+        assertEquals(4, LinearBytesArrayComparator.getHeadLength(LinearBytesArrayComparator.getHeadOverlap(utf8("😀x"), utf8("A😀"))));
+    }
+
+    @Test
+    public void getHeadOverlapEquivalence() {
+        // Heads of UTF-8 bytes are the heads of the decoded characters (for characters in the Basic Multilingual Plane).
+        Random random = new Random(45);
+        for (int test = 0; test < 20000; test++) {
+            String charSet = randomString(random, random.nextInt(12));
+            String charSuperSet = randomString(random, random.nextInt(16));
+            byte[] byteSet = utf8(charSet);
+            byte[] byteSuperSet = utf8(charSuperSet);
+            long charHead = LinearCharsArrayComparator.getHeadOverlap(charSet.toCharArray(), charSuperSet.toCharArray());
+            long byteHead = LinearBytesArrayComparator.getHeadOverlap(byteSet, LinearBytesArrayComparator.getFailureFunction(byteSet), byteSuperSet);
+            int byteStart = LinearBytesArrayComparator.getHeadStart(byteHead);
+            int byteLength = LinearBytesArrayComparator.getHeadLength(byteHead);
+            String message = charSet + " in " + charSuperSet;
+            assertEquals(message, LinearCharsArrayComparator.getHeadLength(charHead), LinearBytesArrayComparator.getUtf16Length(byteSet, 0, byteLength));
+            assertEquals(message, LinearCharsArrayComparator.getHeadStart(charHead), LinearBytesArrayComparator.getUtf16Length(byteSuperSet, 0, byteStart));
+        }
+    }
+
+    @Test
+    public void getFailureFunctionValid() {
+        assertArrayEquals(new int[]{0, 0, 1, 2}, LinearBytesArrayComparator.getFailureFunction(utf8("ABAB")));
+        assertArrayEquals(new int[]{}, LinearBytesArrayComparator.getFailureFunction(new byte[0]));
+    }
+
+    @Test
+    public void getUtf16LengthValid() {
+        assertEquals(4, LinearBytesArrayComparator.getUtf16Length(utf8("Aé😀"), 0, 7));
+        assertEquals(2, LinearBytesArrayComparator.getUtf16Length(utf8("Aé😀"), 3, 7));
+        assertEquals(0, LinearBytesArrayComparator.getUtf16Length(new byte[0], 0, 0));
+        assertTrue(LinearBytesArrayComparator.isAscii(utf8("ABC")));
+        assertFalse(LinearBytesArrayComparator.isAscii(utf8("ABé")));
+        assertTrue(LinearBytesArrayComparator.isCodePointBoundary(utf8("é"), 0));
+        assertFalse(LinearBytesArrayComparator.isCodePointBoundary(utf8("é"), 1));
+        assertTrue(LinearBytesArrayComparator.isCodePointBoundary(utf8("é"), 2));
+    }
+
+    private static byte[] utf8(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String randomString(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,271 @@
+package oddschecker.utils.comparator;
+
+/**
+ * LinearCharsArrayComparator is responsible for providing reusable static helper methods to compare character arrays in linear time.
+ * It honours the same contracts as CharsArrayComparator but never compiles a regular expression or builds an intermediate String.
+ * Each member of the class follows a contract of return and must always obey that contract (detailed in JavaDoc).
+ * <p>
+ * The getHeadOverlap methods return the head as a packed long (the start of the head in the high 32 bits and its length in the low 32 bits) rather than an array of positions.
+ * Given a failure function computed once per charSet (see getFailureFunction), they allocate nothing, so they suit comparing every pair of a set of fragments.
+ */
+public class LinearCharsArrayComparator {
+
+    /**
+     * Greedily takes and evaluates the leading characters of charSet for the first complete subset of their index positions in charSuperSet.
+     * Returns the result as an ordered array of ints indicating the indexes where those characters occur in charSuperSet.
+     * <p>
+     * The contract is identical to CharsArrayComparator.getHeadIndexesGreedy, to illustrate...
+     * Given any set of chars i.e. "DEFG" and "ABCDEF" produce the output {3,4,5}
+     * Given "XYZABC" and "DEFABC" produce the output {}
+     * - "ABCDEF" and "BCDE" overlap with overlap length 4
+     * - "ABCDEF" and "XCDEZ" do *not* overlap (they have matching characters in the middle, but the overlap does not extend to the end of either string).
+     * <p>
+     * The head is located with a single Knuth-Morris-Pratt pass of charSuperSet, so the method runs in O(charSet + charSuperSet).
+     * Characters are always compared literally (a head such as "A.C" is never treated as a pattern).
+     *
+     * @param charSet      Input charset with leading head indexes i.e. ABC of ABCD for BCDABC
+     * @param charSuperSet Input superset expected to contain those leading head indexes.
+     * @return The position of the head indexes from the charSet found in the charSuperSet.
+     */
+    public static int[] getHeadIndexesGreedy(char[] charSet, char[] charSuperSet) {
+        return toHeadIndexes(getHeadOverlap(charSet, charSuperSet));
+    }
+
+    /**
+     * Greedily takes and evaluates the leading characters of charSet for the first complete subset of their index positions in charSuperSet.
+     * The contract is identical to getHeadIndexesGreedy over character arrays, for character sequences which are not held as an array (such as a chain of fragments).
+     *
+     * @param charSet      Input character sequence with leading head indexes i.e. ABC of ABCD for BCDABC
+     * @param charSuperSet Input super sequence expected to contain those leading head indexes.
+     * @return The position of the head indexes from the charSet found in the charSuperSet.
+     */
+    public static int[] getHeadIndexesGreedy(CharSequence charSet, CharSequence charSuperSet) {
+        return toHeadIndexes(getHeadOverlap(charSet, charSuperSet));
+    }
+
+    /**
+     * Locates the greatest head of charSet contained in charSuperSet (the first occurrence of it), as getHeadIndexesGreedy does.
+     * Given "DEFG" and "ABCDEF" produce the head starting at 3 of length 3.
+     *
+     * @param charSet      Input charset with leading head indexes.
+     * @param charSuperSet Input superset expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(char[] charSet, char[] charSuperSet) {
+        if (charSet.length == 0 || charSuperSet.length == 0) {
+            return 0L;
+        }
+        return getHeadOverlap(charSet, getFailureFunction(charSet), charSuperSet);
+    }
+
+    /**
+     * Locates the greatest head of charSet contained in charSuperSet using a failure function computed beforehand, allocating nothing.
+     *
+     * @param charSet      Input charset with leading head indexes.
+     * @param failure      The failure function of charSet (see getFailureFunction).
+     * @param charSuperSet Input superset expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(char[] charSet, int[] failure, char[] charSuperSet) {
+        if (charSet.length == 0) {
+            return 0L;
+        }
+        // The number of head characters matched at the current position of the superset, and the best seen so far.
+        int matched = 0;
+        int greatestMatched = 0;
+        int greatestMatchedEnd = -1;
+        for (int i = 0; i < charSuperSet.length; i++) {
+            // Fall back through the failure function until the next head character can extend the match (or nothing is matched).
+            while (matched > 0 && charSuperSet[i] != charSet[matched]) {
+                matched = failure[matched - 1];
+            }
+            if (charSuperSet[i] == charSet[matched]) {
+                matched++;
+            }
+            // Only a strictly longer match moves the result so that the first occurrence of the greatest head is reported.
+            if (matched > greatestMatched) {
+                greatestMatched = matched;
+                greatestMatchedEnd = i;
+                // The whole of the charSet is contained so no longer head exists.
+                if (greatestMatched == charSet.length) {
+                    break;
+                }
+            }
+        }
+        return packHead(greatestMatchedEnd - greatestMatched + 1, greatestMatched);
+    }
+
+    /**
+     * Locates the greatest head of charSet contained in charSuperSet, as getHeadOverlap over character arrays does.
+     * Only the part of charSet which can be matched (no head is longer than charSuperSet) is read to compute its failure function.
+     *
+     * @param charSet      Input character sequence with leading head indexes.
+     * @param charSuperSet Input super sequence expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(CharSequence charSet, CharSequence charSuperSet) {
+        int headLength = Math.min(charSet.length(), charSuperSet.length());
+        if (headLength == 0) {
+            return 0L;
+        }
+        return getHeadOverlap(charSet, getFailureFunction(charSet, headLength), charSuperSet);
+    }
+
+    /**
+     * Locates the greatest head of charSet contained in charSuperSet using a failure function computed beforehand, allocating nothing.
+     * Characters are read in order through charAt.
+     *
+     * @param charSet      Input character sequence with leading head indexes.
+     * @param failure      The failure function of charSet, or of at least its first charSuperSet.length() characters (see getFailureFunction).
+     * @param charSuperSet Input super sequence expected to contain those leading head indexes.
+     * @return The head packed as a long (see getHeadStart and getHeadLength). A head of length 0 is returned if no head is contained.
+     */
+    public static long getHeadOverlap(CharSequence charSet, int[] failure, CharSequence charSuperSet) {
+        int charSetLength = charSet.length();
+        if (charSetLength == 0) {
+            return 0L;
+        }
+        int matched = 0;
+        int greatestMatched = 0;
+        int greatestMatchedEnd = -1;
+        int charSuperSetLength = charSuperSet.length();
+        for (int i = 0; i < charSuperSetLength; i++) {
+            char c = charSuperSet.charAt(i);
+            while (matched > 0 && c != charSet.charAt(matched)) {
+                matched = failure[matched - 1];
+            }
+            if (c == charSet.charAt(matched)) {
+                matched++;
+            }
+            if (matched > greatestMatched) {
+                greatestMatched = matched;
+                greatestMatchedEnd = i;
+                if (greatestMatched == charSetLength) {
+                    break;
+                }
+            }
+        }
+        return packHead(greatestMatchedEnd - greatestMatched + 1, greatestMatched);
+    }
+
+    /**
+     * Returns the position in charSuperSet of the first character of a head returned by getHeadOverlap.
+     *
+     * @param head A head packed as a long.
+     * @return The start of the head (0 for a head of length 0).
+     */
+    public static int getHeadStart(long head) {
+        return (int) (head >>> 32);
+    }
+
+    /**
+     * Returns the length of a head returned by getHeadOverlap (the overlap of the pair).
+     *
+     * @param head A head packed as a long.
+     * @return The length of the head.
+     */
+    public static int getHeadLength(long head) {
+        return (int) head;
+    }
+
+    /**
+     * Returns the length of the greatest head of charSet which is the tail of charSuperSet (the suffix-prefix overlap of charSuperSet followed by charSet).
+     * Given "DEFG" and "ABCDEF" produce the output 3. Given "BCX" and "ABCD" produce the output 0 (BC is contained in ABCD, but is not its tail).
+     * The tail is located with a single Knuth-Morris-Pratt pass of charSuperSet, so the method runs in O(charSuperSet) and allocates nothing.
+     *
+     * @param charSet      Input charset with leading head indexes.
+     * @param failure      The failure function of charSet (see getFailureFunction).
+     * @param charSuperSet Input charset expected to end with those leading head indexes.
+     * @return The length of the greatest head of charSet which is a tail of charSuperSet (the length of charSet if charSet is a tail of charSuperSet).
+     */
+    public static int getTailOverlap(char[] charSet, int[] failure, char[] charSuperSet) {
+        if (charSet.length == 0) {
+            return 0;
+        }
+        int matched = 0;
+        for (char c : charSuperSet) {
+            // A whole match cannot grow, so it falls back to its greatest border before the next character.
+            if (matched == charSet.length) {
+                matched = failure[matched - 1];
+            }
+            while (matched > 0 && c != charSet[matched]) {
+                matched = failure[matched - 1];
+            }
+            if (c == charSet[matched]) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the length of the greatest head of charSet which is the tail of charSuperSet (see getTailOverlap).
+     *
+     * @param charSet      Input character sequence with leading head indexes.
+     * @param charSuperSet Input character sequence expected to end with those leading head indexes.
+     * @return The length of the greatest head of charSet which is a tail of charSuperSet.
+     */
+    public static int getTailOverlap(CharSequence charSet, CharSequence charSuperSet) {
+        char[] chars = charSet.toString().toCharArray();
+        return getTailOverlap(chars, getFailureFunction(chars), charSuperSet.toString().toCharArray());
+    }
+
+    /**
+     * Computes the Knuth-Morris-Pratt failure function (prefix function) of a set of characters.
+     * The element at position i is the length of the longest proper prefix of charSet[0..i] which is also a suffix of charSet[0..i].
+     * Given "ABAB" produce the output {0,0,1,2}
+     *
+     * @param charSet Input charset.
+     * @return The failure function of the charset (an empty array for an empty charset).
+     */
+    public static int[] getFailureFunction(char[] charSet) {
+        int[] failure = new int[charSet.length];
+        int border = 0;
+        for (int i = 1; i < charSet.length; i++) {
+            while (border > 0 && charSet[i] != charSet[border]) {
+                border = failure[border - 1];
+            }
+            if (charSet[i] == charSet[border]) {
+                border++;
+            }
+            failure[i] = border;
+        }
+        return failure;
+    }
+
+    /**
+     * Computes the Knuth-Morris-Pratt failure function (prefix function) of the first characters of a character sequence.
+     *
+     * @param charSet Input character sequence.
+     * @param length  The number of leading characters to compute the failure function of.
+     * @return The failure function of the leading characters (an empty array for a length of 0).
+     */
+    public static int[] getFailureFunction(CharSequence charSet, int length) {
+        int[] failure = new int[length];
+        int border = 0;
+        for (int i = 1; i < length; i++) {
+            while (border > 0 && charSet.charAt(i) != charSet.charAt(border)) {
+                border = failure[border - 1];
+            }
+            if (charSet.charAt(i) == charSet.charAt(border)) {
+                border++;
+            }
+            failure[i] = border;
+        }
+        return failure;
+    }
+
+    private static long packHead(int start, int length) {
+        return length == 0 ? 0L : ((long) start << 32) | length;
+    }
+
+    private static int[] toHeadIndexes(long head) {
+        // Produce the positions by ranging from the start of the greatest head.
+        int[] headCharPositions = new int[getHeadLength(head)];
+        int startIndex = getHeadStart(head);
+        for (int i = 0; i < headCharPositions.length; i++) {
+            headCharPositions[i] = startIndex + i;
+        }
+        return headCharPositions;
+    }
+}
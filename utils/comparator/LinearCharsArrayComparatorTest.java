@@ -0,0 +1,147 @@
+package oddschecker.utils.comparator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LinearCharsArrayComparatorTest {
+    // Characters which have no meaning to a regular expression (the reference implementation matches by regular expression).
+    private static final char[] ALPHABET = {'A', 'B', 'C', 'D'};
+
+    @Test
+    public void getHeadIndexesGreedyValid() {
+        // Test1
+        char[] test1string1 = "DEFABC".toCharArray();
+        char[] test1string2 = "123DEF".toCharArray();
+        int[] expectedResult1 = {3, 4, 5};
+        assertArrayEquals(expectedResult1, LinearCharsArrayComparator.getHeadIndexesGreedy(test1string1, test1string2));
+
+        // Test2
+        char[] test2string1 = {'a', 'b', 'c', 'a', 'b', 'c'};
+        char[] test2string2 = {'a', 'b', 'c', 'a', 'b'};
+        int[] expectedResult2 = {0, 1, 2, 3, 4};
+        assertArrayEquals(expectedResult2, LinearCharsArrayComparator.getHeadIndexesGreedy(test2string1, test2string2));
+
+        // Test3. The first occurrence of the greatest head is reported.
+        int[] expectedResult3 = {1, 2};
+        assertArrayEquals(expectedResult3, LinearCharsArrayComparator.getHeadIndexesGreedy("ABX".toCharArray(), "XABAB".toCharArray()));
+    }
+
+    @Test
+    public void getHeadIndexesGreedyLiteral() {
+        // The reference implementation treats '.' as a wildcard and reports a head which is never found by indexOf.
+        // The linear implementation compares literally so only the 'A' is contained.
+        int[] expectedResult = {0};
+        assertArrayEquals(expectedResult, LinearCharsArrayComparator.getHeadIndexesGreedy("A.C".toCharArray(), "ABC".toCharArray()));
+        // Unbalanced brackets are just characters.
+        expectedResult = new int[]{2, 3};
+        assertArrayEquals(expectedResult, LinearCharsArrayComparator.getHeadIndexesGreedy("((X".toCharArray(), "AB((".toCharArray()));
+    }
+
+    @Test
+    public void getHeadIndexesGreedyInvalid() {
+        int[] expectedResult = {};
+        assertArrayEquals(expectedResult, LinearCharsArrayComparator.getHeadIndexesGreedy("".toCharArray(), "ABC".toCharArray()));
+        assertArrayEquals(expectedResult, LinearCharsArrayComparator.getHeadIndexesGreedy("ABC".toCharArray(), "".toCharArray()));
+        assertArrayEquals(expectedResult, LinearCharsArrayComparator.getHeadIndexesGreedy("XYZABC".toCharArray(), "DEFABC".toCharArray()));
+    }
+
+    @Test
+    public void getHeadIndexesGreedyEquivalence() {
+        // Compare the linear implementation to the reference implementation over a small alphabet (many partial and repeated heads).
+        Random random = new Random(42);
+        for (int test = 0; test < 20000; test++) {
+            char[] charSet = randomChars(random, random.nextInt(12));
+            char[] charSuperSet = randomChars(random, random.nextInt(16));
+            assertArrayEquals(String.valueOf(charSet) + " in " + String.valueOf(charSuperSet),
+                    CharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet),
+                    LinearCharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet));
+        }
+    }
+
+    @Test
+    public void getHeadIndexesGreedySequenceEquivalence() {
+        // Character sequences produce the same heads as character arrays.
+        Random random = new Random(43);
+        for (int test = 0; test < 20000; test++) {
+            char[] charSet = randomChars(random, random.nextInt(12));
+            char[] charSuperSet = randomChars(random, random.nextInt(16));
+            assertArrayEquals(String.valueOf(charSet) + " in " + String.valueOf(charSuperSet),
+                    LinearCharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet),
+                    LinearCharsArrayComparator.getHeadIndexesGreedy(new StringBuilder().append(charSet), String.valueOf(charSuperSet)));
+        }
+    }
+
+    @Test
+    public void getHeadOverlapValid() {
+        long head = LinearCharsArrayComparator.getHeadOverlap("DEFG".toCharArray(), "ABCDEF".toCharArray());
+        assertEquals(3, LinearCharsArrayComparator.getHeadStart(head));
+        assertEquals(3, LinearCharsArrayComparator.getHeadLength(head));
+        head = LinearCharsArrayComparator.getHeadOverlap("BCDE", "ABCDEF");
+        assertEquals(1, LinearCharsArrayComparator.getHeadStart(head));
+        assertEquals(4, LinearCharsArrayComparator.getHeadLength(head));
+        assertEquals(0L, LinearCharsArrayComparator.getHeadOverlap("XYZABC", "DEFABC"));
+        assertEquals(0L, LinearCharsArrayComparator.getHeadOverlap("".toCharArray(), "ABC".toCharArray()));
+        assertEquals(0L, LinearCharsArrayComparator.getHeadOverlap("ABC", ""));
+    }
+
+    @Test
+    public void getHeadOverlapEquivalence() {
+        // Packed heads (with failure functions computed beforehand) describe the same positions as the arrays of head indexes.
+        Random random = new Random(44);
+        for (int test = 0; test < 20000; test++) {
+            char[] charSet = randomChars(random, random.nextInt(12));
+            char[] charSuperSet = randomChars(random, random.nextInt(16));
+            int[] headIndexes = LinearCharsArrayComparator.getHeadIndexesGreedy(charSet, charSuperSet);
+            int[] failure = LinearCharsArrayComparator.getFailureFunction(charSet);
+            long head = LinearCharsArrayComparator.getHeadOverlap(charSet, failure, charSuperSet);
+            String message = String.valueOf(charSet) + " in " + String.valueOf(charSuperSet);
+            assertEquals(message, headIndexes.length, LinearCharsArrayComparator.getHeadLength(head));
+            if (headIndexes.length > 0) {
+                assertEquals(message, headIndexes[0], LinearCharsArrayComparator.getHeadStart(head));
+            }
+            assertEquals(message, head, LinearCharsArrayComparator.getHeadOverlap(String.valueOf(charSet), failure, String.valueOf(charSuperSet)));
+        }
+    }
+
+    @Test
+    public void getTailOverlapValid() {
+        assertEquals(3, LinearCharsArrayComparator.getTailOverlap("DEFG", "ABCDEF"));
+        assertEquals(0, LinearCharsArrayComparator.getTailOverlap("BCX", "ABCD"));
+        assertEquals(3, LinearCharsArrayComparator.getTailOverlap("BCD", "ABCD"));
+        assertEquals(3, LinearCharsArrayComparator.getTailOverlap("ABA", "ABABA"));
+        assertEquals(0, LinearCharsArrayComparator.getTailOverlap("", "ABC"));
+        // Every tail is compared with the naive definition (the greatest head of charSet ending charSuperSet).
+        Random random = new Random(24);
+        for (int test = 0; test < 20000; test++) {
+            String charSet = String.valueOf(randomChars(random, random.nextInt(8)));
+            String charSuperSet = String.valueOf(randomChars(random, random.nextInt(10)));
+            int expected = 0;
+            for (int length = Math.min(charSet.length(), charSuperSet.length()); length > 0; length--) {
+                if (charSuperSet.endsWith(charSet.substring(0, length))) {
+                    expected = length;
+                    break;
+                }
+            }
+            assertEquals(charSet + " ending " + charSuperSet, expected, LinearCharsArrayComparator.getTailOverlap(charSet, charSuperSet));
+        }
+    }
+
+    @Test
+    public void getFailureFunctionValid() {
+        assertArrayEquals(new int[]{0, 0, 1, 2}, LinearCharsArrayComparator.getFailureFunction("ABAB".toCharArray()));
+        assertArrayEquals(new int[]{0, 1, 0, 1, 2, 2}, LinearCharsArrayComparator.getFailureFunction("AABAAA".toCharArray()));
+        assertArrayEquals(new int[]{}, LinearCharsArrayComparator.getFailureFunction(new char[0]));
+    }
+
+    private static char[] randomChars(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return chars;
+    }
+}